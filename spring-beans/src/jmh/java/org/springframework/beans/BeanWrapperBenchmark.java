@@ -0,0 +1,127 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks for {@link BeanWrapperImpl#setPropertyValue}, for simple properties
+ * requiring type conversion as well as for nested property paths.
+ * Run with {@code -Dspring.beaninfo.generate-accessors=true} for comparing
+ * generated property method invocation against reflection.
+ *
+ * @author Spring Framework Team
+ */
+@BenchmarkMode(Mode.Throughput)
+public class BeanWrapperBenchmark {
+
+	@Benchmark
+	public Person setPropertyValue(BenchmarkData data) {
+		data.beanWrapper.setPropertyValue("name", "Jane");
+		return data.person;
+	}
+
+	@Benchmark
+	public Person setPropertyValueWithConversion(BenchmarkData data) {
+		data.beanWrapper.setPropertyValue("age", "42");
+		return data.person;
+	}
+
+	@Benchmark
+	public Person setNestedPropertyValue(BenchmarkData data) {
+		data.beanWrapper.setPropertyValue("address.city", "Berlin");
+		return data.person;
+	}
+
+	@Benchmark
+	public Person setPropertyValueWithNewBeanWrapper(BenchmarkData data) {
+		BeanWrapper beanWrapper = new BeanWrapperImpl(data.person);
+		beanWrapper.setPropertyValue("age", "42");
+		return data.person;
+	}
+
+
+	@State(Scope.Thread)
+	public static class BenchmarkData {
+
+		public Person person;
+
+		public BeanWrapper beanWrapper;
+
+		@Setup(Level.Iteration)
+		public void setup() {
+			this.person = new Person();
+			this.beanWrapper = new BeanWrapperImpl(this.person);
+			this.beanWrapper.setAutoGrowNestedPaths(true);
+		}
+	}
+
+
+	public static class Person {
+
+		private String name;
+
+		private int age;
+
+		private Address address;
+
+		public String getName() {
+			return this.name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public int getAge() {
+			return this.age;
+		}
+
+		public void setAge(int age) {
+			this.age = age;
+		}
+
+		public Address getAddress() {
+			return this.address;
+		}
+
+		public void setAddress(Address address) {
+			this.address = address;
+		}
+	}
+
+
+	public static class Address {
+
+		private String city;
+
+		public String getCity() {
+			return this.city;
+		}
+
+		public void setCity(String city) {
+			this.city = city;
+		}
+	}
+
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+
+/**
+ * Benchmarks for {@link DefaultListableBeanFactory#getBean} with prototype bean
+ * definitions, using constructor or property injection of a singleton collaborator.
+ *
+ * @author Spring Framework Team
+ */
+@BenchmarkMode(Mode.Throughput)
+public class DefaultListableBeanFactoryBenchmark {
+
+	@Benchmark
+	public Object prototypeByName(BenchmarkState state) {
+		return state.beanFactory.getBean("prototype");
+	}
+
+	@Benchmark
+	public Object prototypeByType(BenchmarkState state) {
+		return state.beanFactory.getBean(PrototypeBean.class);
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		@Param({"simple", "constructor", "property"})
+		public String mode;
+
+		public DefaultListableBeanFactory beanFactory;
+
+		@Setup
+		public void setup() {
+			this.beanFactory = new DefaultListableBeanFactory();
+			this.beanFactory.registerBeanDefinition("collaborator", new RootBeanDefinition(Collaborator.class));
+			RootBeanDefinition bd = new RootBeanDefinition(PrototypeBean.class);
+			bd.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+			switch (this.mode) {
+				case "constructor":
+					bd.getConstructorArgumentValues().addGenericArgumentValue(new RuntimeBeanReference("collaborator"));
+					bd.getConstructorArgumentValues().addGenericArgumentValue("42");
+					break;
+				case "property":
+					bd.getPropertyValues().add("collaborator", new RuntimeBeanReference("collaborator"));
+					bd.getPropertyValues().add("value", "42");
+					break;
+			}
+			this.beanFactory.registerBeanDefinition("prototype", bd);
+			this.beanFactory.preInstantiateSingletons();
+		}
+	}
+
+
+	public static class PrototypeBean {
+
+		private Collaborator collaborator;
+
+		private int value;
+
+		public PrototypeBean() {
+		}
+
+		public PrototypeBean(Collaborator collaborator, int value) {
+			this.collaborator = collaborator;
+			this.value = value;
+		}
+
+		public void setCollaborator(Collaborator collaborator) {
+			this.collaborator = collaborator;
+		}
+
+		public Collaborator getCollaborator() {
+			return this.collaborator;
+		}
+
+		public void setValue(int value) {
+			this.value = value;
+		}
+
+		public int getValue() {
+			return this.value;
+		}
+	}
+
+
+	public static class Collaborator {
+	}
+
+}
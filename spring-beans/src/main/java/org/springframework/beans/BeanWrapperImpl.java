@@ -17,6 +17,7 @@
 package org.springframework.beans;
 
 import java.beans.PropertyDescriptor;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.security.AccessControlContext;
 import java.security.AccessController;
@@ -304,6 +305,11 @@ public class BeanWrapperImpl extends AbstractNestablePropertyAccessor implements
 				}
 			}
 			else {
+				PropertyMethodInvokerGenerator.PropertyMethod propertyMethod =
+						getCachedIntrospectionResults().getPropertyMethod(readMethod);
+				if (propertyMethod != null) {
+					return invoke(propertyMethod, null);
+				}
 				ReflectionUtils.makeAccessible(readMethod);
 				return readMethod.invoke(getWrappedInstance(), (Object[]) null);
 			}
@@ -328,10 +334,29 @@ public class BeanWrapperImpl extends AbstractNestablePropertyAccessor implements
 				}
 			}
 			else {
+				PropertyMethodInvokerGenerator.PropertyMethod propertyMethod =
+						getCachedIntrospectionResults().getPropertyMethod(writeMethod);
+				if (propertyMethod != null && propertyMethod.canInvokeWith(value)) {
+					invoke(propertyMethod, value);
+					return;
+				}
 				ReflectionUtils.makeAccessible(writeMethod);
 				writeMethod.invoke(getWrappedInstance(), value);
 			}
 		}
+
+		@Nullable
+		private Object invoke(PropertyMethodInvokerGenerator.PropertyMethod propertyMethod, @Nullable Object value)
+				throws InvocationTargetException {
+
+			try {
+				return propertyMethod.invoke(getWrappedInstance(), value);
+			}
+			catch (Throwable ex) {
+				// Same exception as from reflective invocation of the read/write method
+				throw new InvocationTargetException(ex);
+			}
+		}
 	}
 
 }
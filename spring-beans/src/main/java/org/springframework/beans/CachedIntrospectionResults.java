@@ -20,6 +20,7 @@ import java.beans.BeanInfo;
 import java.beans.IntrospectionException;
 import java.beans.Introspector;
 import java.beans.PropertyDescriptor;
+import java.lang.reflect.Method;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -92,6 +93,21 @@ public final class CachedIntrospectionResults {
 	 */
 	public static final String IGNORE_BEANINFO_PROPERTY_NAME = "spring.beaninfo.ignore";
 
+	/**
+	 * System property that instructs Spring to generate bytecode for invoking
+	 * the public read and write methods of introspected bean classes, instead
+	 * of going through reflection: {@code spring.beaninfo.generate-accessors}.
+	 * <p>The default is "false". Consider switching this flag to "true" for
+	 * applications that bind a large number of properties at runtime, e.g.
+	 * through request parameter data binding; the invoker class for a bean
+	 * class is generated on first property access and defined in a child of
+	 * the bean class's ClassLoader. The flag is evaluated whenever a bean class
+	 * gets introspected, i.e. it applies to classes not cached before.
+	 * @since 5.2.1
+	 * @see PropertyMethodInvoker
+	 */
+	public static final String GENERATE_ACCESSORS_PROPERTY_NAME = "spring.beaninfo.generate-accessors";
+
 
 	private static final boolean shouldIntrospectorIgnoreBeaninfoClasses =
 			SpringProperties.getFlag(IGNORE_BEANINFO_PROPERTY_NAME);
@@ -259,6 +275,13 @@ public final class CachedIntrospectionResults {
 	/** TypeDescriptor objects keyed by PropertyDescriptor. */
 	private final ConcurrentMap<PropertyDescriptor, TypeDescriptor> typeDescriptorCache;
 
+	/** Whether to generate property methods, as of introspection time. */
+	private final boolean shouldGenerateAccessors = SpringProperties.getFlag(GENERATE_ACCESSORS_PROPERTY_NAME);
+
+	/** Generated property methods keyed by read/write Method, lazily initialized. */
+	@Nullable
+	private volatile Map<Method, PropertyMethodInvokerGenerator.PropertyMethod> propertyMethods;
+
 
 	/**
 	 * Create a new CachedIntrospectionResults instance for the given class.
@@ -372,6 +395,33 @@ public final class CachedIntrospectionResults {
 		}
 	}
 
+	/**
+	 * Return the generated invocation for the given property read or write method,
+	 * if {@link #GENERATE_ACCESSORS_PROPERTY_NAME accessor generation} is enabled
+	 * and the method is accessible for generated code.
+	 * @param method the read or write method of one of the cached properties
+	 * @return the generated invocation, or {@code null} if the method needs to be
+	 * invoked reflectively
+	 */
+	@Nullable
+	PropertyMethodInvokerGenerator.PropertyMethod getPropertyMethod(Method method) {
+		if (!this.shouldGenerateAccessors || System.getSecurityManager() != null) {
+			return null;
+		}
+		Map<Method, PropertyMethodInvokerGenerator.PropertyMethod> methods = this.propertyMethods;
+		if (methods == null) {
+			synchronized (this) {
+				methods = this.propertyMethods;
+				if (methods == null) {
+					methods = PropertyMethodInvokerGenerator.generate(
+							getBeanClass(), this.propertyDescriptorCache.values());
+					this.propertyMethods = methods;
+				}
+			}
+		}
+		return methods.get(method);
+	}
+
 	TypeDescriptor addTypeDescriptor(PropertyDescriptor pd, TypeDescriptor td) {
 		TypeDescriptor existing = this.typeDescriptorCache.putIfAbsent(pd, td);
 		return (existing != null ? existing : td);
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Base class for the property method invokers that are generated at runtime
+ * for a bean class, calling its property read and write methods directly
+ * instead of through reflection.
+ *
+ * <p>Only public for access from the generated subclasses, which live in
+ * a dedicated ClassLoader. Not intended for direct use by application code.
+ *
+ * @author Spring Framework Team
+ * @since 5.2.1
+ * @see PropertyMethodInvokerGenerator
+ * @see CachedIntrospectionResults#GENERATE_ACCESSORS_PROPERTY_NAME
+ */
+public abstract class PropertyMethodInvoker {
+
+	/**
+	 * Invoke the property method with the given index on the given target.
+	 * @param target the bean instance to invoke the method on
+	 * @param index the index of the method, as assigned during generation
+	 * @param value the value to pass to a write method (ignored for read methods)
+	 * @return the value returned by a read method, or {@code null} for a write method
+	 * @throws Throwable any exception thrown by the invoked method, as is
+	 */
+	@Nullable
+	public abstract Object invoke(Object target, int index, @Nullable Object value) throws Throwable;
+
+}
@@ -0,0 +1,349 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.Label;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Generates a {@link PropertyMethodInvoker} subclass per bean class, with a
+ * single {@code invoke} method that dispatches on a method index and calls the
+ * property read and write methods with plain {@code invokevirtual} or
+ * {@code invokeinterface} instructions.
+ *
+ * <p>Only public methods that are reachable through a public type get
+ * generated; all other property methods, as well as bean classes that do not
+ * see {@link PropertyMethodInvoker} through their ClassLoader, remain subject
+ * to reflective invocation.
+ *
+ * @author Spring Framework Team
+ * @since 5.2.1
+ * @see CachedIntrospectionResults#getPropertyMethod(Method)
+ */
+final class PropertyMethodInvokerGenerator implements Opcodes {
+
+	private static final String INVOKER_INTERNAL_NAME = Type.getInternalName(PropertyMethodInvoker.class);
+
+	private static final String INVOKE_DESCRIPTOR = "(Ljava/lang/Object;ILjava/lang/Object;)Ljava/lang/Object;";
+
+	private static final Log logger = LogFactory.getLog(PropertyMethodInvokerGenerator.class);
+
+	private static final Map<ClassLoader, ChildClassLoader> classLoaders = new ConcurrentReferenceHashMap<>();
+
+	private static final AtomicInteger suffixId = new AtomicInteger();
+
+
+	private PropertyMethodInvokerGenerator() {
+	}
+
+
+	/**
+	 * Generate an invoker for the read and write methods of the given properties.
+	 * @param beanClass the introspected bean class
+	 * @param pds the property descriptors of the bean class
+	 * @return the generated methods, keyed by the {@link Method} they invoke
+	 * (empty if none of the methods qualifies or generation failed)
+	 */
+	static Map<Method, PropertyMethod> generate(Class<?> beanClass, Collection<PropertyDescriptor> pds) {
+		ClassLoader classLoader = beanClass.getClassLoader();
+		if (classLoader == null || !ClassUtils.isVisible(PropertyMethodInvoker.class, classLoader)) {
+			return Collections.emptyMap();
+		}
+
+		List<Method> methods = new ArrayList<>();
+		List<Class<?>> owners = new ArrayList<>();
+		for (PropertyDescriptor pd : pds) {
+			addMethodIfAccessible(beanClass, pd.getReadMethod(), methods, owners);
+			addMethodIfAccessible(beanClass, pd.getWriteMethod(), methods, owners);
+		}
+		if (methods.isEmpty()) {
+			return Collections.emptyMap();
+		}
+
+		try {
+			String className = beanClass.getName() + "$$PropertyMethodInvoker$$" + suffixId.incrementAndGet();
+			ChildClassLoader ccl = getChildClassLoader(classLoader);
+			byte[] bytes = generateInvokerClass(className.replace('.', '/'), methods, owners, ccl);
+			Class<?> invokerClass = ccl.defineClass(className, bytes);
+			PropertyMethodInvoker invoker =
+					(PropertyMethodInvoker) ReflectionUtils.accessibleConstructor(invokerClass).newInstance();
+			Map<Method, PropertyMethod> result = new HashMap<>(methods.size() * 2);
+			for (int i = 0; i < methods.size(); i++) {
+				Method method = methods.get(i);
+				Class<?> parameterType = (method.getParameterCount() == 1 ? method.getParameterTypes()[0] : null);
+				result.put(method, new PropertyMethod(invoker, i, parameterType));
+			}
+			return result;
+		}
+		catch (Exception | LinkageError ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Failed to generate property method invoker for class [" +
+						beanClass.getName() + "] - falling back to reflection", ex);
+			}
+			return Collections.emptyMap();
+		}
+	}
+
+	private static void addMethodIfAccessible(
+			Class<?> beanClass, @Nullable Method method, List<Method> methods, List<Class<?>> owners) {
+
+		if (method == null || method.getDeclaringClass() == Object.class || methods.contains(method)) {
+			return;
+		}
+		int modifiers = method.getModifiers();
+		if (!Modifier.isPublic(modifiers) || Modifier.isStatic(modifiers) || method.getParameterCount() > 1) {
+			return;
+		}
+		ClassLoader classLoader = beanClass.getClassLoader();
+		Class<?> owner = method.getDeclaringClass();
+		if (!isAccessible(owner, classLoader)) {
+			// Public method inherited from a non-public superclass: invoke it through the bean class
+			if (!isAccessible(beanClass, classLoader)) {
+				return;
+			}
+			owner = beanClass;
+		}
+		if (!isAccessible(method.getReturnType(), classLoader)) {
+			return;
+		}
+		for (Class<?> parameterType : method.getParameterTypes()) {
+			if (!isAccessible(parameterType, classLoader)) {
+				return;
+			}
+		}
+		methods.add(method);
+		owners.add(owner);
+	}
+
+	/**
+	 * Check whether the given type can be referenced from a class defined
+	 * in a child of the given ClassLoader, i.e. whether it is public along
+	 * with its enclosing classes and visible in the given ClassLoader.
+	 */
+	private static boolean isAccessible(Class<?> type, ClassLoader classLoader) {
+		Class<?> current = type;
+		while (current.isArray()) {
+			current = current.getComponentType();
+		}
+		if (current.isPrimitive()) {
+			return true;
+		}
+		if (!ClassUtils.isVisible(current, classLoader)) {
+			return false;
+		}
+		while (current != null) {
+			if (!Modifier.isPublic(current.getModifiers())) {
+				return false;
+			}
+			current = current.getDeclaringClass();
+		}
+		return true;
+	}
+
+	private static ChildClassLoader getChildClassLoader(ClassLoader classLoader) {
+		synchronized (classLoaders) {
+			ChildClassLoader ccl = classLoaders.get(classLoader);
+			if (ccl == null) {
+				ccl = new ChildClassLoader(classLoader);
+				classLoaders.put(classLoader, ccl);
+			}
+			return ccl;
+		}
+	}
+
+	private static byte[] generateInvokerClass(
+			String className, List<Method> methods, List<Class<?>> owners, ClassLoader classLoader) {
+
+		ClassWriter cw = new InvokerClassWriter(classLoader);
+		cw.visit(V1_8, ACC_PUBLIC | ACC_FINAL | ACC_SUPER | ACC_SYNTHETIC, className, null, INVOKER_INTERNAL_NAME, null);
+
+		// Default constructor
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+		mv.visitCode();
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitMethodInsn(INVOKESPECIAL, INVOKER_INTERNAL_NAME, "<init>", "()V", false);
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+
+		// invoke(Object target, int index, Object value): one switch case per method
+		mv = cw.visitMethod(ACC_PUBLIC, "invoke", INVOKE_DESCRIPTOR, null, new String[] {"java/lang/Throwable"});
+		mv.visitCode();
+		Label[] cases = new Label[methods.size()];
+		for (int i = 0; i < cases.length; i++) {
+			cases[i] = new Label();
+		}
+		Label unknownIndex = new Label();
+		mv.visitVarInsn(ILOAD, 2);
+		mv.visitTableSwitchInsn(0, cases.length - 1, unknownIndex, cases);
+
+		for (int i = 0; i < cases.length; i++) {
+			Method method = methods.get(i);
+			Class<?> owner = owners.get(i);
+			mv.visitLabel(cases[i]);
+			mv.visitVarInsn(ALOAD, 1);
+			mv.visitTypeInsn(CHECKCAST, Type.getInternalName(owner));
+			if (method.getParameterCount() == 1) {
+				mv.visitVarInsn(ALOAD, 3);
+				insertUnboxIfNecessary(mv, method.getParameterTypes()[0]);
+			}
+			mv.visitMethodInsn(owner.isInterface() ? INVOKEINTERFACE : INVOKEVIRTUAL,
+					Type.getInternalName(owner), method.getName(), Type.getMethodDescriptor(method), owner.isInterface());
+			Class<?> returnType = method.getReturnType();
+			if (method.getParameterCount() == 1) {
+				// Write method: discard any fluent return value
+				if (returnType == long.class || returnType == double.class) {
+					mv.visitInsn(POP2);
+				}
+				else if (returnType != void.class) {
+					mv.visitInsn(POP);
+				}
+				mv.visitInsn(ACONST_NULL);
+			}
+			else if (returnType == void.class) {
+				mv.visitInsn(ACONST_NULL);
+			}
+			else {
+				insertBoxIfNecessary(mv, returnType);
+			}
+			mv.visitInsn(ARETURN);
+		}
+
+		mv.visitLabel(unknownIndex);
+		mv.visitTypeInsn(NEW, "java/lang/IllegalArgumentException");
+		mv.visitInsn(DUP);
+		mv.visitLdcInsn("Unknown property method index");
+		mv.visitMethodInsn(INVOKESPECIAL, "java/lang/IllegalArgumentException", "<init>", "(Ljava/lang/String;)V", false);
+		mv.visitInsn(ATHROW);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+
+	private static void insertUnboxIfNecessary(MethodVisitor mv, Class<?> parameterType) {
+		if (parameterType.isPrimitive()) {
+			Class<?> wrapperType = ClassUtils.resolvePrimitiveIfNecessary(parameterType);
+			mv.visitTypeInsn(CHECKCAST, Type.getInternalName(wrapperType));
+			mv.visitMethodInsn(INVOKEVIRTUAL, Type.getInternalName(wrapperType), parameterType.getName() + "Value",
+					"()" + Type.getDescriptor(parameterType), false);
+		}
+		else if (parameterType != Object.class) {
+			mv.visitTypeInsn(CHECKCAST, Type.getInternalName(parameterType));
+		}
+	}
+
+	private static void insertBoxIfNecessary(MethodVisitor mv, Class<?> returnType) {
+		if (returnType.isPrimitive()) {
+			Class<?> wrapperType = ClassUtils.resolvePrimitiveIfNecessary(returnType);
+			mv.visitMethodInsn(INVOKESTATIC, Type.getInternalName(wrapperType), "valueOf",
+					"(" + Type.getDescriptor(returnType) + ")" + Type.getDescriptor(wrapperType), false);
+		}
+	}
+
+
+	/**
+	 * A read or write method of a property, bound to its generated invoker.
+	 */
+	static final class PropertyMethod {
+
+		private final PropertyMethodInvoker invoker;
+
+		private final int index;
+
+		@Nullable
+		private final Class<?> parameterType;
+
+		PropertyMethod(PropertyMethodInvoker invoker, int index, @Nullable Class<?> parameterType) {
+			this.invoker = invoker;
+			this.index = index;
+			this.parameterType = parameterType;
+		}
+
+		/**
+		 * Determine whether the given value can be passed to this method as is.
+		 * <p>Values that cannot be passed (e.g. {@code null} for a primitive)
+		 * need to go through reflection, which produces the expected exception.
+		 */
+		boolean canInvokeWith(@Nullable Object value) {
+			return (this.parameterType == null || ClassUtils.isAssignableValue(this.parameterType, value));
+		}
+
+		@Nullable
+		Object invoke(Object target, @Nullable Object value) throws Throwable {
+			return this.invoker.invoke(target, this.index, value);
+		}
+	}
+
+
+	/**
+	 * A ChildClassLoader that defines the generated invoker classes.
+	 */
+	private static class ChildClassLoader extends URLClassLoader {
+
+		private static final URL[] NO_URLS = new URL[0];
+
+		ChildClassLoader(ClassLoader classLoader) {
+			super(NO_URLS, classLoader);
+		}
+
+		Class<?> defineClass(String name, byte[] bytes) {
+			return super.defineClass(name, bytes, 0, bytes.length);
+		}
+	}
+
+
+	private static class InvokerClassWriter extends ClassWriter {
+
+		private final ClassLoader classLoader;
+
+		InvokerClassWriter(ClassLoader classLoader) {
+			super(ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES);
+			this.classLoader = classLoader;
+		}
+
+		@Override
+		protected ClassLoader getClassLoader() {
+			return this.classLoader;
+		}
+	}
+
+}
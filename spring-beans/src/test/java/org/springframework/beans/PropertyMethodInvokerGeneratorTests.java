@@ -0,0 +1,221 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.core.SpringProperties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Tests for {@link PropertyMethodInvokerGenerator}.
+ *
+ * @author Spring Framework Team
+ */
+public class PropertyMethodInvokerGeneratorTests {
+
+	private final Map<Method, PropertyMethodInvokerGenerator.PropertyMethod> methods =
+			PropertyMethodInvokerGenerator.generate(GeneratedBean.class,
+					Arrays.asList(BeanUtils.getPropertyDescriptors(GeneratedBean.class)));
+
+
+	@Test
+	public void invokesReadAndWriteMethods() throws Throwable {
+		GeneratedBean bean = new GeneratedBean();
+		invokeWrite("name", bean, "Jane");
+		invokeWrite("age", bean, 42);
+		invokeWrite("id", bean, 7L);
+		assertThat(invokeRead("name", bean)).isEqualTo("Jane");
+		assertThat(invokeRead("age", bean)).isEqualTo(42);
+		assertThat(invokeRead("id", bean)).isEqualTo(7L);
+	}
+
+	@Test
+	public void invokesInheritedMethodsThroughPublicBeanClass() throws Throwable {
+		GeneratedBean bean = new GeneratedBean();
+		invokeWrite("city", bean, "Berlin");
+		assertThat(invokeRead("city", bean)).isEqualTo("Berlin");
+	}
+
+	@Test
+	public void rejectsValuesNotAssignableToWriteMethod() {
+		PropertyMethodInvokerGenerator.PropertyMethod age = getPropertyMethod("age", false);
+		assertThat(age.canInvokeWith(42)).isTrue();
+		assertThat(age.canInvokeWith(null)).isFalse();
+		assertThat(age.canInvokeWith("42")).isFalse();
+		assertThat(getPropertyMethod("name", false).canInvokeWith(null)).isTrue();
+	}
+
+	@Test
+	public void propagatesExceptionFromInvokedMethod() {
+		GeneratedBean bean = new GeneratedBean();
+		assertThatIllegalStateException().isThrownBy(() -> invokeWrite("age", bean, -1));
+	}
+
+	@Test
+	public void skipsNonPublicMethods() {
+		assertThat(this.methods.keySet()).extracting(Method::getName).doesNotContain("getSecret", "setSecret");
+	}
+
+	@Test
+	public void skipsNonPublicBeanClass() {
+		assertThat(PropertyMethodInvokerGenerator.generate(NonPublicBean.class,
+				Arrays.asList(BeanUtils.getPropertyDescriptors(NonPublicBean.class)))).isEmpty();
+	}
+
+	@Test
+	public void beanWrapperUsesGeneratedAccessorsIfEnabled() {
+		SpringProperties.setFlag(CachedIntrospectionResults.GENERATE_ACCESSORS_PROPERTY_NAME);
+		CachedIntrospectionResults.clearClassLoader(getClass().getClassLoader());
+		try {
+			TracingBean bean = new TracingBean();
+			BeanWrapper bw = new BeanWrapperImpl(bean);
+			bw.setPropertyValue("age", "42");
+			bw.setPropertyValue("city", "Berlin");
+			assertThat(bw.getPropertyValue("age")).isEqualTo(42);
+			assertThat(bw.getPropertyValue("city")).isEqualTo("Berlin");
+			assertThat(bean.ageSetter).contains("$$PropertyMethodInvoker$$");
+		}
+		finally {
+			SpringProperties.setProperty(CachedIntrospectionResults.GENERATE_ACCESSORS_PROPERTY_NAME, null);
+			CachedIntrospectionResults.clearClassLoader(getClass().getClassLoader());
+		}
+	}
+
+	@Test
+	public void beanWrapperUsesReflectionByDefault() {
+		TracingBean bean = new TracingBean();
+		BeanWrapper bw = new BeanWrapperImpl(bean);
+		bw.setPropertyValue("age", "42");
+		assertThat(bw.getPropertyValue("age")).isEqualTo(42);
+		assertThat(bean.ageSetter).doesNotContain("$$PropertyMethodInvoker$$");
+	}
+
+
+	private void invokeWrite(String propertyName, Object target, Object value) throws Throwable {
+		getPropertyMethod(propertyName, false).invoke(target, value);
+	}
+
+	private Object invokeRead(String propertyName, Object target) throws Throwable {
+		return getPropertyMethod(propertyName, true).invoke(target, null);
+	}
+
+	private PropertyMethodInvokerGenerator.PropertyMethod getPropertyMethod(String propertyName, boolean read) {
+		PropertyDescriptor pd = BeanUtils.getPropertyDescriptor(GeneratedBean.class, propertyName);
+		assertThat(pd).isNotNull();
+		PropertyMethodInvokerGenerator.PropertyMethod method =
+				this.methods.get(read ? pd.getReadMethod() : pd.getWriteMethod());
+		assertThat(method).isNotNull();
+		return method;
+	}
+
+
+	static class BaseBean {
+
+		private String city;
+
+		public String getCity() {
+			return this.city;
+		}
+
+		public void setCity(String city) {
+			this.city = city;
+		}
+	}
+
+
+	public static class GeneratedBean extends BaseBean {
+
+		private String name;
+
+		private int age;
+
+		private long id;
+
+		private String secret;
+
+		public String getName() {
+			return this.name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public int getAge() {
+			return this.age;
+		}
+
+		public void setAge(int age) {
+			if (age < 0) {
+				throw new IllegalStateException("Negative age");
+			}
+			this.age = age;
+		}
+
+		public long getId() {
+			return this.id;
+		}
+
+		public GeneratedBean setId(long id) {
+			this.id = id;
+			return this;
+		}
+
+		String getSecret() {
+			return this.secret;
+		}
+
+		void setSecret(String secret) {
+			this.secret = secret;
+		}
+	}
+
+
+	public static class TracingBean extends GeneratedBean {
+
+		String ageSetter;
+
+		@Override
+		public void setAge(int age) {
+			this.ageSetter = new Throwable().getStackTrace()[1].getClassName();
+			super.setAge(age);
+		}
+	}
+
+
+	static class NonPublicBean {
+
+		private String name;
+
+		public String getName() {
+			return this.name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+	}
+
+}
@@ -24,6 +24,7 @@ import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.core.env.ConfigurableEnvironment;
 import org.springframework.core.env.Environment;
 import org.springframework.core.io.ProtocolResolver;
+import org.springframework.core.metrics.ApplicationStartup;
 import org.springframework.lang.Nullable;
 
 /**
@@ -135,6 +136,31 @@ public interface ConfigurableApplicationContext extends ApplicationContext, Life
 	 */
 	void addBeanFactoryPostProcessor(BeanFactoryPostProcessor postProcessor);
 
+	/**
+	 * Set the {@link ApplicationStartup} for this application context.
+	 * <p>This allows the application context to record metrics
+	 * during startup, e.g. through a
+	 * {@link org.springframework.core.metrics.BufferingApplicationStartup} or a
+	 * {@link org.springframework.core.metrics.jfr.FlightRecorderApplicationStartup}.
+	 * Needs to be set before {@link #refresh()}.
+	 * @param applicationStartup the application startup to use
+	 * <p>The default implementation is empty, ignoring the given application
+	 * startup, for compatibility with existing implementations of this interface.
+	 * @since 5.2.1
+	 */
+	default void setApplicationStartup(ApplicationStartup applicationStartup) {
+	}
+
+	/**
+	 * Return the {@link ApplicationStartup} for this application context.
+	 * <p>The default implementation returns {@link ApplicationStartup#DEFAULT},
+	 * i.e. a no-op implementation.
+	 * @since 5.2.1
+	 */
+	default ApplicationStartup getApplicationStartup() {
+		return ApplicationStartup.DEFAULT;
+	}
+
 	/**
 	 * Add a new ApplicationListener that will be notified on context events
 	 * such as context refresh and context shutdown.
@@ -16,13 +16,17 @@
 
 package org.springframework.context.annotation;
 
+import java.io.File;
 import java.io.IOException;
 import java.lang.annotation.Annotation;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -36,12 +40,14 @@ import org.springframework.beans.factory.support.BeanDefinitionRegistry;
 import org.springframework.context.ResourceLoaderAware;
 import org.springframework.context.index.CandidateComponentsIndex;
 import org.springframework.context.index.CandidateComponentsIndexLoader;
+import org.springframework.core.SpringProperties;
 import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.core.env.Environment;
 import org.springframework.core.env.EnvironmentCapable;
 import org.springframework.core.env.StandardEnvironment;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.io.support.ParallelScanning;
 import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 import org.springframework.core.io.support.ResourcePatternResolver;
 import org.springframework.core.io.support.ResourcePatternUtils;
@@ -49,6 +55,7 @@ import org.springframework.core.type.AnnotationMetadata;
 import org.springframework.core.type.classreading.CachingMetadataReaderFactory;
 import org.springframework.core.type.classreading.MetadataReader;
 import org.springframework.core.type.classreading.MetadataReaderFactory;
+import org.springframework.core.type.classreading.SnapshotMetadataReaderFactory;
 import org.springframework.core.type.filter.AnnotationTypeFilter;
 import org.springframework.core.type.filter.AssignableTypeFilter;
 import org.springframework.core.type.filter.TypeFilter;
@@ -84,11 +91,26 @@ import org.springframework.util.ClassUtils;
  * @see org.springframework.core.type.AnnotationMetadata
  * @see ScannedGenericBeanDefinition
  * @see CandidateComponentsIndex
+ * @see #METADATA_SNAPSHOT_PROPERTY_NAME
  */
 public class ClassPathScanningCandidateComponentProvider implements EnvironmentCapable, ResourceLoaderAware {
 
 	static final String DEFAULT_RESOURCE_PATTERN = "**/*.class";
 
+	/**
+	 * System property that specifies the location of a metadata snapshot file,
+	 * e.g. {@code -Dspring.scan.snapshot=/var/cache/app/scan.snapshot}.
+	 * <p>If set, the default {@link MetadataReaderFactory} is a
+	 * {@link SnapshotMetadataReaderFactory} which takes the scanned class files
+	 * from that snapshot when restarting, instead of reading them from the class
+	 * path again. The snapshot is created or updated after each scan, i.e. after
+	 * {@link #findCandidateComponents} or, with a {@link ClassPathBeanDefinitionScanner},
+	 * once after scanning all base packages.
+	 * <p>Not set by default.
+	 * @since 5.2.1
+	 */
+	public static final String METADATA_SNAPSHOT_PROPERTY_NAME = "spring.scan.snapshot";
+
 
 	protected final Log logger = LogFactory.getLog(getClass());
 
@@ -113,6 +135,10 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 	@Nullable
 	private CandidateComponentsIndex componentsIndex;
 
+	private int parallelism = ParallelScanning.getDefaultParallelism();
+
+	private boolean metadataSnapshotStoreDeferred;
+
 
 	/**
 	 * Protected constructor for flexible subclass initialization.
@@ -263,7 +289,7 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 	@Override
 	public void setResourceLoader(@Nullable ResourceLoader resourceLoader) {
 		this.resourcePatternResolver = ResourcePatternUtils.getResourcePatternResolver(resourceLoader);
-		this.metadataReaderFactory = new CachingMetadataReaderFactory(resourceLoader);
+		this.metadataReaderFactory = createMetadataReaderFactory(resourceLoader);
 		this.componentsIndex = CandidateComponentsIndexLoader.loadIndex(this.resourcePatternResolver.getClassLoader());
 	}
 
@@ -297,11 +323,38 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 	 */
 	public final MetadataReaderFactory getMetadataReaderFactory() {
 		if (this.metadataReaderFactory == null) {
-			this.metadataReaderFactory = new CachingMetadataReaderFactory();
+			this.metadataReaderFactory = createMetadataReaderFactory(null);
 		}
 		return this.metadataReaderFactory;
 	}
 
+	/**
+	 * Set the maximum number of class files to read concurrently when scanning
+	 * the classpath. Candidate components are still determined sequentially and
+	 * in classpath order, so the result does not depend on this setting.
+	 * <p>Default is 1, i.e. sequential reading, unless specified through the
+	 * {@value PathMatchingResourcePatternResolver#PARALLELISM_PROPERTY_NAME}
+	 * system property. A value higher than 1 reads class files on the shared
+	 * scanning {@link ForkJoinPool} with that parallelism. Note that this is mostly
+	 * worthwhile with a shared metadata cache at the ResourceLoader level, as
+	 * set up by {@link #setResourceLoader}, or without a metadata cache at all.
+	 * @since 5.2.1
+	 * @see PathMatchingResourcePatternResolver#setParallelism
+	 * @see ParallelScanning
+	 */
+	public void setParallelism(int parallelism) {
+		Assert.isTrue(parallelism > 0, "Parallelism must be greater than 0");
+		this.parallelism = parallelism;
+	}
+
+	private static MetadataReaderFactory createMetadataReaderFactory(@Nullable ResourceLoader resourceLoader) {
+		String snapshotLocation = SpringProperties.getProperty(METADATA_SNAPSHOT_PROPERTY_NAME);
+		if (snapshotLocation != null) {
+			return new SnapshotMetadataReaderFactory(resourceLoader, new File(snapshotLocation));
+		}
+		return new CachingMetadataReaderFactory(resourceLoader);
+	}
+
 
 	/**
 	 * Scan the class path for candidate components.
@@ -309,11 +362,35 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 	 * @return a corresponding Set of autodetected bean definitions
 	 */
 	public Set<BeanDefinition> findCandidateComponents(String basePackage) {
+		Set<BeanDefinition> candidates;
 		if (this.componentsIndex != null && indexSupportsIncludeFilters()) {
-			return addCandidateComponentsFromIndex(this.componentsIndex, basePackage);
+			candidates = addCandidateComponentsFromIndex(this.componentsIndex, basePackage);
 		}
 		else {
-			return scanCandidateComponents(basePackage);
+			candidates = scanCandidateComponents(basePackage);
+		}
+		if (!this.metadataSnapshotStoreDeferred) {
+			storeMetadataSnapshot();
+		}
+		return candidates;
+	}
+
+	/**
+	 * Defer storing the metadata snapshot, if any, until the next call to
+	 * {@link #storeMetadataSnapshot()}, e.g. while scanning several base packages.
+	 */
+	void deferMetadataSnapshotStore() {
+		this.metadataSnapshotStoreDeferred = true;
+	}
+
+	/**
+	 * Store the metadata snapshot, if any, and stop deferring it.
+	 * @see #METADATA_SNAPSHOT_PROPERTY_NAME
+	 */
+	void storeMetadataSnapshot() {
+		this.metadataSnapshotStoreDeferred = false;
+		if (this.metadataReaderFactory instanceof SnapshotMetadataReaderFactory) {
+			((SnapshotMetadataReaderFactory) this.metadataReaderFactory).storeSnapshot();
 		}
 	}
 
@@ -419,15 +496,20 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 			String packageSearchPath = ResourcePatternResolver.CLASSPATH_ALL_URL_PREFIX +
 					resolveBasePackage(basePackage) + '/' + this.resourcePattern;
 			Resource[] resources = getResourcePatternResolver().getResources(packageSearchPath);
+			ScannedResource[] scannedResources = (this.parallelism > 1 && resources.length > 1 ?
+					scanResourcesInParallel(resources) : null);
 			boolean traceEnabled = logger.isTraceEnabled();
 			boolean debugEnabled = logger.isDebugEnabled();
-			for (Resource resource : resources) {
+			for (int i = 0; i < resources.length; i++) {
+				Resource resource = resources[i];
 				if (traceEnabled) {
 					logger.trace("Scanning " + resource);
 				}
-				if (resource.isReadable()) {
+				ScannedResource scannedResource =
+						(scannedResources != null ? scannedResources[i] : scanResource(resource));
+				if (scannedResource.metadataReader != null) {
 					try {
-						MetadataReader metadataReader = getMetadataReaderFactory().getMetadataReader(resource);
+						MetadataReader metadataReader = scannedResource.metadataReader;
 						if (isCandidateComponent(metadataReader)) {
 							ScannedGenericBeanDefinition sbd = new ScannedGenericBeanDefinition(metadataReader);
 							sbd.setResource(resource);
@@ -455,6 +537,10 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 								"Failed to read candidate component class: " + resource, ex);
 					}
 				}
+				else if (scannedResource.failure != null) {
+					throw new BeanDefinitionStoreException(
+							"Failed to read candidate component class: " + resource, scannedResource.failure);
+				}
 				else {
 					if (traceEnabled) {
 						logger.trace("Ignored because not readable: " + resource);
@@ -468,6 +554,36 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 		return candidates;
 	}
 
+	/**
+	 * Read the metadata for the given resources on the shared scanning
+	 * {@link ForkJoinPool}, returning the results in the order of the given resources.
+	 */
+	private ScannedResource[] scanResourcesInParallel(Resource[] resources) {
+		try {
+			return ParallelScanning.invoke(this.parallelism, () -> Arrays.stream(resources).parallel()
+					.map(this::scanResource).toArray(ScannedResource[]::new));
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new BeanDefinitionStoreException("Interrupted during classpath scanning", ex);
+		}
+		catch (ExecutionException ex) {
+			throw new BeanDefinitionStoreException("Failure during parallel classpath scanning", ex.getCause());
+		}
+	}
+
+	private ScannedResource scanResource(Resource resource) {
+		if (!resource.isReadable()) {
+			return new ScannedResource(null, null);
+		}
+		try {
+			return new ScannedResource(getMetadataReaderFactory().getMetadataReader(resource), null);
+		}
+		catch (Throwable ex) {
+			return new ScannedResource(null, ex);
+		}
+	}
+
 
 	/**
 	 * Resolve the specified base package into a pattern specification for
@@ -541,4 +657,23 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 		}
 	}
 
+
+	/**
+	 * The outcome of reading the metadata for a resource: either a MetadataReader,
+	 * a failure, or neither if the resource is not readable.
+	 */
+	private static final class ScannedResource {
+
+		@Nullable
+		final MetadataReader metadataReader;
+
+		@Nullable
+		final Throwable failure;
+
+		ScannedResource(@Nullable MetadataReader metadataReader, @Nullable Throwable failure) {
+			this.metadataReader = metadataReader;
+			this.failure = failure;
+		}
+	}
+
 }
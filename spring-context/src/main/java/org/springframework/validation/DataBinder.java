@@ -138,6 +138,11 @@ public class DataBinder implements PropertyEditorRegistry, TypeConverter {
 
 	private boolean autoGrowNestedPaths = true;
 
+	private boolean cacheBindingPlan = false;
+
+	@Nullable
+	private DataBindingPlan bindingPlan;
+
 	private int autoGrowCollectionLimit = DEFAULT_AUTO_GROW_COLLECTION_LIMIT;
 
 	@Nullable
@@ -414,6 +419,36 @@ public class DataBinder implements PropertyEditorRegistry, TypeConverter {
 		return this.ignoreInvalidFields;
 	}
 
+	/**
+	 * Set whether to share the binding decisions for incoming fields across
+	 * binder instances with the same configuration and target class: that is,
+	 * the canonical field name, the result of {@link #isAllowed(String)}, and
+	 * whether a simple (non-nested) field name is writable on the target.
+	 * <p>Default is "false". Turn this on for binders that are created per
+	 * request for the same form object types, e.g. through a
+	 * {@code ConfigurableWebBindingInitializer} in Spring MVC,
+	 * so that large forms are bound without re-evaluating field patterns and
+	 * without failing attempts for parameters that have no target property.
+	 * <p>Note that custom {@link #isAllowed(String)} implementations need to be
+	 * deterministic for a given allowed/disallowed fields configuration
+	 * when this flag is on.
+	 * @since 5.2.1
+	 * @see #setAllowedFields
+	 * @see #setDisallowedFields
+	 * @see #setIgnoreUnknownFields
+	 */
+	public void setCacheBindingPlan(boolean cacheBindingPlan) {
+		this.cacheBindingPlan = cacheBindingPlan;
+	}
+
+	/**
+	 * Return whether to share binding decisions across binder instances.
+	 * @since 5.2.1
+	 */
+	public boolean isCacheBindingPlan() {
+		return this.cacheBindingPlan;
+	}
+
 	/**
 	 * Register fields that should be allowed for binding. Default is all
 	 * fields. Restrict this for example to avoid unwanted modifications
@@ -427,6 +462,7 @@ public class DataBinder implements PropertyEditorRegistry, TypeConverter {
 	 */
 	public void setAllowedFields(@Nullable String... allowedFields) {
 		this.allowedFields = PropertyAccessorUtils.canonicalPropertyNames(allowedFields);
+		this.bindingPlan = null;
 	}
 
 	/**
@@ -451,6 +487,7 @@ public class DataBinder implements PropertyEditorRegistry, TypeConverter {
 	 */
 	public void setDisallowedFields(@Nullable String... disallowedFields) {
 		this.disallowedFields = PropertyAccessorUtils.canonicalPropertyNames(disallowedFields);
+		this.bindingPlan = null;
 	}
 
 	/**
@@ -752,10 +789,21 @@ public class DataBinder implements PropertyEditorRegistry, TypeConverter {
 	 * @see #isAllowed(String)
 	 */
 	protected void checkAllowedFields(MutablePropertyValues mpvs) {
+		DataBindingPlan plan = getBindingPlan();
 		PropertyValue[] pvs = mpvs.getPropertyValues();
 		for (PropertyValue pv : pvs) {
-			String field = PropertyAccessorUtils.canonicalPropertyName(pv.getName());
-			if (!isAllowed(field)) {
+			String field;
+			boolean allowed;
+			if (plan != null) {
+				DataBindingPlan.FieldDecision decision = plan.getFieldDecision(pv.getName(), this);
+				field = decision.getCanonicalName();
+				allowed = decision.isAllowed();
+			}
+			else {
+				field = PropertyAccessorUtils.canonicalPropertyName(pv.getName());
+				allowed = isAllowed(field);
+			}
+			if (!allowed) {
 				mpvs.removePropertyValue(pv);
 				getBindingResult().recordSuppressedField(field);
 				if (logger.isDebugEnabled()) {
@@ -843,6 +891,15 @@ public class DataBinder implements PropertyEditorRegistry, TypeConverter {
 	 * @see BindingErrorProcessor#processPropertyAccessException
 	 */
 	protected void applyPropertyValues(MutablePropertyValues mpvs) {
+		DataBindingPlan plan = getBindingPlan();
+		if (plan != null && isIgnoreUnknownFields()) {
+			// Skip fields that would be ignored after a failed attempt anyway.
+			for (PropertyValue pv : mpvs.getPropertyValues()) {
+				if (plan.getFieldDecision(pv.getName(), this).isKnownUnwritable()) {
+					mpvs.removePropertyValue(pv);
+				}
+			}
+		}
 		try {
 			// Bind request parameters onto target object.
 			getPropertyAccessor().setPropertyValues(mpvs, isIgnoreUnknownFields(), isIgnoreInvalidFields());
@@ -855,6 +912,23 @@ public class DataBinder implements PropertyEditorRegistry, TypeConverter {
 		}
 	}
 
+	/**
+	 * Return the shared binding plan for this binder, if enabled.
+	 * @see #setCacheBindingPlan
+	 */
+	@Nullable
+	private DataBindingPlan getBindingPlan() {
+		if (!this.cacheBindingPlan || this.target == null) {
+			return null;
+		}
+		DataBindingPlan plan = this.bindingPlan;
+		if (plan == null) {
+			plan = DataBindingPlan.forBinder(this, this.target);
+			this.bindingPlan = plan;
+		}
+		return plan;
+	}
+
 
 	/**
 	 * Invoke the specified Validators, if any.
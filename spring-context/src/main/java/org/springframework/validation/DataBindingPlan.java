@@ -0,0 +1,197 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.validation;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.PropertyAccessor;
+import org.springframework.beans.PropertyAccessorUtils;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ObjectUtils;
+
+/**
+ * Binding decisions for a given binder configuration and target class,
+ * shared across {@link DataBinder} instances with the same setup, so that
+ * binding a request does not have to repeat the canonical name resolution,
+ * the allowed field pattern matching, and the target property lookup for
+ * every incoming field.
+ *
+ * <p>Since the field names come from the outside, decisions are only cached
+ * for simple field names that are writable on the target class, which bounds
+ * a plan by the number of target properties. Decisions for any other field
+ * names, including unknown and nested ones, are computed per binding.
+ *
+ * @author Spring Framework Team
+ * @since 5.2.1
+ * @see DataBinder#setCacheBindingPlan
+ */
+final class DataBindingPlan {
+
+	private static final Map<PlanKey, DataBindingPlan> planCache = new ConcurrentReferenceHashMap<>();
+
+
+	private final Map<String, FieldDecision> fields = new ConcurrentHashMap<>(64);
+
+
+	private DataBindingPlan() {
+	}
+
+
+	/**
+	 * Return the field decisions for the given field name, computing them
+	 * through the given binder if not cached yet.
+	 * @param name the name of the incoming property value
+	 * @param binder the binder to compute the decisions with
+	 */
+	FieldDecision getFieldDecision(String name, DataBinder binder) {
+		FieldDecision field = this.fields.get(name);
+		if (field == null) {
+			String canonicalName = PropertyAccessorUtils.canonicalPropertyName(name);
+			boolean allowed = binder.isAllowed(canonicalName);
+			Boolean writable = null;
+			if (name.indexOf(PropertyAccessor.NESTED_PROPERTY_SEPARATOR_CHAR) == -1 &&
+					name.indexOf(PropertyAccessor.PROPERTY_KEY_PREFIX_CHAR) == -1) {
+				// Simple property name: writability only depends on the target class
+				writable = binder.getPropertyAccessor().isWritableProperty(name);
+			}
+			field = new FieldDecision(canonicalName, allowed, writable);
+			if (Boolean.TRUE.equals(writable)) {
+				this.fields.put(name, field);
+			}
+		}
+		return field;
+	}
+
+
+	/**
+	 * Obtain the shared plan for the given binder's configuration and target.
+	 * @param binder the binder to obtain a plan for
+	 * @param target the target object of the binder
+	 */
+	static DataBindingPlan forBinder(DataBinder binder, Object target) {
+		PlanKey key = new PlanKey(binder, target);
+		DataBindingPlan plan = planCache.get(key);
+		if (plan == null) {
+			plan = new DataBindingPlan();
+			DataBindingPlan existing = planCache.putIfAbsent(key, plan);
+			if (existing != null) {
+				plan = existing;
+			}
+		}
+		return plan;
+	}
+
+
+	/**
+	 * Cached decisions for an incoming field name.
+	 */
+	static final class FieldDecision {
+
+		private final String canonicalName;
+
+		private final boolean allowed;
+
+		@Nullable
+		private final Boolean writable;
+
+		FieldDecision(String canonicalName, boolean allowed, @Nullable Boolean writable) {
+			this.canonicalName = canonicalName;
+			this.allowed = allowed;
+			this.writable = writable;
+		}
+
+		/**
+		 * Return the canonical name of the field.
+		 * @see PropertyAccessorUtils#canonicalPropertyName
+		 */
+		String getCanonicalName() {
+			return this.canonicalName;
+		}
+
+		/**
+		 * Return whether the field is allowed for binding.
+		 * @see DataBinder#isAllowed(String)
+		 */
+		boolean isAllowed() {
+			return this.allowed;
+		}
+
+		/**
+		 * Return whether the field is known not to be writable on the target,
+		 * without having to attempt to bind it. Only determined for simple
+		 * property names; nested paths depend on the actual object graph.
+		 */
+		boolean isKnownUnwritable() {
+			return Boolean.FALSE.equals(this.writable);
+		}
+	}
+
+
+	/**
+	 * Key for a binding plan: everything that the cached decisions depend on.
+	 */
+	private static final class PlanKey {
+
+		private final Class<?> binderClass;
+
+		private final Class<?> targetClass;
+
+		private final Class<?> bindingResultClass;
+
+		@Nullable
+		private final String[] allowedFields;
+
+		@Nullable
+		private final String[] disallowedFields;
+
+		PlanKey(DataBinder binder, Object target) {
+			this.binderClass = binder.getClass();
+			this.targetClass = target.getClass();
+			this.bindingResultClass = binder.getInternalBindingResult().getClass();
+			this.allowedFields = binder.getAllowedFields();
+			this.disallowedFields = binder.getDisallowedFields();
+		}
+
+		@Override
+		public boolean equals(@Nullable Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof PlanKey)) {
+				return false;
+			}
+			PlanKey otherKey = (PlanKey) other;
+			return (this.binderClass == otherKey.binderClass && this.targetClass == otherKey.targetClass &&
+					this.bindingResultClass == otherKey.bindingResultClass &&
+					Arrays.equals(this.allowedFields, otherKey.allowedFields) &&
+					Arrays.equals(this.disallowedFields, otherKey.disallowedFields));
+		}
+
+		@Override
+		public int hashCode() {
+			int hashCode = this.targetClass.hashCode();
+			hashCode = 29 * hashCode + this.binderClass.hashCode();
+			hashCode = 29 * hashCode + ObjectUtils.nullSafeHashCode(this.allowedFields);
+			hashCode = 29 * hashCode + ObjectUtils.nullSafeHashCode(this.disallowedFields);
+			return hashCode;
+		}
+	}
+
+}
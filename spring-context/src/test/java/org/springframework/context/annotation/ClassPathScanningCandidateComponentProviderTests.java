@@ -16,10 +16,17 @@
 
 package org.springframework.context.annotation;
 
+import java.io.File;
+import java.io.IOException;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
 import java.util.Set;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 import example.profilescan.DevComponent;
 import example.profilescan.ProfileAnnotatedComponent;
@@ -39,6 +46,7 @@ import example.scannable.StubFooDao;
 import example.scannable.sub.BarComponent;
 import org.aspectj.lang.annotation.Aspect;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import org.springframework.beans.factory.annotation.AnnotatedGenericBeanDefinition;
 import org.springframework.beans.factory.config.BeanDefinition;
@@ -47,6 +55,7 @@ import org.springframework.core.env.ConfigurableEnvironment;
 import org.springframework.core.env.StandardEnvironment;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.type.classreading.SnapshotMetadataReaderFactory;
 import org.springframework.core.type.filter.AnnotationTypeFilter;
 import org.springframework.core.type.filter.AssignableTypeFilter;
 import org.springframework.core.type.filter.RegexPatternTypeFilter;
@@ -103,6 +112,44 @@ public class ClassPathScanningCandidateComponentProviderTests {
 		assertBeanDefinitionType(candidates, expectedBeanDefinitionType);
 	}
 
+	@Test
+	public void defaultsWithScanFromMetadataSnapshot(@TempDir Path tempDir) throws IOException {
+		File snapshotFile = tempDir.resolve("scan.snapshot").toFile();
+		ClassPathScanningCandidateComponentProvider provider = new ClassPathScanningCandidateComponentProvider(true);
+		provider.setResourceLoader(new DefaultResourceLoader(
+				CandidateComponentsTestClassLoader.disableIndex(getClass().getClassLoader())));
+		provider.setMetadataReaderFactory(new SnapshotMetadataReaderFactory(null, snapshotFile));
+		testDefault(provider, ScannedGenericBeanDefinition.class);
+		assertThat(snapshotFile).isFile();
+
+		// A snapshot store after reading any class file from the classpath would update the file
+		FileTime lastModified = FileTime.fromMillis(1000);
+		Files.setLastModifiedTime(snapshotFile.toPath(), lastModified);
+
+		ClassPathScanningCandidateComponentProvider restarted = new ClassPathScanningCandidateComponentProvider(true);
+		restarted.setResourceLoader(new DefaultResourceLoader(
+				CandidateComponentsTestClassLoader.disableIndex(getClass().getClassLoader())));
+		restarted.setMetadataReaderFactory(new SnapshotMetadataReaderFactory(null, snapshotFile));
+		testDefault(restarted, ScannedGenericBeanDefinition.class);
+		assertThat(Files.getLastModifiedTime(snapshotFile.toPath())).isEqualTo(lastModified);
+	}
+
+	@Test
+	public void defaultsWithParallelScan() {
+		ClassPathScanningCandidateComponentProvider provider = new ClassPathScanningCandidateComponentProvider(true);
+		provider.setResourceLoader(new DefaultResourceLoader(
+				CandidateComponentsTestClassLoader.disableIndex(getClass().getClassLoader())));
+		provider.setParallelism(4);
+		testDefault(provider, ScannedGenericBeanDefinition.class);
+
+		ClassPathScanningCandidateComponentProvider sequential = new ClassPathScanningCandidateComponentProvider(true);
+		sequential.setResourceLoader(new DefaultResourceLoader(
+				CandidateComponentsTestClassLoader.disableIndex(getClass().getClassLoader())));
+		sequential.setParallelism(1);
+		assertThat(getBeanClassNames(provider.findCandidateComponents(TEST_BASE_PACKAGE)))
+				.containsExactlyElementsOf(getBeanClassNames(sequential.findCandidateComponents(TEST_BASE_PACKAGE)));
+	}
+
 	@Test
 	public void antStylePackageWithScan() {
 		ClassPathScanningCandidateComponentProvider provider = new ClassPathScanningCandidateComponentProvider(true);
@@ -500,6 +547,10 @@ public class ClassPathScanningCandidateComponentProviderTests {
 		}
 	}
 
+	private List<String> getBeanClassNames(Set<BeanDefinition> candidates) {
+		return candidates.stream().map(BeanDefinition::getBeanClassName).collect(Collectors.toList());
+	}
+
 	private boolean containsBeanClass(Set<BeanDefinition> candidates, Class<?> beanClass) {
 		for (BeanDefinition candidate : candidates) {
 			if (beanClass.getName().equals(candidate.getBeanClassName())) {
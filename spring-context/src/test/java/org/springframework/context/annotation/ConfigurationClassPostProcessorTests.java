@@ -59,6 +59,7 @@ import org.springframework.core.annotation.Order;
 import org.springframework.core.env.ConfigurableEnvironment;
 import org.springframework.core.env.StandardEnvironment;
 import org.springframework.core.io.DescriptiveResource;
+import org.springframework.core.metrics.BufferingApplicationStartup;
 import org.springframework.stereotype.Component;
 import org.springframework.tests.sample.beans.ITestBean;
 import org.springframework.tests.sample.beans.TestBean;
@@ -374,6 +375,21 @@ public class ConfigurationClassPostProcessorTests {
 			.withMessageContaining(TestBean.class.getName());
 	}
 
+	@Test
+	public void postProcessorEndsStartupStepOnFailure() {
+		BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup(10);
+		beanFactory.setApplicationStartup(applicationStartup);
+		beanFactory.registerBeanDefinition("bar", new RootBeanDefinition(TestBean.class));
+		beanFactory.registerBeanDefinition("config", new RootBeanDefinition(SingletonBeanConfig.class));
+		beanFactory.setAllowBeanDefinitionOverriding(false);
+		ConfigurationClassPostProcessor pp = new ConfigurationClassPostProcessor();
+		assertThatExceptionOfType(BeanDefinitionStoreException.class).isThrownBy(() ->
+				pp.postProcessBeanFactory(beanFactory));
+		assertThat(applicationStartup.getRecordedSteps())
+				.extracting(BufferingApplicationStartup.RecordedStep::getName)
+				.containsExactly("spring.context.config-classes.parse");
+	}
+
 	@Test
 	public void configurationClassesProcessedInCorrectOrder() {
 		beanFactory.registerBeanDefinition("config1", new RootBeanDefinition(OverridingSingletonBeanConfig.class));
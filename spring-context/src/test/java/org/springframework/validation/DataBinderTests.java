@@ -713,6 +713,58 @@ public class DataBinderTests {
 		assertThat(disallowedFields[0]).isEqualTo("age");
 	}
 
+	@Test
+	public void testBindingWithCachedBindingPlan() throws BindException {
+		for (int i = 0; i < 2; i++) {
+			TestBean rod = new TestBean();
+			rod.setSpouse(new TestBean());
+			DataBinder binder = new DataBinder(rod);
+			binder.setCacheBindingPlan(true);
+			binder.setDisallowedFields("age");
+			MutablePropertyValues pvs = new MutablePropertyValues();
+			pvs.add("name", "Rod");
+			pvs.add("age", "32x");
+			pvs.add("unknown", "value");
+			pvs.add("spouse.name", "Kerry");
+
+			binder.bind(pvs);
+			binder.close();
+			assertThat(rod.getName()).isEqualTo("Rod");
+			assertThat(rod.getAge()).isEqualTo(0);
+			assertThat(rod.getSpouse().getName()).isEqualTo("Kerry");
+			assertThat(binder.getBindingResult().getSuppressedFields()).containsExactly("age");
+		}
+	}
+
+	@Test
+	public void testBindingWithCachedBindingPlanAndManyUnknownFields() {
+		TestBean rod = new TestBean();
+		DataBinder binder = new DataBinder(rod);
+		binder.setCacheBindingPlan(true);
+		MutablePropertyValues pvs = new MutablePropertyValues();
+		for (int i = 0; i < 1000; i++) {
+			pvs.add("unknown" + i, "value");
+		}
+		binder.bind(pvs);
+
+		DataBindingPlan plan = DataBindingPlan.forBinder(binder, rod);
+		assertThat(plan.getFieldDecision("name", binder)).isSameAs(plan.getFieldDecision("name", binder));
+		assertThat(plan.getFieldDecision("unknown0", binder)).isNotSameAs(plan.getFieldDecision("unknown0", binder));
+		assertThat(plan.getFieldDecision("unknown0", binder).isKnownUnwritable()).isTrue();
+	}
+
+	@Test
+	public void testBindingWithCachedBindingPlanAndUnknownFieldsNotIgnored() {
+		TestBean rod = new TestBean();
+		DataBinder binder = new DataBinder(rod);
+		binder.setCacheBindingPlan(true);
+		binder.setIgnoreUnknownFields(false);
+		MutablePropertyValues pvs = new MutablePropertyValues();
+		pvs.add("unknown", "value");
+		assertThatExceptionOfType(NotWritablePropertyException.class).isThrownBy(() ->
+				binder.bind(pvs));
+	}
+
 	@Test
 	public void testBindingWithOverlappingAllowedAndDisallowedFields() throws BindException {
 		TestBean rod = new TestBean();
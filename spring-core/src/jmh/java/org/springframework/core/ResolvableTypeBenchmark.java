@@ -0,0 +1,93 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Benchmarks for {@link ResolvableType#forMethodParameter} resolution, as performed
+ * for every handler method argument and injection point.
+ *
+ * @author Spring Framework Team
+ */
+@BenchmarkMode(Mode.Throughput)
+public class ResolvableTypeBenchmark {
+
+	@Benchmark
+	public void forMethodParameter(BenchmarkData data, Blackhole bh) {
+		ResolvableType type = ResolvableType.forMethodParameter(data.method, 0);
+		bh.consume(type);
+	}
+
+	@Benchmark
+	public void forMethodParameterWithGenerics(BenchmarkData data, Blackhole bh) {
+		ResolvableType type = ResolvableType.forMethodParameter(data.method, 1);
+		bh.consume(type.resolveGeneric(1, 0));
+	}
+
+	@Benchmark
+	public void forMethodParameterWithImplementationClass(BenchmarkData data, Blackhole bh) {
+		ResolvableType type = ResolvableType.forMethodParameter(data.genericMethod, 0, StringRepository.class);
+		bh.consume(type.resolve());
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkData {
+
+		public Method method;
+
+		public Method genericMethod;
+
+		@Setup
+		public void setup() {
+			this.method = ReflectionUtils.findMethod(Handler.class, "handle", String.class, Map.class);
+			this.genericMethod = ReflectionUtils.findMethod(Repository.class, "save", Object.class);
+		}
+	}
+
+
+	static class Handler {
+
+		public void handle(String name, Map<String, List<Integer>> values) {
+		}
+	}
+
+
+	static class Repository<T> {
+
+		public void save(T entity) {
+		}
+	}
+
+
+	static class StringRepository extends Repository<String> {
+	}
+
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.lang.reflect.Method;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.springframework.core.annotation.MergedAnnotations.SearchStrategy;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Benchmarks for {@link MergedAnnotations#from} followed by a
+ * {@link MergedAnnotations#get} lookup, for direct, meta-present
+ * and missing annotations.
+ *
+ * @author Spring Framework Team
+ */
+@BenchmarkMode(Mode.Throughput)
+public class MergedAnnotationsBenchmark {
+
+	@Benchmark
+	public void getDirect(Blackhole bh) {
+		MergedAnnotation<Component> annotation = MergedAnnotations.from(
+				AnnotatedType.class, SearchStrategy.TYPE_HIERARCHY).get(Component.class);
+		bh.consume(annotation.getString("value"));
+	}
+
+	@Benchmark
+	public void getMetaPresent(Blackhole bh) {
+		MergedAnnotation<Component> annotation = MergedAnnotations.from(
+				MetaAnnotatedType.class, SearchStrategy.TYPE_HIERARCHY).get(Component.class);
+		bh.consume(annotation.getString("value"));
+	}
+
+	@Benchmark
+	public void getFromMethod(BenchmarkData data, Blackhole bh) {
+		MergedAnnotation<Component> annotation = MergedAnnotations.from(
+				data.method, SearchStrategy.TYPE_HIERARCHY).get(Component.class);
+		bh.consume(annotation.isPresent());
+	}
+
+	@Benchmark
+	public void getMissing(Blackhole bh) {
+		MergedAnnotation<Service> annotation = MergedAnnotations.from(
+				AnnotatedType.class, SearchStrategy.TYPE_HIERARCHY).get(Service.class);
+		bh.consume(annotation.isPresent());
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkData {
+
+		public Method method;
+
+		@Setup
+		public void setup() {
+			this.method = ReflectionUtils.findMethod(MetaAnnotatedType.class, "handle");
+		}
+	}
+
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@Target({ElementType.TYPE, ElementType.METHOD, ElementType.ANNOTATION_TYPE})
+	@interface Component {
+
+		String value() default "";
+	}
+
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@Target(ElementType.TYPE)
+	@Component
+	@interface Service {
+
+		@AliasFor(annotation = Component.class)
+		String value() default "";
+	}
+
+
+	@Component("annotated")
+	static class AnnotatedType {
+	}
+
+
+	@Service("metaAnnotated")
+	static class MetaAnnotatedType {
+
+		@Component
+		public void handle() {
+		}
+	}
+
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.convert.support;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.springframework.core.convert.TypeDescriptor;
+
+/**
+ * Benchmarks for {@link GenericConversionService#convert} with a
+ * {@link DefaultConversionService}, covering the simple conversions
+ * performed for request parameters and {@code @Value} placeholders.
+ *
+ * @author Spring Framework Team
+ */
+@BenchmarkMode(Mode.Throughput)
+public class GenericConversionServiceBenchmark {
+
+	@Benchmark
+	public void convertStringToInteger(BenchmarkData data, Blackhole bh) {
+		bh.consume(data.conversionService.convert("42", Integer.class));
+	}
+
+	@Benchmark
+	public void convertStringToPrimitiveLong(BenchmarkData data, Blackhole bh) {
+		bh.consume(data.conversionService.convert("42", long.class));
+	}
+
+	@Benchmark
+	public void convertStringToBoolean(BenchmarkData data, Blackhole bh) {
+		bh.consume(data.conversionService.convert("true", Boolean.class));
+	}
+
+	@Benchmark
+	public void convertStringToEnum(BenchmarkData data, Blackhole bh) {
+		bh.consume(data.conversionService.convert("GREEN", Color.class));
+	}
+
+	@Benchmark
+	public void convertStringToUuid(BenchmarkData data, Blackhole bh) {
+		bh.consume(data.conversionService.convert(data.uuid, UUID.class));
+	}
+
+	@Benchmark
+	public void convertIntegerToString(BenchmarkData data, Blackhole bh) {
+		bh.consume(data.conversionService.convert(data.number, String.class));
+	}
+
+	@Benchmark
+	public void convertStringToIntegerWithTypeDescriptors(BenchmarkData data, Blackhole bh) {
+		bh.consume(data.conversionService.convert("42", data.stringType, data.integerType));
+	}
+
+	@Benchmark
+	public void convertListOfStringToListOfInteger(BenchmarkData data, Blackhole bh) {
+		bh.consume(data.conversionService.convert(data.source, data.sourceType, data.targetType));
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkData {
+
+		public GenericConversionService conversionService;
+
+		public String uuid;
+
+		public Integer number;
+
+		public TypeDescriptor stringType;
+
+		public TypeDescriptor integerType;
+
+		public List<String> source;
+
+		public TypeDescriptor sourceType;
+
+		public TypeDescriptor targetType;
+
+		@Setup
+		public void setup() {
+			this.conversionService = new DefaultConversionService();
+			this.uuid = UUID.randomUUID().toString();
+			this.number = 4242;
+			this.stringType = TypeDescriptor.valueOf(String.class);
+			this.integerType = TypeDescriptor.valueOf(Integer.class);
+			this.source = Arrays.asList("1", "2", "3", "4", "5");
+			this.sourceType = TypeDescriptor.collection(List.class, TypeDescriptor.valueOf(String.class));
+			this.targetType = TypeDescriptor.collection(List.class, TypeDescriptor.valueOf(Integer.class));
+		}
+	}
+
+
+	enum Color {
+
+		RED, GREEN, BLUE
+	}
+
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for {@link AntPathMatcher#match}, matching a set of request paths
+ * against a set of typical handler mapping patterns.
+ *
+ * @author Spring Framework Team
+ */
+@BenchmarkMode(Mode.Throughput)
+public class AntPathMatcherBenchmark {
+
+	@Benchmark
+	public void match(BenchmarkData data, Blackhole bh) {
+		for (String path : data.paths) {
+			for (String pattern : data.patterns) {
+				bh.consume(data.pathMatcher.match(pattern, path));
+			}
+		}
+	}
+
+	@Benchmark
+	public void extractUriTemplateVariables(BenchmarkData data, Blackhole bh) {
+		bh.consume(data.pathMatcher.extractUriTemplateVariables(
+				"/api/orders/{orderId}/items/{itemId}", "/api/orders/42/items/7"));
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkData {
+
+		@Param({"true", "false"})
+		public boolean cachePatterns;
+
+		public AntPathMatcher pathMatcher;
+
+		public List<String> patterns = new ArrayList<>();
+
+		public List<String> paths = new ArrayList<>();
+
+		@Setup
+		public void setup() {
+			this.pathMatcher = new AntPathMatcher();
+			this.pathMatcher.setCachePatterns(this.cachePatterns);
+			this.patterns.add("/api/orders");
+			this.patterns.add("/api/orders/{orderId}");
+			this.patterns.add("/api/orders/{orderId}/items/{itemId}");
+			this.patterns.add("/api/customers/*/addresses");
+			this.patterns.add("/static/**/*.js");
+			this.patterns.add("/files/{name:[a-z]+}.{ext}");
+			this.paths.add("/api/orders");
+			this.paths.add("/api/orders/42/items/7");
+			this.paths.add("/api/customers/12/addresses");
+			this.paths.add("/static/js/app/main.js");
+			this.paths.add("/files/report.pdf");
+			this.paths.add("/unknown/path");
+		}
+	}
+
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks comparing the segment-based {@link ConcurrentReferenceHashMap} with
+ * the open-addressing {@link ConcurrentReferenceOpenHashMap}, for lookups as well
+ * as for the heap footprint of many small caches.
+ *
+ * <p>{@link #populate} measures the cost of creating many small caches, as found
+ * in a large application context, with one operation per cache. Run it with
+ * {@code -prof gc} to report the footprint: as the caches retain everything
+ * they allocate, {@code gc.alloc.rate.norm} is the heap size of a cache.
+ *
+ * @author Spring Framework Team
+ */
+@BenchmarkMode(Mode.Throughput)
+public class ConcurrentReferenceHashMapBenchmark {
+
+	@Benchmark
+	public void get(LookupData data, Blackhole bh) {
+		for (String key : data.keys) {
+			bh.consume(data.map.get(key));
+		}
+	}
+
+	@Benchmark
+	public void getMissing(LookupData data, Blackhole bh) {
+		for (String key : data.missingKeys) {
+			bh.consume(data.map.get(key));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(FootprintData.CACHE_COUNT)
+	public void populate(FootprintData data, Blackhole bh) {
+		List<Map<String, Object>> caches = new ArrayList<>(FootprintData.CACHE_COUNT);
+		for (int i = 0; i < FootprintData.CACHE_COUNT; i++) {
+			Map<String, Object> cache = data.mapType.create();
+			for (String key : data.keys) {
+				cache.put(key, key);
+			}
+			caches.add(cache);
+		}
+		bh.consume(caches);
+	}
+
+
+	public enum MapType {
+
+		SEGMENTED(ConcurrentReferenceHashMap::new),
+
+		OPEN_ADDRESSING(ConcurrentReferenceOpenHashMap::new);
+
+		private final Supplier<ConcurrentMap<String, Object>> factory;
+
+		MapType(Supplier<ConcurrentMap<String, Object>> factory) {
+			this.factory = factory;
+		}
+
+		ConcurrentMap<String, Object> create() {
+			return this.factory.get();
+		}
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class LookupData {
+
+		@Param({"SEGMENTED", "OPEN_ADDRESSING"})
+		public MapType mapType;
+
+		@Param({"64", "4096"})
+		public int size;
+
+		public ConcurrentMap<String, Object> map;
+
+		public List<String> keys = new ArrayList<>();
+
+		public List<String> missingKeys = new ArrayList<>();
+
+		@Setup
+		public void setup() {
+			this.map = this.mapType.create();
+			for (int i = 0; i < this.size; i++) {
+				String key = "com.example.app.service.Bean" + i;
+				this.map.put(key, new Object());
+				this.keys.add(key);
+				this.missingKeys.add("com.example.app.web.Controller" + i);
+			}
+		}
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class FootprintData {
+
+		static final int CACHE_COUNT = 4096;
+
+		@Param({"SEGMENTED", "OPEN_ADDRESSING"})
+		public MapType mapType;
+
+		@Param({"4"})
+		public int entriesPerCache;
+
+		public List<String> keys = new ArrayList<>();
+
+		@Setup
+		public void setup() {
+			for (int i = 0; i < this.entriesPerCache; i++) {
+				this.keys.add("method" + i);
+			}
+		}
+	}
+
+}
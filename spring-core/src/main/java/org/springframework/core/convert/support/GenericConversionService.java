@@ -17,6 +17,7 @@
 package org.springframework.core.convert.support;
 
 import java.lang.reflect.Array;
+import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
@@ -78,6 +79,13 @@ public class GenericConversionService implements ConfigurableConversionService {
 
 	private final Map<ConverterCacheKey, GenericConverter> converterCache = new ConcurrentReferenceHashMap<>(64);
 
+	/** Conversions for plain source/target class pairs, keyed by source class first. */
+	private final Map<Class<?>, Map<Class<?>, ClassPairConversion>> classPairCache =
+			new ConcurrentReferenceHashMap<>(64);
+
+	/** Whether convert(Object, Class) may bypass a custom convert(Object, TypeDescriptor, TypeDescriptor). */
+	private final boolean classPairConversionEnabled = !isTypeDescriptorConversionOverridden(getClass());
+
 
 	// ConverterRegistry implementation
 
@@ -171,7 +179,10 @@ public class GenericConversionService implements ConfigurableConversionService {
 	@Nullable
 	public <T> T convert(@Nullable Object source, Class<T> targetType) {
 		Assert.notNull(targetType, "Target type to convert to cannot be null");
-		return (T) convert(source, TypeDescriptor.forObject(source), TypeDescriptor.valueOf(targetType));
+		if (source == null || !this.classPairConversionEnabled) {
+			return (T) convert(source, TypeDescriptor.forObject(source), TypeDescriptor.valueOf(targetType));
+		}
+		return (T) getClassPairConversion(source.getClass(), targetType).convert(source);
 	}
 
 	@Override
@@ -302,8 +313,39 @@ public class GenericConversionService implements ConfigurableConversionService {
 		return generics;
 	}
 
+	/**
+	 * Obtain the conversion for the given source and target class, resolving
+	 * the type descriptors and the converter once per class pair rather than
+	 * once per {@link #convert(Object, Class)} call.
+	 */
+	private ClassPairConversion getClassPairConversion(Class<?> sourceClass, Class<?> targetClass) {
+		Map<Class<?>, ClassPairConversion> targetCache = this.classPairCache.get(sourceClass);
+		if (targetCache == null) {
+			targetCache = new ConcurrentReferenceHashMap<>(8, 1);
+			Map<Class<?>, ClassPairConversion> existing = this.classPairCache.putIfAbsent(sourceClass, targetCache);
+			if (existing != null) {
+				targetCache = existing;
+			}
+		}
+		ClassPairConversion conversion = targetCache.get(targetClass);
+		if (conversion == null) {
+			TypeDescriptor sourceType = TypeDescriptor.valueOf(sourceClass);
+			TypeDescriptor targetType = TypeDescriptor.valueOf(targetClass);
+			conversion = new ClassPairConversion(sourceType, targetType, getConverter(sourceType, targetType));
+			targetCache.put(targetClass, conversion);
+		}
+		return conversion;
+	}
+
+	private static boolean isTypeDescriptorConversionOverridden(Class<?> conversionServiceClass) {
+		Method method = ClassUtils.getMethodIfAvailable(
+				conversionServiceClass, "convert", Object.class, TypeDescriptor.class, TypeDescriptor.class);
+		return (method == null || method.getDeclaringClass() != GenericConversionService.class);
+	}
+
 	private void invalidateCache() {
 		this.converterCache.clear();
+		this.classPairCache.clear();
 	}
 
 	@Nullable
@@ -443,6 +485,37 @@ public class GenericConversionService implements ConfigurableConversionService {
 	}
 
 
+	/**
+	 * Resolved conversion for a plain source/target class pair.
+	 */
+	private final class ClassPairConversion {
+
+		private final TypeDescriptor sourceType;
+
+		private final TypeDescriptor targetType;
+
+		@Nullable
+		private final GenericConverter converter;
+
+		public ClassPairConversion(TypeDescriptor sourceType, TypeDescriptor targetType,
+				@Nullable GenericConverter converter) {
+
+			this.sourceType = sourceType;
+			this.targetType = targetType;
+			this.converter = converter;
+		}
+
+		@Nullable
+		public Object convert(Object source) {
+			if (this.converter != null) {
+				Object result = ConversionUtils.invokeConverter(this.converter, source, this.sourceType, this.targetType);
+				return handleResult(this.sourceType, this.targetType, result);
+			}
+			return handleConverterNotFound(source, this.sourceType, this.targetType);
+		}
+	}
+
+
 	/**
 	 * Key for use with the converter cache.
 	 */
@@ -16,8 +16,11 @@
 
 package org.springframework.core.convert.support;
 
+import java.util.Map;
+
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.core.convert.converter.ConverterFactory;
+import org.springframework.util.ConcurrentReferenceHashMap;
 
 /**
  * Converts from a String to a {@link java.lang.Enum} by calling {@link Enum#valueOf(Class, String)}.
@@ -29,9 +32,18 @@ import org.springframework.core.convert.converter.ConverterFactory;
 @SuppressWarnings({"rawtypes", "unchecked"})
 final class StringToEnumConverterFactory implements ConverterFactory<String, Enum> {
 
+	private final Map<Class<?>, Converter<String, ? extends Enum>> converterCache =
+			new ConcurrentReferenceHashMap<>(16);
+
+
 	@Override
 	public <T extends Enum> Converter<String, T> getConverter(Class<T> targetType) {
-		return new StringToEnum(ConversionUtils.getEnumType(targetType));
+		Converter<String, ? extends Enum> converter = this.converterCache.get(targetType);
+		if (converter == null) {
+			converter = new StringToEnum(ConversionUtils.getEnumType(targetType));
+			this.converterCache.put(targetType, converter);
+		}
+		return (Converter<String, T>) converter;
 	}
 
 
@@ -16,8 +16,11 @@
 
 package org.springframework.core.convert.support;
 
+import java.util.Map;
+
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.core.convert.converter.ConverterFactory;
+import org.springframework.util.ConcurrentReferenceHashMap;
 import org.springframework.util.NumberUtils;
 
 /**
@@ -40,9 +43,19 @@ import org.springframework.util.NumberUtils;
  */
 final class StringToNumberConverterFactory implements ConverterFactory<String, Number> {
 
+	private final Map<Class<?>, Converter<String, ? extends Number>> converterCache =
+			new ConcurrentReferenceHashMap<>(16);
+
+
 	@Override
+	@SuppressWarnings("unchecked")
 	public <T extends Number> Converter<String, T> getConverter(Class<T> targetType) {
-		return new StringToNumber<>(targetType);
+		Converter<String, ? extends Number> converter = this.converterCache.get(targetType);
+		if (converter == null) {
+			converter = new StringToNumber<>(targetType);
+			this.converterCache.put(targetType, converter);
+		}
+		return (Converter<String, T>) converter;
 	}
 
 
@@ -0,0 +1,729 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntPredicate;
+
+import org.springframework.core.SpringProperties;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Implementation of the {@code DataBufferFactory} interface that recycles the
+ * memory of released buffers, for use on servers that do not provide a buffer
+ * pool of their own (i.e. Servlet containers and Undertow, as opposed to Netty).
+ *
+ * <p>Buffers are allocated from power-of-two size classes, from
+ * {@value #MIN_POOLED_CAPACITY} bytes up to a configurable maximum; larger
+ * buffers are not pooled. Each size class keeps a bounded number of free
+ * buffers, optionally fronted by small per-thread caches, so that the memory
+ * held by the pool is limited and buffers that are never released are simply
+ * garbage collected.
+ *
+ * <p>Buffers created by this factory are {@link PooledDataBuffer PooledDataBuffers}
+ * with a reference count, and must be {@linkplain DataBufferUtils#release released}
+ * once consumed; they must not be used after their final release. Slices share
+ * the reference count of the buffer they were created from.
+ *
+ * <p>For tests, {@linkplain #setLeakDetection leak detection} can be enabled to
+ * record the allocation site of every allocated buffer, and to verify with
+ * {@link #checkForLeaks()} that all of them have been released. Buffers that
+ * merely {@linkplain #wrap(byte[]) wrap} existing memory are not tracked.
+ *
+ * @author Spring Framework Team
+ * @since 5.2.1
+ * @see DefaultDataBufferFactory
+ */
+public class PooledDataBufferFactory implements DataBufferFactory {
+
+	/**
+	 * System property that instructs all instances of this factory to record
+	 * allocation sites, i.e. to enable {@linkplain #setLeakDetection leak detection}
+	 * by default: {@code "spring.databuffer.leakDetection"}.
+	 */
+	public static final String LEAK_DETECTION_PROPERTY_NAME = "spring.databuffer.leakDetection";
+
+	/**
+	 * The capacity of the smallest size class.
+	 */
+	public static final int MIN_POOLED_CAPACITY = 256;
+
+	/**
+	 * The default capacity of the largest pooled size class.
+	 */
+	public static final int DEFAULT_MAX_POOLED_CAPACITY = 64 * 1024;
+
+	/**
+	 * The default number of free buffers retained per size class.
+	 */
+	public static final int DEFAULT_MAX_POOLED_BUFFERS = 64;
+
+	private static final int MIN_POOLED_SHIFT = Integer.numberOfTrailingZeros(MIN_POOLED_CAPACITY);
+
+	// Per-thread caches only hold small buffers, to bound the memory held by idle threads
+	private static final int THREAD_CACHE_MAX_CAPACITY = 8 * 1024;
+
+	private static final int THREAD_CACHE_SIZE = 4;
+
+
+	private final DefaultDataBufferFactory unpooledFactory;
+
+	private final boolean preferDirect;
+
+	private final int maxPooledCapacity;
+
+	private final ArrayBlockingQueue<ByteBuffer>[] pools;
+
+	@Nullable
+	private final ThreadLocal<ThreadCache> threadCache;
+
+	private final LongAdder activeBuffers = new LongAdder();
+
+	private final Set<Throwable> allocationSites = ConcurrentHashMap.newKeySet();
+
+	private volatile boolean leakDetection = SpringProperties.getFlag(LEAK_DETECTION_PROPERTY_NAME);
+
+
+	/**
+	 * Create a new {@code PooledDataBufferFactory} for heap buffers with
+	 * default settings.
+	 */
+	public PooledDataBufferFactory() {
+		this(false);
+	}
+
+	/**
+	 * Create a new {@code PooledDataBufferFactory} with default settings,
+	 * indicating whether direct buffers should be created.
+	 * @param preferDirect {@code true} if direct buffers are to be preferred;
+	 * {@code false} otherwise
+	 */
+	public PooledDataBufferFactory(boolean preferDirect) {
+		this(preferDirect, DEFAULT_MAX_POOLED_CAPACITY, DEFAULT_MAX_POOLED_BUFFERS, false);
+	}
+
+	/**
+	 * Create a new {@code PooledDataBufferFactory}.
+	 * @param preferDirect {@code true} if direct buffers are to be preferred;
+	 * {@code false} otherwise
+	 * @param maxPooledCapacity the capacity of the largest size class, which
+	 * must be a power of two of at least {@value #MIN_POOLED_CAPACITY}
+	 * @param maxPooledBuffers the maximum number of free buffers to retain
+	 * per size class
+	 * @param threadLocalCache whether to cache a few free buffers of the
+	 * smaller size classes per thread, avoiding contention on the shared pool
+	 */
+	@SuppressWarnings({"rawtypes", "unchecked"})
+	public PooledDataBufferFactory(boolean preferDirect, int maxPooledCapacity, int maxPooledBuffers,
+			boolean threadLocalCache) {
+
+		Assert.isTrue(maxPooledCapacity >= MIN_POOLED_CAPACITY && Integer.bitCount(maxPooledCapacity) == 1,
+				() -> "'maxPooledCapacity' must be a power of two >= " + MIN_POOLED_CAPACITY);
+		Assert.isTrue(maxPooledBuffers > 0, "'maxPooledBuffers' must be larger than 0");
+		this.unpooledFactory = new DefaultDataBufferFactory(preferDirect);
+		this.preferDirect = preferDirect;
+		this.maxPooledCapacity = maxPooledCapacity;
+		this.pools = new ArrayBlockingQueue[sizeClass(maxPooledCapacity) + 1];
+		for (int i = 0; i < this.pools.length; i++) {
+			this.pools[i] = new ArrayBlockingQueue<>(maxPooledBuffers);
+		}
+		this.threadCache = (threadLocalCache ?
+				ThreadLocal.withInitial(() -> new ThreadCache(sizeClass(THREAD_CACHE_MAX_CAPACITY) + 1)) : null);
+	}
+
+
+	/**
+	 * Enable or disable recording the allocation site of each allocated buffer, for
+	 * reporting through {@link #checkForLeaks()}. This adds considerable
+	 * overhead to each allocation and is meant for tests only.
+	 * <p>By default this is set to the value of the
+	 * {@value #LEAK_DETECTION_PROPERTY_NAME} system property.
+	 */
+	public void setLeakDetection(boolean leakDetection) {
+		this.leakDetection = leakDetection;
+	}
+
+	/**
+	 * Return the number of buffers allocated by this factory that have not
+	 * been released yet.
+	 */
+	public long getActiveBufferCount() {
+		return this.activeBuffers.sum();
+	}
+
+	/**
+	 * Check whether all buffers allocated while {@linkplain #setLeakDetection
+	 * leak detection} was enabled have been released.
+	 * @throws IllegalStateException if unreleased buffers remain, with the
+	 * recorded allocation sites attached as suppressed exceptions
+	 */
+	public void checkForLeaks() {
+		if (!this.allocationSites.isEmpty()) {
+			IllegalStateException ex = new IllegalStateException(
+					this.allocationSites.size() + " data buffer(s) allocated but not released");
+			for (Throwable allocationSite : this.allocationSites) {
+				ex.addSuppressed(allocationSite);
+			}
+			throw ex;
+		}
+	}
+
+
+	@Override
+	public PooledDataBuffer allocateBuffer() {
+		return allocateBuffer(DefaultDataBufferFactory.DEFAULT_INITIAL_CAPACITY);
+	}
+
+	@Override
+	public PooledDataBuffer allocateBuffer(int initialCapacity) {
+		Assert.isTrue(initialCapacity >= 0, "'initialCapacity' must not be negative");
+		if (initialCapacity > this.maxPooledCapacity) {
+			return track(new PooledBuffer(this, this.unpooledFactory.allocateBuffer(initialCapacity), null));
+		}
+		ByteBuffer chunk = acquire(initialCapacity);
+		chunk.limit(initialCapacity);
+		return track(new PooledBuffer(this, DefaultDataBuffer.fromEmptyByteBuffer(this.unpooledFactory, chunk), chunk));
+	}
+
+	@Override
+	public PooledDataBuffer wrap(ByteBuffer byteBuffer) {
+		return new PooledBuffer(this, this.unpooledFactory.wrap(byteBuffer), null);
+	}
+
+	@Override
+	public PooledDataBuffer wrap(byte[] bytes) {
+		return new PooledBuffer(this, this.unpooledFactory.wrap(bytes), null);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>This implementation allocates a single buffer from the pool to
+	 * contain the data in {@code dataBuffers}.
+	 */
+	@Override
+	public PooledDataBuffer join(List<? extends DataBuffer> dataBuffers) {
+		Assert.notEmpty(dataBuffers, "DataBuffer List must not be empty");
+		int capacity = dataBuffers.stream().mapToInt(DataBuffer::readableByteCount).sum();
+		PooledDataBuffer result = allocateBuffer(capacity);
+		dataBuffers.forEach(result::write);
+		dataBuffers.forEach(DataBufferUtils::release);
+		return result;
+	}
+
+
+	private PooledBuffer track(PooledBuffer buffer) {
+		buffer.tracked = true;
+		this.activeBuffers.increment();
+		if (this.leakDetection) {
+			buffer.allocationSite = new Throwable("Allocation site of " + buffer);
+			this.allocationSites.add(buffer.allocationSite);
+		}
+		return buffer;
+	}
+
+	private void deallocate(PooledBuffer buffer) {
+		if (buffer.tracked) {
+			this.activeBuffers.decrement();
+		}
+		Throwable allocationSite = buffer.allocationSite;
+		if (allocationSite != null) {
+			this.allocationSites.remove(allocationSite);
+		}
+		ByteBuffer chunk = buffer.chunk;
+		buffer.chunk = null;
+		if (chunk != null) {
+			recycle(chunk);
+		}
+	}
+
+	/**
+	 * Obtain a cleared chunk of the size class for the given capacity,
+	 * from the thread cache or the shared pool if possible.
+	 */
+	private ByteBuffer acquire(int capacity) {
+		int sizeClass = sizeClass(capacity);
+		ByteBuffer chunk = null;
+		if (this.threadCache != null) {
+			chunk = this.threadCache.get().poll(sizeClass);
+		}
+		if (chunk == null) {
+			chunk = this.pools[sizeClass].poll();
+		}
+		if (chunk == null) {
+			int chunkCapacity = MIN_POOLED_CAPACITY << sizeClass;
+			return (this.preferDirect ? ByteBuffer.allocateDirect(chunkCapacity) : ByteBuffer.allocate(chunkCapacity));
+		}
+		chunk.clear();
+		return chunk;
+	}
+
+	private void recycle(ByteBuffer chunk) {
+		int sizeClass = sizeClass(chunk.capacity());
+		if (this.threadCache != null && this.threadCache.get().offer(sizeClass, chunk)) {
+			return;
+		}
+		// If the pool for this size class is full, leave the chunk to the garbage collector
+		this.pools[sizeClass].offer(chunk);
+	}
+
+	private static int sizeClass(int capacity) {
+		if (capacity <= MIN_POOLED_CAPACITY) {
+			return 0;
+		}
+		return (32 - Integer.numberOfLeadingZeros(capacity - 1)) - MIN_POOLED_SHIFT;
+	}
+
+
+	@Override
+	public String toString() {
+		return "PooledDataBufferFactory (preferDirect=" + this.preferDirect +
+				", maxPooledCapacity=" + this.maxPooledCapacity + ")";
+	}
+
+
+	/**
+	 * Small per-thread stacks of free chunks for the smaller size classes.
+	 */
+	private static final class ThreadCache {
+
+		private final ByteBuffer[][] chunks;
+
+		private final int[] counts;
+
+		ThreadCache(int sizeClasses) {
+			this.chunks = new ByteBuffer[sizeClasses][THREAD_CACHE_SIZE];
+			this.counts = new int[sizeClasses];
+		}
+
+		@Nullable
+		ByteBuffer poll(int sizeClass) {
+			if (sizeClass >= this.counts.length || this.counts[sizeClass] == 0) {
+				return null;
+			}
+			int index = --this.counts[sizeClass];
+			ByteBuffer chunk = this.chunks[sizeClass][index];
+			this.chunks[sizeClass][index] = null;
+			return chunk;
+		}
+
+		boolean offer(int sizeClass, ByteBuffer chunk) {
+			if (sizeClass >= this.counts.length || this.counts[sizeClass] == THREAD_CACHE_SIZE) {
+				return false;
+			}
+			this.chunks[sizeClass][this.counts[sizeClass]++] = chunk;
+			return true;
+		}
+	}
+
+
+	/**
+	 * Base class for buffers handed out by this factory, delegating to a
+	 * {@link DefaultDataBuffer} and returning itself from all fluent methods
+	 * so that callers never see the unpooled delegate.
+	 */
+	private abstract static class AbstractPooledBuffer implements PooledDataBuffer {
+
+		protected DefaultDataBuffer delegate;
+
+		AbstractPooledBuffer(DefaultDataBuffer delegate) {
+			this.delegate = delegate;
+		}
+
+		abstract PooledBuffer root();
+
+		@Override
+		public PooledDataBufferFactory factory() {
+			return root().factory;
+		}
+
+		@Override
+		public boolean isAllocated() {
+			return root().isAllocated();
+		}
+
+		@Override
+		public PooledDataBuffer retain() {
+			root().retain();
+			return this;
+		}
+
+		@Override
+		public boolean release() {
+			return root().release();
+		}
+
+		@Override
+		public int indexOf(IntPredicate predicate, int fromIndex) {
+			return this.delegate.indexOf(predicate, fromIndex);
+		}
+
+		@Override
+		public int lastIndexOf(IntPredicate predicate, int fromIndex) {
+			return this.delegate.lastIndexOf(predicate, fromIndex);
+		}
+
+		@Override
+		public int readableByteCount() {
+			return this.delegate.readableByteCount();
+		}
+
+		@Override
+		public int writableByteCount() {
+			return this.delegate.writableByteCount();
+		}
+
+		@Override
+		public int capacity() {
+			return this.delegate.capacity();
+		}
+
+		@Override
+		public DataBuffer capacity(int capacity) {
+			this.delegate.capacity(capacity);
+			return this;
+		}
+
+		@Override
+		public DataBuffer ensureCapacity(int capacity) {
+			this.delegate.ensureCapacity(capacity);
+			return this;
+		}
+
+		@Override
+		public int readPosition() {
+			return this.delegate.readPosition();
+		}
+
+		@Override
+		public DataBuffer readPosition(int readPosition) {
+			this.delegate.readPosition(readPosition);
+			return this;
+		}
+
+		@Override
+		public int writePosition() {
+			return this.delegate.writePosition();
+		}
+
+		@Override
+		public DataBuffer writePosition(int writePosition) {
+			this.delegate.writePosition(writePosition);
+			return this;
+		}
+
+		@Override
+		public byte getByte(int index) {
+			return this.delegate.getByte(index);
+		}
+
+		@Override
+		public byte read() {
+			return this.delegate.read();
+		}
+
+		@Override
+		public DataBuffer read(byte[] destination) {
+			this.delegate.read(destination);
+			return this;
+		}
+
+		@Override
+		public DataBuffer read(byte[] destination, int offset, int length) {
+			this.delegate.read(destination, offset, length);
+			return this;
+		}
+
+		@Override
+		public DataBuffer write(byte b) {
+			ensureCapacity(1);
+			this.delegate.write(b);
+			return this;
+		}
+
+		@Override
+		public DataBuffer write(byte[] source) {
+			ensureCapacity(source.length);
+			this.delegate.write(source);
+			return this;
+		}
+
+		@Override
+		public DataBuffer write(byte[] source, int offset, int length) {
+			ensureCapacity(length);
+			this.delegate.write(source, offset, length);
+			return this;
+		}
+
+		@Override
+		public DataBuffer write(DataBuffer... buffers) {
+			int length = 0;
+			for (DataBuffer buffer : buffers) {
+				length += buffer.readableByteCount();
+			}
+			ensureCapacity(length);
+			this.delegate.write(buffers);
+			return this;
+		}
+
+		@Override
+		public DataBuffer write(ByteBuffer... buffers) {
+			int length = 0;
+			for (ByteBuffer buffer : buffers) {
+				length += buffer.remaining();
+			}
+			ensureCapacity(length);
+			this.delegate.write(buffers);
+			return this;
+		}
+
+		@Override
+		public DataBuffer slice(int index, int length) {
+			PooledBuffer root = root();
+			root.sliced = true;
+			return new PooledSlice(root, this.delegate.slice(index, length));
+		}
+
+		@Override
+		public DataBuffer retainedSlice(int index, int length) {
+			DataBuffer slice = slice(index, length);
+			root().retain();
+			return slice;
+		}
+
+		@Override
+		public ByteBuffer asByteBuffer() {
+			return this.delegate.asByteBuffer();
+		}
+
+		@Override
+		public ByteBuffer asByteBuffer(int index, int length) {
+			return this.delegate.asByteBuffer(index, length);
+		}
+
+		@Override
+		public InputStream asInputStream() {
+			return this.delegate.asInputStream();
+		}
+
+		@Override
+		public InputStream asInputStream(boolean releaseOnClose) {
+			InputStream inputStream = this.delegate.asInputStream();
+			if (!releaseOnClose) {
+				return inputStream;
+			}
+			return new FilterInputStream(inputStream) {
+				private boolean closed;
+				@Override
+				public void close() throws IOException {
+					if (!this.closed) {
+						this.closed = true;
+						DataBufferUtils.release(AbstractPooledBuffer.this);
+					}
+				}
+			};
+		}
+
+		@Override
+		public OutputStream asOutputStream() {
+			return new OutputStream() {
+				@Override
+				public void write(int b) {
+					AbstractPooledBuffer.this.write((byte) b);
+				}
+				@Override
+				public void write(byte[] bytes, int off, int len) {
+					AbstractPooledBuffer.this.write(bytes, off, len);
+				}
+			};
+		}
+
+		@Override
+		public String toString(int index, int length, Charset charset) {
+			return this.delegate.toString(index, length, charset);
+		}
+
+		@Override
+		public boolean equals(@Nullable Object other) {
+			return (this == other || (other instanceof AbstractPooledBuffer &&
+					this.delegate.equals(((AbstractPooledBuffer) other).delegate)));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.delegate.hashCode();
+		}
+
+		@Override
+		public String toString() {
+			return String.format("PooledDataBuffer (r: %d, w: %d, c: %d)",
+					readPosition(), writePosition(), capacity());
+		}
+	}
+
+
+	/**
+	 * A buffer that owns a reference count and, unless allocated beyond the
+	 * largest size class or wrapping existing memory, a chunk from the pool.
+	 */
+	private static final class PooledBuffer extends AbstractPooledBuffer {
+
+		private static final AtomicIntegerFieldUpdater<PooledBuffer> REF_COUNT =
+				AtomicIntegerFieldUpdater.newUpdater(PooledBuffer.class, "refCount");
+
+		private final PooledDataBufferFactory factory;
+
+		@Nullable
+		private ByteBuffer chunk;
+
+		private volatile int refCount = 1;
+
+		// Once sliced, memory given up on growth may still be referenced by a slice
+		private boolean sliced;
+
+		private boolean tracked;
+
+		@Nullable
+		private Throwable allocationSite;
+
+		PooledBuffer(PooledDataBufferFactory factory, DefaultDataBuffer delegate, @Nullable ByteBuffer chunk) {
+			super(delegate);
+			this.factory = factory;
+			this.chunk = chunk;
+		}
+
+		@Override
+		PooledBuffer root() {
+			return this;
+		}
+
+		@Override
+		public boolean isAllocated() {
+			return this.refCount > 0;
+		}
+
+		@Override
+		public PooledDataBuffer retain() {
+			int count;
+			do {
+				count = this.refCount;
+				if (count <= 0) {
+					throw new IllegalStateException("Cannot retain released buffer: " + this);
+				}
+			}
+			while (!REF_COUNT.compareAndSet(this, count, count + 1));
+			return this;
+		}
+
+		@Override
+		public boolean release() {
+			int count;
+			do {
+				count = this.refCount;
+				if (count <= 0) {
+					throw new IllegalStateException("Buffer already released: " + this);
+				}
+			}
+			while (!REF_COUNT.compareAndSet(this, count, count - 1));
+			if (count == 1) {
+				this.factory.deallocate(this);
+				return true;
+			}
+			return false;
+		}
+
+		@Override
+		public DataBuffer capacity(int capacity) {
+			if (capacity > capacity() && capacity <= this.factory.maxPooledCapacity) {
+				grow(capacity, capacity);
+			}
+			else {
+				this.delegate.capacity(capacity);
+			}
+			return this;
+		}
+
+		@Override
+		public DataBuffer ensureCapacity(int length) {
+			if (length > writableByteCount()) {
+				int neededCapacity = writePosition() + length;
+				if (neededCapacity <= this.factory.maxPooledCapacity) {
+					grow(neededCapacity, MIN_POOLED_CAPACITY << sizeClass(neededCapacity));
+				}
+				else {
+					this.delegate.ensureCapacity(length);
+				}
+			}
+			return this;
+		}
+
+		/**
+		 * Move the content to a chunk of the size class for the needed capacity,
+		 * returning the current chunk to the pool unless slices may share it.
+		 */
+		private void grow(int neededCapacity, int newCapacity) {
+			ByteBuffer newChunk = this.factory.acquire(neededCapacity);
+			newChunk.limit(newCapacity);
+			DefaultDataBuffer newDelegate =
+					DefaultDataBuffer.fromEmptyByteBuffer(this.factory.unpooledFactory, newChunk);
+			int readPosition = this.delegate.readPosition();
+			int writePosition = this.delegate.writePosition();
+			if (writePosition > 0) {
+				newDelegate.write(this.delegate.asByteBuffer(0, writePosition));
+			}
+			newDelegate.readPosition(readPosition);
+
+			ByteBuffer oldChunk = this.chunk;
+			this.delegate = newDelegate;
+			this.chunk = newChunk;
+			if (oldChunk != null && !this.sliced) {
+				this.factory.recycle(oldChunk);
+			}
+		}
+	}
+
+
+	/**
+	 * A slice sharing the reference count of the buffer it was created from.
+	 */
+	private static final class PooledSlice extends AbstractPooledBuffer {
+
+		private final PooledBuffer root;
+
+		PooledSlice(PooledBuffer root, DefaultDataBuffer delegate) {
+			super(delegate);
+			this.root = root;
+		}
+
+		@Override
+		PooledBuffer root() {
+			return this.root;
+		}
+	}
+
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.support;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.SpringProperties;
+import org.springframework.util.Assert;
+
+/**
+ * Shared {@link ForkJoinPool} support for parallel classpath scanning, i.e. for
+ * the pattern resolution in {@link PathMatchingResourcePatternResolver} as well
+ * as for the metadata reading in component scanning.
+ *
+ * <p>A pool is lazily created for each distinct parallelism on first use, with
+ * daemon threads, and shared by all scanning components in the class loader.
+ * The pools are never shut down, since any application context in the class
+ * loader may still be scanning: their worker threads terminate by themselves
+ * once the pool has been idle for a while.
+ *
+ * @author Spring Framework Team
+ * @since 5.2.1
+ * @see PathMatchingResourcePatternResolver#PARALLELISM_PROPERTY_NAME
+ */
+public abstract class ParallelScanning {
+
+	private static final Log logger = LogFactory.getLog(ParallelScanning.class);
+
+	private static final Map<Integer, ForkJoinPool> forkJoinPools = new ConcurrentHashMap<>(4);
+
+
+	/**
+	 * Determine the default parallelism for classpath scanning, as specified
+	 * through the {@value PathMatchingResourcePatternResolver#PARALLELISM_PROPERTY_NAME}
+	 * property.
+	 * <p>Falls back to 1, i.e. sequential scanning, if the property is not set
+	 * or if its value is not a positive integer.
+	 */
+	public static int getDefaultParallelism() {
+		String value = SpringProperties.getProperty(PathMatchingResourcePatternResolver.PARALLELISM_PROPERTY_NAME);
+		if (value == null) {
+			return 1;
+		}
+		try {
+			int parallelism = Integer.parseInt(value.trim());
+			if (parallelism > 0) {
+				return parallelism;
+			}
+		}
+		catch (NumberFormatException ex) {
+			// fall through to warning below
+		}
+		if (logger.isWarnEnabled()) {
+			logger.warn("Ignoring invalid value '" + value + "' for property '" +
+					PathMatchingResourcePatternResolver.PARALLELISM_PROPERTY_NAME +
+					"': expected a positive integer - scanning sequentially");
+		}
+		return 1;
+	}
+
+	/**
+	 * Run the given task on the shared pool for the given parallelism and wait
+	 * for its result. Parallel streams created within the task are executed
+	 * on the same pool.
+	 * @param parallelism the parallelism of the pool to use
+	 * @param task the task to run
+	 * @return the result of the task
+	 * @throws InterruptedException if the current thread was interrupted while waiting
+	 * @throws ExecutionException if the task failed
+	 */
+	public static <T> T invoke(int parallelism, Callable<T> task) throws InterruptedException, ExecutionException {
+		Assert.isTrue(parallelism > 0, "Parallelism must be greater than 0");
+		ForkJoinPool forkJoinPool = forkJoinPools.computeIfAbsent(parallelism,
+				key -> new ForkJoinPool(key, ParallelScanning::newWorkerThread, null, false));
+		return forkJoinPool.submit(task).get();
+	}
+
+	private static ForkJoinWorkerThread newWorkerThread(ForkJoinPool pool) {
+		ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+		thread.setName("spring-scan-" + pool.getParallelism() + "-" + thread.getPoolIndex());
+		thread.setDaemon(true);
+		return thread;
+	}
+
+}
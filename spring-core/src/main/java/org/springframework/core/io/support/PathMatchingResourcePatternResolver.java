@@ -19,6 +19,7 @@ package org.springframework.core.io.support;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.net.JarURLConnection;
@@ -33,6 +34,8 @@ import java.util.Comparator;
 import java.util.Enumeration;
 import java.util.LinkedHashSet;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import java.util.zip.ZipException;
@@ -169,6 +172,10 @@ import org.springframework.util.StringUtils;
  * Ant-style pattern in such a case, which will search <i>all</i> class path
  * locations that contain the root package.
  *
+ * <p>Pattern resolution can optionally fan out over the root directories and jar
+ * files to search, using a shared {@link ForkJoinPool}: see {@link #setParallelism}.
+ * The order of the resolved resources is the same as in sequential resolution.
+ *
  * @author Juergen Hoeller
  * @author Colin Sampaleanu
  * @author Marius Bogoevici
@@ -182,6 +189,19 @@ import org.springframework.util.StringUtils;
  */
 public class PathMatchingResourcePatternResolver implements ResourcePatternResolver {
 
+	/**
+	 * System property that specifies the default parallelism for classpath
+	 * scanning, e.g. {@code -Dspring.scan.parallelism=8}.
+	 * <p>Applies to the resolution of root directories and jar files in this
+	 * resolver as well as to the metadata reading in component scanning.
+	 * Not set by default, i.e. resolution is sequential; values other than
+	 * positive integers are ignored with a warning.
+	 * @since 5.2.1
+	 * @see #setParallelism
+	 */
+	public static final String PARALLELISM_PROPERTY_NAME = "spring.scan.parallelism";
+
+
 	private static final Log logger = LogFactory.getLog(PathMatchingResourcePatternResolver.class);
 
 	@Nullable
@@ -205,6 +225,8 @@ public class PathMatchingResourcePatternResolver implements ResourcePatternResol
 
 	private PathMatcher pathMatcher = new AntPathMatcher();
 
+	private int parallelism = ParallelScanning.getDefaultParallelism();
+
 
 	/**
 	 * Create a new PathMatchingResourcePatternResolver with a DefaultResourceLoader.
@@ -268,6 +290,31 @@ public class PathMatchingResourcePatternResolver implements ResourcePatternResol
 		return this.pathMatcher;
 	}
 
+	/**
+	 * Set the maximum number of root directories and jar files to search
+	 * concurrently when resolving a location pattern.
+	 * <p>Default is 1, i.e. sequential resolution, unless specified through the
+	 * {@value #PARALLELISM_PROPERTY_NAME} system property. A value higher than 1
+	 * makes this resolver search on a shared {@link ForkJoinPool} with that
+	 * parallelism, which is mostly worthwhile for many (or large) jar files.
+	 * @since 5.2.1
+	 * @see #PARALLELISM_PROPERTY_NAME
+	 * @see ParallelScanning
+	 */
+	public void setParallelism(int parallelism) {
+		Assert.isTrue(parallelism > 0, "Parallelism must be greater than 0");
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Return the maximum number of root directories and jar files that this
+	 * resolver searches concurrently.
+	 * @since 5.2.1
+	 */
+	public int getParallelism() {
+		return this.parallelism;
+	}
+
 
 	@Override
 	public Resource getResource(String location) {
@@ -493,24 +540,14 @@ public class PathMatchingResourcePatternResolver implements ResourcePatternResol
 		String subPattern = locationPattern.substring(rootDirPath.length());
 		Resource[] rootDirResources = getResources(rootDirPath);
 		Set<Resource> result = new LinkedHashSet<>(16);
-		for (Resource rootDirResource : rootDirResources) {
-			rootDirResource = resolveRootDirResource(rootDirResource);
-			URL rootDirUrl = rootDirResource.getURL();
-			if (equinoxResolveMethod != null && rootDirUrl.getProtocol().startsWith("bundle")) {
-				URL resolvedUrl = (URL) ReflectionUtils.invokeMethod(equinoxResolveMethod, null, rootDirUrl);
-				if (resolvedUrl != null) {
-					rootDirUrl = resolvedUrl;
-				}
-				rootDirResource = new UrlResource(rootDirUrl);
-			}
-			if (rootDirUrl.getProtocol().startsWith(ResourceUtils.URL_PROTOCOL_VFS)) {
-				result.addAll(VfsResourceMatchingDelegate.findMatchingResources(rootDirUrl, subPattern, getPathMatcher()));
+		if (this.parallelism > 1 && rootDirResources.length > 1) {
+			for (Set<Resource> resources : findPathMatchingResourcesInParallel(rootDirResources, subPattern)) {
+				result.addAll(resources);
 			}
-			else if (ResourceUtils.isJarURL(rootDirUrl) || isJarResource(rootDirResource)) {
-				result.addAll(doFindPathMatchingJarResources(rootDirResource, rootDirUrl, subPattern));
-			}
-			else {
-				result.addAll(doFindPathMatchingFileResources(rootDirResource, subPattern));
+		}
+		else {
+			for (Resource rootDirResource : rootDirResources) {
+				result.addAll(findPathMatchingResources(rootDirResource, subPattern));
 			}
 		}
 		if (logger.isTraceEnabled()) {
@@ -519,6 +556,74 @@ public class PathMatchingResourcePatternResolver implements ResourcePatternResol
 		return result.toArray(new Resource[0]);
 	}
 
+	/**
+	 * Find all resources underneath the given root directory resource that
+	 * match the given Ant-style sub-pattern, each root directory being searched
+	 * on the shared scanning {@link ForkJoinPool}. The results are returned in
+	 * the order of the given root directory resources.
+	 */
+	@SuppressWarnings("unchecked")
+	private Set<Resource>[] findPathMatchingResourcesInParallel(Resource[] rootDirResources, String subPattern)
+			throws IOException {
+
+		try {
+			return ParallelScanning.invoke(this.parallelism, () -> Arrays.stream(rootDirResources).parallel()
+					.map(rootDirResource -> {
+						try {
+							return findPathMatchingResources(rootDirResource, subPattern);
+						}
+						catch (IOException ex) {
+							throw new UncheckedIOException(ex);
+						}
+					})
+					.toArray(Set[]::new));
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while resolving resources in parallel", ex);
+		}
+		catch (ExecutionException ex) {
+			Throwable cause = ex.getCause();
+			if (cause instanceof UncheckedIOException) {
+				throw ((UncheckedIOException) cause).getCause();
+			}
+			ReflectionUtils.rethrowRuntimeException(cause);
+			throw new IllegalStateException("Should never get here");
+		}
+	}
+
+	/**
+	 * Find all resources underneath the given root directory resource that
+	 * match the given Ant-style sub-pattern.
+	 * @param rootDirResource the root directory as Resource
+	 * @param subPattern the sub pattern to match (below the root directory)
+	 * @return a mutable Set of matching Resource instances
+	 * @throws IOException in case of I/O errors
+	 * @since 5.2.1
+	 */
+	protected Set<Resource> findPathMatchingResources(Resource rootDirResource, String subPattern)
+			throws IOException {
+
+		rootDirResource = resolveRootDirResource(rootDirResource);
+		URL rootDirUrl = rootDirResource.getURL();
+		if (equinoxResolveMethod != null && rootDirUrl.getProtocol().startsWith("bundle")) {
+			URL resolvedUrl = (URL) ReflectionUtils.invokeMethod(equinoxResolveMethod, null, rootDirUrl);
+			if (resolvedUrl != null) {
+				rootDirUrl = resolvedUrl;
+			}
+			rootDirResource = new UrlResource(rootDirUrl);
+		}
+		if (rootDirUrl.getProtocol().startsWith(ResourceUtils.URL_PROTOCOL_VFS)) {
+			return VfsResourceMatchingDelegate.findMatchingResources(rootDirUrl, subPattern, getPathMatcher());
+		}
+		else if (ResourceUtils.isJarURL(rootDirUrl) || isJarResource(rootDirResource)) {
+			return doFindPathMatchingJarResources(rootDirResource, rootDirUrl, subPattern);
+		}
+		else {
+			return doFindPathMatchingFileResources(rootDirResource, subPattern);
+		}
+	}
+
 	/**
 	 * Determine the root directory for the given location.
 	 * <p>Used for determining the starting point for file matching,
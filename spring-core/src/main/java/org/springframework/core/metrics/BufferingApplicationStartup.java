@@ -0,0 +1,366 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.metrics;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.core.NamedThreadLocal;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * {@link ApplicationStartup} implementation that buffers the recorded
+ * {@link StartupStep steps} in memory, so that they can be inspected
+ * through {@link #getRecordedSteps()} or written as JSON through
+ * {@link #writeJson(Writer)} once the application has started.
+ *
+ * <p>The number of recorded steps is limited by the given capacity;
+ * steps ending once that capacity has been reached are dropped.
+ *
+ * <p>The parent of a step is the innermost step that has been started and
+ * not yet ended on the same thread, so steps recorded concurrently by
+ * several threads are attributed to the correct parents.
+ *
+ * @author Spring Framework Team
+ * @since 5.2.1
+ */
+public class BufferingApplicationStartup implements ApplicationStartup {
+
+	private final int capacity;
+
+	private final AtomicLong idSeq = new AtomicLong();
+
+	private final ThreadLocal<BufferedStartupStep> current = new NamedThreadLocal<>("Current startup step");
+
+	private final AtomicInteger size = new AtomicInteger();
+
+	private final ConcurrentLinkedQueue<RecordedStep> recordedSteps = new ConcurrentLinkedQueue<>();
+
+
+	/**
+	 * Create a new buffered {@link ApplicationStartup} with a limited capacity.
+	 * @param capacity the maximum number of steps to record
+	 */
+	public BufferingApplicationStartup(int capacity) {
+		Assert.isTrue(capacity > 0, "Capacity must be greater than 0");
+		this.capacity = capacity;
+	}
+
+
+	@Override
+	public StartupStep start(String name) {
+		Assert.notNull(name, "Name must not be null");
+		BufferedStartupStep parent = this.current.get();
+		BufferedStartupStep step = new BufferedStartupStep(name, this.idSeq.incrementAndGet(), parent);
+		this.current.set(step);
+		return step;
+	}
+
+	private void record(BufferedStartupStep step) {
+		if (this.current.get() == step) {
+			BufferedStartupStep parent = step.parent;
+			while (parent != null && parent.ended) {
+				parent = parent.parent;
+			}
+			if (parent != null) {
+				this.current.set(parent);
+			}
+			else {
+				this.current.remove();
+			}
+		}
+		if (this.size.incrementAndGet() <= this.capacity) {
+			this.recordedSteps.add(new RecordedStep(step));
+		}
+	}
+
+	/**
+	 * Return the steps recorded so far, in the order in which they ended.
+	 */
+	public List<RecordedStep> getRecordedSteps() {
+		return Collections.unmodifiableList(new ArrayList<>(this.recordedSteps));
+	}
+
+	/**
+	 * Write the steps recorded so far as a JSON document to the given file.
+	 * @param file the file to write to
+	 * @throws IOException in case of I/O errors
+	 * @see #writeJson(Writer)
+	 */
+	public void writeJson(File file) throws IOException {
+		try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+			writeJson(writer);
+		}
+	}
+
+	/**
+	 * Write the steps recorded so far as a JSON document to the given writer.
+	 * <p>The document holds a {@code "steps"} array, each step with its
+	 * {@code "id"}, {@code "parentId"}, {@code "name"}, {@code "tags"},
+	 * {@code "startTime"} and {@code "duration"}, the latter two in ISO-8601
+	 * format.
+	 * @param writer the writer to write to (not closed by this method)
+	 * @throws IOException in case of I/O errors
+	 */
+	public void writeJson(Writer writer) throws IOException {
+		writer.write("{\"steps\":[");
+		boolean first = true;
+		for (RecordedStep step : this.recordedSteps) {
+			if (!first) {
+				writer.write(',');
+			}
+			first = false;
+			writer.write("\n{\"id\":" + step.getId());
+			writer.write(",\"parentId\":" + step.getParentId());
+			writer.write(",\"name\":" + quote(step.getName()));
+			writer.write(",\"tags\":{");
+			boolean firstTag = true;
+			for (StartupStep.Tag tag : step.getTags()) {
+				if (!firstTag) {
+					writer.write(',');
+				}
+				firstTag = false;
+				writer.write(quote(tag.getKey()) + ":" + quote(tag.getValue()));
+			}
+			writer.write("},\"startTime\":" + quote(step.getStartTime().toString()));
+			writer.write(",\"duration\":" + quote(step.getDuration().toString()) + "}");
+		}
+		writer.write("\n]}\n");
+		writer.flush();
+	}
+
+	private static String quote(String value) {
+		StringBuilder sb = new StringBuilder(value.length() + 2);
+		sb.append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '"' || c == '\\') {
+				sb.append('\\').append(c);
+			}
+			else if (c < ' ') {
+				sb.append(String.format("\\u%04x", (int) c));
+			}
+			else {
+				sb.append(c);
+			}
+		}
+		return sb.append('"').toString();
+	}
+
+
+	/**
+	 * A {@link StartupStep} that has ended, along with its start time and duration.
+	 */
+	public static final class RecordedStep {
+
+		private final long id;
+
+		@Nullable
+		private final Long parentId;
+
+		private final String name;
+
+		private final StartupStep.Tags tags;
+
+		private final Instant startTime;
+
+		private final Duration duration;
+
+		RecordedStep(BufferedStartupStep step) {
+			this.id = step.getId();
+			this.parentId = step.getParentId();
+			this.name = step.getName();
+			this.tags = step.getTags();
+			this.startTime = step.startTime;
+			this.duration = Duration.ofNanos(step.endNanos - step.startNanos);
+		}
+
+		/**
+		 * Return the unique id of the step.
+		 */
+		public long getId() {
+			return this.id;
+		}
+
+		/**
+		 * Return the id of the parent step, if any.
+		 */
+		@Nullable
+		public Long getParentId() {
+			return this.parentId;
+		}
+
+		/**
+		 * Return the name of the step.
+		 */
+		public String getName() {
+			return this.name;
+		}
+
+		/**
+		 * Return the tags of the step.
+		 */
+		public StartupStep.Tags getTags() {
+			return this.tags;
+		}
+
+		/**
+		 * Return the time at which the step started.
+		 */
+		public Instant getStartTime() {
+			return this.startTime;
+		}
+
+		/**
+		 * Return the time between the start and the end of the step.
+		 */
+		public Duration getDuration() {
+			return this.duration;
+		}
+
+		@Override
+		public String toString() {
+			return this.name + " (" + this.duration.toMillis() + " ms)";
+		}
+	}
+
+
+	private class BufferedStartupStep implements StartupStep {
+
+		private final String name;
+
+		private final long id;
+
+		@Nullable
+		private final BufferedStartupStep parent;
+
+		private final Instant startTime = Instant.now();
+
+		private final long startNanos = System.nanoTime();
+
+		private final BufferedTags tags = new BufferedTags();
+
+		private volatile long endNanos;
+
+		private volatile boolean ended;
+
+		BufferedStartupStep(String name, long id, @Nullable BufferedStartupStep parent) {
+			this.name = name;
+			this.id = id;
+			this.parent = parent;
+		}
+
+		@Override
+		public String getName() {
+			return this.name;
+		}
+
+		@Override
+		public long getId() {
+			return this.id;
+		}
+
+		@Override
+		@Nullable
+		public Long getParentId() {
+			return (this.parent != null ? this.parent.id : null);
+		}
+
+		@Override
+		public StartupStep tag(String key, String value) {
+			Assert.state(!this.ended, "StartupStep has already ended.");
+			this.tags.add(key, value);
+			return this;
+		}
+
+		@Override
+		public StartupStep tag(String key, Supplier<String> value) {
+			return tag(key, value.get());
+		}
+
+		@Override
+		public Tags getTags() {
+			return this.tags;
+		}
+
+		@Override
+		public void end() {
+			Assert.state(!this.ended, "StartupStep has already ended.");
+			this.endNanos = System.nanoTime();
+			this.ended = true;
+			record(this);
+		}
+	}
+
+
+	private static class BufferedTags implements StartupStep.Tags {
+
+		private final List<StartupStep.Tag> tags = new ArrayList<>(2);
+
+		void add(String key, String value) {
+			this.tags.add(new BufferedTag(key, value));
+		}
+
+		@Override
+		public Iterator<StartupStep.Tag> iterator() {
+			return Collections.unmodifiableList(this.tags).iterator();
+		}
+	}
+
+
+	private static class BufferedTag implements StartupStep.Tag {
+
+		private final String key;
+
+		private final String value;
+
+		BufferedTag(String key, String value) {
+			this.key = key;
+			this.value = value;
+		}
+
+		@Override
+		public String getKey() {
+			return this.key;
+		}
+
+		@Override
+		public String getValue() {
+			return this.value;
+		}
+
+		@Override
+		public String toString() {
+			return this.key + "=" + this.value;
+		}
+	}
+
+}
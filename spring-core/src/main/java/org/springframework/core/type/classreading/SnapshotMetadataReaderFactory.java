@@ -0,0 +1,461 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.type.classreading;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URL;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.io.UrlResource;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.StreamUtils;
+
+/**
+ * {@link CachingMetadataReaderFactory} extension which keeps the class files
+ * it reads in a persistent snapshot file, so that a subsequent JVM can build its
+ * {@link MetadataReader MetadataReaders} without opening the class files again.
+ *
+ * <p>The snapshot is memory-mapped on first use. Each entry is keyed by the URL of
+ * the class file resource and stamped with the {@linkplain Resource#lastModified()
+ * last-modified timestamp} of that resource, which for a class file inside a jar is
+ * the timestamp of the jar file itself. Entries with an outdated stamp are ignored
+ * and re-read from the actual resource. Resources without a last-modified timestamp
+ * are always read from the actual resource and never recorded in the snapshot.
+ *
+ * <p>Class files read from the actual resources are recorded and written back to
+ * the snapshot on {@link #storeSnapshot()}, which is also triggered by
+ * {@link #clearCache()}. Storing merges the entries that other factory instances
+ * have stored in the meantime, and then releases the recorded class file content
+ * in favor of a mapped view of the stored file. Entries that have not been used
+ * in this JVM are only stored again if their resource still exists with the same
+ * stamp, so that entries for deleted or changed class files are pruned.
+ *
+ * <p>Note that the snapshot holds class file content only: ASM parsing of that
+ * content still happens on every start, whereas the I/O against the class path
+ * (in particular the opening of jar entries) does not.
+ *
+ * @author Spring Framework Team
+ * @since 5.2.1
+ * @see org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider
+ */
+public class SnapshotMetadataReaderFactory extends CachingMetadataReaderFactory {
+
+	private final Snapshot snapshot;
+
+
+	/**
+	 * Create a new SnapshotMetadataReaderFactory for the given {@link ResourceLoader},
+	 * using the given snapshot file.
+	 * @param resourceLoader the Spring ResourceLoader to use
+	 * (also determines the ClassLoader to use)
+	 * @param snapshotFile the snapshot file to read from and write to;
+	 * does not need to exist yet
+	 */
+	public SnapshotMetadataReaderFactory(@Nullable ResourceLoader resourceLoader, File snapshotFile) {
+		super(resourceLoader);
+		Assert.notNull(snapshotFile, "Snapshot file must not be null");
+		this.snapshot = new Snapshot(snapshotFile.getAbsoluteFile());
+	}
+
+
+	/**
+	 * Return the snapshot file used by this factory.
+	 */
+	public File getSnapshotFile() {
+		return this.snapshot.file;
+	}
+
+	@Override
+	public MetadataReader getMetadataReader(Resource resource) throws IOException {
+		return super.getMetadataReader(new SnapshotResource(resource, this.snapshot));
+	}
+
+	/**
+	 * Write all class files recorded since the last store operation to the
+	 * snapshot file, along with the entries that are still valid and the
+	 * entries stored by other factories for the same file in the meantime.
+	 * Entries for resources that no longer exist or have changed are dropped.
+	 * This is a no-op if no new class files have been read.
+	 */
+	public void storeSnapshot() {
+		this.snapshot.storeIfNecessary();
+	}
+
+	/**
+	 * This implementation {@linkplain #storeSnapshot() stores the snapshot}
+	 * before clearing the MetadataReader cache.
+	 */
+	@Override
+	public void clearCache() {
+		storeSnapshot();
+		super.clearCache();
+	}
+
+
+	/**
+	 * The content of a snapshot file, along with the class files that have been
+	 * recorded but not stored yet.
+	 * <p>The file format is a magic number and an entry count, followed by the
+	 * entries: each with its UTF-8 encoded key, its stamp and its class file content.
+	 */
+	private static class Snapshot {
+
+		private static final int MAGIC = 0x53504d53;
+
+		private static final int VERSION = 1;
+
+		private static final Log logger = LogFactory.getLog(SnapshotMetadataReaderFactory.class);
+
+		private final File file;
+
+		private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+		private final Set<String> currentKeys = ConcurrentHashMap.newKeySet();
+
+		private volatile boolean dirty;
+
+		Snapshot(File file) {
+			this.file = file;
+			if (file.isFile()) {
+				try {
+					this.entries.putAll(load());
+				}
+				catch (IOException | RuntimeException ex) {
+					if (logger.isDebugEnabled()) {
+						logger.debug("Ignoring unreadable metadata snapshot " + file, ex);
+					}
+				}
+			}
+		}
+
+		private Map<String, Entry> load() throws IOException {
+			ByteBuffer buffer;
+			try (FileChannel channel = FileChannel.open(this.file.toPath(), StandardOpenOption.READ)) {
+				buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			}
+			if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+				throw new IOException("Not a metadata snapshot file");
+			}
+			int count = buffer.getInt();
+			Map<String, Entry> entries = new HashMap<>(count * 2);
+			for (int i = 0; i < count; i++) {
+				byte[] key = new byte[buffer.getInt()];
+				buffer.get(key);
+				long stamp = buffer.getLong();
+				int length = buffer.getInt();
+				if (length > buffer.remaining()) {
+					throw new BufferUnderflowException();
+				}
+				ByteBuffer content = buffer.slice();
+				content.limit(length);
+				buffer.position(buffer.position() + length);
+				entries.put(new String(key, StandardCharsets.UTF_8), new Entry(stamp, content, null));
+			}
+			if (logger.isDebugEnabled()) {
+				logger.debug("Loaded " + count + " class files from metadata snapshot " + this.file);
+			}
+			return entries;
+		}
+
+		@Nullable
+		byte[] getContent(String key, long stamp) {
+			Entry entry = this.entries.get(key);
+			if (entry == null || entry.stamp != stamp) {
+				return null;
+			}
+			this.currentKeys.add(key);
+			return entry.getContent();
+		}
+
+		void record(String key, long stamp, byte[] content) {
+			this.entries.put(key, new Entry(stamp, null, content));
+			this.currentKeys.add(key);
+			this.dirty = true;
+		}
+
+		synchronized void storeIfNecessary() {
+			if (!this.dirty) {
+				return;
+			}
+			this.dirty = false;
+			try {
+				Map<String, Long> archiveStamps = new HashMap<>();
+				Map<String, Entry> entries = new LinkedHashMap<>();
+				this.entries.forEach((key, entry) -> {
+					if (this.currentKeys.contains(key) || isCurrent(key, entry, archiveStamps)) {
+						entries.put(key, entry);
+					}
+					else {
+						this.entries.remove(key, entry);
+					}
+				});
+				if (this.file.isFile()) {
+					try {
+						load().forEach((key, entry) -> {
+							if (!entries.containsKey(key) && isCurrent(key, entry, archiveStamps)) {
+								entries.put(key, entry);
+							}
+						});
+					}
+					catch (IOException | RuntimeException ex) {
+						// Overwrite unreadable snapshot
+					}
+				}
+				Path target = this.file.toPath();
+				Path parent = target.toAbsolutePath().getParent();
+				if (parent != null) {
+					Files.createDirectories(parent);
+				}
+				Path temp = Files.createTempFile(parent, this.file.getName(), ".tmp");
+				try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+					out.writeInt(MAGIC);
+					out.writeInt(VERSION);
+					out.writeInt(entries.size());
+					for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+						byte[] key = entry.getKey().getBytes(StandardCharsets.UTF_8);
+						byte[] content = entry.getValue().getContent();
+						out.writeInt(key.length);
+						out.write(key);
+						out.writeLong(entry.getValue().stamp);
+						out.writeInt(content.length);
+						out.write(content);
+					}
+				}
+				Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+				if (logger.isDebugEnabled()) {
+					logger.debug("Stored " + entries.size() + " class files in metadata snapshot " + this.file);
+				}
+				// Release recorded content, unless recorded again concurrently
+				load().forEach((key, mapped) -> {
+					Entry stored = entries.get(key);
+					if (stored == null || !this.entries.replace(key, stored, mapped)) {
+						this.entries.putIfAbsent(key, mapped);
+					}
+				});
+			}
+			catch (IOException | RuntimeException ex) {
+				if (logger.isInfoEnabled()) {
+					logger.info("Failed to store metadata snapshot " + this.file + ": " + ex);
+				}
+			}
+		}
+
+		/**
+		 * Check whether the resource for the given entry still exists with the
+		 * stamp of the entry. The stamps of jar files are determined once per
+		 * store operation, for all entries within the same jar file.
+		 */
+		private boolean isCurrent(String key, Entry entry, Map<String, Long> archiveStamps) {
+			int separatorIndex = key.indexOf("!/");
+			String location = (separatorIndex != -1 ? key.substring(0, separatorIndex + 2) : key);
+			Long stamp = archiveStamps.get(location);
+			if (stamp == null) {
+				try {
+					stamp = new UrlResource(location).lastModified();
+				}
+				catch (IOException ex) {
+					stamp = 0L;
+				}
+				if (separatorIndex != -1) {
+					archiveStamps.put(location, stamp);
+				}
+			}
+			return (stamp > 0 && stamp == entry.stamp);
+		}
+	}
+
+
+	/**
+	 * A snapshot entry, backed either by a region of the mapped snapshot file
+	 * or by class file content read in this JVM.
+	 */
+	private static class Entry {
+
+		final long stamp;
+
+		@Nullable
+		private final ByteBuffer mapped;
+
+		@Nullable
+		private final byte[] content;
+
+		Entry(long stamp, @Nullable ByteBuffer mapped, @Nullable byte[] content) {
+			this.stamp = stamp;
+			this.mapped = mapped;
+			this.content = content;
+		}
+
+		byte[] getContent() {
+			if (this.content != null) {
+				return this.content;
+			}
+			Assert.state(this.mapped != null, "No content");
+			ByteBuffer buffer = this.mapped.duplicate();
+			byte[] content = new byte[buffer.remaining()];
+			buffer.get(content);
+			return content;
+		}
+	}
+
+
+	/**
+	 * {@link Resource} decorator which serves the class file content from the
+	 * snapshot if possible, recording it otherwise. All other operations as well
+	 * as {@code equals}/{@code hashCode} are delegated to the target resource,
+	 * so that the decorator can be used as a MetadataReader cache key.
+	 */
+	private static class SnapshotResource implements Resource {
+
+		private final Resource resource;
+
+		private final Snapshot snapshot;
+
+		SnapshotResource(Resource resource, Snapshot snapshot) {
+			this.resource = resource;
+			this.snapshot = snapshot;
+		}
+
+		@Override
+		public InputStream getInputStream() throws IOException {
+			long stamp = getStamp();
+			if (stamp <= 0) {
+				// No way to detect changes: do not take it from the snapshot.
+				return this.resource.getInputStream();
+			}
+			String key = this.resource.getURL().toString();
+			byte[] content = this.snapshot.getContent(key, stamp);
+			if (content == null) {
+				try (InputStream is = this.resource.getInputStream()) {
+					content = StreamUtils.copyToByteArray(is);
+				}
+				this.snapshot.record(key, stamp, content);
+			}
+			return new ByteArrayInputStream(content);
+		}
+
+		private long getStamp() {
+			try {
+				return this.resource.lastModified();
+			}
+			catch (IOException ex) {
+				return 0;
+			}
+		}
+
+		@Override
+		public boolean exists() {
+			return this.resource.exists();
+		}
+
+		@Override
+		public boolean isReadable() {
+			return this.resource.isReadable();
+		}
+
+		@Override
+		public boolean isOpen() {
+			return this.resource.isOpen();
+		}
+
+		@Override
+		public boolean isFile() {
+			return this.resource.isFile();
+		}
+
+		@Override
+		public URL getURL() throws IOException {
+			return this.resource.getURL();
+		}
+
+		@Override
+		public URI getURI() throws IOException {
+			return this.resource.getURI();
+		}
+
+		@Override
+		public File getFile() throws IOException {
+			return this.resource.getFile();
+		}
+
+		@Override
+		public long contentLength() throws IOException {
+			return this.resource.contentLength();
+		}
+
+		@Override
+		public long lastModified() throws IOException {
+			return this.resource.lastModified();
+		}
+
+		@Override
+		public Resource createRelative(String relativePath) throws IOException {
+			return this.resource.createRelative(relativePath);
+		}
+
+		@Override
+		@Nullable
+		public String getFilename() {
+			return this.resource.getFilename();
+		}
+
+		@Override
+		public String getDescription() {
+			return this.resource.getDescription();
+		}
+
+		@Override
+		public boolean equals(@Nullable Object other) {
+			return (this == other || (other instanceof SnapshotResource &&
+					this.resource.equals(((SnapshotResource) other).resource)));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.resource.hashCode();
+		}
+
+		@Override
+		public String toString() {
+			return this.resource.toString();
+		}
+	}
+
+}
@@ -0,0 +1,746 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.ConcurrentReferenceHashMap.ReferenceType;
+
+/**
+ * An open-addressing variant of {@link ConcurrentReferenceHashMap}, using
+ * {@link ReferenceType#SOFT soft} or {@linkplain ReferenceType#WEAK weak} references
+ * for both {@code keys} and {@code values}, with the same {@code null} key and
+ * {@code null} value support.
+ *
+ * <p>Instead of segments with chained references, all entries live in a single
+ * linear-probing table: the hashes are kept in a primitive {@code int[]} array next to
+ * the references, so that a lookup only dereferences entries whose hash matches. Reads
+ * never lock; they operate on a volatile snapshot of the table. Writes are serialized
+ * through a single lock, and the table is rebuilt on resize without creating new
+ * references. This makes the map a good fit for read-mostly metadata caches, where it
+ * has a considerably smaller footprint than a segmented {@link ConcurrentReferenceHashMap}
+ * - in particular for the many small per-class caches of a large application context.
+ * For write-heavy use cases, {@link ConcurrentReferenceHashMap} remains preferable.
+ *
+ * <p><b>NOTE:</b> The use of references means that there is no guarantee that items
+ * placed into the map will be subsequently available. The garbage collector may discard
+ * references at any time, so it may appear that an unknown thread is silently removing
+ * entries.
+ *
+ * <p>If not explicitly specified, this implementation will use
+ * {@linkplain SoftReference soft entry references}.
+ *
+ * @author Spring Framework Team
+ * @since 5.2.1
+ * @param <K> the key type
+ * @param <V> the value type
+ * @see ConcurrentReferenceHashMap
+ */
+public class ConcurrentReferenceOpenHashMap<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V> {
+
+	private static final int DEFAULT_INITIAL_CAPACITY = 16;
+
+	private static final float DEFAULT_LOAD_FACTOR = 0.75f;
+
+	private static final ReferenceType DEFAULT_REFERENCE_TYPE = ReferenceType.SOFT;
+
+	private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+	/**
+	 * Marker for a slot whose entry has been removed or purged. Probing continues
+	 * past such slots, whereas an empty ({@code null}) slot terminates a probe.
+	 */
+	private static final Object TOMBSTONE = new Object();
+
+
+	/**
+	 * When the number of used slots (including removed ones) exceeds this fraction
+	 * of the table size, the table will be rebuilt and possibly resized.
+	 */
+	private final float loadFactor;
+
+	/**
+	 * The reference type: SOFT or WEAK.
+	 */
+	private final ReferenceType referenceType;
+
+	/**
+	 * The size of the table to use after {@link #clear()}.
+	 */
+	private final int initialCapacity;
+
+	/**
+	 * Queue of references cleared by the garbage collector.
+	 */
+	private final ReferenceQueue<ConcurrentReferenceHashMap.Entry<K, V>> queue = new ReferenceQueue<>();
+
+	/**
+	 * Lock serializing all structural modifications.
+	 */
+	private final ReentrantLock lock = new ReentrantLock();
+
+	/**
+	 * The current table. Never modified in place after being replaced,
+	 * so that readers can work with a local copy without locking.
+	 */
+	private volatile Table table;
+
+	/**
+	 * The number of references in the table. This includes references that
+	 * have been garbage collected but not purged yet.
+	 */
+	private volatile int count;
+
+	/**
+	 * The number of removed slots in the current table, guarded by the lock.
+	 */
+	private int tombstones;
+
+	/**
+	 * Late binding entry set.
+	 */
+	@Nullable
+	private volatile Set<Map.Entry<K, V>> entrySet;
+
+
+	/**
+	 * Create a new {@code ConcurrentReferenceOpenHashMap} instance.
+	 */
+	public ConcurrentReferenceOpenHashMap() {
+		this(DEFAULT_INITIAL_CAPACITY, DEFAULT_LOAD_FACTOR, DEFAULT_REFERENCE_TYPE);
+	}
+
+	/**
+	 * Create a new {@code ConcurrentReferenceOpenHashMap} instance.
+	 * @param initialCapacity the initial capacity of the map
+	 */
+	public ConcurrentReferenceOpenHashMap(int initialCapacity) {
+		this(initialCapacity, DEFAULT_LOAD_FACTOR, DEFAULT_REFERENCE_TYPE);
+	}
+
+	/**
+	 * Create a new {@code ConcurrentReferenceOpenHashMap} instance.
+	 * @param initialCapacity the initial capacity of the map
+	 * @param referenceType the reference type used for entries (soft or weak)
+	 */
+	public ConcurrentReferenceOpenHashMap(int initialCapacity, ReferenceType referenceType) {
+		this(initialCapacity, DEFAULT_LOAD_FACTOR, referenceType);
+	}
+
+	/**
+	 * Create a new {@code ConcurrentReferenceOpenHashMap} instance.
+	 * @param initialCapacity the initial capacity of the map
+	 * @param loadFactor the load factor, between 0 and 1 (exclusive). When the fraction
+	 * of used slots in the table exceeds this value, the table will be rebuilt.
+	 * @param referenceType the reference type used for entries (soft or weak)
+	 */
+	public ConcurrentReferenceOpenHashMap(int initialCapacity, float loadFactor, ReferenceType referenceType) {
+		Assert.isTrue(initialCapacity >= 0, "Initial capacity must not be negative");
+		Assert.isTrue(loadFactor > 0f && loadFactor < 1f, "Load factor must be between 0 and 1");
+		Assert.notNull(referenceType, "Reference type must not be null");
+		this.loadFactor = loadFactor;
+		this.referenceType = referenceType;
+		this.initialCapacity = tableSizeFor(Math.max(initialCapacity, 2));
+		this.table = new Table(this.initialCapacity, loadFactor);
+	}
+
+
+	protected final float getLoadFactor() {
+		return this.loadFactor;
+	}
+
+	/**
+	 * Return the size of the current table, i.e. the number of slots.
+	 */
+	protected final int getTableSize() {
+		return this.table.slots.length();
+	}
+
+	/**
+	 * Get the hash for a given object, apply an additional hash function to reduce
+	 * collisions. This implementation uses the same Wang/Jenkins algorithm as
+	 * {@link ConcurrentReferenceHashMap}. Subclasses can override to provide
+	 * alternative hashing.
+	 * @param o the object to hash (may be null)
+	 * @return the resulting hash code
+	 */
+	protected int getHash(@Nullable Object o) {
+		int hash = (o != null ? o.hashCode() : 0);
+		hash += (hash << 15) ^ 0xffffcd7d;
+		hash ^= (hash >>> 10);
+		hash += (hash << 3);
+		hash ^= (hash >>> 6);
+		hash += (hash << 2) + (hash << 14);
+		hash ^= (hash >>> 16);
+		return hash;
+	}
+
+	@Override
+	@Nullable
+	public V get(@Nullable Object key) {
+		ConcurrentReferenceHashMap.Entry<K, V> entry = getEntry(key);
+		return (entry != null ? entry.getValue() : null);
+	}
+
+	@Override
+	@Nullable
+	public V getOrDefault(@Nullable Object key, @Nullable V defaultValue) {
+		ConcurrentReferenceHashMap.Entry<K, V> entry = getEntry(key);
+		return (entry != null ? entry.getValue() : defaultValue);
+	}
+
+	@Override
+	public boolean containsKey(@Nullable Object key) {
+		return (getEntry(key) != null);
+	}
+
+	@Nullable
+	private ConcurrentReferenceHashMap.Entry<K, V> getEntry(@Nullable Object key) {
+		purgeIfNecessary();
+		if (this.count == 0) {
+			return null;
+		}
+		int hash = getHash(key);
+		Table table = this.table;
+		int index = table.indexOf(key, hash);
+		return (index >= 0 ? table.getEntry(index) : null);
+	}
+
+	@Override
+	@Nullable
+	public V put(@Nullable K key, @Nullable V value) {
+		return put(key, value, true);
+	}
+
+	@Override
+	@Nullable
+	public V putIfAbsent(@Nullable K key, @Nullable V value) {
+		return put(key, value, false);
+	}
+
+	@Nullable
+	private V put(@Nullable K key, @Nullable V value, boolean overwriteExisting) {
+		int hash = getHash(key);
+		this.lock.lock();
+		try {
+			purge();
+			Table table = this.table;
+			int index = table.indexOf(key, hash);
+			if (index >= 0) {
+				ConcurrentReferenceHashMap.Entry<K, V> entry = table.getEntry(index);
+				if (entry != null) {
+					V oldValue = entry.getValue();
+					if (overwriteExisting) {
+						entry.setValue(value);
+					}
+					return oldValue;
+				}
+			}
+			if (this.count + this.tombstones >= table.threshold) {
+				table = rebuild(table);
+			}
+			if (table.insert(hash, createReference(new ConcurrentReferenceHashMap.Entry<>(key, value), hash))) {
+				this.tombstones--;
+			}
+			this.count++;
+			return null;
+		}
+		finally {
+			this.lock.unlock();
+		}
+	}
+
+	@Override
+	@Nullable
+	public V remove(@Nullable Object key) {
+		if (this.count == 0) {
+			return null;
+		}
+		int hash = getHash(key);
+		this.lock.lock();
+		try {
+			Table table = this.table;
+			int index = table.indexOf(key, hash);
+			ConcurrentReferenceHashMap.Entry<K, V> entry = (index >= 0 ? table.getEntry(index) : null);
+			if (entry != null) {
+				removeAt(table, index);
+				return entry.getValue();
+			}
+			return null;
+		}
+		finally {
+			this.lock.unlock();
+		}
+	}
+
+	@Override
+	public boolean remove(@Nullable Object key, @Nullable Object value) {
+		if (this.count == 0) {
+			return false;
+		}
+		int hash = getHash(key);
+		this.lock.lock();
+		try {
+			Table table = this.table;
+			int index = table.indexOf(key, hash);
+			ConcurrentReferenceHashMap.Entry<K, V> entry = (index >= 0 ? table.getEntry(index) : null);
+			if (entry != null && ObjectUtils.nullSafeEquals(entry.getValue(), value)) {
+				removeAt(table, index);
+				return true;
+			}
+			return false;
+		}
+		finally {
+			this.lock.unlock();
+		}
+	}
+
+	@Override
+	public boolean replace(@Nullable K key, @Nullable V oldValue, @Nullable V newValue) {
+		if (this.count == 0) {
+			return false;
+		}
+		int hash = getHash(key);
+		this.lock.lock();
+		try {
+			Table table = this.table;
+			int index = table.indexOf(key, hash);
+			ConcurrentReferenceHashMap.Entry<K, V> entry = (index >= 0 ? table.getEntry(index) : null);
+			if (entry != null && ObjectUtils.nullSafeEquals(entry.getValue(), oldValue)) {
+				entry.setValue(newValue);
+				return true;
+			}
+			return false;
+		}
+		finally {
+			this.lock.unlock();
+		}
+	}
+
+	@Override
+	@Nullable
+	public V replace(@Nullable K key, @Nullable V value) {
+		if (this.count == 0) {
+			return null;
+		}
+		int hash = getHash(key);
+		this.lock.lock();
+		try {
+			Table table = this.table;
+			int index = table.indexOf(key, hash);
+			ConcurrentReferenceHashMap.Entry<K, V> entry = (index >= 0 ? table.getEntry(index) : null);
+			return (entry != null ? entry.setValue(value) : null);
+		}
+		finally {
+			this.lock.unlock();
+		}
+	}
+
+	@Override
+	public void clear() {
+		this.lock.lock();
+		try {
+			this.table = new Table(this.initialCapacity, this.loadFactor);
+			this.count = 0;
+			this.tombstones = 0;
+		}
+		finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Remove any entries that have been garbage collected and are no longer referenced.
+	 * Under normal circumstances garbage collected entries are automatically purged as
+	 * items are added to or read from the Map. This method can be used to force a purge.
+	 */
+	public void purgeUnreferencedEntries() {
+		purgeIfNecessary();
+	}
+
+	@Override
+	public int size() {
+		return this.count;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return (this.count == 0);
+	}
+
+	@Override
+	public Set<Map.Entry<K, V>> entrySet() {
+		Set<Map.Entry<K, V>> entrySet = this.entrySet;
+		if (entrySet == null) {
+			entrySet = new EntrySet();
+			this.entrySet = entrySet;
+		}
+		return entrySet;
+	}
+
+	private EntryReference<K, V> createReference(ConcurrentReferenceHashMap.Entry<K, V> entry, int hash) {
+		if (this.referenceType == ReferenceType.WEAK) {
+			return new WeakEntryReference<>(entry, hash, this.queue);
+		}
+		return new SoftEntryReference<>(entry, hash, this.queue);
+	}
+
+	/**
+	 * Purge garbage collected references if the reference queue indicates any,
+	 * without locking otherwise.
+	 */
+	private void purgeIfNecessary() {
+		if (this.count > 0) {
+			EntryReference<K, V> ref = pollForPurge();
+			if (ref != null) {
+				this.lock.lock();
+				try {
+					purge(ref);
+					purge();
+				}
+				finally {
+					this.lock.unlock();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Purge all references from the queue. Must be called with the lock held.
+	 */
+	private void purge() {
+		EntryReference<K, V> ref = pollForPurge();
+		while (ref != null) {
+			purge(ref);
+			ref = pollForPurge();
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	@Nullable
+	private EntryReference<K, V> pollForPurge() {
+		return (EntryReference<K, V>) this.queue.poll();
+	}
+
+	private void purge(EntryReference<K, V> ref) {
+		Table table = this.table;
+		int index = table.indexOf(ref);
+		if (index >= 0) {
+			removeAt(table, index);
+		}
+	}
+
+	private void removeAt(Table table, int index) {
+		Object slot = table.slots.get(index);
+		table.slots.set(index, TOMBSTONE);
+		if (slot instanceof Reference) {
+			((Reference<?>) slot).clear();
+		}
+		this.count--;
+		this.tombstones++;
+	}
+
+	/**
+	 * Rebuild the given table into a new one, dropping removed slots as well as
+	 * references that have been garbage collected, and doubling the table size
+	 * if the remaining references would still use more than half the threshold.
+	 * Must be called with the lock held.
+	 */
+	private Table rebuild(Table table) {
+		int size = table.slots.length();
+		int live = 0;
+		for (int i = 0; i < size; i++) {
+			Object slot = table.slots.get(i);
+			if (slot != null && slot != TOMBSTONE && ((EntryReference<?, ?>) slot).get() != null) {
+				live++;
+			}
+		}
+		int newSize = size;
+		while (newSize < MAXIMUM_CAPACITY && (live + 1) * 2 > (int) (newSize * this.loadFactor)) {
+			newSize <<= 1;
+		}
+		Table rebuilt = new Table(newSize, this.loadFactor);
+		live = 0;
+		for (int i = 0; i < size; i++) {
+			Object slot = table.slots.get(i);
+			if (slot != null && slot != TOMBSTONE && ((EntryReference<?, ?>) slot).get() != null) {
+				rebuilt.insert(table.hashes[i], slot);
+				live++;
+			}
+		}
+		this.table = rebuilt;
+		this.count = live;
+		this.tombstones = 0;
+		return rebuilt;
+	}
+
+	private static int tableSizeFor(int capacity) {
+		int size = 1;
+		while (size < capacity && size < MAXIMUM_CAPACITY) {
+			size <<= 1;
+		}
+		return size;
+	}
+
+
+	/**
+	 * A linear-probing table. Slots hold either {@code null} (never used),
+	 * {@link #TOMBSTONE} (removed) or an {@link EntryReference}; the hash of the
+	 * entry in a slot is held in the same position of the {@code hashes} array.
+	 * A hash is always written before its slot, so that a reader observing a
+	 * reference in a slot also observes the corresponding hash.
+	 */
+	private final class Table {
+
+		private final int[] hashes;
+
+		private final AtomicReferenceArray<Object> slots;
+
+		private final int mask;
+
+		private final int threshold;
+
+		Table(int size, float loadFactor) {
+			this.hashes = new int[size];
+			this.slots = new AtomicReferenceArray<>(size);
+			this.mask = size - 1;
+			this.threshold = Math.min((int) (size * loadFactor), size - 1);
+		}
+
+		/**
+		 * Return the index of the slot holding a live entry for the given key, or -1.
+		 */
+		int indexOf(@Nullable Object key, int hash) {
+			int[] hashes = this.hashes;
+			AtomicReferenceArray<Object> slots = this.slots;
+			int index = hash & this.mask;
+			for (int probes = 0; probes <= this.mask; probes++) {
+				Object slot = slots.get(index);
+				if (slot == null) {
+					return -1;
+				}
+				if (slot != TOMBSTONE && hashes[index] == hash) {
+					ConcurrentReferenceHashMap.Entry<?, ?> entry = ((EntryReference<?, ?>) slot).get();
+					if (entry != null && ObjectUtils.nullSafeEquals(entry.getKey(), key)) {
+						return index;
+					}
+				}
+				index = (index + 1) & this.mask;
+			}
+			return -1;
+		}
+
+		/**
+		 * Return the index of the slot holding the given reference, or -1.
+		 */
+		int indexOf(EntryReference<?, ?> ref) {
+			int index = ref.getHash() & this.mask;
+			for (int probes = 0; probes <= this.mask; probes++) {
+				Object slot = this.slots.get(index);
+				if (slot == null) {
+					return -1;
+				}
+				if (slot == ref) {
+					return index;
+				}
+				index = (index + 1) & this.mask;
+			}
+			return -1;
+		}
+
+		@Nullable
+		@SuppressWarnings("unchecked")
+		ConcurrentReferenceHashMap.Entry<K, V> getEntry(int index) {
+			Object slot = this.slots.get(index);
+			return (slot instanceof EntryReference ? ((EntryReference<K, V>) slot).get() : null);
+		}
+
+		/**
+		 * Insert the given reference into the first free slot for its hash.
+		 * @return {@code true} if a removed slot was reused, {@code false} if an
+		 * empty slot was used
+		 */
+		boolean insert(int hash, Object ref) {
+			int index = hash & this.mask;
+			while (true) {
+				Object slot = this.slots.get(index);
+				if (slot == null || slot == TOMBSTONE) {
+					this.hashes[index] = hash;
+					this.slots.set(index, ref);
+					return (slot == TOMBSTONE);
+				}
+				index = (index + 1) & this.mask;
+			}
+		}
+	}
+
+
+	/**
+	 * A reference to an {@link Entry} contained in the map, along with its hash.
+	 */
+	private interface EntryReference<K, V> {
+
+		@Nullable
+		ConcurrentReferenceHashMap.Entry<K, V> get();
+
+		int getHash();
+	}
+
+
+	/**
+	 * Internal entry-set implementation.
+	 */
+	private class EntrySet extends AbstractSet<Map.Entry<K, V>> {
+
+		@Override
+		public Iterator<Map.Entry<K, V>> iterator() {
+			return new EntryIterator();
+		}
+
+		@Override
+		public boolean contains(@Nullable Object o) {
+			if (o instanceof Map.Entry<?, ?>) {
+				Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+				ConcurrentReferenceHashMap.Entry<K, V> otherEntry = getEntry(entry.getKey());
+				return (otherEntry != null && ObjectUtils.nullSafeEquals(otherEntry.getValue(), entry.getValue()));
+			}
+			return false;
+		}
+
+		@Override
+		public boolean remove(Object o) {
+			if (o instanceof Map.Entry<?, ?>) {
+				Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+				return ConcurrentReferenceOpenHashMap.this.remove(entry.getKey(), entry.getValue());
+			}
+			return false;
+		}
+
+		@Override
+		public int size() {
+			return ConcurrentReferenceOpenHashMap.this.size();
+		}
+
+		@Override
+		public void clear() {
+			ConcurrentReferenceOpenHashMap.this.clear();
+		}
+	}
+
+
+	/**
+	 * Internal entry iterator implementation, operating on a snapshot of the table.
+	 */
+	private class EntryIterator implements Iterator<Map.Entry<K, V>> {
+
+		private final Table table = ConcurrentReferenceOpenHashMap.this.table;
+
+		private int index;
+
+		@Nullable
+		private ConcurrentReferenceHashMap.Entry<K, V> next;
+
+		@Nullable
+		private ConcurrentReferenceHashMap.Entry<K, V> last;
+
+		@Override
+		public boolean hasNext() {
+			getNextIfNecessary();
+			return (this.next != null);
+		}
+
+		@Override
+		public Map.Entry<K, V> next() {
+			getNextIfNecessary();
+			if (this.next == null) {
+				throw new NoSuchElementException();
+			}
+			this.last = this.next;
+			this.next = null;
+			return this.last;
+		}
+
+		private void getNextIfNecessary() {
+			while (this.next == null && this.index < this.table.slots.length()) {
+				this.next = this.table.getEntry(this.index);
+				this.index++;
+			}
+		}
+
+		@Override
+		public void remove() {
+			Assert.state(this.last != null, "No element to remove");
+			ConcurrentReferenceOpenHashMap.this.remove(this.last.getKey());
+		}
+	}
+
+
+	/**
+	 * Internal {@link EntryReference} implementation for {@link SoftReference SoftReferences}.
+	 */
+	private static final class SoftEntryReference<K, V> extends SoftReference<ConcurrentReferenceHashMap.Entry<K, V>>
+			implements EntryReference<K, V> {
+
+		private final int hash;
+
+		SoftEntryReference(ConcurrentReferenceHashMap.Entry<K, V> entry, int hash,
+				ReferenceQueue<ConcurrentReferenceHashMap.Entry<K, V>> queue) {
+			super(entry, queue);
+			this.hash = hash;
+		}
+
+		@Override
+		public int getHash() {
+			return this.hash;
+		}
+	}
+
+
+	/**
+	 * Internal {@link EntryReference} implementation for {@link WeakReference WeakReferences}.
+	 */
+	private static final class WeakEntryReference<K, V> extends WeakReference<ConcurrentReferenceHashMap.Entry<K, V>>
+			implements EntryReference<K, V> {
+
+		private final int hash;
+
+		WeakEntryReference(ConcurrentReferenceHashMap.Entry<K, V> entry, int hash,
+				ReferenceQueue<ConcurrentReferenceHashMap.Entry<K, V>> queue) {
+			super(entry, queue);
+			this.hash = hash;
+		}
+
+		@Override
+		public int getHash() {
+			return this.hash;
+		}
+	}
+
+}
@@ -249,8 +249,18 @@ public abstract class StringUtils {
 		}
 
 		int len = str.length();
-		StringBuilder sb = new StringBuilder(str.length());
-		for (int i = 0; i < len; i++) {
+		int start = 0;
+		while (start < len && !Character.isWhitespace(str.charAt(start))) {
+			start++;
+		}
+		if (start == len) {
+			// No whitespace at all: avoid copying the String
+			return str;
+		}
+
+		StringBuilder sb = new StringBuilder(len);
+		sb.append(str, 0, start);
+		for (int i = start + 1; i < len; i++) {
 			char c = str.charAt(i);
 			if (!Character.isWhitespace(c)) {
 				sb.append(c);
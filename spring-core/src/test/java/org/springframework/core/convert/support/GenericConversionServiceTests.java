@@ -146,6 +146,29 @@ class GenericConversionServiceTests {
 				conversionService.convert("3", Integer.class));
 	}
 
+	@Test
+	void converterNotFoundThenConverterAdded() {
+		assertThatExceptionOfType(ConverterNotFoundException.class).isThrownBy(() ->
+				conversionService.convert("3", Integer.class));
+		conversionService.addConverterFactory(new StringToNumberConverterFactory());
+		assertThat(conversionService.convert("3", Integer.class)).isEqualTo(3);
+		conversionService.removeConvertible(String.class, Number.class);
+		assertThatExceptionOfType(ConverterNotFoundException.class).isThrownBy(() ->
+				conversionService.convert("3", Integer.class));
+	}
+
+	@Test
+	void convertWithCustomTypeDescriptorConversion() {
+		GenericConversionService conversionService = new GenericConversionService() {
+			@Override
+			@Nullable
+			public Object convert(@Nullable Object source, @Nullable TypeDescriptor sourceType, TypeDescriptor targetType) {
+				return (targetType.getType() == Integer.class ? 42 : super.convert(source, sourceType, targetType));
+			}
+		};
+		assertThat(conversionService.convert("3", Integer.class)).isEqualTo(42);
+	}
+
 	@Test
 	void addConverterNoSourceTargetClassInfoAvailable() {
 		assertThatIllegalArgumentException().isThrownBy(() ->
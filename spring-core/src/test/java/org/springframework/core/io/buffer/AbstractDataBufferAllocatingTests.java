@@ -111,6 +111,10 @@ public abstract class AbstractDataBufferAllocatingTests {
 	}
 
 	private void verifyAllocations() {
+		if (this.bufferFactory instanceof PooledDataBufferFactory) {
+			long active = ((PooledDataBufferFactory) this.bufferFactory).getActiveBufferCount();
+			assertThat(active).as("DataBuffer Leak: " + active + " unreleased allocations").isEqualTo(0);
+		}
 		if (this.bufferFactory instanceof NettyDataBufferFactory) {
 			ByteBufAllocator allocator = ((NettyDataBufferFactory) this.bufferFactory).getByteBufAllocator();
 			if (allocator instanceof PooledByteBufAllocator) {
@@ -162,7 +166,11 @@ public abstract class AbstractDataBufferAllocatingTests {
 			arguments("DefaultDataBufferFactory - preferDirect = true",
 					new DefaultDataBufferFactory(true)),
 			arguments("DefaultDataBufferFactory - preferDirect = false",
-					new DefaultDataBufferFactory(false))
+					new DefaultDataBufferFactory(false)),
+			arguments("PooledDataBufferFactory - preferDirect = true",
+					new PooledDataBufferFactory(true)),
+			arguments("PooledDataBufferFactory - preferDirect = false",
+					new PooledDataBufferFactory(false))
 		);
 	}
 
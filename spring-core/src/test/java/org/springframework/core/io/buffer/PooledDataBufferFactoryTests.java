@@ -0,0 +1,148 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.springframework.core.io.buffer.DataBufferUtils.release;
+
+/**
+ * Unit tests for {@link PooledDataBufferFactory}.
+ *
+ * @author Spring Framework Team
+ */
+class PooledDataBufferFactoryTests {
+
+	private final PooledDataBufferFactory bufferFactory = new PooledDataBufferFactory();
+
+
+	@Test
+	void allocateExactCapacity() {
+		PooledDataBuffer buffer = this.bufferFactory.allocateBuffer(100);
+		assertThat(buffer.capacity()).isEqualTo(100);
+		assertThat(buffer.factory()).isSameAs(this.bufferFactory);
+		assertThat(this.bufferFactory.getActiveBufferCount()).isEqualTo(1);
+
+		assertThat(buffer.release()).isTrue();
+		assertThat(buffer.isAllocated()).isFalse();
+		assertThat(this.bufferFactory.getActiveBufferCount()).isEqualTo(0);
+	}
+
+	@Test
+	void reuseReleasedMemory() {
+		PooledDataBuffer buffer = this.bufferFactory.allocateBuffer(1000);
+		ByteBuffer memory = buffer.asByteBuffer(0, 1);
+		buffer.write((byte) 'a');
+		release(buffer);
+
+		buffer = this.bufferFactory.allocateBuffer(1024);
+		buffer.write((byte) 'b');
+		assertThat(memory.get(0)).isEqualTo((byte) 'b');
+		release(buffer);
+	}
+
+	@Test
+	void doNotPoolLargeBuffers() {
+		PooledDataBufferFactory bufferFactory = new PooledDataBufferFactory(false, 1024, 4, false);
+		PooledDataBuffer buffer = bufferFactory.allocateBuffer(2048);
+		ByteBuffer memory = buffer.asByteBuffer(0, 1);
+		release(buffer);
+
+		buffer = bufferFactory.allocateBuffer(2048);
+		buffer.write((byte) 'b');
+		assertThat(memory.get(0)).isEqualTo((byte) 0);
+		release(buffer);
+	}
+
+	@Test
+	void expandKeepsContent() {
+		PooledDataBuffer buffer = this.bufferFactory.allocateBuffer(4);
+		buffer.write("abcd", StandardCharsets.UTF_8);
+		buffer.read();
+		buffer.write(new byte[1000]);
+
+		assertThat(buffer.capacity()).isEqualTo(1024);
+		assertThat(buffer.readPosition()).isEqualTo(1);
+		assertThat(buffer.toString(1, 3, StandardCharsets.UTF_8)).isEqualTo("bcd");
+		release(buffer);
+	}
+
+	@Test
+	void sliceSharesReferenceCount() {
+		PooledDataBuffer buffer = this.bufferFactory.allocateBuffer(4);
+		buffer.write("abcd", StandardCharsets.UTF_8);
+		DataBuffer slice = buffer.retainedSlice(1, 2);
+		assertThat(slice.toString(StandardCharsets.UTF_8)).isEqualTo("bc");
+
+		assertThat(release(buffer)).isFalse();
+		assertThat(((PooledDataBuffer) slice).isAllocated()).isTrue();
+		assertThat(release(slice)).isTrue();
+		assertThat(buffer.isAllocated()).isFalse();
+	}
+
+	@Test
+	void tooManyReleases() {
+		PooledDataBuffer buffer = this.bufferFactory.allocateBuffer();
+		buffer.release();
+		assertThatIllegalStateException().isThrownBy(buffer::release);
+	}
+
+	@Test
+	void wrapIsNotTracked() {
+		PooledDataBuffer buffer = this.bufferFactory.wrap("abc".getBytes(StandardCharsets.UTF_8));
+		assertThat(this.bufferFactory.getActiveBufferCount()).isEqualTo(0);
+		assertThat(buffer.release()).isTrue();
+	}
+
+	@Test
+	void join() {
+		DataBuffer joined = this.bufferFactory.join(Arrays.asList(
+				this.bufferFactory.wrap("ab".getBytes(StandardCharsets.UTF_8)),
+				this.bufferFactory.wrap("cd".getBytes(StandardCharsets.UTF_8))));
+		assertThat(joined.toString(StandardCharsets.UTF_8)).isEqualTo("abcd");
+		release(joined);
+		assertThat(this.bufferFactory.getActiveBufferCount()).isEqualTo(0);
+	}
+
+	@Test
+	void leak() {
+		this.bufferFactory.setLeakDetection(true);
+		DataBuffer buffer = this.bufferFactory.allocateBuffer();
+		try {
+			assertThatIllegalStateException().isThrownBy(this.bufferFactory::checkForLeaks)
+					.withMessageStartingWith("1 data buffer(s)");
+		}
+		finally {
+			release(buffer);
+		}
+		this.bufferFactory.checkForLeaks();
+	}
+
+	@Test
+	void invalidMaxPooledCapacity() {
+		assertThatIllegalArgumentException().isThrownBy(() ->
+				new PooledDataBufferFactory(false, 1000, 4, false));
+	}
+
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.support;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.core.SpringProperties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Tests for {@link ParallelScanning}.
+ *
+ * @author Spring Framework Team
+ */
+class ParallelScanningTests {
+
+	@AfterEach
+	void reset() {
+		SpringProperties.setProperty(PathMatchingResourcePatternResolver.PARALLELISM_PROPERTY_NAME, null);
+	}
+
+
+	@Test
+	void defaultParallelism() {
+		assertThat(ParallelScanning.getDefaultParallelism()).isEqualTo(1);
+		SpringProperties.setProperty(PathMatchingResourcePatternResolver.PARALLELISM_PROPERTY_NAME, " 8 ");
+		assertThat(ParallelScanning.getDefaultParallelism()).isEqualTo(8);
+	}
+
+	@Test
+	void defaultParallelismWithInvalidValue() {
+		SpringProperties.setProperty(PathMatchingResourcePatternResolver.PARALLELISM_PROPERTY_NAME, "eight");
+		assertThat(ParallelScanning.getDefaultParallelism()).isEqualTo(1);
+		SpringProperties.setProperty(PathMatchingResourcePatternResolver.PARALLELISM_PROPERTY_NAME, "0");
+		assertThat(ParallelScanning.getDefaultParallelism()).isEqualTo(1);
+		assertThat(new PathMatchingResourcePatternResolver().getParallelism()).isEqualTo(1);
+	}
+
+	@Test
+	void invokeSharesPoolPerParallelism() throws Exception {
+		ForkJoinPool pool = ParallelScanning.invoke(3, ForkJoinTask::getPool);
+		assertThat(pool.getParallelism()).isEqualTo(3);
+		assertThat(ParallelScanning.invoke(3, ForkJoinTask::getPool)).isSameAs(pool);
+		assertThat(ParallelScanning.invoke(2, ForkJoinTask::getPool)).isNotSameAs(pool);
+		assertThat(ParallelScanning.invoke(3, () -> IntStream.range(0, 100).parallel().sum())).isEqualTo(4950);
+	}
+
+	@Test
+	void invokeOnDaemonThread() throws Exception {
+		assertThat(ParallelScanning.invoke(3, () -> Thread.currentThread().isDaemon())).isTrue();
+	}
+
+	@Test
+	void invokeWithFailure() {
+		assertThatExceptionOfType(ExecutionException.class).isThrownBy(() ->
+				ParallelScanning.invoke(2, () -> {
+					throw new IllegalStateException("Expected");
+				}))
+				.withCauseInstanceOf(IllegalStateException.class);
+	}
+
+}
@@ -116,6 +116,16 @@ class PathMatchingResourcePatternResolverTests {
 		assertProtocolAndFilenames(resources, "jar", CLASSES_IN_REACTOR_UTIL_ANNOTATIONS);
 	}
 
+	@Test
+	void classpathStarWithPatternInParallel() throws IOException {
+		String pattern = "classpath*:org/**/*.class";
+		Resource[] expected = resolver.getResources(pattern);
+		resolver.setParallelism(4);
+		Resource[] resources = resolver.getResources(pattern);
+		assertThat(resources.length).isGreaterThan(0);
+		assertThat(resources).containsExactly(expected);
+	}
+
 	@Test
 	void rootPatternRetrievalInJarFiles() throws IOException {
 		Resource[] resources = resolver.getResources("classpath*:*.dtd");
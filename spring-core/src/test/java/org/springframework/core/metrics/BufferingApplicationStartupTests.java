@@ -0,0 +1,119 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.metrics;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Tests for {@link BufferingApplicationStartup}.
+ *
+ * @author Spring Framework Team
+ */
+class BufferingApplicationStartupTests {
+
+	@Test
+	void recordsNestedSteps() {
+		BufferingApplicationStartup startup = new BufferingApplicationStartup(10);
+		StartupStep outer = startup.start("spring.test.outer");
+		StartupStep inner = startup.start("spring.test.inner").tag("beanName", "testBean");
+		inner.end();
+		outer.end();
+
+		List<BufferingApplicationStartup.RecordedStep> steps = startup.getRecordedSteps();
+		assertThat(steps).extracting(BufferingApplicationStartup.RecordedStep::getName)
+				.containsExactly("spring.test.inner", "spring.test.outer");
+		assertThat(steps.get(0).getParentId()).isEqualTo(outer.getId());
+		assertThat(steps.get(1).getParentId()).isNull();
+		assertThat(steps.get(0).getTags()).extracting(StartupStep.Tag::getValue).containsExactly("testBean");
+	}
+
+	@Test
+	void recordsParentsPerThread() throws Exception {
+		BufferingApplicationStartup startup = new BufferingApplicationStartup(10);
+		StartupStep outer = startup.start("spring.test.outer");
+		AtomicReference<StartupStep> concurrent = new AtomicReference<>();
+		Thread thread = new Thread(() -> {
+			StartupStep step = startup.start("spring.test.concurrent");
+			startup.start("spring.test.concurrent.inner").end();
+			concurrent.set(step);
+			step.end();
+		});
+		thread.start();
+		thread.join();
+		StartupStep inner = startup.start("spring.test.inner");
+		inner.end();
+		outer.end();
+
+		List<BufferingApplicationStartup.RecordedStep> steps = startup.getRecordedSteps();
+		assertThat(steps).extracting(BufferingApplicationStartup.RecordedStep::getName).containsExactly(
+				"spring.test.concurrent.inner", "spring.test.concurrent", "spring.test.inner", "spring.test.outer");
+		assertThat(steps.get(0).getParentId()).isEqualTo(concurrent.get().getId());
+		assertThat(steps.get(1).getParentId()).isNull();
+		assertThat(steps.get(2).getParentId()).isEqualTo(outer.getId());
+		assertThat(startup.start("spring.test.next").getParentId()).isNull();
+	}
+
+	@Test
+	void skipsEndedParents() {
+		BufferingApplicationStartup startup = new BufferingApplicationStartup(10);
+		StartupStep outer = startup.start("spring.test.outer");
+		StartupStep middle = startup.start("spring.test.middle");
+		StartupStep inner = startup.start("spring.test.inner");
+		middle.end();
+		inner.end();
+		assertThat(startup.start("spring.test.next").getParentId()).isEqualTo(outer.getId());
+	}
+
+	@Test
+	void dropsStepsBeyondCapacity() {
+		BufferingApplicationStartup startup = new BufferingApplicationStartup(1);
+		startup.start("spring.test.first").end();
+		startup.start("spring.test.second").end();
+		assertThat(startup.getRecordedSteps()).extracting(BufferingApplicationStartup.RecordedStep::getName)
+				.containsExactly("spring.test.first");
+	}
+
+	@Test
+	void rejectsChangesAfterEnd() {
+		StartupStep step = new BufferingApplicationStartup(1).start("spring.test.step");
+		step.end();
+		assertThatIllegalStateException().isThrownBy(() -> step.tag("key", "value"));
+		assertThatIllegalStateException().isThrownBy(step::end);
+	}
+
+	@Test
+	void writesJson() throws IOException {
+		BufferingApplicationStartup startup = new BufferingApplicationStartup(10);
+		startup.start("spring.test.step").tag("beanName", "\"quoted\"").end();
+		StringWriter writer = new StringWriter();
+		startup.writeJson(writer);
+		assertThat(writer.toString())
+				.startsWith("{\"steps\":[")
+				.contains("\"id\":1,\"parentId\":null,\"name\":\"spring.test.step\"")
+				.contains("\"tags\":{\"beanName\":\"\\\"quoted\\\"\"}")
+				.contains("\"duration\":\"PT");
+	}
+
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.type.classreading;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.stereotype.Component;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Tests for {@link SnapshotMetadataReaderFactory}.
+ *
+ * @author Spring Framework Team
+ */
+class SnapshotMetadataReaderFactoryTests {
+
+	private final Resource resource = new ClassPathResource(
+			SnapshotMetadataReaderFactoryTests.class.getName().replace('.', '/') + "$TestComponent.class");
+
+
+	@Test
+	void readsMetadataFromClassFile(@TempDir Path tempDir) throws IOException {
+		SnapshotMetadataReaderFactory factory =
+				new SnapshotMetadataReaderFactory(new DefaultResourceLoader(), tempDir.resolve("read").toFile());
+		AnnotationMetadata metadata = factory.getMetadataReader(this.resource).getAnnotationMetadata();
+		assertThat(metadata.getClassName()).isEqualTo(TestComponent.class.getName());
+		assertThat(metadata.hasAnnotation(Component.class.getName())).isTrue();
+	}
+
+	@Test
+	void storesSnapshotOnlyWhenNecessary(@TempDir Path tempDir) throws IOException {
+		File file = tempDir.resolve("store").toFile();
+		SnapshotMetadataReaderFactory factory = new SnapshotMetadataReaderFactory(new DefaultResourceLoader(), file);
+		factory.storeSnapshot();
+		assertThat(file).doesNotExist();
+		factory.getMetadataReader(this.resource);
+		factory.clearCache();
+		assertThat(file).isFile();
+	}
+
+	@Test
+	void readsMetadataFromStoredSnapshot(@TempDir Path tempDir) throws IOException {
+		File file = tempDir.resolve("original").toFile();
+		SnapshotMetadataReaderFactory factory = new SnapshotMetadataReaderFactory(new DefaultResourceLoader(), file);
+		factory.getMetadataReader(this.resource);
+		factory.storeSnapshot();
+
+		File copy = tempDir.resolve("copy").toFile();
+		Files.copy(file.toPath(), copy.toPath());
+		SnapshotMetadataReaderFactory restarted =
+				new SnapshotMetadataReaderFactory(new DefaultResourceLoader(), copy);
+		AnnotationMetadata metadata =
+				restarted.getMetadataReader(new UnreadableResource(this.resource, 0)).getAnnotationMetadata();
+		assertThat(metadata.getClassName()).isEqualTo(TestComponent.class.getName());
+		assertThat(metadata.hasAnnotation(Component.class.getName())).isTrue();
+	}
+
+	@Test
+	void ignoresOutdatedSnapshotEntry(@TempDir Path tempDir) throws IOException {
+		File file = tempDir.resolve("original").toFile();
+		SnapshotMetadataReaderFactory factory = new SnapshotMetadataReaderFactory(new DefaultResourceLoader(), file);
+		factory.getMetadataReader(this.resource);
+		factory.storeSnapshot();
+
+		File copy = tempDir.resolve("copy").toFile();
+		Files.copy(file.toPath(), copy.toPath());
+		SnapshotMetadataReaderFactory restarted =
+				new SnapshotMetadataReaderFactory(new DefaultResourceLoader(), copy);
+		assertThatExceptionOfType(FileNotFoundException.class).isThrownBy(() ->
+				restarted.getMetadataReader(new UnreadableResource(this.resource, 1)));
+	}
+
+	@Test
+	void ignoresResourceWithoutLastModified(@TempDir Path tempDir) throws IOException {
+		File file = tempDir.resolve("unstamped").toFile();
+		SnapshotMetadataReaderFactory factory = new SnapshotMetadataReaderFactory(new DefaultResourceLoader(), file);
+		Resource resource = new ClassPathResource(((ClassPathResource) this.resource).getPath()) {
+			@Override
+			public long lastModified() {
+				return 0;
+			}
+		};
+		AnnotationMetadata metadata = factory.getMetadataReader(resource).getAnnotationMetadata();
+		assertThat(metadata.getClassName()).isEqualTo(TestComponent.class.getName());
+		factory.storeSnapshot();
+		assertThat(file).doesNotExist();
+	}
+
+	@Test
+	void mergesEntriesStoredByOtherFactory(@TempDir Path tempDir) throws IOException {
+		File file = tempDir.resolve("merge").toFile();
+		Resource other = new ClassPathResource(
+				SnapshotMetadataReaderFactoryTests.class.getName().replace('.', '/') + ".class");
+		SnapshotMetadataReaderFactory factory1 = new SnapshotMetadataReaderFactory(new DefaultResourceLoader(), file);
+		SnapshotMetadataReaderFactory factory2 = new SnapshotMetadataReaderFactory(new DefaultResourceLoader(), file);
+		factory1.getMetadataReader(this.resource);
+		factory2.getMetadataReader(other);
+		factory1.storeSnapshot();
+		factory2.storeSnapshot();
+
+		SnapshotMetadataReaderFactory restarted =
+				new SnapshotMetadataReaderFactory(new DefaultResourceLoader(), file);
+		assertThat(restarted.getMetadataReader(new UnreadableResource(this.resource, 0))
+				.getAnnotationMetadata().getClassName()).isEqualTo(TestComponent.class.getName());
+		assertThat(restarted.getMetadataReader(new UnreadableResource(other, 0))
+				.getAnnotationMetadata().getClassName()).isEqualTo(SnapshotMetadataReaderFactoryTests.class.getName());
+	}
+
+	@Test
+	void prunesEntriesForChangedAndDeletedClassFiles(@TempDir Path tempDir) throws IOException {
+		File file = tempDir.resolve("prune").toFile();
+		File changed = tempDir.resolve("Changed.class").toFile();
+		File deleted = tempDir.resolve("Deleted.class").toFile();
+		try (InputStream is = this.resource.getInputStream()) {
+			Files.copy(is, changed.toPath());
+		}
+		Files.copy(changed.toPath(), deleted.toPath());
+		SnapshotMetadataReaderFactory factory = new SnapshotMetadataReaderFactory(new DefaultResourceLoader(), file);
+		factory.getMetadataReader(new FileSystemResource(changed));
+		factory.getMetadataReader(new FileSystemResource(deleted));
+		factory.storeSnapshot();
+		long changedStamp = changed.lastModified();
+		long deletedStamp = deleted.lastModified();
+
+		assertThat(changed.setLastModified(changedStamp + 10000)).isTrue();
+		assertThat(deleted.delete()).isTrue();
+		SnapshotMetadataReaderFactory restarted = new SnapshotMetadataReaderFactory(new DefaultResourceLoader(), file);
+		restarted.getMetadataReader(this.resource);
+		restarted.storeSnapshot();
+
+		SnapshotMetadataReaderFactory reloaded = new SnapshotMetadataReaderFactory(new DefaultResourceLoader(), file);
+		assertThat(reloaded.getMetadataReader(new UnreadableResource(this.resource, 0))
+				.getAnnotationMetadata().getClassName()).isEqualTo(TestComponent.class.getName());
+		assertThatExceptionOfType(FileNotFoundException.class).isThrownBy(() ->
+				reloaded.getMetadataReader(new StampedResource(changed, changedStamp)));
+		assertThatExceptionOfType(FileNotFoundException.class).isThrownBy(() ->
+				reloaded.getMetadataReader(new StampedResource(deleted, deletedStamp)));
+	}
+
+	@Test
+	void ignoresCorruptSnapshot(@TempDir Path tempDir) throws IOException {
+		File file = tempDir.resolve("corrupt").toFile();
+		Files.write(file.toPath(), new byte[] {1, 2, 3});
+		SnapshotMetadataReaderFactory factory = new SnapshotMetadataReaderFactory(new DefaultResourceLoader(), file);
+		AnnotationMetadata metadata = factory.getMetadataReader(this.resource).getAnnotationMetadata();
+		assertThat(metadata.getClassName()).isEqualTo(TestComponent.class.getName());
+	}
+
+
+	@Component
+	static class TestComponent {
+	}
+
+
+	/**
+	 * Resource with the URL of a class file but without any content,
+	 * optionally with a last-modified timestamp shifted by the given offset.
+	 */
+	private static class UnreadableResource extends ClassPathResource {
+
+		private final long lastModifiedOffset;
+
+		UnreadableResource(Resource resource, long lastModifiedOffset) {
+			super(((ClassPathResource) resource).getPath());
+			this.lastModifiedOffset = lastModifiedOffset;
+		}
+
+		@Override
+		public InputStream getInputStream() throws IOException {
+			throw new FileNotFoundException("Unreadable: " + getDescription());
+		}
+
+		@Override
+		public long lastModified() throws IOException {
+			return super.lastModified() + this.lastModifiedOffset;
+		}
+	}
+
+
+	/**
+	 * File resource without any content, with the given last-modified timestamp.
+	 */
+	private static class StampedResource extends FileSystemResource {
+
+		private final long lastModified;
+
+		StampedResource(File file, long lastModified) {
+			super(file);
+			this.lastModified = lastModified;
+		}
+
+		@Override
+		public InputStream getInputStream() throws IOException {
+			throw new FileNotFoundException("Unreadable: " + getDescription());
+		}
+
+		@Override
+		public long lastModified() {
+			return this.lastModified;
+		}
+	}
+
+}
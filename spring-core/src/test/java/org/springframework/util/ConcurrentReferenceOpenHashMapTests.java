@@ -0,0 +1,233 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.util.ConcurrentReferenceHashMap.ReferenceType;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Tests for {@link ConcurrentReferenceOpenHashMap}.
+ *
+ * @author Spring Framework Team
+ */
+class ConcurrentReferenceOpenHashMapTests {
+
+	private final ConcurrentReferenceOpenHashMap<Integer, String> map = new ConcurrentReferenceOpenHashMap<>();
+
+
+	@Test
+	void shouldCreateWithDefaults() {
+		ConcurrentReferenceOpenHashMap<Integer, String> map = new ConcurrentReferenceOpenHashMap<>();
+		assertThat(map.getTableSize()).isEqualTo(16);
+		assertThat(map.getLoadFactor()).isEqualTo(0.75f);
+	}
+
+	@Test
+	void shouldRoundUpInitialCapacity() {
+		ConcurrentReferenceOpenHashMap<Integer, String> map = new ConcurrentReferenceOpenHashMap<>(100);
+		assertThat(map.getTableSize()).isEqualTo(128);
+	}
+
+	@Test
+	void shouldNotCreateWithNegativeCapacity() {
+		assertThatIllegalArgumentException().isThrownBy(() ->
+				new ConcurrentReferenceOpenHashMap<Integer, String>(-1))
+			.withMessageContaining("Initial capacity must not be negative");
+	}
+
+	@Test
+	void shouldNotCreateWithInvalidLoadFactor() {
+		assertThatIllegalArgumentException().isThrownBy(() ->
+				new ConcurrentReferenceOpenHashMap<Integer, String>(16, 1f, ReferenceType.SOFT))
+			.withMessageContaining("Load factor must be between 0 and 1");
+	}
+
+	@Test
+	void shouldPutAndGet() {
+		assertThat(this.map.get(123)).isNull();
+		assertThat(this.map.put(123, "123")).isNull();
+		assertThat(this.map.get(123)).isEqualTo("123");
+		assertThat(this.map.put(123, "123b")).isEqualTo("123");
+		assertThat(this.map.get(123)).isEqualTo("123b");
+		assertThat(this.map.size()).isEqualTo(1);
+	}
+
+	@Test
+	void shouldPutNullKeyAndNullValue() {
+		this.map.put(null, "null");
+		this.map.put(123, null);
+		assertThat(this.map.get(null)).isEqualTo("null");
+		assertThat(this.map.containsKey(123)).isTrue();
+		assertThat(this.map.get(123)).isNull();
+		assertThat(this.map.getOrDefault(123, "default")).isNull();
+		assertThat(this.map.getOrDefault(456, "default")).isEqualTo("default");
+	}
+
+	@Test
+	void shouldPutIfAbsent() {
+		assertThat(this.map.putIfAbsent(123, "123")).isNull();
+		assertThat(this.map.putIfAbsent(123, "123b")).isEqualTo("123");
+		assertThat(this.map.get(123)).isEqualTo("123");
+	}
+
+	@Test
+	void shouldRemove() {
+		this.map.put(123, "123");
+		assertThat(this.map.remove(123)).isEqualTo("123");
+		assertThat(this.map.remove(123)).isNull();
+		assertThat(this.map.containsKey(123)).isFalse();
+		assertThat(this.map.isEmpty()).isTrue();
+	}
+
+	@Test
+	void shouldRemoveWithValue() {
+		this.map.put(123, "123");
+		assertThat(this.map.remove(123, "456")).isFalse();
+		assertThat(this.map.remove(123, "123")).isTrue();
+		assertThat(this.map.containsKey(123)).isFalse();
+	}
+
+	@Test
+	void shouldReplace() {
+		assertThat(this.map.replace(123, "456")).isNull();
+		this.map.put(123, "123");
+		assertThat(this.map.replace(123, "456")).isEqualTo("123");
+		assertThat(this.map.replace(123, "123", "789")).isFalse();
+		assertThat(this.map.replace(123, "456", "789")).isTrue();
+		assertThat(this.map.get(123)).isEqualTo("789");
+	}
+
+	@Test
+	void shouldFindKeysWithCollidingHashes() {
+		ConcurrentReferenceOpenHashMap<Integer, String> map =
+				new ConcurrentReferenceOpenHashMap<Integer, String>() {
+					@Override
+					protected int getHash(Object o) {
+						return 7;
+					}
+				};
+		map.put(1, "1");
+		map.put(2, "2");
+		map.put(3, "3");
+		map.remove(2);
+		assertThat(map.get(1)).isEqualTo("1");
+		assertThat(map.get(2)).isNull();
+		assertThat(map.get(3)).isEqualTo("3");
+		map.put(4, "4");
+		assertThat(map.get(4)).isEqualTo("4");
+		assertThat(map.size()).isEqualTo(3);
+	}
+
+	@Test
+	void shouldResize() {
+		for (int i = 0; i < 1000; i++) {
+			this.map.put(i, String.valueOf(i));
+		}
+		assertThat(this.map.size()).isEqualTo(1000);
+		assertThat(this.map.getTableSize()).isGreaterThan(1000);
+		for (int i = 0; i < 1000; i++) {
+			assertThat(this.map.get(i)).isEqualTo(String.valueOf(i));
+		}
+	}
+
+	@Test
+	void shouldReuseTableAfterRemovals() {
+		for (int i = 0; i < 10000; i++) {
+			this.map.put(i, String.valueOf(i));
+			this.map.remove(i);
+		}
+		assertThat(this.map.isEmpty()).isTrue();
+		assertThat(this.map.getTableSize()).isEqualTo(16);
+	}
+
+	@Test
+	void shouldClear() {
+		for (int i = 0; i < 100; i++) {
+			this.map.put(i, String.valueOf(i));
+		}
+		this.map.clear();
+		assertThat(this.map.size()).isEqualTo(0);
+		assertThat(this.map.containsKey(1)).isFalse();
+		assertThat(this.map.getTableSize()).isEqualTo(16);
+	}
+
+	@Test
+	void shouldIterateAndRemoveEntries() {
+		Map<Integer, String> expected = new HashMap<>();
+		for (int i = 0; i < 10; i++) {
+			this.map.put(i, String.valueOf(i));
+			expected.put(i, String.valueOf(i));
+		}
+		assertThat(this.map).isEqualTo(expected);
+		Iterator<Map.Entry<Integer, String>> iterator = this.map.entrySet().iterator();
+		while (iterator.hasNext()) {
+			if (iterator.next().getKey() % 2 == 0) {
+				iterator.remove();
+			}
+		}
+		assertThat(this.map.size()).isEqualTo(5);
+		assertThat(this.map.keySet()).containsOnly(1, 3, 5, 7, 9);
+	}
+
+	@Test
+	void shouldSetValueThroughEntry() {
+		this.map.put(123, "123");
+		Map.Entry<Integer, String> entry = this.map.entrySet().iterator().next();
+		entry.setValue("456");
+		assertThat(this.map.get(123)).isEqualTo("456");
+	}
+
+	@Test
+	void shouldSupportConcurrentReadsAndWrites() throws Exception {
+		int threads = 4;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		CountDownLatch latch = new CountDownLatch(threads);
+		try {
+			for (int t = 0; t < threads; t++) {
+				int offset = t * 1000;
+				executor.execute(() -> {
+					for (int i = offset; i < offset + 1000; i++) {
+						this.map.put(i, String.valueOf(i));
+						assertThat(this.map.get(i)).isEqualTo(String.valueOf(i));
+					}
+					latch.countDown();
+				});
+			}
+			assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+		}
+		finally {
+			executor.shutdownNow();
+		}
+		assertThat(this.map.size()).isEqualTo(threads * 1000);
+		for (int i = 0; i < threads * 1000; i++) {
+			assertThat(this.map.get(i)).isEqualTo(String.valueOf(i));
+		}
+	}
+
+}
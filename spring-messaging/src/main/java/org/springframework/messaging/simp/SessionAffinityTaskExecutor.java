@@ -0,0 +1,261 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.messaging.simp;
+
+import java.util.Arrays;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.lang.Nullable;
+import org.springframework.messaging.support.MessageHandlingRunnable;
+import org.springframework.util.Assert;
+import org.springframework.util.CustomizableThreadCreator;
+
+/**
+ * A {@link TaskExecutor} for the client inbound and outbound channels that
+ * handles all messages of a given session in the order in which they were
+ * sent to the channel, while messages of different sessions are handled in
+ * parallel.
+ *
+ * <p>Tasks are assigned to one of a fixed number of stripes based on the
+ * {@link SimpMessageHeaderAccessor#getSessionId session id} of the message
+ * of a {@link MessageHandlingRunnable}, as submitted by an
+ * {@link org.springframework.messaging.support.ExecutorSubscribableChannel}.
+ * Each stripe is processed by a single thread from its own queue, so there
+ * is no contention among threads for a shared queue, and, unlike
+ * {@link org.springframework.messaging.simp.broker.AbstractBrokerMessageHandler#setPreservePublishOrder
+ * preservePublishOrder}, no per-session queue or completion callbacks are
+ * required to preserve the order of messages. Tasks without a session id are
+ * assigned to a random stripe.
+ *
+ * <p>As a consequence, a task that blocks holds up the messages of all
+ * sessions assigned to the same stripe, so the number of
+ * {@link #setStripeCount stripes} should be chosen accordingly.
+ *
+ * @author Spring Framework Team
+ * @since 5.2.1
+ * @see org.springframework.messaging.simp.config.ChannelRegistration#executor
+ */
+@SuppressWarnings("serial")
+public class SessionAffinityTaskExecutor extends CustomizableThreadCreator
+		implements TaskExecutor, InitializingBean, DisposableBean {
+
+	private int stripeCount = Runtime.getRuntime().availableProcessors() * 2;
+
+	private int queueCapacity = Integer.MAX_VALUE;
+
+	private int keepAliveSeconds = 60;
+
+	@Nullable
+	private volatile ThreadPoolExecutor[] stripes;
+
+
+	/**
+	 * Set the number of stripes, i.e. of threads that handle tasks.
+	 * <p>By default this is set to twice the value of
+	 * {@link Runtime#availableProcessors()}.
+	 */
+	public void setStripeCount(int stripeCount) {
+		Assert.isTrue(stripeCount > 0, "Stripe count must be greater than 0");
+		this.stripeCount = stripeCount;
+	}
+
+	/**
+	 * Return the configured number of stripes.
+	 */
+	public int getStripeCount() {
+		return this.stripeCount;
+	}
+
+	/**
+	 * Set the capacity of the queue of each stripe. Once the queue of a stripe
+	 * is full, tasks assigned to it are rejected.
+	 * <p>By default this is set to {@code Integer.MAX_VALUE}.
+	 */
+	public void setQueueCapacity(int queueCapacity) {
+		Assert.isTrue(queueCapacity > 0, "Queue capacity must be greater than 0");
+		this.queueCapacity = queueCapacity;
+	}
+
+	/**
+	 * Return the configured queue capacity of each stripe.
+	 */
+	public int getQueueCapacity() {
+		return this.queueCapacity;
+	}
+
+	/**
+	 * Set the time limit for which the thread of a stripe may remain idle
+	 * before being terminated. A new thread is started for the next task.
+	 * <p>By default this is set to 60.
+	 */
+	public void setKeepAliveSeconds(int keepAliveSeconds) {
+		Assert.isTrue(keepAliveSeconds > 0, "Keep alive seconds must be greater than 0");
+		this.keepAliveSeconds = keepAliveSeconds;
+	}
+
+	/**
+	 * Return the configured keep alive time in seconds.
+	 */
+	public int getKeepAliveSeconds() {
+		return this.keepAliveSeconds;
+	}
+
+
+	@Override
+	public void afterPropertiesSet() {
+		initialize();
+	}
+
+	/**
+	 * Create the stripes, if not already done.
+	 */
+	public synchronized void initialize() {
+		if (this.stripes != null) {
+			return;
+		}
+		ThreadPoolExecutor[] stripes = new ThreadPoolExecutor[this.stripeCount];
+		for (int i = 0; i < stripes.length; i++) {
+			stripes[i] = new ThreadPoolExecutor(1, 1, this.keepAliveSeconds, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<>(this.queueCapacity), this::createThread);
+			stripes[i].allowCoreThreadTimeOut(true);
+		}
+		this.stripes = stripes;
+	}
+
+	@Override
+	public void destroy() {
+		shutdown();
+	}
+
+	/**
+	 * Shut down the stripes, discarding queued tasks.
+	 */
+	public synchronized void shutdown() {
+		if (this.stripes != null) {
+			for (ThreadPoolExecutor stripe : this.stripes) {
+				stripe.shutdownNow();
+			}
+		}
+	}
+
+
+	@Override
+	public void execute(Runnable task) {
+		ThreadPoolExecutor[] stripes = getStripes();
+		ThreadPoolExecutor stripe = stripes[getStripeIndex(task, stripes.length)];
+		try {
+			stripe.execute(task);
+		}
+		catch (RejectedExecutionException ex) {
+			throw new TaskRejectedException("Executor [" + stripe + "] did not accept task: " + task, ex);
+		}
+	}
+
+	private ThreadPoolExecutor[] getStripes() {
+		ThreadPoolExecutor[] stripes = this.stripes;
+		Assert.state(stripes != null, "SessionAffinityTaskExecutor not initialized");
+		return stripes;
+	}
+
+	private int getStripeIndex(Runnable task, int stripeCount) {
+		Object key = getAffinityKey(task);
+		if (key == null) {
+			return ThreadLocalRandom.current().nextInt(stripeCount);
+		}
+		int hash = key.hashCode();
+		return Math.floorMod(hash ^ (hash >>> 16), stripeCount);
+	}
+
+	/**
+	 * Return the key that determines the stripe of the given task, where tasks
+	 * with equal keys are handled in order on the same stripe.
+	 * <p>By default this is the session id of the message to be handled.
+	 * @param task the submitted task
+	 * @return the key, or {@code null} to assign the task to any stripe
+	 */
+	@Nullable
+	protected Object getAffinityKey(Runnable task) {
+		if (task instanceof MessageHandlingRunnable) {
+			return SimpMessageHeaderAccessor.getSessionId(((MessageHandlingRunnable) task).getMessage().getHeaders());
+		}
+		return null;
+	}
+
+
+	/**
+	 * Return the number of tasks queued on each stripe.
+	 */
+	public int[] getQueueSizes() {
+		ThreadPoolExecutor[] stripes = getStripesIfInitialized();
+		int[] sizes = new int[stripes.length];
+		for (int i = 0; i < stripes.length; i++) {
+			sizes[i] = stripes[i].getQueue().size();
+		}
+		return sizes;
+	}
+
+	/**
+	 * Return the number of tasks queued on all stripes.
+	 */
+	public int getQueueSize() {
+		return Arrays.stream(getQueueSizes()).sum();
+	}
+
+	/**
+	 * Return the current number of threads, across all stripes.
+	 */
+	public int getPoolSize() {
+		return Arrays.stream(getStripesIfInitialized()).mapToInt(ThreadPoolExecutor::getPoolSize).sum();
+	}
+
+	/**
+	 * Return the number of threads that are currently handling a task.
+	 */
+	public int getActiveCount() {
+		return Arrays.stream(getStripesIfInitialized()).mapToInt(ThreadPoolExecutor::getActiveCount).sum();
+	}
+
+	/**
+	 * Return the number of tasks handled so far.
+	 */
+	public long getCompletedTaskCount() {
+		return Arrays.stream(getStripesIfInitialized()).mapToLong(ThreadPoolExecutor::getCompletedTaskCount).sum();
+	}
+
+	private ThreadPoolExecutor[] getStripesIfInitialized() {
+		ThreadPoolExecutor[] stripes = this.stripes;
+		return (stripes != null ? stripes : new ThreadPoolExecutor[0]);
+	}
+
+	@Override
+	public String toString() {
+		return "SessionAffinityTaskExecutor[pool size = " + getPoolSize() +
+				", active threads = " + getActiveCount() +
+				", queued tasks = " + getQueueSize() +
+				", completed tasks = " + getCompletedTaskCount() +
+				", stripe queues = " + Arrays.toString(getQueueSizes()) + "]";
+	}
+
+}
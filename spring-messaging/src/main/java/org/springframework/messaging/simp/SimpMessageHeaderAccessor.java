@@ -84,6 +84,15 @@ public class SimpMessageHeaderAccessor extends NativeMessageHeaderAccessor {
 	 */
 	public static final String IGNORE_ERROR = "simpIgnoreError";
 
+	/**
+	 * A header set by the broker on each of the messages sent to the subscribers
+	 * of a destination, holding a
+	 * {@link org.springframework.messaging.simp.broker.BroadcastContext} shared
+	 * by all of them.
+	 * @since 5.2.1
+	 */
+	public static final String BROADCAST_CONTEXT_HEADER = "simpBroadcastContext";
+
 
 	@Nullable
 	private Consumer<Principal> userCallback;
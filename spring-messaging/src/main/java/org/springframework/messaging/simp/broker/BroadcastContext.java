@@ -0,0 +1,61 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.messaging.simp.broker;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * State shared by the messages that a broker sends to each subscriber of a
+ * destination, for a single message published to that destination. Exposed
+ * to protocol handlers through the
+ * {@link org.springframework.messaging.simp.SimpMessageHeaderAccessor#BROADCAST_CONTEXT_HEADER
+ * broadcast context header}, so that the part of the outbound message which
+ * is the same for all subscribers, e.g. an encoded STOMP frame without its
+ * subscription specific headers, can be prepared once rather than once
+ * per subscriber.
+ *
+ * @author Spring Framework Team
+ * @since 5.2.1
+ * @see SimpleBrokerMessageHandler
+ */
+public final class BroadcastContext {
+
+	private final Map<Object, Object> attributes = new ConcurrentHashMap<>(4);
+
+
+	/**
+	 * Return the attribute for the given key, computing it with the given
+	 * function on first access. The function is invoked at most once per key,
+	 * even if the messages of the broadcast are handled concurrently.
+	 * @param key the attribute key, typically the component that uses it
+	 * @param mappingFunction the function to compute the attribute with
+	 * @return the existing or the computed attribute
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T computeAttributeIfAbsent(Object key, Function<Object, T> mappingFunction) {
+		return (T) this.attributes.computeIfAbsent(key, mappingFunction);
+	}
+
+
+	@Override
+	public String toString() {
+		return "BroadcastContext[" + this.attributes.size() + " attribute(s)]";
+	}
+
+}
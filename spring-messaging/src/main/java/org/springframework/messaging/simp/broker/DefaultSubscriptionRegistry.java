@@ -16,15 +16,21 @@
 
 package org.springframework.messaging.simp.broker;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.Expression;
@@ -55,6 +61,16 @@ import org.springframework.util.StringUtils;
  * header on subscription messages with Spring EL expressions evaluated against
  * the headers to filter out messages in addition to destination matching.
  *
+ * <p>As of 5.2.1, when used with an {@link AntPathMatcher}, subscriptions are
+ * indexed by the segments of their destination patterns, and updated as
+ * subscriptions are added and removed, so that finding the subscriptions for
+ * a destination depends on the number of its segments, and of the patterns
+ * that match it, rather than on the total number of subscriptions. The
+ * subscriptions found for a destination are cached until subscriptions change.
+ * With other {@code PathMatcher} implementations, resolved destinations are
+ * cached and updated as subscriptions change. In both cases, see
+ * {@link #setCacheLimit}.
+ *
  * @author Rossen Stoyanchev
  * @author Sebastien Deleuze
  * @author Juergen Hoeller
@@ -72,6 +88,9 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 
 	private PathMatcher pathMatcher = new AntPathMatcher();
 
+	@Nullable
+	private volatile DestinationIndex destinationIndex = new DestinationIndex(AntPathMatcher.DEFAULT_PATH_SEPARATOR);
+
 	private volatile int cacheLimit = DEFAULT_CACHE_LIMIT;
 
 	@Nullable
@@ -85,12 +104,31 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 
 	private final SessionSubscriptionRegistry subscriptionRegistry = new SessionSubscriptionRegistry();
 
+	private final AtomicLong subscriptionCounter = new AtomicLong();
+
 
 	/**
 	 * Specify the {@link PathMatcher} to use.
 	 */
 	public void setPathMatcher(PathMatcher pathMatcher) {
 		this.pathMatcher = pathMatcher;
+		this.destinationCache.clear();
+		DestinationIndex index = null;
+		if (pathMatcher.getClass() == AntPathMatcher.class) {
+			index = new DestinationIndex(((AntPathMatcher) pathMatcher).getPathSeparator());
+			for (SessionSubscriptionInfo info : this.subscriptionRegistry.getAllSubscriptions()) {
+				for (String destination : info.getDestinations()) {
+					Set<Subscription> subs = info.getSubscriptions(destination);
+					if (subs != null) {
+						for (Subscription sub : subs) {
+							index.addSubscription(destination, info.getSessionId(), sub.getId(),
+									this.subscriptionCounter.incrementAndGet());
+						}
+					}
+				}
+			}
+		}
+		this.destinationIndex = index;
 	}
 
 	/**
@@ -103,6 +141,9 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 	/**
 	 * Specify the maximum number of entries for the resolved destination cache.
 	 * Default is 1024.
+	 * <p>With an {@link AntPathMatcher}, subscriptions are indexed by
+	 * destination pattern, and this limits the number of destinations for
+	 * which the subscriptions found in the index are cached.
 	 */
 	public void setCacheLimit(int cacheLimit) {
 		this.cacheLimit = cacheLimit;
@@ -149,7 +190,13 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 
 		Expression expression = getSelectorExpression(message.getHeaders());
 		this.subscriptionRegistry.addSubscription(sessionId, subsId, destination, expression);
-		this.destinationCache.updateAfterNewSubscription(destination, sessionId, subsId);
+		DestinationIndex index = this.destinationIndex;
+		if (index != null) {
+			index.addSubscription(destination, sessionId, subsId, this.subscriptionCounter.incrementAndGet());
+		}
+		else {
+			this.destinationCache.updateAfterNewSubscription(destination, sessionId, subsId);
+		}
 	}
 
 	@Nullable
@@ -181,7 +228,13 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 		if (info != null) {
 			String destination = info.removeSubscription(subsId);
 			if (destination != null) {
-				this.destinationCache.updateAfterRemovedSubscription(sessionId, subsId);
+				DestinationIndex index = this.destinationIndex;
+				if (index != null) {
+					index.removeSubscription(destination, sessionId, subsId);
+				}
+				else {
+					this.destinationCache.updateAfterRemovedSubscription(sessionId, subsId);
+				}
 			}
 		}
 	}
@@ -190,13 +243,28 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 	public void unregisterAllSubscriptions(String sessionId) {
 		SessionSubscriptionInfo info = this.subscriptionRegistry.removeSubscriptions(sessionId);
 		if (info != null) {
-			this.destinationCache.updateAfterRemovedSession(info);
+			DestinationIndex index = this.destinationIndex;
+			if (index != null) {
+				for (String destination : info.getDestinations()) {
+					Set<Subscription> subs = info.getSubscriptions(destination);
+					if (subs != null) {
+						for (Subscription sub : subs) {
+							index.removeSubscription(destination, sessionId, sub.getId());
+						}
+					}
+				}
+			}
+			else {
+				this.destinationCache.updateAfterRemovedSession(info);
+			}
 		}
 	}
 
 	@Override
 	protected MultiValueMap<String, String> findSubscriptionsInternal(String destination, Message<?> message) {
-		MultiValueMap<String, String> result = this.destinationCache.getSubscriptions(destination, message);
+		DestinationIndex index = this.destinationIndex;
+		MultiValueMap<String, String> result = (index != null ? index.getSubscriptions(destination) :
+				this.destinationCache.getSubscriptions(destination, message));
 		return filterSubscriptions(result, message);
 	}
 
@@ -242,7 +310,9 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 
 	@Override
 	public String toString() {
-		return "DefaultSubscriptionRegistry[" + this.destinationCache + ", " + this.subscriptionRegistry + "]";
+		DestinationIndex index = this.destinationIndex;
+		return "DefaultSubscriptionRegistry[" + (index != null ? index : this.destinationCache) + ", " +
+				this.subscriptionRegistry + "]";
 	}
 
 
@@ -356,6 +426,13 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 			}
 		}
 
+		public void clear() {
+			synchronized (this.updateCache) {
+				this.updateCache.clear();
+				this.accessCache.clear();
+			}
+		}
+
 		@Override
 		public String toString() {
 			return "cache[" + this.accessCache.size() + " destination(s)]";
@@ -363,6 +440,299 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 	}
 
 
+	/**
+	 * An index of subscriptions by the segments of their destination patterns,
+	 * for use with an {@link AntPathMatcher}.
+	 * <p>Literal segments are looked up by key, compared case-insensitively,
+	 * other pattern segments are matched one by one, and {@code "**"} segments
+	 * may match any number of destination segments. The patterns found that way
+	 * are then verified with the path matcher. Updates are serialized, while
+	 * look-ups proceed concurrently without locking.
+	 * <p>The subscriptions found for a destination are cached along with the
+	 * version of the index they were found in, which every update increments,
+	 * so that repeated look-ups of a destination return the same result until
+	 * subscriptions change.
+	 */
+	private final class DestinationIndex {
+
+		private final String pathSeparator;
+
+		private final DestinationNode root = new DestinationNode();
+
+		private volatile int patternCount;
+
+		private volatile long version;
+
+		// destination -> subscriptions found at some version of the index
+		private final Map<String, ResolvedSubscriptions> resolvedCache = new ConcurrentHashMap<>();
+
+		public DestinationIndex(String pathSeparator) {
+			this.pathSeparator = pathSeparator;
+		}
+
+		public LinkedMultiValueMap<String, String> getSubscriptions(String destination) {
+			long version = this.version;
+			ResolvedSubscriptions resolved = this.resolvedCache.get(destination);
+			if (resolved != null && resolved.version == version) {
+				return resolved.subscriptions;
+			}
+			LinkedMultiValueMap<String, String> result = findSubscriptions(destination);
+			if (this.resolvedCache.size() >= getCacheLimit()) {
+				// Most entries are typically stale after updates: start over
+				this.resolvedCache.clear();
+			}
+			this.resolvedCache.put(destination, new ResolvedSubscriptions(version, result));
+			return result;
+		}
+
+		private LinkedMultiValueMap<String, String> findSubscriptions(String destination) {
+			Set<DestinationNode> nodes = Collections.newSetFromMap(new IdentityHashMap<>());
+			collectNodes(this.root, tokenize(destination), 0, nodes);
+			List<IndexedSubscription> matches = new ArrayList<>();
+			for (DestinationNode node : nodes) {
+				node.subscriptions.forEach((pattern, subscriptions) -> {
+					if (getPathMatcher().match(pattern, destination)) {
+						matches.addAll(subscriptions);
+					}
+				});
+			}
+			// Preserve the order in which subscriptions were registered
+			if (matches.size() > 1) {
+				matches.sort(Comparator.comparingLong(IndexedSubscription::getOrder));
+			}
+			LinkedMultiValueMap<String, String> result = new LinkedMultiValueMap<>();
+			for (IndexedSubscription match : matches) {
+				result.add(match.getSessionId(), match.getSubscriptionId());
+			}
+			return result;
+		}
+
+		private void collectNodes(DestinationNode node, String[] segments, int index, Set<DestinationNode> result) {
+			DestinationNode anySegmentsNode = node.anySegmentsChild;
+			if (anySegmentsNode != null) {
+				for (int i = index; i <= segments.length; i++) {
+					collectNodes(anySegmentsNode, segments, i, result);
+				}
+			}
+			if (index == segments.length) {
+				result.add(node);
+				// A trailing "*" also matches a destination that ends with a separator
+				DestinationNode anySegmentNode = node.patternChildren.get("*");
+				if (anySegmentNode != null) {
+					result.add(anySegmentNode);
+				}
+				return;
+			}
+			String segment = segments[index];
+			DestinationNode literalNode = node.literalChildren.get(toKey(segment));
+			if (literalNode != null) {
+				collectNodes(literalNode, segments, index + 1, result);
+			}
+			node.patternChildren.forEach((pattern, child) -> {
+				// Regex segments may contain separators: leave them to the final match
+				if (pattern.indexOf('{') != -1 || getPathMatcher().match(pattern, segment)) {
+					collectNodes(child, segments, index + 1, result);
+				}
+			});
+		}
+
+		public void addSubscription(String pattern, String sessionId, String subscriptionId, long order) {
+			synchronized (this.root) {
+				DestinationNode node = this.root;
+				for (String segment : tokenize(pattern)) {
+					node = node.getOrCreateChild(segment);
+				}
+				Set<IndexedSubscription> subscriptions = node.subscriptions.get(pattern);
+				if (subscriptions == null) {
+					subscriptions = ConcurrentHashMap.newKeySet();
+					node.subscriptions.put(pattern, subscriptions);
+					this.patternCount++;
+				}
+				subscriptions.add(new IndexedSubscription(sessionId, subscriptionId, order));
+				this.version++;
+			}
+		}
+
+		public void removeSubscription(String pattern, String sessionId, String subscriptionId) {
+			synchronized (this.root) {
+				String[] segments = tokenize(pattern);
+				DestinationNode[] nodes = new DestinationNode[segments.length + 1];
+				nodes[0] = this.root;
+				for (int i = 0; i < segments.length; i++) {
+					nodes[i + 1] = nodes[i].getChild(segments[i]);
+					if (nodes[i + 1] == null) {
+						return;
+					}
+				}
+				DestinationNode node = nodes[segments.length];
+				Set<IndexedSubscription> subscriptions = node.subscriptions.get(pattern);
+				if (subscriptions == null || !subscriptions.remove(new IndexedSubscription(sessionId, subscriptionId, 0))) {
+					return;
+				}
+				this.version++;
+				if (!subscriptions.isEmpty()) {
+					return;
+				}
+				node.subscriptions.remove(pattern);
+				this.patternCount--;
+				for (int i = segments.length; i > 0 && nodes[i].isEmpty(); i--) {
+					nodes[i - 1].removeChild(segments[i - 1]);
+				}
+			}
+		}
+
+		private String[] tokenize(String destination) {
+			return StringUtils.tokenizeToStringArray(destination, this.pathSeparator, false, true);
+		}
+
+		@Override
+		public String toString() {
+			return "index[" + this.patternCount + " destination(s)]";
+		}
+	}
+
+
+	/**
+	 * A node in the {@link DestinationIndex}, for one segment of destination patterns.
+	 */
+	private static final class DestinationNode {
+
+		// lower-cased literal segment -> node
+		private final Map<String, DestinationNode> literalChildren = new ConcurrentHashMap<>(4);
+
+		// pattern segment -> node
+		private final Map<String, DestinationNode> patternChildren = new ConcurrentHashMap<>(4);
+
+		// node for a "**" segment
+		@Nullable
+		private volatile DestinationNode anySegmentsChild;
+
+		// destination pattern -> subscriptions, for patterns ending at this node
+		private final Map<String, Set<IndexedSubscription>> subscriptions = new ConcurrentHashMap<>(4);
+
+		@Nullable
+		public DestinationNode getChild(String segment) {
+			if ("**".equals(segment)) {
+				return this.anySegmentsChild;
+			}
+			return (isPatternSegment(segment) ?
+					this.patternChildren.get(segment) : this.literalChildren.get(toKey(segment)));
+		}
+
+		public DestinationNode getOrCreateChild(String segment) {
+			DestinationNode child = getChild(segment);
+			if (child == null) {
+				child = new DestinationNode();
+				if ("**".equals(segment)) {
+					this.anySegmentsChild = child;
+				}
+				else if (isPatternSegment(segment)) {
+					this.patternChildren.put(segment, child);
+				}
+				else {
+					this.literalChildren.put(toKey(segment), child);
+				}
+			}
+			return child;
+		}
+
+		public void removeChild(String segment) {
+			if ("**".equals(segment)) {
+				this.anySegmentsChild = null;
+			}
+			else if (isPatternSegment(segment)) {
+				this.patternChildren.remove(segment);
+			}
+			else {
+				this.literalChildren.remove(toKey(segment));
+			}
+		}
+
+		public boolean isEmpty() {
+			return (this.subscriptions.isEmpty() && this.literalChildren.isEmpty() &&
+					this.patternChildren.isEmpty() && this.anySegmentsChild == null);
+		}
+
+		private static boolean isPatternSegment(String segment) {
+			return (segment.indexOf('*') != -1 || segment.indexOf('?') != -1 || segment.indexOf('{') != -1);
+		}
+	}
+
+	/**
+	 * Return the key for a literal segment, such that segments that may match
+	 * with a case-insensitive matcher, or one that trims tokens, share a key.
+	 */
+	private static String toKey(String segment) {
+		return segment.trim().toLowerCase(Locale.ENGLISH);
+	}
+
+
+	/**
+	 * A subscription in the {@link DestinationIndex}, along with the order of
+	 * its registration.
+	 */
+	private static final class IndexedSubscription {
+
+		private final String sessionId;
+
+		private final String subscriptionId;
+
+		private final long order;
+
+		public IndexedSubscription(String sessionId, String subscriptionId, long order) {
+			this.sessionId = sessionId;
+			this.subscriptionId = subscriptionId;
+			this.order = order;
+		}
+
+		public String getSessionId() {
+			return this.sessionId;
+		}
+
+		public String getSubscriptionId() {
+			return this.subscriptionId;
+		}
+
+		public long getOrder() {
+			return this.order;
+		}
+
+		@Override
+		public boolean equals(@Nullable Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof IndexedSubscription)) {
+				return false;
+			}
+			IndexedSubscription otherSub = (IndexedSubscription) other;
+			return (this.sessionId.equals(otherSub.sessionId) && this.subscriptionId.equals(otherSub.subscriptionId));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.sessionId.hashCode() * 31 + this.subscriptionId.hashCode();
+		}
+	}
+
+
+	/**
+	 * The subscriptions found in the {@link DestinationIndex} for a destination,
+	 * along with the version of the index they were found in.
+	 */
+	private static final class ResolvedSubscriptions {
+
+		private final long version;
+
+		private final LinkedMultiValueMap<String, String> subscriptions;
+
+		public ResolvedSubscriptions(long version, LinkedMultiValueMap<String, String> subscriptions) {
+			this.version = version;
+			this.subscriptions = subscriptions;
+		}
+	}
+
+
 	/**
 	 * Provide access to session subscriptions by sessionId.
 	 */
@@ -43,6 +43,10 @@ import org.springframework.util.PathMatcher;
  * {@link SimpMessageType}, keeps track of subscriptions with the help of a
  * {@link SubscriptionRegistry} and sends messages to subscribers.
  *
+ * <p>The messages sent to the subscribers of a destination share a
+ * {@link BroadcastContext}, which allows protocol handlers to prepare the
+ * part of the outbound message that is common to all subscribers only once.
+ *
  * @author Rossen Stoyanchev
  * @author Juergen Hoeller
  * @since 4.0
@@ -385,12 +389,14 @@ public class SimpleBrokerMessageHandler extends AbstractBrokerMessageHandler {
 			logger.debug("Broadcasting to " + subscriptions.size() + " sessions.");
 		}
 		long now = System.currentTimeMillis();
+		BroadcastContext broadcastContext = new BroadcastContext();
 		subscriptions.forEach((sessionId, subscriptionIds) -> {
 			for (String subscriptionId : subscriptionIds) {
 				SimpMessageHeaderAccessor headerAccessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
 				initHeaders(headerAccessor);
 				headerAccessor.setSessionId(sessionId);
 				headerAccessor.setSubscriptionId(subscriptionId);
+				headerAccessor.setHeader(SimpMessageHeaderAccessor.BROADCAST_CONTEXT_HEADER, broadcastContext);
 				headerAccessor.copyHeadersIfAbsent(message.getHeaders());
 				headerAccessor.setLeaveMutable(true);
 				Object payload = message.getPayload();
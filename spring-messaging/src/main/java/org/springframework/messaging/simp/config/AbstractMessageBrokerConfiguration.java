@@ -39,6 +39,7 @@ import org.springframework.messaging.converter.MessageConverter;
 import org.springframework.messaging.converter.StringMessageConverter;
 import org.springframework.messaging.handler.invocation.HandlerMethodArgumentResolver;
 import org.springframework.messaging.handler.invocation.HandlerMethodReturnValueHandler;
+import org.springframework.messaging.simp.SessionAffinityTaskExecutor;
 import org.springframework.messaging.simp.SimpLogging;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.messaging.simp.annotation.support.SimpAnnotationMethodMessageHandler;
@@ -141,6 +142,11 @@ public abstract class AbstractMessageBrokerConfiguration implements ApplicationC
 
 	@Bean
 	public TaskExecutor clientInboundChannelExecutor() {
+		TaskExecutor customExecutor = getClientInboundChannelRegistration().getExecutor();
+		if (customExecutor != null) {
+			initThreadNamePrefix(customExecutor, "clientInboundChannel-");
+			return customExecutor;
+		}
 		TaskExecutorRegistration reg = getClientInboundChannelRegistration().taskExecutor();
 		ThreadPoolTaskExecutor executor = reg.getTaskExecutor();
 		executor.setThreadNamePrefix("clientInboundChannel-");
@@ -177,6 +183,11 @@ public abstract class AbstractMessageBrokerConfiguration implements ApplicationC
 
 	@Bean
 	public TaskExecutor clientOutboundChannelExecutor() {
+		TaskExecutor customExecutor = getClientOutboundChannelRegistration().getExecutor();
+		if (customExecutor != null) {
+			initThreadNamePrefix(customExecutor, "clientOutboundChannel-");
+			return customExecutor;
+		}
 		TaskExecutorRegistration reg = getClientOutboundChannelRegistration().taskExecutor();
 		ThreadPoolTaskExecutor executor = reg.getTaskExecutor();
 		executor.setThreadNamePrefix("clientOutboundChannel-");
@@ -193,6 +204,20 @@ public abstract class AbstractMessageBrokerConfiguration implements ApplicationC
 		return this.clientOutboundChannelRegistration;
 	}
 
+	/**
+	 * Apply the given thread name prefix to a {@link SessionAffinityTaskExecutor}
+	 * registered for a channel, unless the application configured one already.
+	 */
+	private static void initThreadNamePrefix(TaskExecutor executor, String threadNamePrefix) {
+		if (executor instanceof SessionAffinityTaskExecutor) {
+			SessionAffinityTaskExecutor affinityExecutor = (SessionAffinityTaskExecutor) executor;
+			String defaultPrefix = ClassUtils.getShortName(affinityExecutor.getClass()) + "-";
+			if (defaultPrefix.equals(affinityExecutor.getThreadNamePrefix())) {
+				affinityExecutor.setThreadNamePrefix(threadNamePrefix);
+			}
+		}
+	}
+
 	/**
 	 * A hook for subclasses to customize the message channel for messages from
 	 * the application or message broker to WebSocket clients.
@@ -20,9 +20,12 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.lang.Nullable;
+import org.springframework.messaging.simp.SessionAffinityTaskExecutor;
 import org.springframework.messaging.support.ChannelInterceptor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.util.Assert;
 
 /**
  * A registration class for customizing the configuration for a
@@ -36,6 +39,9 @@ public class ChannelRegistration {
 	@Nullable
 	private TaskExecutorRegistration registration;
 
+	@Nullable
+	private TaskExecutor executor;
+
 	private final List<ChannelInterceptor> interceptors = new ArrayList<>();
 
 
@@ -59,6 +65,21 @@ public class ChannelRegistration {
 		return this.registration;
 	}
 
+	/**
+	 * Configure the given executor for this message channel, in place of the
+	 * thread pool configured via {@link #taskExecutor()}, e.g. a
+	 * {@link SessionAffinityTaskExecutor} to handle the messages of each
+	 * session in order.
+	 * <p>This is supported for the client inbound and outbound channels.
+	 * @param executor the executor to use
+	 * @since 5.2.1
+	 */
+	public ChannelRegistration executor(TaskExecutor executor) {
+		Assert.notNull(executor, "TaskExecutor must not be null");
+		this.executor = executor;
+		return this;
+	}
+
 	/**
 	 * Configure the given interceptors for this message channel,
 	 * adding them to the channel's current list of interceptors.
@@ -86,6 +107,11 @@ public class ChannelRegistration {
 		return (this.registration != null);
 	}
 
+	@Nullable
+	protected TaskExecutor getExecutor() {
+		return this.executor;
+	}
+
 	protected boolean hasInterceptors() {
 		return !this.interceptors.isEmpty();
 	}
@@ -16,6 +16,7 @@
 
 package org.springframework.messaging.simp.stomp;
 
+import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.util.Collections;
 import java.util.List;
@@ -42,6 +43,10 @@ import org.springframework.util.MultiValueMap;
  * be used any more as its internal state is not guaranteed to be consistent.
  * It is expected that the underlying session is closed at that point.
  *
+ * <p>Partial content is accumulated in a buffer with spare capacity, so that
+ * the content of a large frame arriving in many chunks is copied a constant
+ * number of times on average, rather than once per chunk.
+ *
  * @author Rossen Stoyanchev
  * @since 4.0.3
  * @see StompDecoder
@@ -54,6 +59,9 @@ public class BufferingStompDecoder {
 
 	private final Queue<ByteBuffer> chunks = new LinkedBlockingQueue<>();
 
+	@Nullable
+	private ByteBuffer accumulator;
+
 	@Nullable
 	private volatile Integer expectedContentLength;
 
@@ -117,6 +125,9 @@ public class BufferingStompDecoder {
 			this.chunks.add(bufferToDecode);
 			this.expectedContentLength = StompHeaderAccessor.getContentLength(headers);
 		}
+		else if (bufferToDecode == this.accumulator) {
+			this.accumulator = null;
+		}
 
 		return messages;
 	}
@@ -126,18 +137,41 @@ public class BufferingStompDecoder {
 		if (this.chunks.size() == 1) {
 			result = this.chunks.remove();
 		}
+		else if (this.chunks.peek() == this.accumulator && canAppendToAccumulator()) {
+			result = this.chunks.remove();
+			// Explicit access via Buffer base type for compatibility
+			// with covariant return types on JDK 9's ByteBuffer...
+			Buffer buffer = result;
+			int position = buffer.position();
+			buffer.position(buffer.limit());
+			buffer.limit(buffer.capacity());
+			for (ByteBuffer partial : this.chunks) {
+				result.put(partial);
+			}
+			buffer.flip();
+			buffer.position(position);
+		}
 		else {
-			result = ByteBuffer.allocate(getBufferSize());
+			int size = getBufferSize();
+			result = ByteBuffer.allocate(size <= this.bufferSizeLimit / 2 ? size * 2 : Math.max(size, this.bufferSizeLimit));
 			for (ByteBuffer partial : this.chunks) {
 				result.put(partial);
 			}
 			result.flip();
+			this.accumulator = result;
 		}
 		this.chunks.clear();
 		this.expectedContentLength = null;
 		return result;
 	}
 
+	private boolean canAppendToAccumulator() {
+		ByteBuffer accumulator = this.accumulator;
+		Assert.state(accumulator != null, "No accumulator");
+		int spareCapacity = accumulator.capacity() - accumulator.limit();
+		return (getBufferSize() - accumulator.remaining() <= spareCapacity);
+	}
+
 	private void checkBufferLimits() {
 		Integer contentLength = this.expectedContentLength;
 		if (contentLength != null && contentLength > this.bufferSizeLimit) {
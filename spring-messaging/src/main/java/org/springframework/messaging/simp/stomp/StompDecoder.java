@@ -16,12 +16,14 @@
 
 package org.springframework.messaging.simp.stomp;
 
-import java.io.ByteArrayOutputStream;
 import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.commons.logging.Log;
 
@@ -43,6 +45,12 @@ import org.springframework.util.MultiValueMap;
  * partial content. The caller is then responsible for dealing with that
  * incomplete content by buffering until there is more input available.
  *
+ * <p>Commands, header names, and the values of frequently repeated headers
+ * such as "destination", "content-type", and "subscription" are resolved
+ * directly from the bytes of the buffer against small caches of previously
+ * decoded strings, and the payload is copied from the buffer exactly once,
+ * in order to reduce the garbage created per frame at high message rates.
+ *
  * @author Andy Wilkinson
  * @author Rossen Stoyanchev
  * @since 4.0
@@ -53,9 +61,30 @@ public class StompDecoder {
 
 	private static final Log logger = SimpLogging.forLogName(StompDecoder.class);
 
+	private static final StompCommand[] COMMANDS = StompCommand.values();
+
+	private static final byte[][] COMMAND_BYTES = new byte[COMMANDS.length][];
+
+	private static final Set<String> CACHED_VALUE_HEADERS = new HashSet<>(Arrays.asList(
+			StompHeaderAccessor.STOMP_DESTINATION_HEADER, StompHeaderAccessor.STOMP_CONTENT_TYPE_HEADER,
+			StompHeaderAccessor.STOMP_SUBSCRIPTION_HEADER, StompHeaderAccessor.STOMP_ACK_HEADER));
+
+	private static final int MAX_CACHED_VALUE_LENGTH = 256;
+
+	static {
+		for (int i = 0; i < COMMANDS.length; i++) {
+			COMMAND_BYTES[i] = COMMANDS[i].name().getBytes(StandardCharsets.US_ASCII);
+		}
+	}
+
+
 	@Nullable
 	private MessageHeaderInitializer headerInitializer;
 
+	private final StringCache headerNameCache = new StringCache(128);
+
+	private final StringCache headerValueCache = new StringCache(1024);
+
 
 	/**
 	 * Configure a {@link MessageHeaderInitializer} to apply to the headers of
@@ -135,12 +164,16 @@ public class StompDecoder {
 		Buffer buffer = byteBuffer;
 		buffer.mark();
 
-		String command = readCommand(byteBuffer);
-		if (command.length() > 0) {
+		int commandStart = byteBuffer.position();
+		int commandEnd = readLine(byteBuffer);
+		if (commandEnd == -1) {
+			commandEnd = byteBuffer.position();
+		}
+		if (commandEnd > commandStart) {
 			StompHeaderAccessor headerAccessor = null;
 			byte[] payload = null;
 			if (byteBuffer.remaining() > 0) {
-				StompCommand stompCommand = StompCommand.valueOf(command);
+				StompCommand stompCommand = readCommand(byteBuffer, commandStart, commandEnd);
 				headerAccessor = StompHeaderAccessor.create(stompCommand);
 				initHeaders(headerAccessor);
 				readHeaders(byteBuffer, headerAccessor);
@@ -206,53 +239,84 @@ public class StompDecoder {
 		}
 	}
 
-	private String readCommand(ByteBuffer byteBuffer) {
-		ByteArrayOutputStream command = new ByteArrayOutputStream(256);
-		while (byteBuffer.remaining() > 0 && !tryConsumeEndOfLine(byteBuffer)) {
-			command.write(byteBuffer.get());
+	/**
+	 * Consume the next line including its EOL, if the buffer contains one.
+	 * @return the index of the end of the line content, or -1 if the buffer
+	 * does not contain a complete line, in which case it is fully consumed
+	 */
+	private int readLine(ByteBuffer byteBuffer) {
+		int limit = byteBuffer.limit();
+		for (int i = byteBuffer.position(); i < limit; i++) {
+			byte b = byteBuffer.get(i);
+			if (b == '\n') {
+				((Buffer) byteBuffer).position(i + 1);
+				return i;
+			}
+			else if (b == '\r') {
+				if (i + 1 < limit && byteBuffer.get(i + 1) == '\n') {
+					((Buffer) byteBuffer).position(i + 2);
+					return i;
+				}
+				throw new StompConversionException("'\\r' must be followed by '\\n'");
+			}
+		}
+		((Buffer) byteBuffer).position(limit);
+		return -1;
+	}
+
+	private StompCommand readCommand(ByteBuffer byteBuffer, int start, int end) {
+		for (int i = 0; i < COMMANDS.length; i++) {
+			if (matches(byteBuffer, start, end, COMMAND_BYTES[i])) {
+				return COMMANDS[i];
+			}
 		}
-		return new String(command.toByteArray(), StandardCharsets.UTF_8);
+		return StompCommand.valueOf(readString(byteBuffer, start, end));
 	}
 
 	private void readHeaders(ByteBuffer byteBuffer, StompHeaderAccessor headerAccessor) {
 		while (true) {
-			ByteArrayOutputStream headerStream = new ByteArrayOutputStream(256);
-			boolean headerComplete = false;
-			while (byteBuffer.hasRemaining()) {
-				if (tryConsumeEndOfLine(byteBuffer)) {
-					headerComplete = true;
-					break;
+			int start = byteBuffer.position();
+			int end = readLine(byteBuffer);
+			if (end <= start) {
+				break;
+			}
+			int colonIndex = indexOf(byteBuffer, (byte) ':', start, end);
+			if (colonIndex <= start) {
+				if (byteBuffer.remaining() > 0) {
+					throw new StompConversionException("Illegal header: '" + readString(byteBuffer, start, end) +
+							"'. A header must be of the form <name>:[<value>].");
 				}
-				headerStream.write(byteBuffer.get());
 			}
-			if (headerStream.size() > 0 && headerComplete) {
-				String header = new String(headerStream.toByteArray(), StandardCharsets.UTF_8);
-				int colonIndex = header.indexOf(':');
-				if (colonIndex <= 0) {
-					if (byteBuffer.remaining() > 0) {
-						throw new StompConversionException("Illegal header: '" + header +
-								"'. A header must be of the form <name>:[<value>].");
-					}
+			else {
+				String headerName = readHeaderString(byteBuffer, start, colonIndex, this.headerNameCache);
+				StringCache valueCache = (CACHED_VALUE_HEADERS.contains(headerName) &&
+						end - colonIndex <= MAX_CACHED_VALUE_LENGTH ? this.headerValueCache : null);
+				String headerValue = readHeaderString(byteBuffer, colonIndex + 1, end, valueCache);
+				try {
+					headerAccessor.addNativeHeader(headerName, headerValue);
 				}
-				else {
-					String headerName = unescape(header.substring(0, colonIndex));
-					String headerValue = unescape(header.substring(colonIndex + 1));
-					try {
-						headerAccessor.addNativeHeader(headerName, headerValue);
-					}
-					catch (InvalidMimeTypeException ex) {
-						if (byteBuffer.remaining() > 0) {
-							throw ex;
-						}
+				catch (InvalidMimeTypeException ex) {
+					if (byteBuffer.remaining() > 0) {
+						throw ex;
 					}
 				}
 			}
-			else {
-				break;
-			}
 		}
 	}
 
+	/**
+	 * Read an unescaped header name or value, from the given cache if possible.
+	 */
+	private String readHeaderString(ByteBuffer byteBuffer, int start, int end, @Nullable StringCache cache) {
+		if (start == end) {
+			return "";
+		}
+		if (indexOf(byteBuffer, (byte) '\\', start, end) != -1) {
+			return unescape(readString(byteBuffer, start, end));
+		}
+		return (cache != null ? cache.get(byteBuffer, start, end) : readString(byteBuffer, start, end));
+	}
+
 	/**
 	 * See STOMP Spec 1.2:
 	 * <a href="https://stomp.github.io/stomp-specification-1.2.html#Value_Encoding">"Value Encoding"</a>.
@@ -319,15 +383,13 @@ public class StompDecoder {
 			}
 		}
 		else {
-			ByteArrayOutputStream payload = new ByteArrayOutputStream(256);
-			while (byteBuffer.remaining() > 0) {
-				byte b = byteBuffer.get();
-				if (b == 0) {
-					return payload.toByteArray();
-				}
-				else {
-					payload.write(b);
-				}
+			int start = byteBuffer.position();
+			int end = indexOf(byteBuffer, (byte) 0, start, byteBuffer.limit());
+			if (end != -1) {
+				byte[] payload = new byte[end - start];
+				byteBuffer.get(payload);
+				byteBuffer.get();
+				return payload;
 			}
 		}
 		return null;
@@ -357,4 +419,93 @@ public class StompDecoder {
 		return false;
 	}
 
+	private static int indexOf(ByteBuffer byteBuffer, byte b, int start, int end) {
+		for (int i = start; i < end; i++) {
+			if (byteBuffer.get(i) == b) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static boolean matches(ByteBuffer byteBuffer, int start, int end, byte[] bytes) {
+		if (end - start != bytes.length) {
+			return false;
+		}
+		for (int i = 0; i < bytes.length; i++) {
+			if (byteBuffer.get(start + i) != bytes[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static byte[] getBytes(ByteBuffer byteBuffer, int start, int end) {
+		if (byteBuffer.hasArray()) {
+			int offset = byteBuffer.arrayOffset();
+			return Arrays.copyOfRange(byteBuffer.array(), offset + start, offset + end);
+		}
+		byte[] bytes = new byte[end - start];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = byteBuffer.get(start + i);
+		}
+		return bytes;
+	}
+
+	private static String readString(ByteBuffer byteBuffer, int start, int end) {
+		if (byteBuffer.hasArray()) {
+			return new String(byteBuffer.array(), byteBuffer.arrayOffset() + start, end - start, StandardCharsets.UTF_8);
+		}
+		return new String(getBytes(byteBuffer, start, end), StandardCharsets.UTF_8);
+	}
+
+
+	/**
+	 * A fixed-size, direct-mapped cache of strings keyed by their UTF-8 bytes,
+	 * so that repeated header names and values are decoded once and then shared
+	 * by all decoded messages, without creating any objects on a cache hit.
+	 * A cache miss replaces the entry in the slot. Entries are immutable, so
+	 * concurrent use by several threads, e.g. for several WebSocket sessions,
+	 * at worst results in a lost update.
+	 */
+	private static class StringCache {
+
+		private final Entry[] entries;
+
+		StringCache(int size) {
+			this.entries = new Entry[size];
+		}
+
+		public String get(ByteBuffer byteBuffer, int start, int end) {
+			int hash = 0;
+			for (int i = start; i < end; i++) {
+				hash = 31 * hash + byteBuffer.get(i);
+			}
+			int index = Math.floorMod(hash ^ (hash >>> 16), this.entries.length);
+			Entry entry = this.entries[index];
+			if (entry != null && entry.hash == hash && matches(byteBuffer, start, end, entry.bytes)) {
+				return entry.value;
+			}
+			byte[] bytes = getBytes(byteBuffer, start, end);
+			String value = new String(bytes, StandardCharsets.UTF_8);
+			this.entries[index] = new Entry(hash, bytes, value);
+			return value;
+		}
+
+		private static class Entry {
+
+			final int hash;
+
+			final byte[] bytes;
+
+			final String value;
+
+			Entry(int hash, byte[] bytes, String value) {
+				this.hash = hash;
+				this.bytes = bytes;
+				this.value = value;
+			}
+		}
+	}
+
 }
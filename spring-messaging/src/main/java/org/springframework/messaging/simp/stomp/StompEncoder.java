@@ -20,6 +20,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -110,7 +111,7 @@ public class StompEncoder  {
 
 				output.write(command.toString().getBytes(StandardCharsets.UTF_8));
 				output.write(LF);
-				writeHeaders(command, headers, payload, output);
+				writeHeaders(command, headers, payload, false, output);
 				output.write(LF);
 				writeBody(payload, output);
 				output.write((byte) 0);
@@ -123,8 +124,38 @@ public class StompEncoder  {
 		}
 	}
 
+	/**
+	 * Encode the given payload and headers of a STOMP MESSAGE frame, except for
+	 * the "subscription" and "message-id" headers, which are specific to each
+	 * subscriber that a message is broadcast to. The returned frame is then
+	 * completed for each subscriber via {@link BroadcastFrame#encode}, without
+	 * encoding the payload and the remaining headers again.
+	 * @param headers the headers of the message sent to one of the subscribers
+	 * @param payload the payload shared by all subscribers
+	 * @return the encoded frame, less the subscriber specific headers
+	 * @since 5.2.1
+	 */
+	public BroadcastFrame encodeBroadcastFrame(Map<String, Object> headers, byte[] payload) {
+		Assert.notNull(headers, "'headers' is required");
+		Assert.notNull(payload, "'payload' is required");
+		Assert.isTrue(StompCommand.MESSAGE.equals(StompHeaderAccessor.getCommand(headers)),
+				"Expected STOMP MESSAGE frame: " + headers);
+
+		try {
+			ByteArrayOutputStream baos = new ByteArrayOutputStream(128);
+			DataOutputStream output = new DataOutputStream(baos);
+			output.write(StompCommand.MESSAGE.toString().getBytes(StandardCharsets.UTF_8));
+			output.write(LF);
+			writeHeaders(StompCommand.MESSAGE, headers, payload, true, output);
+			return new BroadcastFrame(this, getSharedHeaders(headers), payload, baos.toByteArray());
+		}
+		catch (IOException ex) {
+			throw new StompConversionException("Failed to encode STOMP frame, headers=" + headers,  ex);
+		}
+	}
+
 	private void writeHeaders(StompCommand command, Map<String, Object> headers, byte[] payload,
-			DataOutputStream output) throws IOException {
+			boolean skipSubscriberHeaders, DataOutputStream output) throws IOException {
 
 		@SuppressWarnings("unchecked")
 		Map<String,List<String>> nativeHeaders =
@@ -145,6 +176,9 @@ public class StompEncoder  {
 			if (command.requiresContentLength() && "content-length".equals(entry.getKey())) {
 				continue;
 			}
+			if (skipSubscriberHeaders && isSubscriberHeader(entry.getKey())) {
+				continue;
+			}
 
 			List<String> values = entry.getValue();
 			if ((StompCommand.CONNECT.equals(command) || StompCommand.STOMP.equals(command)) &&
@@ -169,6 +203,31 @@ public class StompEncoder  {
 		}
 	}
 
+	private static boolean isSubscriberHeader(String name) {
+		return (StompHeaderAccessor.STOMP_SUBSCRIPTION_HEADER.equals(name) ||
+				StompHeaderAccessor.STOMP_MESSAGE_ID_HEADER.equals(name));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Nullable
+	private static Map<String, List<String>> getNativeHeaders(Map<String, Object> headers) {
+		return (Map<String, List<String>>) headers.get(NativeMessageHeaderAccessor.NATIVE_HEADERS);
+	}
+
+	private static Map<String, List<String>> getSharedHeaders(Map<String, Object> headers) {
+		Map<String, List<String>> nativeHeaders = getNativeHeaders(headers);
+		if (nativeHeaders == null) {
+			return Collections.emptyMap();
+		}
+		Map<String, List<String>> sharedHeaders = new LinkedHashMap<>(nativeHeaders.size());
+		nativeHeaders.forEach((name, values) -> {
+			if (!isSubscriberHeader(name)) {
+				sharedHeaders.put(name, values);
+			}
+		});
+		return sharedHeaders;
+	}
+
 	private byte[] encodeHeaderKey(String input, boolean escape) {
 		String inputToUse = (escape ? escape(input) : input);
 		if (this.headerKeyAccessCache.containsKey(inputToUse)) {
@@ -233,4 +292,96 @@ public class StompEncoder  {
 		output.write(payload);
 	}
 
+
+	/**
+	 * A STOMP MESSAGE frame encoded once for all subscribers that a message is
+	 * broadcast to, less the subscriber specific headers.
+	 * @since 5.2.1
+	 * @see StompEncoder#encodeBroadcastFrame(Map, byte[])
+	 */
+	public static final class BroadcastFrame {
+
+		private final StompEncoder encoder;
+
+		private final Map<String, List<String>> sharedHeaders;
+
+		private final byte[] payload;
+
+		private final byte[] encodedHeaders;
+
+		BroadcastFrame(StompEncoder encoder, Map<String, List<String>> sharedHeaders,
+				byte[] payload, byte[] encodedHeaders) {
+
+			this.encoder = encoder;
+			this.sharedHeaders = sharedHeaders;
+			this.payload = payload;
+			this.encodedHeaders = encodedHeaders;
+		}
+
+		/**
+		 * Complete the frame with the "subscription" and "message-id" headers
+		 * of the given message headers.
+		 * @param headers the headers of the message sent to one of the subscribers
+		 * @param payload the payload of the message sent to one of the subscribers
+		 * @return the encoded message, or {@code null} if the given payload or
+		 * headers other than the subscriber specific ones differ from those the
+		 * frame was encoded with, in which case the message must be encoded in full
+		 */
+		@Nullable
+		public byte[] encode(Map<String, Object> headers, byte[] payload) {
+			if (payload != this.payload || !StompCommand.MESSAGE.equals(StompHeaderAccessor.getCommand(headers))) {
+				return null;
+			}
+			Map<String, List<String>> nativeHeaders = getNativeHeaders(headers);
+			if (nativeHeaders == null || !hasSharedHeaders(nativeHeaders)) {
+				return null;
+			}
+
+			List<byte[]> subscriberHeaders = new ArrayList<>(2);
+			int length = this.encodedHeaders.length + 1 + payload.length + 1;
+			for (Entry<String, List<String>> entry : nativeHeaders.entrySet()) {
+				if (isSubscriberHeader(entry.getKey())) {
+					byte[] encodedKey = this.encoder.encodeHeaderKey(entry.getKey(), true);
+					for (String value : entry.getValue()) {
+						byte[] encodedValue = this.encoder.encodeHeaderValue(value, true);
+						subscriberHeaders.add(encodedKey);
+						subscriberHeaders.add(encodedValue);
+						length += encodedKey.length + 1 + encodedValue.length + 1;
+					}
+				}
+			}
+
+			byte[] bytes = new byte[length];
+			System.arraycopy(this.encodedHeaders, 0, bytes, 0, this.encodedHeaders.length);
+			int pos = this.encodedHeaders.length;
+			for (int i = 0; i < subscriberHeaders.size(); i += 2) {
+				byte[] encodedKey = subscriberHeaders.get(i);
+				byte[] encodedValue = subscriberHeaders.get(i + 1);
+				System.arraycopy(encodedKey, 0, bytes, pos, encodedKey.length);
+				pos += encodedKey.length;
+				bytes[pos++] = COLON;
+				System.arraycopy(encodedValue, 0, bytes, pos, encodedValue.length);
+				pos += encodedValue.length;
+				bytes[pos++] = LF;
+			}
+			bytes[pos++] = LF;
+			System.arraycopy(payload, 0, bytes, pos, payload.length);
+			// The last byte remains 0, terminating the frame
+			return bytes;
+		}
+
+		private boolean hasSharedHeaders(Map<String, List<String>> nativeHeaders) {
+			int count = 0;
+			for (Entry<String, List<String>> entry : nativeHeaders.entrySet()) {
+				if (!isSubscriberHeader(entry.getKey())) {
+					if (!entry.getValue().equals(this.sharedHeaders.get(entry.getKey()))) {
+						return false;
+					}
+					count++;
+				}
+			}
+			return (count == this.sharedHeaders.size());
+		}
+	}
+
 }
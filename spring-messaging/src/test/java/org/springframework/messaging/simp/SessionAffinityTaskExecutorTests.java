@@ -0,0 +1,157 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.messaging.simp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Unit tests for {@link SessionAffinityTaskExecutor}.
+ *
+ * @author Spring Framework Team
+ */
+public class SessionAffinityTaskExecutorTests {
+
+	private final SessionAffinityTaskExecutor executor = new SessionAffinityTaskExecutor();
+
+
+	@AfterEach
+	public void shutdown() {
+		this.executor.shutdown();
+	}
+
+
+	@Test
+	public void messagesOfSessionHandledInOrder() throws Exception {
+		this.executor.setStripeCount(4);
+		this.executor.initialize();
+
+		int sessionCount = 10;
+		int messageCount = 100;
+		Map<String, List<Integer>> received = new ConcurrentHashMap<>();
+		Map<String, List<String>> threads = new ConcurrentHashMap<>();
+		CountDownLatch latch = new CountDownLatch(sessionCount * messageCount);
+
+		ExecutorSubscribableChannel channel = new ExecutorSubscribableChannel(this.executor);
+		channel.subscribe(message -> {
+			String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+			received.computeIfAbsent(sessionId, id -> new ArrayList<>()).add((Integer) message.getPayload());
+			threads.computeIfAbsent(sessionId, id -> new ArrayList<>()).add(Thread.currentThread().getName());
+			latch.countDown();
+		});
+
+		for (int i = 0; i < messageCount; i++) {
+			for (int j = 0; j < sessionCount; j++) {
+				channel.send(createMessage("sess" + j, i));
+			}
+		}
+		assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+
+		assertThat(received).hasSize(sessionCount);
+		received.values().forEach(values -> assertThat(values).hasSize(messageCount).isSorted());
+		threads.values().forEach(names -> assertThat(names).containsOnly(names.get(0)));
+		assertThat(this.executor.getCompletedTaskCount()).isEqualTo(sessionCount * messageCount);
+	}
+
+	@Test
+	public void queueSizes() throws Exception {
+		this.executor.setStripeCount(1);
+		this.executor.initialize();
+
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		this.executor.execute(() -> {
+			started.countDown();
+			await(release);
+		});
+		assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+		this.executor.execute(() -> {});
+		this.executor.execute(() -> {});
+
+		assertThat(this.executor.getQueueSizes()).containsExactly(2);
+		assertThat(this.executor.getQueueSize()).isEqualTo(2);
+		assertThat(this.executor.getActiveCount()).isEqualTo(1);
+		assertThat(this.executor.toString()).contains("queued tasks = 2", "stripe queues = [2]");
+		release.countDown();
+	}
+
+	@Test
+	public void rejectWhenQueueFull() throws Exception {
+		this.executor.setStripeCount(1);
+		this.executor.setQueueCapacity(1);
+		this.executor.initialize();
+
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		this.executor.execute(() -> {
+			started.countDown();
+			await(release);
+		});
+		assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+		this.executor.execute(() -> {});
+
+		assertThatExceptionOfType(TaskRejectedException.class).isThrownBy(() -> this.executor.execute(() -> {}));
+		release.countDown();
+	}
+
+	@Test
+	public void rejectAfterShutdown() {
+		this.executor.initialize();
+		this.executor.shutdown();
+
+		assertThatExceptionOfType(TaskRejectedException.class).isThrownBy(() -> this.executor.execute(() -> {}));
+	}
+
+	@Test
+	public void executeBeforeInitialize() {
+		assertThatIllegalStateException().isThrownBy(() -> this.executor.execute(() -> {}));
+		assertThat(this.executor.toString()).contains("pool size = 0");
+	}
+
+
+	private static Message<Integer> createMessage(String sessionId, int payload) {
+		SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+		accessor.setSessionId(sessionId);
+		return MessageBuilder.createMessage(payload, accessor.getMessageHeaders());
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
@@ -28,6 +28,7 @@ import org.springframework.messaging.Message;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessageType;
 import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.AntPathMatcher;
 import org.springframework.util.MultiValueMap;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -256,6 +257,80 @@ public class DefaultSubscriptionRegistryTests {
 		assertThat(actual.size()).as("Expected no elements " + actual).isEqualTo(0);
 	}
 
+	@Test
+	public void registerSubscriptionWithDoubleWildcard() {
+		this.registry.registerSubscription(subscribeMessage("sess01", "subs01", "/topic/**"));
+		this.registry.registerSubscription(subscribeMessage("sess01", "subs02", "/topic/*/b"));
+		this.registry.registerSubscription(subscribeMessage("sess02", "subs01", "/**/c"));
+
+		MultiValueMap<String, String> actual = this.registry.findSubscriptions(createMessage("/topic/a/b/c"));
+		assertThat(actual.size()).isEqualTo(2);
+		assertThat(actual.get("sess01")).isEqualTo(Collections.singletonList("subs01"));
+		assertThat(actual.get("sess02")).isEqualTo(Collections.singletonList("subs01"));
+
+		actual = this.registry.findSubscriptions(createMessage("/topic/a/b"));
+		assertThat(actual.size()).isEqualTo(1);
+		assertThat(actual.get("sess01")).isEqualTo(Arrays.asList("subs01", "subs02"));
+
+		actual = this.registry.findSubscriptions(createMessage("/c"));
+		assertThat(actual.size()).isEqualTo(1);
+		assertThat(actual.get("sess02")).isEqualTo(Collections.singletonList("subs01"));
+	}
+
+	@Test
+	public void registerSubscriptionWithDotSeparator() {
+		this.registry.setPathMatcher(new AntPathMatcher("."));
+		this.registry.registerSubscription(subscribeMessage("sess01", "subs01", "price.stock.*"));
+		this.registry.registerSubscription(subscribeMessage("sess01", "subs02", "price.**"));
+		this.registry.registerSubscription(subscribeMessage("sess01", "subs03", "price.stock.ibm"));
+		this.registry.registerSubscription(subscribeMessage("sess01", "subs04", "price.stock.ibm.*"));
+
+		MultiValueMap<String, String> actual = this.registry.findSubscriptions(createMessage("price.stock.ibm"));
+		assertThat(actual.size()).isEqualTo(1);
+		assertThat(actual.get("sess01")).isEqualTo(Arrays.asList("subs01", "subs02", "subs03"));
+
+		this.registry.unregisterSubscription(unsubscribeMessage("sess01", "subs02"));
+		actual = this.registry.findSubscriptions(createMessage("price.stock.ibm"));
+		assertThat(actual.get("sess01")).isEqualTo(Arrays.asList("subs01", "subs03"));
+	}
+
+	@Test
+	public void registerSubscriptionBeforeSettingPathMatcher() {
+		this.registry.registerSubscription(subscribeMessage("sess01", "subs01", "price.*.ibm"));
+		assertThat(this.registry.findSubscriptions(createMessage("price.stock.nyse.ibm")).size()).isEqualTo(1);
+
+		this.registry.setPathMatcher(new AntPathMatcher("."));
+		assertThat(this.registry.findSubscriptions(createMessage("price.stock.nyse.ibm")).size()).isEqualTo(0);
+		MultiValueMap<String, String> actual = this.registry.findSubscriptions(createMessage("price.stock.ibm"));
+		assertThat(actual.get("sess01")).isEqualTo(Collections.singletonList("subs01"));
+	}
+
+	@Test
+	public void registerSubscriptionWithCaseInsensitivePathMatcher() {
+		AntPathMatcher pathMatcher = new AntPathMatcher();
+		pathMatcher.setCaseSensitive(false);
+		this.registry.setPathMatcher(pathMatcher);
+		this.registry.registerSubscription(subscribeMessage("sess01", "subs01", "/Topic/Foo"));
+
+		MultiValueMap<String, String> actual = this.registry.findSubscriptions(createMessage("/topic/foo"));
+		assertThat(actual.get("sess01")).isEqualTo(Collections.singletonList("subs01"));
+	}
+
+	@Test
+	public void registerSubscriptionWithCustomPathMatcher() {
+		this.registry.setPathMatcher(new AntPathMatcher() {});
+		this.registry.registerSubscription(subscribeMessage("sess01", "subs01", "/topic/*"));
+		this.registry.registerSubscription(subscribeMessage("sess02", "subs01", "/topic/foo"));
+
+		MultiValueMap<String, String> actual = this.registry.findSubscriptions(createMessage("/topic/foo"));
+		assertThat(actual.size()).isEqualTo(2);
+
+		this.registry.unregisterAllSubscriptions("sess01");
+		actual = this.registry.findSubscriptions(createMessage("/topic/foo"));
+		assertThat(actual.size()).isEqualTo(1);
+		assertThat(actual.get("sess02")).isEqualTo(Collections.singletonList("subs01"));
+	}
+
 	@Test
 	public void registerSubscriptionWithSelector() {
 		String sessionId = "sess01";
@@ -438,6 +513,29 @@ public class DefaultSubscriptionRegistryTests {
 		assertThat(this.registry.findSubscriptions(createMessage("/bar")).size()).isEqualTo(2);
 	}
 
+	@Test
+	public void findSubscriptionsCachedUntilSubscriptionsChange() {
+		this.registry.registerSubscription(subscribeMessage("sess1", "1", "/foo/*"));
+		this.registry.registerSubscription(subscribeMessage("sess1", "2", "/foo/bar"));
+
+		MultiValueMap<String, String> actual = this.registry.findSubscriptions(createMessage("/foo/bar"));
+		assertThat(actual.get("sess1")).containsExactly("1", "2");
+		assertThat(this.registry.findSubscriptions(createMessage("/foo/bar"))).isSameAs(actual);
+
+		this.registry.registerSubscription(subscribeMessage("sess2", "1", "/foo/**"));
+		actual = this.registry.findSubscriptions(createMessage("/foo/bar"));
+		assertThat(actual.get("sess1")).containsExactly("1", "2");
+		assertThat(actual.get("sess2")).containsExactly("1");
+
+		this.registry.unregisterSubscription(unsubscribeMessage("sess1", "1"));
+		actual = this.registry.findSubscriptions(createMessage("/foo/bar"));
+		assertThat(actual.get("sess1")).containsExactly("2");
+		assertThat(actual.get("sess2")).containsExactly("1");
+
+		this.registry.unregisterAllSubscriptions("sess2");
+		assertThat(this.registry.findSubscriptions(createMessage("/foo/bar")).get("sess2")).isNull();
+	}
+
 	private Message<?> createMessage(String destination) {
 		SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create();
 		accessor.setDestination(destination);
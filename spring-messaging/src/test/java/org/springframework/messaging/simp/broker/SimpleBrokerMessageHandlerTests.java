@@ -112,6 +112,27 @@ public class SimpleBrokerMessageHandlerTests {
 		assertThat(messageCaptured("sess2", "sub3", "/bar")).isTrue();
 	}
 
+	@Test
+	public void subscribePublishWithBroadcastContext() {
+		startSession("sess1");
+		startSession("sess2");
+
+		this.messageHandler.handleMessage(createSubscriptionMessage("sess1", "sub1", "/foo"));
+		this.messageHandler.handleMessage(createSubscriptionMessage("sess2", "sub1", "/foo"));
+		this.messageHandler.handleMessage(createSubscriptionMessage("sess2", "sub2", "/bar"));
+
+		this.messageHandler.handleMessage(createMessage("/foo", "message1"));
+		this.messageHandler.handleMessage(createMessage("/bar", "message2"));
+
+		verify(this.clientOutChannel, times(3)).send(this.messageCaptor.capture());
+		List<Message<?>> messages = this.messageCaptor.getAllValues();
+		messages = messages.subList(messages.size() - 3, messages.size());
+		Object context = messages.get(0).getHeaders().get(SimpMessageHeaderAccessor.BROADCAST_CONTEXT_HEADER);
+		assertThat(context).isInstanceOf(BroadcastContext.class);
+		assertThat(messages.get(1).getHeaders().get(SimpMessageHeaderAccessor.BROADCAST_CONTEXT_HEADER)).isSameAs(context);
+		assertThat(messages.get(2).getHeaders().get(SimpMessageHeaderAccessor.BROADCAST_CONTEXT_HEADER)).isNotSameAs(context);
+	}
+
 	@Test
 	public void subscribeDisconnectPublish() {
 		String sess1 = "sess1";
@@ -45,6 +45,7 @@ import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.SendTo;
 import org.springframework.messaging.handler.invocation.HandlerMethodArgumentResolver;
 import org.springframework.messaging.handler.invocation.HandlerMethodReturnValueHandler;
+import org.springframework.messaging.simp.SessionAffinityTaskExecutor;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessageType;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
@@ -309,6 +310,23 @@ public class MessageBrokerConfigurationTests {
 		assertThat(executor.getMaxPoolSize()).isEqualTo(1);
 	}
 
+	@Test
+	public void sessionAffinityExecutor() {
+		ApplicationContext context = loadConfig(SessionAffinityConfig.class);
+
+		SessionAffinityTaskExecutor executor = context.getBean(
+				"clientInboundChannelExecutor", SessionAffinityTaskExecutor.class);
+		assertThat(executor.getStripeCount()).isEqualTo(4);
+		assertThat(executor.getThreadNamePrefix()).isEqualTo("clientInboundChannel-");
+		assertThat(executor.getQueueSizes()).hasSize(4);
+
+		ExecutorSubscribableChannel channel = context.getBean(
+				"clientOutboundChannel", ExecutorSubscribableChannel.class);
+		assertThat(channel.getExecutor()).isInstanceOf(SessionAffinityTaskExecutor.class);
+		assertThat(((SessionAffinityTaskExecutor) channel.getExecutor()).getThreadNamePrefix())
+				.isEqualTo("customOutbound-");
+	}
+
 	@Test
 	public void configureMessageConvertersCustom() {
 		final MessageConverter testConverter = mock(MessageConverter.class);
@@ -670,6 +688,25 @@ public class MessageBrokerConfigurationTests {
 	}
 
 
+	@Configuration
+	static class SessionAffinityConfig extends BaseTestMessageBrokerConfig {
+
+		@Override
+		protected void configureClientInboundChannel(ChannelRegistration registration) {
+			SessionAffinityTaskExecutor executor = new SessionAffinityTaskExecutor();
+			executor.setStripeCount(4);
+			registration.executor(executor);
+		}
+
+		@Override
+		protected void configureClientOutboundChannel(ChannelRegistration registration) {
+			SessionAffinityTaskExecutor executor = new SessionAffinityTaskExecutor();
+			executor.setThreadNamePrefix("customOutbound-");
+			registration.executor(executor);
+		}
+	}
+
+
 	@Configuration
 	static abstract class BaseDotSeparatorConfig extends BaseTestMessageBrokerConfig {
 
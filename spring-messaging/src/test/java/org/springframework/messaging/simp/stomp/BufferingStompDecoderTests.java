@@ -140,6 +140,26 @@ public class BufferingStompDecoderTests {
 		assertThat(stompDecoder.getExpectedContentLength()).isNull();
 	}
 
+	@Test
+	public void oneMessageInManyChunks() {
+		BufferingStompDecoder stompDecoder = new BufferingStompDecoder(STOMP_DECODER, 1024);
+		List<Message<byte[]>> messages = stompDecoder.decode(toByteBuffer("SEND\na:alpha\n\n"));
+		StringBuilder payload = new StringBuilder();
+		for (int i = 0; i < 50; i++) {
+			String chunk = "Payload" + i + "-";
+			payload.append(chunk);
+			messages = stompDecoder.decode(toByteBuffer(chunk));
+
+			assertThat(messages).isEmpty();
+			assertThat(stompDecoder.getBufferSize()).isEqualTo(14 + payload.length());
+		}
+		messages = stompDecoder.decode(toByteBuffer("\0SEND\n"));
+
+		assertThat(messages.size()).isEqualTo(1);
+		assertThat(new String(messages.get(0).getPayload())).isEqualTo(payload.toString());
+		assertThat(stompDecoder.getBufferSize()).isEqualTo(5);
+	}
+
 	@Test
 	public void oneFullAndOneSplitWithContentLengthExceedingBufferSize() throws InterruptedException {
 		BufferingStompDecoder stompDecoder = new BufferingStompDecoder(STOMP_DECODER, 128);
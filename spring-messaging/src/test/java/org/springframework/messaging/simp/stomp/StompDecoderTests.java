@@ -179,6 +179,37 @@ public class StompDecoderTests {
 		assertThat(StompHeaderAccessor.wrap(messages.get(1)).getCommand()).isEqualTo(StompCommand.DISCONNECT);
 	}
 
+	@Test
+	public void decodeFrameFromDirectBuffer() {
+		byte[] bytes = "SEND\ndestination:/topic/foo\na\\cb:c\n\nThe body of the message\0".getBytes();
+		ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+		buffer.put(bytes);
+		buffer.flip();
+
+		Message<byte[]> frame = decode(buffer);
+		StompHeaderAccessor headers = StompHeaderAccessor.wrap(frame);
+
+		assertThat(headers.getCommand()).isEqualTo(StompCommand.SEND);
+		assertThat(headers.getDestination()).isEqualTo("/topic/foo");
+		assertThat(headers.getFirstNativeHeader("a:b")).isEqualTo("c");
+		assertThat(new String(frame.getPayload())).isEqualTo("The body of the message");
+		assertThat(buffer.hasRemaining()).isFalse();
+	}
+
+	@Test
+	public void decodeFramesWithSameHeaderValues() {
+		String frame = "MESSAGE\nsubscription:s1\nmessage-id:m1\ndestination:/topic/foo\n" +
+				"content-type:text/plain\n\nbody\0";
+		StompHeaderAccessor headers1 = StompHeaderAccessor.wrap(decode(frame));
+		StompHeaderAccessor headers2 = StompHeaderAccessor.wrap(decode(frame.replace("m1", "m2")));
+
+		assertThat(headers2.getDestination()).isEqualTo("/topic/foo").isSameAs(headers1.getDestination());
+		assertThat(headers2.getSubscriptionId()).isEqualTo("s1").isSameAs(headers1.getSubscriptionId());
+		assertThat(headers2.getFirstNativeHeader("content-type"))
+				.isSameAs(headers1.getFirstNativeHeader("content-type"));
+		assertThat(headers2.getMessageId()).isEqualTo("m2");
+	}
+
 	// SPR-13111
 
 	@Test
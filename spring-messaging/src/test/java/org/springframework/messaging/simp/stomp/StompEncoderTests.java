@@ -83,4 +83,37 @@ public class StompEncoderTests {
 		assertThat(new String(encoder.encode(frame))).isEqualTo("SEND\ncontent-length:12\n\nMessage body\0");
 	}
 
+	@Test
+	public void encodeBroadcastFrame() {
+		byte[] payload = "Message body".getBytes();
+		StompEncoder.BroadcastFrame frame = encoder.encodeBroadcastFrame(
+				createMessageHeaders("sub1", "m1", "alpha").getMessageHeaders(), payload);
+
+		StompHeaderAccessor headers = createMessageHeaders("sub:2", "m2", "alpha");
+		assertThat(new String(frame.encode(headers.getMessageHeaders(), payload))).isEqualTo(
+				"MESSAGE\ndestination:/topic/foo\na:alpha\ncontent-length:12\n" +
+				"subscription:sub\\c2\nmessage-id:m2\n\nMessage body\0");
+		assertThat(frame.encode(headers.getMessageHeaders(), payload))
+				.hasSameSizeAs(encoder.encode(headers.getMessageHeaders(), payload));
+	}
+
+	@Test
+	public void encodeBroadcastFrameWithDifferentHeaders() {
+		byte[] payload = "Message body".getBytes();
+		StompEncoder.BroadcastFrame frame = encoder.encodeBroadcastFrame(
+				createMessageHeaders("sub1", "m1", "alpha").getMessageHeaders(), payload);
+
+		assertThat(frame.encode(createMessageHeaders("sub2", "m2", "bravo").getMessageHeaders(), payload)).isNull();
+		assertThat(frame.encode(createMessageHeaders("sub2", "m2", "alpha").getMessageHeaders(), payload.clone())).isNull();
+	}
+
+	private static StompHeaderAccessor createMessageHeaders(String subscription, String messageId, String value) {
+		StompHeaderAccessor headers = StompHeaderAccessor.create(StompCommand.MESSAGE);
+		headers.setDestination("/topic/foo");
+		headers.addNativeHeader("a", value);
+		headers.setSubscriptionId(subscription);
+		headers.setMessageId(messageId);
+		return headers;
+	}
+
 }
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.converter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+
+/**
+ * Benchmarks for serving a 64MB file over a loopback socket, comparing the
+ * stream copy performed by {@link ResourceHttpMessageConverter} with the
+ * zero-copy {@link FileChannel#transferTo} ("sendfile") transfer that
+ * {@code ResourceHttpRequestHandler} hands over to Tomcat for file-based
+ * resources. Each operation serves 64MB, so 16 operations make up 1GB;
+ * run with {@code -prof perfnorm} (Linux) to report CPU cycles per operation.
+ *
+ * @author Spring Framework Team
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ResourceTransferBenchmark {
+
+	@Benchmark
+	public void streamCopy(BenchmarkData data) throws IOException {
+		data.converter.write(data.resource, MediaType.APPLICATION_OCTET_STREAM, data.outputMessage);
+	}
+
+	@Benchmark
+	public void sendfile(BenchmarkData data) throws IOException {
+		try (FileChannel channel = FileChannel.open(data.file, StandardOpenOption.READ)) {
+			long position = 0;
+			long size = channel.size();
+			while (position < size) {
+				position += channel.transferTo(position, size - position, data.client);
+			}
+		}
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkData {
+
+		private static final int FILE_SIZE = 64 * 1024 * 1024;
+
+		public Path file;
+
+		public Resource resource;
+
+		public ResourceHttpMessageConverter converter = new ResourceHttpMessageConverter();
+
+		public ServerSocketChannel server;
+
+		public SocketChannel client;
+
+		public HttpOutputMessage outputMessage;
+
+		public Thread drainer;
+
+		@Setup
+		public void setup() throws IOException {
+			this.file = Files.createTempFile("resource-transfer", ".bin");
+			byte[] chunk = new byte[1024 * 1024];
+			for (int i = 0; i < chunk.length; i++) {
+				chunk[i] = (byte) i;
+			}
+			try (OutputStream out = Files.newOutputStream(this.file)) {
+				for (int i = 0; i < FILE_SIZE / chunk.length; i++) {
+					out.write(chunk);
+				}
+			}
+			this.resource = new FileSystemResource(this.file);
+
+			this.server = ServerSocketChannel.open().bind(new InetSocketAddress("127.0.0.1", 0));
+			this.client = SocketChannel.open(this.server.getLocalAddress());
+			SocketChannel accepted = this.server.accept();
+			this.drainer = new Thread(() -> {
+				ByteBuffer buffer = ByteBuffer.allocateDirect(256 * 1024);
+				try {
+					while (accepted.read(buffer) != -1) {
+						buffer.clear();
+					}
+				}
+				catch (IOException ex) {
+					// closed
+				}
+			}, "resource-transfer-drainer");
+			this.drainer.setDaemon(true);
+			this.drainer.start();
+
+			OutputStream body = Channels.newOutputStream(this.client);
+			HttpHeaders headers = new HttpHeaders();
+			this.outputMessage = new HttpOutputMessage() {
+				@Override
+				public OutputStream getBody() {
+					return body;
+				}
+				@Override
+				public HttpHeaders getHeaders() {
+					return headers;
+				}
+			};
+		}
+
+		@TearDown
+		public void tearDown() throws Exception {
+			this.client.close();
+			this.server.close();
+			this.drainer.join(1000);
+			Files.deleteIfExists(this.file);
+		}
+	}
+
+}
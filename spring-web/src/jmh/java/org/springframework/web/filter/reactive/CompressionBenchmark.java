@@ -0,0 +1,144 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.filter.reactive;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.compression.ZlibCodecFactory;
+import io.netty.handler.codec.compression.ZlibWrapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.web.filter.reactive.CompressionCodec.Compressor;
+
+/**
+ * Benchmarks for gzip compression of a streamed response body, comparing the
+ * pooled {@link DeflaterCompressionCodec} used by {@link CompressionWebFilter}
+ * with the Netty zlib encoder used for server-native compression in Reactor
+ * Netty, and with a plain {@link GZIPOutputStream}. The latter two create a
+ * new {@code Deflater} for every response.
+ *
+ * @author Spring Framework Team
+ */
+@BenchmarkMode(Mode.Throughput)
+public class CompressionBenchmark {
+
+	@Benchmark
+	public void pooledDeflater(BenchmarkData data, Blackhole blackhole) {
+		Compressor compressor = data.codec.createCompressor();
+		try {
+			for (byte[] chunk : data.chunks) {
+				DataBuffer output = compressor.compress(data.bufferFactory.wrap(chunk), false, data.bufferFactory);
+				blackhole.consume(output.readableByteCount());
+			}
+			blackhole.consume(compressor.finish(data.bufferFactory).readableByteCount());
+		}
+		finally {
+			compressor.close();
+		}
+	}
+
+	@Benchmark
+	public void nettyZlibEncoder(BenchmarkData data, Blackhole blackhole) {
+		EmbeddedChannel channel = new EmbeddedChannel(ZlibCodecFactory.newZlibEncoder(ZlibWrapper.GZIP));
+		for (byte[] chunk : data.chunks) {
+			channel.writeOutbound(Unpooled.wrappedBuffer(chunk));
+		}
+		channel.finish();
+		ByteBuf output;
+		while ((output = channel.readOutbound()) != null) {
+			blackhole.consume(output.readableBytes());
+			output.release();
+		}
+	}
+
+	@Benchmark
+	public void gzipOutputStream(BenchmarkData data, Blackhole blackhole) throws IOException {
+		CountingOutputStream counter = new CountingOutputStream();
+		try (GZIPOutputStream outputStream = new GZIPOutputStream(counter, 8192)) {
+			for (byte[] chunk : data.chunks) {
+				outputStream.write(chunk);
+			}
+		}
+		blackhole.consume(counter.count);
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkData {
+
+		@Param({"1024", "65536"})
+		public int responseSize;
+
+		@Param({"8192"})
+		public int chunkSize;
+
+		public byte[][] chunks;
+
+		public DeflaterCompressionCodec codec = DeflaterCompressionCodec.gzip();
+
+		public DataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+
+		@Setup
+		public void setup() {
+			StringBuilder builder = new StringBuilder();
+			for (int i = 0; builder.length() < this.responseSize; i++) {
+				builder.append("{\"id\":").append(i).append(",\"name\":\"item-").append(i).append("\"},");
+			}
+			byte[] content = builder.substring(0, this.responseSize).getBytes(StandardCharsets.UTF_8);
+			int count = (content.length + this.chunkSize - 1) / this.chunkSize;
+			this.chunks = new byte[count][];
+			for (int i = 0; i < count; i++) {
+				int offset = i * this.chunkSize;
+				this.chunks[i] = new byte[Math.min(this.chunkSize, content.length - offset)];
+				System.arraycopy(content, offset, this.chunks[i], 0, this.chunks[i].length);
+			}
+		}
+	}
+
+
+	private static class CountingOutputStream extends OutputStream {
+
+		private long count;
+
+		@Override
+		public void write(int b) {
+			this.count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			this.count += len;
+		}
+	}
+
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.util.pattern;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.springframework.http.server.PathContainer;
+
+/**
+ * Benchmarks for {@link PathPatternParser#parse} and {@link PathPattern#matches},
+ * using patterns and paths similar to the {@code AntPathMatcherBenchmark} in
+ * spring-core so that both strategies can be compared.
+ *
+ * @author Spring Framework Team
+ */
+@BenchmarkMode(Mode.Throughput)
+public class PathPatternBenchmark {
+
+	@Benchmark
+	public void parse(BenchmarkData data, Blackhole bh) {
+		for (String pattern : data.patterns) {
+			bh.consume(data.parser.parse(pattern));
+		}
+	}
+
+	@Benchmark
+	public void matches(BenchmarkData data, Blackhole bh) {
+		for (PathContainer path : data.paths) {
+			for (PathPattern pattern : data.parsedPatterns) {
+				bh.consume(pattern.matches(path));
+			}
+		}
+	}
+
+	@Benchmark
+	public void parsePathAndMatch(BenchmarkData data, Blackhole bh) {
+		for (String path : data.rawPaths) {
+			PathContainer pathContainer = PathContainer.parsePath(path);
+			for (PathPattern pattern : data.parsedPatterns) {
+				bh.consume(pattern.matches(pathContainer));
+			}
+		}
+	}
+
+	@Benchmark
+	public void matchAndExtract(BenchmarkData data, Blackhole bh) {
+		bh.consume(data.templatePattern.matchAndExtract(data.templatePath));
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkData {
+
+		public PathPatternParser parser = new PathPatternParser();
+
+		public List<String> patterns = new ArrayList<>();
+
+		public List<String> rawPaths = new ArrayList<>();
+
+		public List<PathPattern> parsedPatterns = new ArrayList<>();
+
+		public List<PathContainer> paths = new ArrayList<>();
+
+		public PathPattern templatePattern;
+
+		public PathContainer templatePath;
+
+		@Setup
+		public void setup() {
+			this.patterns.add("/api/orders");
+			this.patterns.add("/api/orders/{orderId}");
+			this.patterns.add("/api/orders/{orderId}/items/{itemId}");
+			this.patterns.add("/api/customers/*/addresses");
+			this.patterns.add("/static/**");
+			this.patterns.add("/files/{name:[a-z]+}.{ext}");
+			this.rawPaths.add("/api/orders");
+			this.rawPaths.add("/api/orders/42/items/7");
+			this.rawPaths.add("/api/customers/12/addresses");
+			this.rawPaths.add("/static/js/app/main.js");
+			this.rawPaths.add("/files/report.pdf");
+			this.rawPaths.add("/unknown/path");
+			for (String pattern : this.patterns) {
+				this.parsedPatterns.add(this.parser.parse(pattern));
+			}
+			for (String path : this.rawPaths) {
+				this.paths.add(PathContainer.parsePath(path));
+			}
+			this.templatePattern = this.parser.parse("/api/orders/{orderId}/items/{itemId}");
+			this.templatePath = PathContainer.parsePath("/api/orders/42/items/7");
+		}
+	}
+
+}
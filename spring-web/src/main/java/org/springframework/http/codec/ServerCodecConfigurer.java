@@ -17,6 +17,7 @@
 package org.springframework.http.codec;
 
 import org.springframework.core.codec.Encoder;
+import org.springframework.http.codec.multipart.Part;
 
 /**
  * Extension of {@link CodecConfigurer} for HTTP message reader and writer
@@ -83,6 +84,21 @@ public interface ServerCodecConfigurer extends CodecConfigurer {
 		 * to customize the SSE encoder.
 		 */
 		void serverSentEventEncoder(Encoder<?> encoder);
+
+		/**
+		 * Configure the {@code HttpMessageReader} to parse multipart requests
+		 * into a stream of {@link Part Parts} with. The reader is also used,
+		 * through a {@link org.springframework.http.codec.multipart.MultipartHttpMessageReader},
+		 * to aggregate the parts for {@code ServerWebExchange#getMultipartData()}.
+		 * <p>By default, the
+		 * {@link org.springframework.http.codec.multipart.SynchronossPartHttpMessageReader}
+		 * is used if the Synchronoss NIO Multipart library is present. Set a
+		 * {@link org.springframework.http.codec.multipart.DefaultPartHttpMessageReader}
+		 * to parse multipart requests without a third-party dependency.
+		 * @param partReader the reader to use for multipart requests
+		 * @since 5.2.1
+		 */
+		void multipartReader(HttpMessageReader<Part> partReader);
 	}
 
 }
@@ -0,0 +1,320 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import reactor.core.Exceptions;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.Encoder;
+import org.springframework.core.codec.Hints;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ReactiveHttpOutputMessage;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Broadcasts {@link ServerSentEvent Server-Sent Events} to any number of
+ * {@code "text/event-stream"} subscribers.
+ *
+ * <p>Each published event is encoded once, into a read-only heap buffer that
+ * is shared by all subscribers and wrapped, without copying, with the
+ * {@link DataBufferFactory} of each response. Every subscriber has its own
+ * bounded queue of pending events, and a {@link SlowConsumerPolicy} that
+ * decides what happens when a subscriber does not keep up with the rate of
+ * published events, so that a single slow client neither holds back others
+ * nor accumulates an unbounded amount of events.
+ *
+ * <p>For example, in an annotated controller:
+ * <pre class="code">
+ * &#064;GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+ * public Mono&lt;Void&gt; events(ServerHttpResponse response) {
+ *     return this.broadcaster.subscribe(response);
+ * }
+ * </pre>
+ *
+ * @author Spring Framework Team
+ * @since 5.2.1
+ * @see ServerSentEventHttpMessageWriter
+ */
+public class ServerSentEventBroadcaster {
+
+	private static final Log logger = LogFactory.getLog(ServerSentEventBroadcaster.class);
+
+	private static final MediaType DEFAULT_MEDIA_TYPE = new MediaType("text", "event-stream", StandardCharsets.UTF_8);
+
+	private static final DataBufferFactory encodingBufferFactory = new DefaultDataBufferFactory();
+
+
+	private final ServerSentEventHttpMessageWriter writer;
+
+	private final Set<FluxSink<ByteBuffer>> subscribers = ConcurrentHashMap.newKeySet();
+
+	private SlowConsumerPolicy slowConsumerPolicy = SlowConsumerPolicy.DROP;
+
+	private int maxPendingEvents = 256;
+
+	private final AtomicLong publishedCount = new AtomicLong();
+
+	private final AtomicLong droppedCount = new AtomicLong();
+
+	private final AtomicLong disconnectedCount = new AtomicLong();
+
+
+	/**
+	 * Constructor without an {@code Encoder}. In this mode only {@code String}
+	 * is supported for event data to be encoded.
+	 */
+	public ServerSentEventBroadcaster() {
+		this(null);
+	}
+
+	/**
+	 * Constructor with an {@code Encoder}, e.g. for JSON, for encoding objects.
+	 * Support for {@code String} event data is built-in.
+	 * @param encoder the Encoder to use (may be {@code null})
+	 */
+	public ServerSentEventBroadcaster(@Nullable Encoder<?> encoder) {
+		this.writer = new ServerSentEventHttpMessageWriter(encoder);
+	}
+
+
+	/**
+	 * Set the default policy applied to subscribers that do not keep up with
+	 * published events.
+	 * <p>By default this is set to {@link SlowConsumerPolicy#DROP}.
+	 * @param slowConsumerPolicy the policy to use
+	 */
+	public void setSlowConsumerPolicy(SlowConsumerPolicy slowConsumerPolicy) {
+		Assert.notNull(slowConsumerPolicy, "SlowConsumerPolicy must not be null");
+		this.slowConsumerPolicy = slowConsumerPolicy;
+	}
+
+	/**
+	 * Return the configured {@link #setSlowConsumerPolicy slow consumer policy}.
+	 */
+	public SlowConsumerPolicy getSlowConsumerPolicy() {
+		return this.slowConsumerPolicy;
+	}
+
+	/**
+	 * Set the maximum number of events that may be pending, i.e. published
+	 * but not yet written, for a single subscriber before the
+	 * {@link #setSlowConsumerPolicy slow consumer policy} applies.
+	 * <p>By default this is set to 256.
+	 * <p>Note that this property is ignored for
+	 * {@link SlowConsumerPolicy#LATEST}, which keeps a single pending event.
+	 * @param maxPendingEvents the maximum number of pending events
+	 */
+	public void setMaxPendingEvents(int maxPendingEvents) {
+		Assert.isTrue(maxPendingEvents > 0, "MaxPendingEvents must be greater than 0");
+		this.maxPendingEvents = maxPendingEvents;
+	}
+
+	/**
+	 * Return the configured {@link #setMaxPendingEvents max pending events}.
+	 */
+	public int getMaxPendingEvents() {
+		return this.maxPendingEvents;
+	}
+
+
+	/**
+	 * Subscribe to published events with the configured
+	 * {@link #setSlowConsumerPolicy slow consumer policy}, writing them to the
+	 * given output message and flushing after each event.
+	 * @param message the message to write to, typically a server response
+	 * @return completion or error signal for the subscription
+	 */
+	public Mono<Void> subscribe(ReactiveHttpOutputMessage message) {
+		return subscribe(message, this.slowConsumerPolicy);
+	}
+
+	/**
+	 * Variant of {@link #subscribe(ReactiveHttpOutputMessage)} with a
+	 * subscriber-specific slow consumer policy.
+	 * @param message the message to write to, typically a server response
+	 * @param slowConsumerPolicy the policy for this subscriber
+	 * @return completion or error signal for the subscription
+	 */
+	public Mono<Void> subscribe(ReactiveHttpOutputMessage message, SlowConsumerPolicy slowConsumerPolicy) {
+		message.getHeaders().setContentType(DEFAULT_MEDIA_TYPE);
+		return message.writeAndFlushWith(subscribe(message.bufferFactory(), slowConsumerPolicy).map(Mono::just));
+	}
+
+	/**
+	 * Subscribe to published events with the configured
+	 * {@link #setSlowConsumerPolicy slow consumer policy}.
+	 * @param bufferFactory the factory to wrap the shared event content with
+	 * @return the stream of encoded events
+	 */
+	public Flux<DataBuffer> subscribe(DataBufferFactory bufferFactory) {
+		return subscribe(bufferFactory, this.slowConsumerPolicy);
+	}
+
+	/**
+	 * Variant of {@link #subscribe(DataBufferFactory)} with a
+	 * subscriber-specific slow consumer policy.
+	 * @param bufferFactory the factory to wrap the shared event content with
+	 * @param slowConsumerPolicy the policy for this subscriber
+	 * @return the stream of encoded events
+	 */
+	public Flux<DataBuffer> subscribe(DataBufferFactory bufferFactory, SlowConsumerPolicy slowConsumerPolicy) {
+		Assert.notNull(bufferFactory, "DataBufferFactory must not be null");
+		Assert.notNull(slowConsumerPolicy, "SlowConsumerPolicy must not be null");
+
+		Flux<ByteBuffer> events = Flux.create(sink -> {
+			this.subscribers.add(sink);
+			sink.onDispose(() -> this.subscribers.remove(sink));
+		});
+
+		// Pending events are shared ByteBuffers: dropping them requires no release
+		switch (slowConsumerPolicy) {
+			case DROP:
+				events = events.onBackpressureBuffer(this.maxPendingEvents,
+						event -> this.droppedCount.incrementAndGet(), BufferOverflowStrategy.DROP_LATEST);
+				break;
+			case LATEST:
+				events = events.onBackpressureBuffer(1,
+						event -> this.droppedCount.incrementAndGet(), BufferOverflowStrategy.DROP_OLDEST);
+				break;
+			case DISCONNECT:
+				events = events.onBackpressureBuffer(this.maxPendingEvents)
+						.onErrorResume(Exceptions::isOverflow, ex -> {
+							this.disconnectedCount.incrementAndGet();
+							if (logger.isDebugEnabled()) {
+								logger.debug("Disconnecting slow subscriber after " +
+										this.maxPendingEvents + " pending events");
+							}
+							return Mono.empty();
+						});
+				break;
+		}
+
+		return events.map(event -> bufferFactory.wrap(event.duplicate()));
+	}
+
+	/**
+	 * Encode the given event once and send it to all current subscribers.
+	 * @param event the event to publish
+	 * @return the number of subscribers the event was sent to
+	 */
+	public int publish(ServerSentEvent<?> event) {
+		Assert.notNull(event, "ServerSentEvent must not be null");
+		Object data = event.data();
+		ResolvableType dataType = (data != null ? ResolvableType.forInstance(data) : ResolvableType.NONE);
+
+		// DefaultDataBufferFactory allocates heap buffers that need no release
+		DataBuffer buffer = this.writer.encodeElement(
+				event, dataType, DEFAULT_MEDIA_TYPE, encodingBufferFactory, Hints.none());
+		ByteBuffer content = buffer.asByteBuffer().asReadOnlyBuffer();
+
+		int count = 0;
+		for (FluxSink<ByteBuffer> subscriber : this.subscribers) {
+			subscriber.next(content);
+			count++;
+		}
+		this.publishedCount.incrementAndGet();
+		return count;
+	}
+
+	/**
+	 * Complete all current subscribers, ending their event streams.
+	 */
+	public void complete() {
+		for (FluxSink<ByteBuffer> subscriber : this.subscribers) {
+			subscriber.complete();
+		}
+	}
+
+
+	/**
+	 * Return the number of current subscribers.
+	 */
+	public int getSubscriberCount() {
+		return this.subscribers.size();
+	}
+
+	/**
+	 * Return the total number of published events.
+	 */
+	public long getPublishedCount() {
+		return this.publishedCount.get();
+	}
+
+	/**
+	 * Return the total number of events dropped for slow subscribers, across
+	 * all subscribers.
+	 */
+	public long getDroppedCount() {
+		return this.droppedCount.get();
+	}
+
+	/**
+	 * Return the total number of subscribers disconnected by
+	 * {@link SlowConsumerPolicy#DISCONNECT}.
+	 */
+	public long getDisconnectedCount() {
+		return this.disconnectedCount.get();
+	}
+
+	@Override
+	public String toString() {
+		return "ServerSentEventBroadcaster[subscribers=" + getSubscriberCount() +
+				", published=" + getPublishedCount() + ", dropped=" + getDroppedCount() +
+				", disconnected=" + getDisconnectedCount() + "]";
+	}
+
+
+	/**
+	 * Policy for subscribers that do not keep up with published events.
+	 */
+	public enum SlowConsumerPolicy {
+
+		/**
+		 * Drop newly published events while the subscriber has the maximum
+		 * number of pending events.
+		 */
+		DROP,
+
+		/**
+		 * Keep only the latest pending event, replacing older ones.
+		 */
+		LATEST,
+
+		/**
+		 * Complete the event stream of the subscriber once it exceeds the
+		 * maximum number of pending events; clients typically reconnect.
+		 */
+		DISCONNECT
+	}
+
+}
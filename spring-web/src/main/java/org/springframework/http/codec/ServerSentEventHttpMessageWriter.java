@@ -118,39 +118,47 @@ public class ServerSentEventHttpMessageWriter implements HttpMessageWriter<Objec
 				elementType.getGeneric() : elementType);
 
 		return Flux.from(input).map(element -> {
-
-			ServerSentEvent<?> sse = (element instanceof ServerSentEvent ?
-					(ServerSentEvent<?>) element : ServerSentEvent.builder().data(element).build());
-
-			StringBuilder sb = new StringBuilder();
-			String id = sse.id();
-			String event = sse.event();
-			Duration retry = sse.retry();
-			String comment = sse.comment();
-			Object data = sse.data();
-			if (id != null) {
-				writeField("id", id, sb);
-			}
-			if (event != null) {
-				writeField("event", event, sb);
-			}
-			if (retry != null) {
-				writeField("retry", retry.toMillis(), sb);
-			}
-			if (comment != null) {
-				sb.append(':').append(StringUtils.replace(comment, "\n", "\n:")).append("\n");
-			}
-			if (data != null) {
-				sb.append("data:");
-			}
-
 			Mono<DataBuffer> bufferMono = Mono.fromCallable(() ->
-					bufferFactory.join(encodeEvent(sb, data, dataType, mediaType, bufferFactory, hints)));
-
+					encodeElement(element, dataType, mediaType, bufferFactory, hints));
 			return bufferMono.doOnDiscard(PooledDataBuffer.class, DataBufferUtils::release);
 		});
 	}
 
+	/**
+	 * Encode a single element, either a {@link ServerSentEvent} or plain event
+	 * data, to a {@code DataBuffer} with the complete event.
+	 */
+	DataBuffer encodeElement(Object element, ResolvableType dataType, MediaType mediaType,
+			DataBufferFactory bufferFactory, Map<String, Object> hints) {
+
+		ServerSentEvent<?> sse = (element instanceof ServerSentEvent ?
+				(ServerSentEvent<?>) element : ServerSentEvent.builder().data(element).build());
+
+		StringBuilder sb = new StringBuilder();
+		String id = sse.id();
+		String event = sse.event();
+		Duration retry = sse.retry();
+		String comment = sse.comment();
+		Object data = sse.data();
+		if (id != null) {
+			writeField("id", id, sb);
+		}
+		if (event != null) {
+			writeField("event", event, sb);
+		}
+		if (retry != null) {
+			writeField("retry", retry.toMillis(), sb);
+		}
+		if (comment != null) {
+			sb.append(':').append(StringUtils.replace(comment, "\n", "\n:")).append("\n");
+		}
+		if (data != null) {
+			sb.append("data:");
+		}
+
+		return bufferFactory.join(encodeEvent(sb, data, dataType, mediaType, bufferFactory, hints));
+	}
+
 	private void writeField(String fieldName, Object fieldValue, StringBuilder sb) {
 		sb.append(fieldName);
 		sb.append(':');
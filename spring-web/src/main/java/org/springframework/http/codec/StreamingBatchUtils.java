@@ -0,0 +1,187 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.function.Supplier;
+
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SynchronousSink;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.PooledDataBuffer;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Utility methods for encoders that write the elements of a stream in
+ * batches, i.e. that encode consecutive elements into the same
+ * {@link DataBuffer} and emit it once it is full, or once a timeout elapses.
+ *
+ * @author Spring Framework Team
+ * @since 5.2.1
+ */
+public abstract class StreamingBatchUtils {
+
+	private static final Object FLUSH_SIGNAL = new Object();
+
+	private static final Object END_SIGNAL = new Object();
+
+
+	/**
+	 * Encode the given stream in batches.
+	 * <p>A batch that is not full is emitted once it has been pending for
+	 * about the given timeout. Timer ticks may be queued while the consumer
+	 * is busy, so a tick only emits a batch that has been pending for at least
+	 * half the timeout: batches are never held back longer than the timeout,
+	 * but a tick right after a slow write does not break up a fresh batch.
+	 * <p>Batches are accessed by one signal at a time. On cancellation, the
+	 * pending batch is released, and any element signalled concurrently is
+	 * ignored rather than encoded into a released buffer.
+	 * @param inputStream the elements to encode
+	 * @param timeout the maximum time that a partially filled batch is held back
+	 * @param batchSupplier supplier for the batch to use for each subscription
+	 * @return the batches
+	 */
+	public static <T> Flux<DataBuffer> encode(Publisher<? extends T> inputStream, Duration timeout,
+			Supplier<? extends Batch<T>> batchSupplier) {
+
+		Assert.notNull(inputStream, "'inputStream' must not be null");
+		Assert.isTrue(timeout != null && !timeout.isNegative() && !timeout.isZero(),
+				"'timeout' must be a positive duration");
+		Assert.notNull(batchSupplier, "'batchSupplier' must not be null");
+
+		Duration tickInterval = Duration.ofNanos(Math.max(timeout.toNanos() / 2, 1));
+		Flux<Object> ticks = Flux.interval(tickInterval).onBackpressureDrop().map(tick -> FLUSH_SIGNAL);
+
+		return Flux.defer(() -> {
+			BatchHolder<T> holder = new BatchHolder<>(batchSupplier.get(), tickInterval.toNanos());
+			Flux<Object> values = Flux.<Object>from(inputStream).concatWith(Mono.just(END_SIGNAL));
+			return Flux.merge(values, ticks)
+					.takeUntil(signal -> signal == END_SIGNAL)
+					.<DataBuffer>handle(holder::onSignal)
+					.doFinally(signalType -> holder.release());
+		}).doOnDiscard(PooledDataBuffer.class, DataBufferUtils::release);
+	}
+
+
+	/**
+	 * Contract for a batch of encoded elements, used by
+	 * {@link #encode(Publisher, Duration, Supplier)}. Methods are never called
+	 * concurrently.
+	 * @param <T> the type of elements
+	 */
+	public interface Batch<T> {
+
+		/**
+		 * Encode the given element into this batch.
+		 * @param element the element to encode
+		 * @return a full batch to emit, or {@code null} if none
+		 * @throws IOException in case of I/O errors
+		 */
+		@Nullable
+		DataBuffer add(T element) throws IOException;
+
+		/**
+		 * Whether this batch currently holds no encoded elements.
+		 */
+		boolean isEmpty();
+
+		/**
+		 * Return the encoded elements, if any, and reset this batch.
+		 */
+		@Nullable
+		DataBuffer take();
+
+		/**
+		 * Return the last batch, if any, at the end of the stream.
+		 * <p>By default, this is the same as {@link #take()}.
+		 */
+		@Nullable
+		default DataBuffer finish() {
+			return take();
+		}
+	}
+
+
+	/**
+	 * Serializes access to a {@link Batch}, tracking how long it has been
+	 * pending, and guards it against use after release.
+	 */
+	private static class BatchHolder<T> {
+
+		private final Batch<T> batch;
+
+		private final long minPendingNanos;
+
+		private long pendingSince;
+
+		private boolean released;
+
+		BatchHolder(Batch<T> batch, long minPendingNanos) {
+			this.batch = batch;
+			this.minPendingNanos = minPendingNanos;
+		}
+
+		@SuppressWarnings("unchecked")
+		synchronized void onSignal(Object signal, SynchronousSink<DataBuffer> sink) {
+			if (this.released) {
+				return;
+			}
+			try {
+				if (signal == FLUSH_SIGNAL) {
+					if (!this.batch.isEmpty() && System.nanoTime() - this.pendingSince >= this.minPendingNanos) {
+						emit(this.batch.take(), sink);
+					}
+				}
+				else if (signal == END_SIGNAL) {
+					emit(this.batch.finish(), sink);
+				}
+				else {
+					boolean wasEmpty = this.batch.isEmpty();
+					DataBuffer full = this.batch.add((T) signal);
+					if (wasEmpty || full != null) {
+						this.pendingSince = System.nanoTime();
+					}
+					emit(full, sink);
+				}
+			}
+			catch (IOException ex) {
+				sink.error(new IllegalStateException("Unexpected I/O error while writing to data buffer", ex));
+			}
+		}
+
+		private void emit(@Nullable DataBuffer buffer, SynchronousSink<DataBuffer> sink) {
+			if (buffer != null) {
+				sink.next(buffer);
+			}
+		}
+
+		synchronized void release() {
+			this.released = true;
+			DataBuffer buffer = this.batch.take();
+			if (buffer != null) {
+				DataBufferUtils.release(buffer);
+			}
+		}
+	}
+
+}
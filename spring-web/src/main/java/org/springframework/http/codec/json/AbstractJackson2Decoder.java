@@ -30,6 +30,7 @@ import com.fasterxml.jackson.databind.util.TokenBuffer;
 import org.reactivestreams.Publisher;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.SynchronousSink;
 
 import org.springframework.core.MethodParameter;
 import org.springframework.core.ResolvableType;
@@ -59,6 +60,9 @@ import org.springframework.util.MimeType;
  */
 public abstract class AbstractJackson2Decoder extends Jackson2CodecSupport implements HttpMessageDecoder<Object> {
 
+	private int maxInMemorySize = -1;
+
+
 	/**
 	 * Constructor with a Jackson {@link ObjectMapper} to use.
 	 */
@@ -67,6 +71,30 @@ public abstract class AbstractJackson2Decoder extends Jackson2CodecSupport imple
 	}
 
 
+	/**
+	 * Set the max number of bytes that can be buffered by this decoder for a
+	 * single value. When decoding to a {@link Flux}, this applies to each
+	 * top-level value, or each element of a top-level JSON array, so that the
+	 * array as a whole is not subject to the limit. When decoding to a
+	 * {@link Mono}, it applies to the entire input. When the limit is exceeded,
+	 * a {@link DecodingException} is raised.
+	 * <p>By default this is set to -1, i.e. unlimited.
+	 * @param byteCount the max number of bytes to buffer, or -1 for unlimited
+	 * @since 5.2.1
+	 */
+	public void setMaxInMemorySize(int byteCount) {
+		this.maxInMemorySize = byteCount;
+	}
+
+	/**
+	 * Return the {@link #setMaxInMemorySize configured} byte count limit.
+	 * @since 5.2.1
+	 */
+	public int getMaxInMemorySize() {
+		return this.maxInMemorySize;
+	}
+
+
 	@Override
 	public boolean canDecode(ResolvableType elementType, @Nullable MimeType mimeType) {
 		JavaType javaType = getObjectMapper().getTypeFactory().constructType(elementType.getType());
@@ -81,7 +109,7 @@ public abstract class AbstractJackson2Decoder extends Jackson2CodecSupport imple
 
 		ObjectMapper mapper = getObjectMapper();
 		Flux<TokenBuffer> tokens = Jackson2Tokenizer.tokenize(
-				Flux.from(input), mapper.getFactory(), mapper, true);
+				Flux.from(input), mapper.getFactory(), mapper, true, getMaxInMemorySize());
 
 		ObjectReader reader = getObjectReader(elementType, hints);
 
@@ -103,10 +131,31 @@ public abstract class AbstractJackson2Decoder extends Jackson2CodecSupport imple
 	public Mono<Object> decodeToMono(Publisher<DataBuffer> input, ResolvableType elementType,
 			@Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
 
-		return DataBufferUtils.join(input)
+		return DataBufferUtils.join(limitInput(input))
 				.map(dataBuffer -> decode(dataBuffer, elementType, mimeType, hints));
 	}
 
+	private Publisher<DataBuffer> limitInput(Publisher<DataBuffer> input) {
+		int maxInMemorySize = getMaxInMemorySize();
+		if (maxInMemorySize < 0 || input instanceof Mono) {
+			return input;
+		}
+		return Flux.defer(() -> {
+			long[] byteCount = new long[1];
+			return Flux.from(input).handle((DataBuffer buffer, SynchronousSink<DataBuffer> sink) -> {
+				byteCount[0] += buffer.readableByteCount();
+				if (byteCount[0] > maxInMemorySize) {
+					DataBufferUtils.release(buffer);
+					sink.error(new DecodingException(
+							"Exceeded limit on max bytes to buffer: " + maxInMemorySize));
+				}
+				else {
+					sink.next(buffer);
+				}
+			});
+		});
+	}
+
 	@Override
 	public Object decode(DataBuffer dataBuffer, ResolvableType targetType,
 			@Nullable MimeType mimeType, @Nullable Map<String, Object> hints) throws DecodingException {
@@ -20,6 +20,7 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.lang.annotation.Annotation;
 import java.nio.charset.Charset;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -48,6 +49,7 @@ import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.core.log.LogFormatUtils;
 import org.springframework.http.MediaType;
 import org.springframework.http.codec.HttpMessageEncoder;
+import org.springframework.http.codec.StreamingBatchUtils;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.lang.Nullable;
@@ -72,12 +74,17 @@ public abstract class AbstractJackson2Encoder extends Jackson2CodecSupport imple
 	static {
 		STREAM_SEPARATORS = new HashMap<>();
 		STREAM_SEPARATORS.put(MediaType.APPLICATION_STREAM_JSON, NEWLINE_SEPARATOR);
+		STREAM_SEPARATORS.put(MediaType.APPLICATION_NDJSON, NEWLINE_SEPARATOR);
 		STREAM_SEPARATORS.put(MediaType.parseMediaType("application/stream+x-jackson-smile"), new byte[0]);
 	}
 
 
 	private final List<MediaType> streamingMediaTypes = new ArrayList<>(1);
 
+	private int streamingBatchSize = -1;
+
+	private Duration streamingBatchTimeout = Duration.ofMillis(100);
+
 
 	/**
 	 * Constructor with a Jackson {@link ObjectMapper} to use.
@@ -89,7 +96,8 @@ public abstract class AbstractJackson2Encoder extends Jackson2CodecSupport imple
 
 	/**
 	 * Configure "streaming" media types for which flushing should be performed
-	 * automatically vs at the end of the stream.
+	 * automatically vs at the end of the stream. These media types are
+	 * supported for encoding in addition to the configured MIME types.
 	 * <p>By default this is set to {@link MediaType#APPLICATION_STREAM_JSON}.
 	 * @param mediaTypes one or more media types to add to the list
 	 * @see HttpMessageEncoder#getStreamingMediaTypes()
@@ -99,14 +107,82 @@ public abstract class AbstractJackson2Encoder extends Jackson2CodecSupport imple
 		this.streamingMediaTypes.addAll(mediaTypes);
 	}
 
+	/**
+	 * Configure a size threshold, in bytes, for encoding the elements of a
+	 * {@link Flux} with a {@link #setStreamingMediaTypes streaming media type}
+	 * in batches, i.e. serializing consecutive elements into the same
+	 * {@link DataBuffer} until it holds about this many bytes, or until the
+	 * {@link #setStreamingBatchTimeout batch timeout} elapses. Since each
+	 * buffer is flushed individually, this trades some latency for much less
+	 * per-element buffer and flush overhead on high-volume streams.
+	 * <p>Other media types are not affected: a {@code Flux} rendered as a
+	 * JSON array is still collected into a {@link List} first, so that an
+	 * error results in an error response rather than in truncated content.
+	 * <p>By default this is set to -1, meaning that each element of a
+	 * streaming media type is encoded into a separate buffer.
+	 * @param byteCount the batch size in bytes, or -1 to disable batching
+	 * @since 5.2.1
+	 */
+	public void setStreamingBatchSize(int byteCount) {
+		this.streamingBatchSize = byteCount;
+	}
+
+	/**
+	 * Return the {@link #setStreamingBatchSize configured} batch size.
+	 * @since 5.2.1
+	 */
+	public int getStreamingBatchSize() {
+		return this.streamingBatchSize;
+	}
+
+	/**
+	 * Configure the maximum amount of time that encoded elements are held
+	 * back in a partially filled batch before the batch is emitted.
+	 * <p>By default this is set to 100 milliseconds.
+	 * @param timeout the batch timeout
+	 * @since 5.2.1
+	 * @see #setStreamingBatchSize(int)
+	 */
+	public void setStreamingBatchTimeout(Duration timeout) {
+		Assert.isTrue(timeout != null && !timeout.isNegative() && !timeout.isZero(),
+				"'timeout' must be a positive duration");
+		this.streamingBatchTimeout = timeout;
+	}
+
+	/**
+	 * Return the {@link #setStreamingBatchTimeout configured} batch timeout.
+	 * @since 5.2.1
+	 */
+	public Duration getStreamingBatchTimeout() {
+		return this.streamingBatchTimeout;
+	}
+
 
 	@Override
 	public boolean canEncode(ResolvableType elementType, @Nullable MimeType mimeType) {
 		Class<?> clazz = elementType.toClass();
-		return supportsMimeType(mimeType) && (Object.class == clazz ||
+		return (supportsMimeType(mimeType) || supportsStreamingMediaType(mimeType)) && (Object.class == clazz ||
 				(!String.class.isAssignableFrom(elementType.resolve(clazz)) && getObjectMapper().canSerialize(clazz)));
 	}
 
+	/**
+	 * Whether the given MIME type is one of the configured
+	 * {@link #setStreamingMediaTypes streaming media types}, which are
+	 * supported for encoding even if not listed in the MIME types passed to
+	 * the constructor, e.g. {@code application/x-ndjson}.
+	 */
+	private boolean supportsStreamingMediaType(@Nullable MimeType mimeType) {
+		if (mimeType == null) {
+			return false;
+		}
+		for (MediaType streamingMediaType : this.streamingMediaTypes) {
+			if (streamingMediaType.isCompatibleWith(mimeType)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	@Override
 	public Flux<DataBuffer> encode(Publisher<?> inputStream, DataBufferFactory bufferFactory,
 			ResolvableType elementType, @Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
@@ -121,27 +197,35 @@ public abstract class AbstractJackson2Encoder extends Jackson2CodecSupport imple
 			return Mono.from(inputStream).map(value ->
 					encodeValue(value, bufferFactory, elementType, mimeType, hints, encoding)).flux();
 		}
+
+		byte[] separator = getStreamingMediaTypeSeparator(mimeType);
+		if (separator != null) {
+			if (this.streamingBatchSize > 0) {
+				ObjectWriter writer = createObjectWriter(elementType, mimeType, hints);
+				return StreamingBatchUtils.encode(inputStream, this.streamingBatchTimeout,
+						() -> new BatchWriter(bufferFactory, writer, hints, encoding, separator));
+			}
+			return Flux.from(inputStream).map(value -> {
+				DataBuffer buffer = encodeValue(value, bufferFactory, elementType, mimeType, hints, encoding);
+				buffer.write(separator);
+				return buffer;
+			});
+		}
 		else {
-			return this.streamingMediaTypes.stream()
-					.filter(mediaType -> mediaType.isCompatibleWith(mimeType))
-					.findFirst()
-					.map(mediaType -> {
-						byte[] separator = STREAM_SEPARATORS.getOrDefault(mediaType, NEWLINE_SEPARATOR);
-						return Flux.from(inputStream).map(value -> {
-							DataBuffer buffer = encodeValue(
-									value, bufferFactory, elementType, mimeType, hints, encoding);
-							if (separator != null) {
-								buffer.write(separator);
-							}
-							return buffer;
-						});
-					})
-					.orElseGet(() -> {
-						ResolvableType listType = ResolvableType.forClassWithGenerics(List.class, elementType);
-						return Flux.from(inputStream).collectList().map(list ->
-								encodeValue(list, bufferFactory, listType, mimeType, hints, encoding)).flux();
-					});
+			ResolvableType listType = ResolvableType.forClassWithGenerics(List.class, elementType);
+			return Flux.from(inputStream).collectList().map(list ->
+					encodeValue(list, bufferFactory, listType, mimeType, hints, encoding)).flux();
+		}
+	}
+
+	@Nullable
+	private byte[] getStreamingMediaTypeSeparator(@Nullable MimeType mimeType) {
+		for (MediaType streamingMediaType : this.streamingMediaTypes) {
+			if (streamingMediaType.isCompatibleWith(mimeType)) {
+				return STREAM_SEPARATORS.getOrDefault(streamingMediaType, NEWLINE_SEPARATOR);
+			}
 		}
+		return null;
 	}
 
 	@Override
@@ -154,12 +238,35 @@ public abstract class AbstractJackson2Encoder extends Jackson2CodecSupport imple
 	private DataBuffer encodeValue(Object value, DataBufferFactory bufferFactory, ResolvableType valueType,
 			@Nullable MimeType mimeType, @Nullable Map<String, Object> hints, JsonEncoding encoding) {
 
+		logValue(value, hints);
+		ObjectWriter writer = createObjectWriter(valueType, mimeType, hints);
+
+		DataBuffer buffer = bufferFactory.allocateBuffer();
+		boolean release = true;
+		try {
+			writeValue(value, writer, buffer.asOutputStream(), encoding);
+			release = false;
+		}
+		finally {
+			if (release) {
+				DataBufferUtils.release(buffer);
+			}
+		}
+
+		return buffer;
+	}
+
+	private void logValue(Object value, @Nullable Map<String, Object> hints) {
 		if (!Hints.isLoggingSuppressed(hints)) {
 			LogFormatUtils.traceDebug(logger, traceOn -> {
 				String formatted = LogFormatUtils.formatValue(value, !traceOn);
 				return Hints.getLogPrefix(hints) + "Encoding [" + formatted + "]";
 			});
 		}
+	}
+
+	private ObjectWriter createObjectWriter(ResolvableType valueType, @Nullable MimeType mimeType,
+			@Nullable Map<String, Object> hints) {
 
 		JavaType javaType = getJavaType(valueType.getType(), null);
 		Class<?> jsonView = (hints != null ? (Class<?>) hints.get(Jackson2CodecSupport.JSON_VIEW_HINT) : null);
@@ -170,17 +277,14 @@ public abstract class AbstractJackson2Encoder extends Jackson2CodecSupport imple
 			writer = writer.forType(javaType);
 		}
 
-		writer = customizeWriter(writer, mimeType, valueType, hints);
-
-		DataBuffer buffer = bufferFactory.allocateBuffer();
-		boolean release = true;
-		OutputStream outputStream = buffer.asOutputStream();
+		return customizeWriter(writer, mimeType, valueType, hints);
+	}
 
+	private void writeValue(Object value, ObjectWriter writer, OutputStream outputStream, JsonEncoding encoding) {
 		try {
 			JsonGenerator generator = getObjectMapper().getFactory().createGenerator(outputStream, encoding);
 			writer.writeValue(generator, value);
 			generator.flush();
-			release = false;
 		}
 		catch (InvalidDefinitionException ex) {
 			throw new CodecException("Type definition error: " + ex.getType(), ex);
@@ -192,13 +296,6 @@ public abstract class AbstractJackson2Encoder extends Jackson2CodecSupport imple
 			throw new IllegalStateException("Unexpected I/O error while writing to data buffer",
 					ex);
 		}
-		finally {
-			if (release) {
-				DataBufferUtils.release(buffer);
-			}
-		}
-
-		return buffer;
 	}
 
 	protected ObjectWriter customizeWriter(ObjectWriter writer, @Nullable MimeType mimeType,
@@ -252,4 +349,77 @@ public abstract class AbstractJackson2Encoder extends Jackson2CodecSupport imple
 		return parameter.getMethodAnnotation(annotType);
 	}
 
+
+	/**
+	 * Accumulates encoded elements, each followed by the stream separator, in
+	 * a single buffer, which is full once it holds about
+	 * {@code streamingBatchSize} bytes, or when it would have to grow for an
+	 * element as large as the largest one seen so far.
+	 */
+	private class BatchWriter implements StreamingBatchUtils.Batch<Object> {
+
+		private final DataBufferFactory bufferFactory;
+
+		private final ObjectWriter writer;
+
+		@Nullable
+		private final Map<String, Object> hints;
+
+		private final JsonEncoding encoding;
+
+		private final byte[] separator;
+
+		@Nullable
+		private DataBuffer buffer;
+
+		@Nullable
+		private OutputStream outputStream;
+
+		private int maxElementSize;
+
+		BatchWriter(DataBufferFactory bufferFactory, ObjectWriter writer, @Nullable Map<String, Object> hints,
+				JsonEncoding encoding, byte[] separator) {
+
+			this.bufferFactory = bufferFactory;
+			this.writer = writer;
+			this.hints = hints;
+			this.encoding = encoding;
+			this.separator = separator;
+		}
+
+		@Override
+		@Nullable
+		public DataBuffer add(Object value) {
+			logValue(value, this.hints);
+			DataBuffer buffer = this.buffer;
+			if (buffer == null) {
+				buffer = this.bufferFactory.allocateBuffer(streamingBatchSize);
+				this.buffer = buffer;
+				this.outputStream = buffer.asOutputStream();
+			}
+			int startPosition = buffer.writePosition();
+			Assert.state(this.outputStream != null, "No OutputStream");
+			writeValue(value, this.writer, this.outputStream, this.encoding);
+			buffer.write(this.separator);
+			this.maxElementSize = Math.max(this.maxElementSize, buffer.writePosition() - startPosition);
+			boolean full = (buffer.readableByteCount() >= streamingBatchSize ||
+					buffer.writableByteCount() < this.maxElementSize);
+			return (full ? take() : null);
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return (this.buffer == null);
+		}
+
+		@Override
+		@Nullable
+		public DataBuffer take() {
+			DataBuffer buffer = this.buffer;
+			this.buffer = null;
+			this.outputStream = null;
+			return buffer;
+		}
+	}
+
 }
@@ -16,7 +16,7 @@
 
 package org.springframework.http.codec.json;
 
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -56,7 +56,7 @@ public class Jackson2JsonEncoder extends AbstractJackson2Encoder {
 
 	public Jackson2JsonEncoder(ObjectMapper mapper, MimeType... mimeTypes) {
 		super(mapper, mimeTypes);
-		setStreamingMediaTypes(Collections.singletonList(MediaType.APPLICATION_STREAM_JSON));
+		setStreamingMediaTypes(Arrays.asList(MediaType.APPLICATION_NDJSON, MediaType.APPLICATION_STREAM_JSON));
 		this.ssePrettyPrinter = initSsePrettyPrinter();
 	}
 
@@ -17,7 +17,9 @@
 package org.springframework.http.codec.json;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.function.Function;
 
@@ -36,6 +38,7 @@ import reactor.core.publisher.Flux;
 import org.springframework.core.codec.DecodingException;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.lang.Nullable;
 
 /**
  * {@link Function} to transform a JSON stream of arbitrary size, byte array
@@ -55,36 +58,46 @@ final class Jackson2Tokenizer {
 
 	private final boolean tokenizeArrayElements;
 
+	private final int maxInMemorySize;
+
 	private TokenBuffer tokenBuffer;
 
 	private int objectDepth;
 
 	private int arrayDepth;
 
+	private long inputByteCount;
+
+	private long valueStartOffset;
+
 	// TODO: change to ByteBufferFeeder when supported by Jackson
 	// See https://github.com/FasterXML/jackson-core/issues/478
 	private final ByteArrayFeeder inputFeeder;
 
+	// Scratch array for feeding buffers without an accessible backing array
+	@Nullable
+	private byte[] inputBuffer;
+
 
-	private Jackson2Tokenizer(
-			JsonParser parser, DeserializationContext deserializationContext, boolean tokenizeArrayElements) {
+	private Jackson2Tokenizer(JsonParser parser, DeserializationContext deserializationContext,
+			boolean tokenizeArrayElements, int maxInMemorySize) {
 
 		this.parser = parser;
 		this.deserializationContext = deserializationContext;
 		this.tokenizeArrayElements = tokenizeArrayElements;
+		this.maxInMemorySize = maxInMemorySize;
 		this.tokenBuffer = new TokenBuffer(parser, deserializationContext);
 		this.inputFeeder = (ByteArrayFeeder) this.parser.getNonBlockingInputFeeder();
 	}
 
 
 	private List<TokenBuffer> tokenize(DataBuffer dataBuffer) {
-		byte[] bytes = new byte[dataBuffer.readableByteCount()];
-		dataBuffer.read(bytes);
-		DataBufferUtils.release(dataBuffer);
-
+		int bufferSize = dataBuffer.readableByteCount();
 		try {
-			this.inputFeeder.feedInput(bytes, 0, bytes.length);
-			return parseTokenBufferFlux();
+			feedInput(dataBuffer, bufferSize);
+			List<TokenBuffer> result = parseTokenBufferFlux();
+			assertInMemorySize(bufferSize);
+			return result;
 		}
 		catch (JsonProcessingException ex) {
 			throw new DecodingException("JSON decoding error: " + ex.getOriginalMessage(), ex);
@@ -92,6 +105,51 @@ final class Jackson2Tokenizer {
 		catch (IOException ex) {
 			throw Exceptions.propagate(ex);
 		}
+		finally {
+			DataBufferUtils.release(dataBuffer);
+		}
+	}
+
+	/**
+	 * Feed the readable bytes of the given buffer to the parser, straight from
+	 * its backing array if accessible, or else through a reused scratch array.
+	 * Since the parser consumes all input before more can be fed, neither is
+	 * referenced after parsing, and the buffer can be released.
+	 */
+	private void feedInput(DataBuffer dataBuffer, int length) throws IOException {
+		ByteBuffer byteBuffer = dataBuffer.asByteBuffer();
+		if (byteBuffer.hasArray()) {
+			int offset = byteBuffer.arrayOffset() + byteBuffer.position();
+			this.inputFeeder.feedInput(byteBuffer.array(), offset, offset + length);
+		}
+		else {
+			byte[] bytes = this.inputBuffer;
+			if (bytes == null || bytes.length < length) {
+				bytes = new byte[length];
+				this.inputBuffer = bytes;
+			}
+			byteBuffer.get(bytes, 0, length);
+			this.inputFeeder.feedInput(bytes, 0, length);
+		}
+	}
+
+	/**
+	 * Keep track of the number of bytes fed since the end of the last complete
+	 * value, i.e. the input held for the value in progress, and raise a
+	 * {@link DecodingException} once it exceeds {@code maxInMemorySize}.
+	 */
+	private void assertInMemorySize(int bufferSize) {
+		if (this.maxInMemorySize >= 0) {
+			this.inputByteCount += bufferSize;
+			if (this.inputByteCount - this.valueStartOffset > this.maxInMemorySize) {
+				raiseLimitException();
+			}
+		}
+	}
+
+	private void raiseLimitException() {
+		throw new DecodingException(
+				"Exceeded limit on max bytes per JSON value to buffer: " + this.maxInMemorySize);
 	}
 
 	private Flux<TokenBuffer> endOfInput() {
@@ -110,7 +168,7 @@ final class Jackson2Tokenizer {
 	}
 
 	private List<TokenBuffer> parseTokenBufferFlux() throws IOException {
-		List<TokenBuffer> result = new ArrayList<>();
+		List<TokenBuffer> result = Collections.emptyList();
 
 		while (true) {
 			JsonToken token = this.parser.nextToken();
@@ -121,10 +179,10 @@ final class Jackson2Tokenizer {
 			}
 			updateDepth(token);
 			if (!this.tokenizeArrayElements) {
-				processTokenNormal(token, result);
+				result = processTokenNormal(token, result);
 			}
 			else {
-				processTokenArray(token, result);
+				result = processTokenArray(token, result);
 			}
 		}
 		return result;
@@ -147,26 +205,41 @@ final class Jackson2Tokenizer {
 		}
 	}
 
-	private void processTokenNormal(JsonToken token, List<TokenBuffer> result) throws IOException {
+	private List<TokenBuffer> processTokenNormal(JsonToken token, List<TokenBuffer> result) throws IOException {
 		this.tokenBuffer.copyCurrentEvent(this.parser);
 
 		if ((token.isStructEnd() || token.isScalarValue()) && this.objectDepth == 0 && this.arrayDepth == 0) {
-			result.add(this.tokenBuffer);
-			this.tokenBuffer = new TokenBuffer(this.parser, this.deserializationContext);
+			return addTokenBuffer(result);
 		}
-
+		return result;
 	}
 
-	private void processTokenArray(JsonToken token, List<TokenBuffer> result) throws IOException {
+	private List<TokenBuffer> processTokenArray(JsonToken token, List<TokenBuffer> result) throws IOException {
 		if (!isTopLevelArrayToken(token)) {
 			this.tokenBuffer.copyCurrentEvent(this.parser);
 		}
 
 		if (this.objectDepth == 0 && (this.arrayDepth == 0 || this.arrayDepth == 1) &&
 				(token == JsonToken.END_OBJECT || token.isScalarValue())) {
-			result.add(this.tokenBuffer);
-			this.tokenBuffer = new TokenBuffer(this.parser, this.deserializationContext);
+			return addTokenBuffer(result);
 		}
+		return result;
+	}
+
+	/**
+	 * Add the current, complete {@code TokenBuffer} to the given result list,
+	 * which is only allocated once the first value of a chunk completes.
+	 */
+	private List<TokenBuffer> addTokenBuffer(List<TokenBuffer> result) {
+		if (result.isEmpty()) {
+			result = new ArrayList<>();
+		}
+		result.add(this.tokenBuffer);
+		this.tokenBuffer = new TokenBuffer(this.parser, this.deserializationContext);
+		if (this.maxInMemorySize >= 0) {
+			this.valueStartOffset = this.parser.getCurrentLocation().getByteOffset();
+		}
+		return result;
 	}
 
 	private boolean isTopLevelArrayToken(JsonToken token) {
@@ -182,10 +255,12 @@ final class Jackson2Tokenizer {
 	 * @param objectMapper the current mapper instance
 	 * @param tokenizeArrayElements if {@code true} and the "top level" JSON object is
 	 * an array, each element is returned individually immediately after it is received
+	 * @param maxInMemorySize maximum number of bytes to buffer for a single value,
+	 * or -1 for unlimited
 	 * @return the resulting token buffers
 	 */
 	public static Flux<TokenBuffer> tokenize(Flux<DataBuffer> dataBuffers, JsonFactory jsonFactory,
-			ObjectMapper objectMapper, boolean tokenizeArrayElements) {
+			ObjectMapper objectMapper, boolean tokenizeArrayElements, int maxInMemorySize) {
 
 		try {
 			JsonParser parser = jsonFactory.createNonBlockingByteArrayParser();
@@ -194,7 +269,7 @@ final class Jackson2Tokenizer {
 				context = ((DefaultDeserializationContext) context).createInstance(
 						objectMapper.getDeserializationConfig(), parser, objectMapper.getInjectableValues());
 			}
-			Jackson2Tokenizer tokenizer = new Jackson2Tokenizer(parser, context, tokenizeArrayElements);
+			Jackson2Tokenizer tokenizer = new Jackson2Tokenizer(parser, context, tokenizeArrayElements, maxInMemorySize);
 			return dataBuffers.concatMapIterable(tokenizer::tokenize).concatWith(tokenizer.endOfInput());
 		}
 		catch (IOException ex) {
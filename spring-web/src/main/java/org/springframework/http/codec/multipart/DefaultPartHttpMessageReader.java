@@ -0,0 +1,308 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.multipart;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.codec.Hints;
+import org.springframework.core.log.LogFormatUtils;
+import org.springframework.http.MediaType;
+import org.springframework.http.ReactiveHttpInputMessage;
+import org.springframework.http.codec.HttpMessageReader;
+import org.springframework.http.codec.LoggingCodecSupport;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Default {@code HttpMessageReader} for parsing {@code "multipart/form-data"}
+ * requests to a stream of {@link Part Parts}, scanning for the multipart
+ * boundaries directly over the incoming data buffers, without depending on
+ * a third-party parser.
+ *
+ * <p>In default, non-streaming mode, this reader stores the contents of
+ * parts smaller than {@link #setMaxInMemorySize(int) maxInMemorySize} in
+ * memory, and parts larger than that to a temporary file in
+ * {@link #setFileStorageDirectory(Path) fileStorageDirectory}, written with
+ * an {@link java.nio.channels.AsynchronousFileChannel} so that no thread is
+ * held while writing. Temporary files are removed on {@link Part#delete()};
+ * on the server, this happens automatically once the exchange completes for
+ * parts read through {@code ServerWebExchange#getMultipartData()}, whereas
+ * parts read as a {@code Flux<Part>} have to be deleted by the application.
+ *
+ * <p>In {@linkplain #setStreaming(boolean) streaming} mode, the contents of
+ * each part are streamed directly from the parsed input buffer stream, and
+ * not stored in memory nor file.
+ *
+ * <p>This reader can be provided to {@link MultipartHttpMessageReader} in
+ * order to aggregate all parts into a Map.
+ *
+ * @author Spring Framework Team
+ * @since 5.2.1
+ * @see MultipartHttpMessageReader
+ */
+public class DefaultPartHttpMessageReader extends LoggingCodecSupport implements HttpMessageReader<Part> {
+
+	private static final String IDENTIFIER = "spring-multipart";
+
+	private int maxInMemorySize = 256 * 1024;
+
+	private int maxHeadersSize = 8 * 1024;
+
+	private long maxDiskUsagePerPart = -1;
+
+	private int maxParts = -1;
+
+	private boolean streaming;
+
+	private Scheduler blockingOperationScheduler = Schedulers.boundedElastic();
+
+	@Nullable
+	private volatile Path fileStorageDirectory;
+
+	private Charset headersCharset = StandardCharsets.UTF_8;
+
+
+	/**
+	 * Configure the maximum amount of memory that is allowed per headers section
+	 * of each part. When the limit is exceeded, a {@link DecodingException} is
+	 * raised.
+	 * <p>By default this is set to 8K.
+	 * @param byteCount the maximum amount of memory for headers
+	 */
+	public void setMaxHeadersSize(int byteCount) {
+		this.maxHeadersSize = byteCount;
+	}
+
+	/**
+	 * Configure the maximum amount of memory allowed per part. When the limit
+	 * is exceeded, form fields are rejected with a {@link DecodingException},
+	 * while other parts are written to a temporary file.
+	 * <p>By default this is set to 256K. Use -1 to keep all part contents in
+	 * memory.
+	 * <p>Note that this property is ignored when
+	 * {@linkplain #setStreaming(boolean) streaming} is enabled.
+	 * @param maxInMemorySize the in-memory limit in bytes, or -1 for unlimited
+	 */
+	public void setMaxInMemorySize(int maxInMemorySize) {
+		this.maxInMemorySize = maxInMemorySize;
+	}
+
+	/**
+	 * Return the {@link #setMaxInMemorySize configured} in-memory limit.
+	 */
+	public int getMaxInMemorySize() {
+		return this.maxInMemorySize;
+	}
+
+	/**
+	 * Configure the maximum amount of disk space allowed per part. When the
+	 * limit is exceeded, a {@link DecodingException} is raised.
+	 * <p>By default this is set to -1, meaning that there is no limit.
+	 * <p>Note that this property is ignored when
+	 * {@linkplain #setStreaming(boolean) streaming} is enabled.
+	 * @param maxDiskUsagePerPart the disk limit in bytes, or -1 for unlimited
+	 */
+	public void setMaxDiskUsagePerPart(long maxDiskUsagePerPart) {
+		this.maxDiskUsagePerPart = maxDiskUsagePerPart;
+	}
+
+	/**
+	 * Specify the maximum number of parts allowed in a given multipart request.
+	 * When the limit is exceeded, a {@link DecodingException} is raised.
+	 * <p>By default this is set to -1, meaning that there is no limit.
+	 * @param maxParts the maximum number of parts, or -1 for unlimited
+	 */
+	public void setMaxParts(int maxParts) {
+		this.maxParts = maxParts;
+	}
+
+	/**
+	 * Set the directory used to store parts larger than
+	 * {@link #setMaxInMemorySize(int) maxInMemorySize}. By default, a new
+	 * directory with a random name starting with {@code spring-multipart} is
+	 * created under the system temporary directory, accessible to the owner only.
+	 * <p>Note that this property is ignored when
+	 * {@linkplain #setStreaming(boolean) streaming} is enabled.
+	 * @param fileStorageDirectory the directory to store temporary files in
+	 * @throws IOException if the directory does not exist and cannot be created
+	 */
+	public void setFileStorageDirectory(Path fileStorageDirectory) throws IOException {
+		Assert.notNull(fileStorageDirectory, "FileStorageDirectory must not be null");
+		if (!Files.exists(fileStorageDirectory)) {
+			Files.createDirectory(fileStorageDirectory);
+		}
+		this.fileStorageDirectory = fileStorageDirectory;
+	}
+
+	/**
+	 * Set the Reactor {@link Scheduler} to be used for creating files and
+	 * directories, and for other blocking file operations.
+	 * <p>By default, {@link Schedulers#boundedElastic()} is used.
+	 * <p>Note that this property is ignored when
+	 * {@linkplain #setStreaming(boolean) streaming} is enabled.
+	 * @param blockingOperationScheduler the scheduler to use
+	 */
+	public void setBlockingOperationScheduler(Scheduler blockingOperationScheduler) {
+		Assert.notNull(blockingOperationScheduler, "BlockingOperationScheduler must not be null");
+		this.blockingOperationScheduler = blockingOperationScheduler;
+	}
+
+	/**
+	 * When set to {@code true}, the {@linkplain Part#content() part content}
+	 * is streamed directly from the parsed input buffer stream, and not stored
+	 * in memory nor file. When {@code false}, parts are backed by in-memory
+	 * and/or file storage.
+	 * <p>Note that with streaming enabled, the {@code Flux<Part>} that is
+	 * produced by this reader must be consumed in the original order, i.e.
+	 * the order of the HTTP message, and the content of each part must be
+	 * consumed, or cancelled, before the next part is produced. As a
+	 * consequence, streaming mode is not suited for use with
+	 * {@link MultipartHttpMessageReader}, which collects all parts.
+	 * <p>By default this is set to {@code false}.
+	 * @param streaming whether to stream part contents
+	 */
+	public void setStreaming(boolean streaming) {
+		this.streaming = streaming;
+	}
+
+	/**
+	 * Set the character set used to decode headers.
+	 * <p>By default this is set to {@code UTF-8}.
+	 * @param headersCharset the charset to use for decoding headers
+	 */
+	public void setHeadersCharset(Charset headersCharset) {
+		Assert.notNull(headersCharset, "HeadersCharset must not be null");
+		this.headersCharset = headersCharset;
+	}
+
+
+	@Override
+	public List<MediaType> getReadableMediaTypes() {
+		return Collections.singletonList(MediaType.MULTIPART_FORM_DATA);
+	}
+
+	@Override
+	public boolean canRead(ResolvableType elementType, @Nullable MediaType mediaType) {
+		return Part.class.equals(elementType.toClass()) &&
+				(mediaType == null || MediaType.MULTIPART_FORM_DATA.isCompatibleWith(mediaType));
+	}
+
+
+	@Override
+	public Flux<Part> read(ResolvableType elementType, ReactiveHttpInputMessage message, Map<String, Object> hints) {
+		return Flux.defer(() -> {
+			byte[] boundary = getBoundary(message);
+			if (boundary == null) {
+				return Flux.error(new DecodingException("No multipart boundary found in Content-Type: \"" +
+						message.getHeaders().getContentType() + "\""));
+			}
+			Flux<MultipartParser.Token> tokens = MultipartParser.parse(
+					message.getBody(), boundary, this.maxHeadersSize, this.headersCharset);
+
+			AtomicInteger partCount = new AtomicInteger();
+			return tokens
+					.windowUntil(MultipartParser.Token::isLast)
+					.concatMap(partTokens -> {
+						if (this.maxParts != -1 && partCount.incrementAndGet() > this.maxParts) {
+							return Mono.error(new DecodingException(
+									"Too many parts (" + partCount.get() + "/" + this.maxParts + " allowed)"));
+						}
+						return PartGenerator.createPart(partTokens, this.maxInMemorySize, this.maxDiskUsagePerPart,
+								this.streaming, this::getFileStorageDirectory, this.blockingOperationScheduler);
+					})
+					.doOnDiscard(MultipartParser.Token.class, MultipartParser.Token::release)
+					.doOnNext(part -> {
+						if (!Hints.isLoggingSuppressed(hints)) {
+							LogFormatUtils.traceDebug(logger, traceOn -> Hints.getLogPrefix(hints) + "Parsed " +
+									(isEnableLoggingRequestDetails() ?
+											LogFormatUtils.formatValue(part, !traceOn) :
+											"parts '" + part.name() + "' (content masked)"));
+						}
+					});
+		});
+	}
+
+	@Override
+	public Mono<Part> readMono(ResolvableType elementType, ReactiveHttpInputMessage message, Map<String, Object> hints) {
+		return Mono.error(new UnsupportedOperationException("Cannot read multipart request body into single Part"));
+	}
+
+
+	@Nullable
+	private static byte[] getBoundary(ReactiveHttpInputMessage message) {
+		MediaType contentType = message.getHeaders().getContentType();
+		if (contentType != null) {
+			String boundary = contentType.getParameter("boundary");
+			if (boundary != null) {
+				int length = boundary.length();
+				if (length > 2 && boundary.charAt(0) == '"' && boundary.charAt(length - 1) == '"') {
+					boundary = boundary.substring(1, length - 1);
+				}
+				return boundary.getBytes(StandardCharsets.ISO_8859_1);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Return the directory to store temporary files in, creating the
+	 * default one on first access. Called on the blocking scheduler.
+	 * <p>The default directory gets a unique name, and is only accessible
+	 * to the owner on POSIX file systems, so that other users on the same
+	 * host can neither predict nor tamper with it.
+	 */
+	private Path getFileStorageDirectory() throws IOException {
+		Path directory = this.fileStorageDirectory;
+		if (directory == null) {
+			synchronized (this) {
+				directory = this.fileStorageDirectory;
+				if (directory == null) {
+					if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+						directory = Files.createTempDirectory(IDENTIFIER, PosixFilePermissions.asFileAttribute(
+								EnumSet.of(PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE,
+										PosixFilePermission.OWNER_EXECUTE)));
+					}
+					else {
+						directory = Files.createTempDirectory(IDENTIFIER);
+					}
+					this.fileStorageDirectory = directory;
+				}
+			}
+		}
+		return directory;
+	}
+
+}
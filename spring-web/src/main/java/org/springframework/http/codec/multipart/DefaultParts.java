@@ -0,0 +1,331 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.multipart;
+
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Callable;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.Assert;
+
+/**
+ * Default implementations of {@link Part} and subinterfaces, as created by
+ * {@link DefaultPartHttpMessageReader}.
+ *
+ * @author Spring Framework Team
+ * @since 5.2.1
+ */
+abstract class DefaultParts {
+
+	private static final DefaultDataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+
+	private static final int FILE_BUFFER_SIZE = 8192;
+
+
+	/**
+	 * Create a new {@link FormFieldPart} with the given parameters.
+	 * @param headers the part headers
+	 * @param value the form field value
+	 * @return the created part
+	 */
+	static FormFieldPart formFieldPart(HttpHeaders headers, String value) {
+		return new DefaultFormFieldPart(headers, value);
+	}
+
+	/**
+	 * Create a new {@link Part} or {@link FilePart} with the given content
+	 * held in memory.
+	 * @param headers the part headers
+	 * @param content the part content
+	 * @return the created part
+	 */
+	static Part part(HttpHeaders headers, byte[] content) {
+		return part(headers, new BytesContent(content));
+	}
+
+	/**
+	 * Create a new {@link Part} or {@link FilePart} with the given content
+	 * stream, which can only be consumed once.
+	 * @param headers the part headers
+	 * @param content the part content
+	 * @return the created part
+	 */
+	static Part part(HttpHeaders headers, Flux<DataBuffer> content) {
+		return part(headers, new StreamingContent(content));
+	}
+
+	/**
+	 * Create a new {@link Part} or {@link FilePart} with the given content
+	 * stored in a file, which is deleted on {@link Part#delete()}.
+	 * @param headers the part headers
+	 * @param file the file holding the part content
+	 * @param scheduler the scheduler to use for blocking file operations
+	 * @return the created part
+	 */
+	static Part part(HttpHeaders headers, Path file, Scheduler scheduler) {
+		return part(headers, new FileContent(file, scheduler));
+	}
+
+	private static Part part(HttpHeaders headers, Content content) {
+		String filename = headers.getContentDisposition().getFilename();
+		if (filename != null) {
+			return new DefaultFilePart(headers, filename, content);
+		}
+		else {
+			return new DefaultPart(headers, content);
+		}
+	}
+
+	private static String getName(HttpHeaders headers) {
+		String name = headers.getContentDisposition().getName();
+		Assert.state(name != null, "No name available");
+		return name;
+	}
+
+
+	/**
+	 * Abstract base class for parts.
+	 */
+	private abstract static class AbstractPart implements Part {
+
+		private final String name;
+
+		private final HttpHeaders headers;
+
+		protected AbstractPart(HttpHeaders headers) {
+			this.name = getName(headers);
+			this.headers = headers;
+		}
+
+		@Override
+		public String name() {
+			return this.name;
+		}
+
+		@Override
+		public HttpHeaders headers() {
+			return this.headers;
+		}
+	}
+
+
+	/**
+	 * Default implementation of {@link FormFieldPart}.
+	 */
+	private static class DefaultFormFieldPart extends AbstractPart implements FormFieldPart {
+
+		private final String value;
+
+		DefaultFormFieldPart(HttpHeaders headers, String value) {
+			super(headers);
+			this.value = value;
+		}
+
+		@Override
+		public String value() {
+			return this.value;
+		}
+
+		@Override
+		public Flux<DataBuffer> content() {
+			return Flux.defer(() -> {
+				byte[] bytes = this.value.getBytes(getCharset());
+				return Flux.just(bufferFactory.wrap(bytes));
+			});
+		}
+
+		private Charset getCharset() {
+			MediaType contentType = headers().getContentType();
+			return (contentType != null && contentType.getCharset() != null ?
+					contentType.getCharset() : StandardCharsets.UTF_8);
+		}
+
+		@Override
+		public String toString() {
+			return "Part '" + name() + "=" + this.value + "'";
+		}
+	}
+
+
+	/**
+	 * Default implementation of {@link Part}, delegating to a {@link Content}.
+	 */
+	private static class DefaultPart extends AbstractPart {
+
+		protected final Content content;
+
+		DefaultPart(HttpHeaders headers, Content content) {
+			super(headers);
+			this.content = content;
+		}
+
+		@Override
+		public Flux<DataBuffer> content() {
+			return this.content.content();
+		}
+
+		@Override
+		public Mono<Void> delete() {
+			return this.content.delete();
+		}
+
+		@Override
+		public String toString() {
+			return "Part '" + name() + "', headers=" + headers();
+		}
+	}
+
+
+	/**
+	 * Default implementation of {@link FilePart}.
+	 */
+	private static final class DefaultFilePart extends DefaultPart implements FilePart {
+
+		private final String filename;
+
+		DefaultFilePart(HttpHeaders headers, String filename, Content content) {
+			super(headers, content);
+			this.filename = filename;
+		}
+
+		@Override
+		public String filename() {
+			return this.filename;
+		}
+
+		@Override
+		public Mono<Void> transferTo(Path dest) {
+			return this.content.transferTo(dest);
+		}
+
+		@Override
+		public String toString() {
+			return "Part '" + name() + "', filename='" + this.filename + "'";
+		}
+	}
+
+
+	/**
+	 * Part content abstraction.
+	 */
+	private interface Content {
+
+		Flux<DataBuffer> content();
+
+		default Mono<Void> transferTo(Path dest) {
+			return DataBufferUtils.write(content(), dest);
+		}
+
+		default Mono<Void> delete() {
+			return Mono.empty();
+		}
+	}
+
+
+	/**
+	 * Content held in memory, which can be consumed any number of times.
+	 */
+	private static final class BytesContent implements Content {
+
+		private final byte[] bytes;
+
+		BytesContent(byte[] bytes) {
+			this.bytes = bytes;
+		}
+
+		@Override
+		public Flux<DataBuffer> content() {
+			return Flux.defer(() -> Flux.just(bufferFactory.wrap(this.bytes)));
+		}
+	}
+
+
+	/**
+	 * Content streamed from the request, which can be consumed once.
+	 */
+	private static final class StreamingContent implements Content {
+
+		private final Flux<DataBuffer> content;
+
+		StreamingContent(Flux<DataBuffer> content) {
+			this.content = content;
+		}
+
+		@Override
+		public Flux<DataBuffer> content() {
+			return this.content;
+		}
+	}
+
+
+	/**
+	 * Content stored in a file.
+	 */
+	private static final class FileContent implements Content {
+
+		private final Path file;
+
+		private final Scheduler scheduler;
+
+		FileContent(Path file, Scheduler scheduler) {
+			this.file = file;
+			this.scheduler = scheduler;
+		}
+
+		@Override
+		public Flux<DataBuffer> content() {
+			return DataBufferUtils.readAsynchronousFileChannel(
+					() -> AsynchronousFileChannel.open(this.file, StandardOpenOption.READ),
+					bufferFactory, FILE_BUFFER_SIZE)
+					.subscribeOn(this.scheduler);
+		}
+
+		@Override
+		public Mono<Void> transferTo(Path dest) {
+			return blockingOperation(() -> Files.copy(this.file, dest, StandardCopyOption.REPLACE_EXISTING));
+		}
+
+		@Override
+		public Mono<Void> delete() {
+			return blockingOperation(() -> Files.deleteIfExists(this.file));
+		}
+
+		private Mono<Void> blockingOperation(Callable<?> operation) {
+			return Mono.fromCallable(operation).subscribeOn(this.scheduler).then();
+		}
+
+		@Override
+		public String toString() {
+			return "file '" + this.file + "'";
+		}
+	}
+
+}
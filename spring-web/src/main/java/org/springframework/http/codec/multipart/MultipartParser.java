@@ -0,0 +1,527 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.multipart;
+
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+
+/**
+ * Subscribes to a buffer stream and produces a flux of {@link Token} instances,
+ * scanning for the multipart boundaries directly over the incoming
+ * {@link DataBuffer DataBuffers}. Body content is passed on as slices of the
+ * incoming buffers, without copying.
+ *
+ * <p>Buffers are requested one at a time, and only while there is demand for
+ * tokens downstream.
+ *
+ * @author Spring Framework Team
+ * @since 5.2.1
+ * @see DefaultPartHttpMessageReader
+ */
+final class MultipartParser extends BaseSubscriber<DataBuffer> {
+
+	private static final byte CR = '\r';
+
+	private static final byte LF = '\n';
+
+	private static final byte HYPHEN = '-';
+
+	private static final byte[] CR_LF = {CR, LF};
+
+	private static final byte[] TWO_HYPHENS = {HYPHEN, HYPHEN};
+
+
+	private final FluxSink<Token> sink;
+
+	private final byte[] boundary;
+
+	private final int maxHeadersSize;
+
+	private final Charset headersCharset;
+
+	private final AtomicBoolean requestOutstanding = new AtomicBoolean();
+
+	private volatile State state;
+
+
+	private MultipartParser(FluxSink<Token> sink, byte[] boundary, int maxHeadersSize, Charset headersCharset) {
+		this.sink = sink;
+		this.boundary = boundary;
+		this.maxHeadersSize = maxHeadersSize;
+		this.headersCharset = headersCharset;
+		this.state = new PreambleState();
+	}
+
+
+	/**
+	 * Parse the given stream of data buffers into a stream of tokens.
+	 * @param buffers the input buffers
+	 * @param boundary the multipart boundary, as found in the {@code Content-Type} header
+	 * @param maxHeadersSize the maximum buffered header size, per part
+	 * @param headersCharset the charset to use for decoding part headers
+	 * @return a stream of parsed tokens
+	 */
+	static Flux<Token> parse(Flux<DataBuffer> buffers, byte[] boundary, int maxHeadersSize, Charset headersCharset) {
+		return Flux.create(sink -> {
+			MultipartParser parser = new MultipartParser(sink, boundary, maxHeadersSize, headersCharset);
+			sink.onCancel(parser::onSinkCancel);
+			sink.onRequest(n -> parser.requestBuffer());
+			buffers.subscribe(parser);
+		});
+	}
+
+
+	@Override
+	protected void hookOnSubscribe(Subscription subscription) {
+		requestBuffer();
+	}
+
+	@Override
+	protected void hookOnNext(DataBuffer value) {
+		this.requestOutstanding.set(false);
+		this.state.onNext(value);
+		requestBuffer();
+	}
+
+	@Override
+	protected void hookOnComplete() {
+		this.state.onComplete();
+	}
+
+	@Override
+	protected void hookOnError(Throwable throwable) {
+		this.state.dispose();
+		this.state = DisposedState.INSTANCE;
+		this.sink.error(throwable);
+	}
+
+	private void onSinkCancel() {
+		this.state.dispose();
+		this.state = DisposedState.INSTANCE;
+		cancel();
+	}
+
+	private void requestBuffer() {
+		if (upstream() != null && !this.sink.isCancelled() && this.sink.requestedFromDownstream() > 0 &&
+				this.requestOutstanding.compareAndSet(false, true)) {
+			request(1);
+		}
+	}
+
+	private void changeState(State newState, DataBuffer remainder) {
+		this.state = newState;
+		if (remainder.readableByteCount() > 0) {
+			newState.onNext(remainder);
+		}
+		else {
+			DataBufferUtils.release(remainder);
+		}
+	}
+
+	private void emitHeaders(HttpHeaders headers) {
+		this.sink.next(new HeadersToken(headers));
+	}
+
+	private void emitBody(DataBuffer buffer, boolean last) {
+		if (this.sink.isCancelled()) {
+			DataBufferUtils.release(buffer);
+		}
+		else {
+			this.sink.next(new BodyToken(buffer, last));
+		}
+	}
+
+	private void emitError(Throwable error) {
+		this.state.dispose();
+		this.state = DisposedState.INSTANCE;
+		this.sink.error(error);
+		cancel();
+	}
+
+	private static byte[] concat(byte[]... byteArrays) {
+		int length = 0;
+		for (byte[] byteArray : byteArrays) {
+			length += byteArray.length;
+		}
+		byte[] result = new byte[length];
+		int offset = 0;
+		for (byte[] byteArray : byteArrays) {
+			System.arraycopy(byteArray, 0, result, offset, byteArray.length);
+			offset += byteArray.length;
+		}
+		return result;
+	}
+
+	private static DataBuffer sliceFrom(DataBuffer buffer, int index) {
+		return buffer.retainedSlice(index, buffer.writePosition() - index);
+	}
+
+
+	/**
+	 * Represents the output of {@link #parse(Flux, byte[], int, Charset)}:
+	 * the headers of a part, followed by its body content.
+	 */
+	abstract static class Token {
+
+		/**
+		 * Return the headers of a part.
+		 * @throws IllegalStateException if this is not a headers token
+		 */
+		abstract HttpHeaders headers();
+
+		/**
+		 * Return a body buffer of a part.
+		 * @throws IllegalStateException if this is not a body token
+		 */
+		abstract DataBuffer buffer();
+
+		/**
+		 * Return whether this is the last token of a part.
+		 */
+		abstract boolean isLast();
+
+		/**
+		 * Release the buffer held by this token, if any.
+		 */
+		static void release(Token token) {
+			if (token instanceof BodyToken) {
+				DataBufferUtils.release(token.buffer());
+			}
+		}
+	}
+
+
+	/**
+	 * Token that contains the headers of a part.
+	 */
+	static final class HeadersToken extends Token {
+
+		private final HttpHeaders headers;
+
+		HeadersToken(HttpHeaders headers) {
+			this.headers = headers;
+		}
+
+		@Override
+		HttpHeaders headers() {
+			return this.headers;
+		}
+
+		@Override
+		DataBuffer buffer() {
+			throw new IllegalStateException("Headers token has no buffer");
+		}
+
+		@Override
+		boolean isLast() {
+			return false;
+		}
+	}
+
+
+	/**
+	 * Token that contains body content of a part.
+	 */
+	static final class BodyToken extends Token {
+
+		private final DataBuffer buffer;
+
+		private final boolean last;
+
+		BodyToken(DataBuffer buffer, boolean last) {
+			this.buffer = buffer;
+			this.last = last;
+		}
+
+		@Override
+		HttpHeaders headers() {
+			throw new IllegalStateException("Body token has no headers");
+		}
+
+		@Override
+		DataBuffer buffer() {
+			return this.buffer;
+		}
+
+		@Override
+		boolean isLast() {
+			return this.last;
+		}
+	}
+
+
+	/**
+	 * Represents the internal state of the parser.
+	 */
+	private interface State {
+
+		void onNext(DataBuffer buffer);
+
+		void onComplete();
+
+		default void dispose() {
+		}
+	}
+
+
+	/**
+	 * The initial state: looks for the first boundary, discarding the preamble.
+	 */
+	private final class PreambleState implements State {
+
+		private final DataBufferUtils.Matcher firstBoundary =
+				DataBufferUtils.matcher(concat(TWO_HYPHENS, MultipartParser.this.boundary));
+
+		@Override
+		public void onNext(DataBuffer buffer) {
+			int endIdx = this.firstBoundary.match(buffer);
+			if (endIdx != -1) {
+				DataBuffer remainder = sliceFrom(buffer, endIdx + 1);
+				DataBufferUtils.release(buffer);
+				changeState(new HeadersState(), remainder);
+			}
+			else {
+				DataBufferUtils.release(buffer);
+			}
+		}
+
+		@Override
+		public void onComplete() {
+			emitError(new DecodingException("Could not find first boundary"));
+		}
+	}
+
+
+	/**
+	 * Follows a boundary: either finds the end of the multipart message
+	 * (two hyphens), or buffers and parses the headers of the next part.
+	 */
+	private final class HeadersState implements State {
+
+		private final DataBufferUtils.Matcher endHeaders = DataBufferUtils.matcher(concat(CR_LF, CR_LF));
+
+		private final List<DataBuffer> buffers = new ArrayList<>();
+
+		private int byteCount;
+
+		private boolean endChecked;
+
+		@Override
+		public void onNext(DataBuffer buffer) {
+			if (!this.endChecked) {
+				if (this.byteCount + buffer.readableByteCount() < 2) {
+					this.buffers.add(buffer);
+					this.byteCount += buffer.readableByteCount();
+					return;
+				}
+				if (byteAt(0, buffer) == HYPHEN && byteAt(1, buffer) == HYPHEN) {
+					// End of the multipart message: drain and discard the epilogue
+					DataBufferUtils.release(buffer);
+					dispose();
+					MultipartParser.this.state = DisposedState.INSTANCE;
+					MultipartParser.this.sink.complete();
+					requestUnbounded();
+					return;
+				}
+				this.endChecked = true;
+				for (DataBuffer held : this.buffers) {
+					this.endHeaders.match(held);
+				}
+			}
+			int endIdx = this.endHeaders.match(buffer);
+			int count = (endIdx != -1 ? endIdx + 1 - buffer.readPosition() : buffer.readableByteCount());
+			if (this.byteCount + count > MultipartParser.this.maxHeadersSize) {
+				DataBufferUtils.release(buffer);
+				emitError(new DecodingException("Part headers exceeded the limit of " +
+						MultipartParser.this.maxHeadersSize + " bytes"));
+				return;
+			}
+			this.byteCount += count;
+			if (endIdx != -1) {
+				this.buffers.add(buffer.retainedSlice(buffer.readPosition(), count));
+				DataBuffer remainder = sliceFrom(buffer, endIdx + 1);
+				DataBufferUtils.release(buffer);
+				emitHeaders(parseHeaders());
+				changeState(new BodyState(), remainder);
+			}
+			else {
+				this.buffers.add(buffer);
+			}
+		}
+
+		/**
+		 * Return the byte at the given index, counting from the start of the
+		 * buffers collected so far, followed by the given buffer.
+		 */
+		private byte byteAt(int index, DataBuffer current) {
+			for (DataBuffer buffer : this.buffers) {
+				if (index < buffer.readableByteCount()) {
+					return buffer.getByte(buffer.readPosition() + index);
+				}
+				index -= buffer.readableByteCount();
+			}
+			return current.getByte(current.readPosition() + index);
+		}
+
+		private HttpHeaders parseHeaders() {
+			byte[] bytes = new byte[this.byteCount];
+			int offset = 0;
+			for (DataBuffer buffer : this.buffers) {
+				int length = buffer.readableByteCount();
+				buffer.read(bytes, offset, length);
+				offset += length;
+				DataBufferUtils.release(buffer);
+			}
+			this.buffers.clear();
+			HttpHeaders headers = new HttpHeaders();
+			for (String line : new String(bytes, MultipartParser.this.headersCharset).split("\r\n")) {
+				int idx = line.indexOf(':');
+				if (idx != -1) {
+					headers.add(line.substring(0, idx).trim(), line.substring(idx + 1).trim());
+				}
+			}
+			return headers;
+		}
+
+		@Override
+		public void onComplete() {
+			emitError(new DecodingException("Could not find end of headers"));
+		}
+
+		@Override
+		public void dispose() {
+			this.buffers.forEach(DataBufferUtils::release);
+			this.buffers.clear();
+		}
+	}
+
+
+	/**
+	 * Passes on the body of a part until the next boundary. Holds back as
+	 * many trailing bytes as could belong to a boundary that is completed
+	 * by a subsequent buffer.
+	 */
+	private final class BodyState implements State {
+
+		private final DataBufferUtils.Matcher boundary =
+				DataBufferUtils.matcher(concat(CR_LF, TWO_HYPHENS, MultipartParser.this.boundary));
+
+		private final int boundaryLength = this.boundary.delimiter().length;
+
+		private final Deque<DataBuffer> queue = new ArrayDeque<>();
+
+		private int queuedByteCount;
+
+		@Override
+		public void onNext(DataBuffer buffer) {
+			int endIdx = this.boundary.match(buffer);
+			if (endIdx != -1) {
+				int length = endIdx + 1 - buffer.readPosition() - this.boundaryLength;
+				if (length < 0) {
+					// Boundary started in a previous buffer
+					trimQueue(-length);
+				}
+				flushQueue(this.queue.size());
+				emitBody(buffer.retainedSlice(buffer.readPosition(), Math.max(length, 0)), true);
+				DataBuffer remainder = sliceFrom(buffer, endIdx + 1);
+				DataBufferUtils.release(buffer);
+				changeState(new HeadersState(), remainder);
+			}
+			else {
+				this.queue.add(buffer);
+				this.queuedByteCount += buffer.readableByteCount();
+				int count = 0;
+				int remaining = this.queuedByteCount;
+				for (DataBuffer queued : this.queue) {
+					if (remaining - queued.readableByteCount() < this.boundaryLength - 1) {
+						break;
+					}
+					remaining -= queued.readableByteCount();
+					count++;
+				}
+				flushQueue(count);
+			}
+		}
+
+		private void flushQueue(int count) {
+			for (int i = 0; i < count; i++) {
+				DataBuffer queued = this.queue.poll();
+				this.queuedByteCount -= queued.readableByteCount();
+				emitBody(queued, false);
+			}
+		}
+
+		private void trimQueue(int byteCount) {
+			while (byteCount > 0 && !this.queue.isEmpty()) {
+				DataBuffer last = this.queue.pollLast();
+				int length = last.readableByteCount();
+				this.queuedByteCount -= length;
+				if (length > byteCount) {
+					this.queue.add(last.retainedSlice(last.readPosition(), length - byteCount));
+					this.queuedByteCount += length - byteCount;
+				}
+				DataBufferUtils.release(last);
+				byteCount -= length;
+			}
+		}
+
+		@Override
+		public void onComplete() {
+			emitError(new DecodingException("Could not find end of body"));
+		}
+
+		@Override
+		public void dispose() {
+			this.queue.forEach(DataBufferUtils::release);
+			this.queue.clear();
+		}
+	}
+
+
+	/**
+	 * The state after the end of the message, or after an error or cancellation:
+	 * releases any further buffers.
+	 */
+	private static final class DisposedState implements State {
+
+		static final DisposedState INSTANCE = new DisposedState();
+
+		@Override
+		public void onNext(DataBuffer buffer) {
+			DataBufferUtils.release(buffer);
+		}
+
+		@Override
+		public void onComplete() {
+		}
+	}
+
+}
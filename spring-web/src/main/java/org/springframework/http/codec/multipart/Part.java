@@ -17,6 +17,7 @@
 package org.springframework.http.codec.multipart;
 
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpHeaders;
@@ -57,4 +58,15 @@ public interface Part {
 	 */
 	Flux<DataBuffer> content();
 
+	/**
+	 * Return a mono that, when subscribed to, deletes the underlying storage
+	 * for this part, if any, e.g. a temporary file.
+	 * <p>The default implementation returns an empty {@code Mono}, for parts
+	 * that are not backed by any storage that needs to be cleaned up.
+	 * @since 5.2.1
+	 */
+	default Mono<Void> delete() {
+		return Mono.empty();
+	}
+
 }
@@ -0,0 +1,604 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.multipart;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Scheduler;
+
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.lang.Nullable;
+
+/**
+ * Subscribes to the {@link MultipartParser.Token tokens} of a single part and
+ * produces the corresponding {@link Part}: form fields are aggregated into
+ * their value, other parts are kept in memory up to a configurable size and
+ * then written to a temporary file with an {@link AsynchronousFileChannel}.
+ * In streaming mode, parts are produced as soon as their headers are parsed,
+ * with their content streamed straight from the input.
+ *
+ * @author Spring Framework Team
+ * @since 5.2.1
+ * @see DefaultPartHttpMessageReader
+ */
+final class PartGenerator extends BaseSubscriber<MultipartParser.Token> {
+
+	private final MonoSink<Part> sink;
+
+	private final int maxInMemorySize;
+
+	private final long maxDiskUsagePerPart;
+
+	private final boolean streaming;
+
+	private final Callable<Path> fileStorageDirectory;
+
+	private final Scheduler blockingOperationScheduler;
+
+	private volatile State state = new InitialState();
+
+
+	private PartGenerator(MonoSink<Part> sink, int maxInMemorySize, long maxDiskUsagePerPart, boolean streaming,
+			Callable<Path> fileStorageDirectory, Scheduler blockingOperationScheduler) {
+
+		this.sink = sink;
+		this.maxInMemorySize = maxInMemorySize;
+		this.maxDiskUsagePerPart = maxDiskUsagePerPart;
+		this.streaming = streaming;
+		this.fileStorageDirectory = fileStorageDirectory;
+		this.blockingOperationScheduler = blockingOperationScheduler;
+	}
+
+
+	/**
+	 * Create a part from the given tokens, starting with a headers token.
+	 * @param tokens the tokens of a single part
+	 * @param maxInMemorySize the maximum number of bytes to hold in memory
+	 * per part, or -1 for no limit
+	 * @param maxDiskUsagePerPart the maximum number of bytes to store on disk
+	 * per part, or -1 for no limit
+	 * @param streaming whether to stream part content rather than storing it
+	 * @param fileStorageDirectory the directory to create temporary files in
+	 * @param blockingOperationScheduler the scheduler for blocking file operations
+	 * @return the part, or an empty {@code Mono} if there were no tokens
+	 */
+	static Mono<Part> createPart(Flux<MultipartParser.Token> tokens, int maxInMemorySize, long maxDiskUsagePerPart,
+			boolean streaming, Callable<Path> fileStorageDirectory, Scheduler blockingOperationScheduler) {
+
+		return Mono.create(sink -> {
+			PartGenerator generator = new PartGenerator(sink, maxInMemorySize, maxDiskUsagePerPart, streaming,
+					fileStorageDirectory, blockingOperationScheduler);
+			sink.onCancel(generator::onSinkCancel);
+			tokens.subscribe(generator);
+		});
+	}
+
+
+	@Override
+	protected void hookOnSubscribe(Subscription subscription) {
+		request(1);
+	}
+
+	@Override
+	protected void hookOnNext(MultipartParser.Token token) {
+		this.state.onToken(token);
+	}
+
+	@Override
+	protected void hookOnComplete() {
+		this.state.onComplete();
+	}
+
+	@Override
+	protected void hookOnError(Throwable throwable) {
+		this.state.onError(throwable);
+	}
+
+	private void onSinkCancel() {
+		this.state.dispose();
+		this.state = DisposedState.INSTANCE;
+		cancel();
+	}
+
+	private void emitPart(Part part) {
+		this.state = DisposedState.INSTANCE;
+		this.sink.success(part);
+	}
+
+	private void emitError(Throwable error) {
+		this.state.dispose();
+		this.state = DisposedState.INSTANCE;
+		this.sink.error(error);
+		cancel();
+	}
+
+	private static boolean isFormField(HttpHeaders headers) {
+		MediaType contentType = headers.getContentType();
+		return ((contentType == null || MediaType.TEXT_PLAIN.equalsTypeAndSubtype(contentType)) &&
+				headers.getContentDisposition().getFilename() == null);
+	}
+
+	private static byte[] join(List<DataBuffer> buffers, int byteCount) {
+		byte[] bytes = new byte[byteCount];
+		int offset = 0;
+		for (DataBuffer buffer : buffers) {
+			int length = buffer.readableByteCount();
+			buffer.read(bytes, offset, length);
+			offset += length;
+			DataBufferUtils.release(buffer);
+		}
+		buffers.clear();
+		return bytes;
+	}
+
+
+	/**
+	 * Represents the internal state of the generator.
+	 */
+	private interface State {
+
+		void onToken(MultipartParser.Token token);
+
+		void onComplete();
+
+		void onError(Throwable error);
+
+		default void dispose() {
+		}
+	}
+
+
+	/**
+	 * The initial state: expects the headers token, and decides how to
+	 * handle the part based on them.
+	 */
+	private final class InitialState implements State {
+
+		@Override
+		public void onToken(MultipartParser.Token token) {
+			HttpHeaders headers = token.headers();
+			if (headers.getContentDisposition().getName() == null) {
+				emitError(new DecodingException("No name in part headers " + headers));
+			}
+			else if (streaming) {
+				StreamingState newState = new StreamingState();
+				state = newState;
+				sink.success(DefaultParts.part(headers, Flux.create(newState::attach)));
+			}
+			else {
+				state = (isFormField(headers) ? new FormFieldState(headers) : new InMemoryState(headers));
+				request(1);
+			}
+		}
+
+		@Override
+		public void onComplete() {
+			sink.success();
+		}
+
+		@Override
+		public void onError(Throwable error) {
+			emitError(error);
+		}
+	}
+
+
+	/**
+	 * Aggregates the content of a form field into its value.
+	 */
+	private final class FormFieldState implements State {
+
+		private final HttpHeaders headers;
+
+		private final List<DataBuffer> buffers = new ArrayList<>();
+
+		private int byteCount;
+
+		FormFieldState(HttpHeaders headers) {
+			this.headers = headers;
+		}
+
+		@Override
+		public void onToken(MultipartParser.Token token) {
+			DataBuffer buffer = token.buffer();
+			if (maxInMemorySize != -1 && (long) this.byteCount + buffer.readableByteCount() > maxInMemorySize) {
+				DataBufferUtils.release(buffer);
+				emitError(new DecodingException(
+						"Form field value exceeded the memory usage limit of " + maxInMemorySize + " bytes"));
+				return;
+			}
+			this.buffers.add(buffer);
+			this.byteCount += buffer.readableByteCount();
+			if (token.isLast()) {
+				String value = new String(join(this.buffers, this.byteCount), getCharset());
+				emitPart(DefaultParts.formFieldPart(this.headers, value));
+			}
+			else {
+				request(1);
+			}
+		}
+
+		private Charset getCharset() {
+			MediaType contentType = this.headers.getContentType();
+			Charset charset = (contentType != null ? contentType.getCharset() : null);
+			return (charset != null ? charset : StandardCharsets.UTF_8);
+		}
+
+		@Override
+		public void onComplete() {
+			emitError(new DecodingException("Could not find end of part"));
+		}
+
+		@Override
+		public void onError(Throwable error) {
+			emitError(error);
+		}
+
+		@Override
+		public void dispose() {
+			this.buffers.forEach(DataBufferUtils::release);
+			this.buffers.clear();
+		}
+	}
+
+
+	/**
+	 * Holds the content of a part in memory, until it exceeds the in-memory
+	 * limit, at which point it switches to a {@link FileState}.
+	 */
+	private final class InMemoryState implements State {
+
+		private final HttpHeaders headers;
+
+		private final List<DataBuffer> buffers = new ArrayList<>();
+
+		private int byteCount;
+
+		InMemoryState(HttpHeaders headers) {
+			this.headers = headers;
+		}
+
+		@Override
+		public void onToken(MultipartParser.Token token) {
+			DataBuffer buffer = token.buffer();
+			this.buffers.add(buffer);
+			if (maxInMemorySize != -1 && (long) this.byteCount + buffer.readableByteCount() > maxInMemorySize) {
+				FileState newState = new FileState(this.headers, this.buffers, token.isLast());
+				this.buffers.clear();
+				state = newState;
+				newState.createFile();
+				return;
+			}
+			this.byteCount += buffer.readableByteCount();
+			if (token.isLast()) {
+				emitPart(DefaultParts.part(this.headers, join(this.buffers, this.byteCount)));
+			}
+			else {
+				request(1);
+			}
+		}
+
+		@Override
+		public void onComplete() {
+			emitError(new DecodingException("Could not find end of part"));
+		}
+
+		@Override
+		public void onError(Throwable error) {
+			emitError(error);
+		}
+
+		@Override
+		public void dispose() {
+			this.buffers.forEach(DataBufferUtils::release);
+			this.buffers.clear();
+		}
+	}
+
+
+	/**
+	 * Writes the content of a part to a temporary file, one buffer at a time,
+	 * requesting the next token only once all pending buffers are written.
+	 */
+	private final class FileState implements State, CompletionHandler<Integer, DataBuffer> {
+
+		private final HttpHeaders headers;
+
+		private final Deque<DataBuffer> pending;
+
+		private volatile boolean last;
+
+		private volatile boolean disposed;
+
+		@Nullable
+		private volatile Path file;
+
+		@Nullable
+		private volatile AsynchronousFileChannel channel;
+
+		private volatile long position;
+
+		FileState(HttpHeaders headers, List<DataBuffer> buffers, boolean last) {
+			this.headers = headers;
+			this.pending = new ArrayDeque<>(buffers);
+			this.last = last;
+		}
+
+		void createFile() {
+			blockingOperationScheduler.schedule(() -> {
+				try {
+					Path file = Files.createTempFile(fileStorageDirectory.call(), null, ".multipart");
+					this.file = file;
+					this.channel = AsynchronousFileChannel.open(file, StandardOpenOption.WRITE);
+				}
+				catch (Exception ex) {
+					emitError(ex);
+					return;
+				}
+				if (this.disposed) {
+					dispose();
+				}
+				else {
+					writeNext();
+				}
+			});
+		}
+
+		@Override
+		public void onToken(MultipartParser.Token token) {
+			this.pending.add(token.buffer());
+			this.last = token.isLast();
+			writeNext();
+		}
+
+		private void writeNext() {
+			if (this.disposed) {
+				return;
+			}
+			DataBuffer buffer = this.pending.poll();
+			if (buffer == null) {
+				if (this.last) {
+					complete();
+				}
+				else {
+					request(1);
+				}
+				return;
+			}
+			if (maxDiskUsagePerPart != -1 && this.position + buffer.readableByteCount() > maxDiskUsagePerPart) {
+				DataBufferUtils.release(buffer);
+				emitError(new DecodingException(
+						"Part exceeded the disk usage limit of " + maxDiskUsagePerPart + " bytes"));
+				return;
+			}
+			write(buffer);
+		}
+
+		private void write(DataBuffer buffer) {
+			AsynchronousFileChannel channel = this.channel;
+			if (channel != null) {
+				channel.write(buffer.asByteBuffer(), this.position, buffer, this);
+			}
+		}
+
+		@Override
+		public void completed(Integer written, DataBuffer buffer) {
+			this.position += written;
+			buffer.readPosition(buffer.readPosition() + written);
+			if (buffer.readableByteCount() > 0) {
+				write(buffer);
+			}
+			else {
+				DataBufferUtils.release(buffer);
+				writeNext();
+			}
+		}
+
+		@Override
+		public void failed(Throwable ex, DataBuffer buffer) {
+			DataBufferUtils.release(buffer);
+			emitError(ex);
+		}
+
+		private void complete() {
+			Path file = this.file;
+			try {
+				closeChannel();
+			}
+			catch (IOException ex) {
+				emitError(ex);
+				return;
+			}
+			if (file != null) {
+				emitPart(DefaultParts.part(this.headers, file, blockingOperationScheduler));
+			}
+		}
+
+		private void closeChannel() throws IOException {
+			AsynchronousFileChannel channel = this.channel;
+			this.channel = null;
+			if (channel != null) {
+				channel.close();
+			}
+		}
+
+		@Override
+		public void onComplete() {
+			if (!this.last) {
+				emitError(new DecodingException("Could not find end of part"));
+			}
+		}
+
+		@Override
+		public void onError(Throwable error) {
+			emitError(error);
+		}
+
+		@Override
+		public void dispose() {
+			this.disposed = true;
+			this.pending.forEach(DataBufferUtils::release);
+			this.pending.clear();
+			try {
+				closeChannel();
+			}
+			catch (IOException ex) {
+				// ignore
+			}
+			Path file = this.file;
+			if (file != null) {
+				blockingOperationScheduler.schedule(() -> {
+					try {
+						Files.deleteIfExists(file);
+					}
+					catch (IOException ex) {
+						// ignore
+					}
+				});
+			}
+		}
+	}
+
+
+	/**
+	 * Passes on the content of a part to the subscriber of its content,
+	 * requesting tokens only as the subscriber requests buffers.
+	 */
+	private final class StreamingState implements State {
+
+		private final AtomicReference<FluxSink<DataBuffer>> content = new AtomicReference<>();
+
+		private final AtomicBoolean requestOutstanding = new AtomicBoolean();
+
+		@Nullable
+		private volatile Throwable error;
+
+		void attach(FluxSink<DataBuffer> contentSink) {
+			if (!this.content.compareAndSet(null, contentSink)) {
+				contentSink.error(new IllegalStateException("Content of a streamed part can only be consumed once"));
+				return;
+			}
+			Throwable error = this.error;
+			if (error != null) {
+				contentSink.error(error);
+				return;
+			}
+			contentSink.onCancel(this::onContentCancel);
+			contentSink.onRequest(n -> requestToken());
+		}
+
+		private void requestToken() {
+			FluxSink<DataBuffer> contentSink = this.content.get();
+			if (contentSink != null && state == this && contentSink.requestedFromDownstream() > 0 &&
+					this.requestOutstanding.compareAndSet(false, true)) {
+				request(1);
+			}
+		}
+
+		private void onContentCancel() {
+			// Discard the rest of the part, so that the next one can be parsed
+			state = DisposedState.INSTANCE;
+			requestUnbounded();
+		}
+
+		@Override
+		public void onToken(MultipartParser.Token token) {
+			this.requestOutstanding.set(false);
+			FluxSink<DataBuffer> contentSink = this.content.get();
+			DataBuffer buffer = token.buffer();
+			if (contentSink == null || buffer.readableByteCount() == 0) {
+				DataBufferUtils.release(buffer);
+			}
+			else {
+				contentSink.next(buffer);
+			}
+			if (token.isLast()) {
+				state = DisposedState.INSTANCE;
+				if (contentSink != null) {
+					contentSink.complete();
+				}
+			}
+			else {
+				requestToken();
+			}
+		}
+
+		@Override
+		public void onComplete() {
+			onError(new DecodingException("Could not find end of part"));
+		}
+
+		@Override
+		public void onError(Throwable error) {
+			state = DisposedState.INSTANCE;
+			this.error = error;
+			FluxSink<DataBuffer> contentSink = this.content.get();
+			if (contentSink != null) {
+				contentSink.error(error);
+			}
+		}
+	}
+
+
+	/**
+	 * The state after a part has been produced, or after an error or
+	 * cancellation: releases any further buffers.
+	 */
+	private static final class DisposedState implements State {
+
+		static final DisposedState INSTANCE = new DisposedState();
+
+		@Override
+		public void onToken(MultipartParser.Token token) {
+			MultipartParser.Token.release(token);
+		}
+
+		@Override
+		public void onComplete() {
+		}
+
+		@Override
+		public void onError(Throwable error) {
+		}
+	}
+
+}
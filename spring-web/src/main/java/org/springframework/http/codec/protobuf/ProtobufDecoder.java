@@ -196,10 +196,7 @@ public class ProtobufDecoder extends ProtobufCodecSupport implements Decoder<Mes
 		public Iterable<? extends Message> apply(DataBuffer input) {
 			try {
 				List<Message> messages = new ArrayList<>();
-				int remainingBytesToRead;
-				int chunkBytesToRead;
-
-				do {
+				while (true) {
 					if (this.output == null) {
 						if (!readMessageSize(input)) {
 							return messages;
@@ -210,29 +207,36 @@ public class ProtobufDecoder extends ProtobufCodecSupport implements Decoder<Mes
 											"(" + this.messageBytesToRead + ") exceeds " +
 											"the configured limit (" + this.maxMessageSize + ")");
 						}
+						if (this.messageBytesToRead <= input.readableByteCount()) {
+							// The entire message is in this chunk: parse it in place
+							int readPosition = input.readPosition();
+							messages.add(parseMessage(input.asByteBuffer(readPosition, this.messageBytesToRead)));
+							input.readPosition(readPosition + this.messageBytesToRead);
+							this.messageBytesToRead = 0;
+							continue;
+						}
 						this.output = input.factory().allocateBuffer(this.messageBytesToRead);
 					}
 
-					chunkBytesToRead = this.messageBytesToRead >= input.readableByteCount() ?
-							input.readableByteCount() : this.messageBytesToRead;
-					remainingBytesToRead = input.readableByteCount() - chunkBytesToRead;
-
-					byte[] bytesToWrite = new byte[chunkBytesToRead];
-					input.read(bytesToWrite, 0, chunkBytesToRead);
-					this.output.write(bytesToWrite);
+					// The message spans chunks: aggregate it without intermediate copies
+					int chunkBytesToRead = Math.min(this.messageBytesToRead, input.readableByteCount());
+					int readPosition = input.readPosition();
+					this.output.write(input.asByteBuffer(readPosition, chunkBytesToRead));
+					input.readPosition(readPosition + chunkBytesToRead);
 					this.messageBytesToRead -= chunkBytesToRead;
+					if (this.messageBytesToRead > 0) {
+						return messages;
+					}
 
-					if (this.messageBytesToRead == 0) {
-						CodedInputStream stream = CodedInputStream.newInstance(this.output.asByteBuffer());
-						DataBufferUtils.release(this.output);
-						this.output = null;
-						Message message = getMessageBuilder(this.elementType.toClass())
-								.mergeFrom(stream, extensionRegistry)
-								.build();
-						messages.add(message);
+					DataBuffer output = this.output;
+					this.output = null;
+					try {
+						messages.add(parseMessage(output.asByteBuffer()));
+					}
+					finally {
+						DataBufferUtils.release(output);
 					}
-				} while (remainingBytesToRead > 0);
-				return messages;
+				}
 			}
 			catch (DecodingException ex) {
 				throw ex;
@@ -248,6 +252,16 @@ public class ProtobufDecoder extends ProtobufCodecSupport implements Decoder<Mes
 			}
 		}
 
+		/**
+		 * Parse a message from the given bytes. Since the resulting message does
+		 * not alias its input, the underlying buffer may be released afterwards.
+		 */
+		private Message parseMessage(ByteBuffer byteBuffer) throws Exception {
+			return getMessageBuilder(this.elementType.toClass())
+					.mergeFrom(CodedInputStream.newInstance(byteBuffer), extensionRegistry)
+					.build();
+		}
+
 		/**
 		 * Parse message size as a varint from the input stream, updating {@code messageBytesToRead} and
 		 * {@code offset} fields if needed to allow processing of upcoming chunks.
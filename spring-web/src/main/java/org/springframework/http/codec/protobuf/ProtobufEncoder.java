@@ -17,11 +17,13 @@
 package org.springframework.http.codec.protobuf;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+import com.google.protobuf.CodedOutputStream;
 import com.google.protobuf.Message;
 import org.reactivestreams.Publisher;
 import reactor.core.publisher.Flux;
@@ -33,7 +35,9 @@ import org.springframework.core.io.buffer.DataBufferFactory;
 import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.http.MediaType;
 import org.springframework.http.codec.HttpMessageEncoder;
+import org.springframework.http.codec.StreamingBatchUtils;
 import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
 import org.springframework.util.MimeType;
 
 /**
@@ -45,6 +49,10 @@ import org.springframework.util.MimeType;
  * with the size of each message specified before the message itself. Single values are
  * serialized using regular Protobuf message format (without the size prepended before the message).
  *
+ * <p>Messages are written straight into data buffers of their exact serialized size.
+ * For high-volume streams, many delimited messages can be written into the same
+ * buffer by configuring a {@link #setStreamingBatchSize streaming batch size}.
+ *
  * <p>To generate {@code Message} Java classes, you need to install the {@code protoc} binary.
  *
  * <p>This encoder requires Protobuf 3 or higher, and supports
@@ -64,6 +72,56 @@ public class ProtobufEncoder extends ProtobufCodecSupport implements HttpMessage
 			.collect(Collectors.toList());
 
 
+	private int streamingBatchSize = -1;
+
+	private Duration streamingBatchTimeout = Duration.ofMillis(100);
+
+
+	/**
+	 * Configure a size threshold, in bytes, for writing multiple delimited
+	 * messages of a {@link Flux} into the same {@link DataBuffer}, which is
+	 * emitted, and hence flushed, once it is full or once the
+	 * {@link #setStreamingBatchTimeout batch timeout} elapses.
+	 * <p>By default this is set to -1, meaning that each message is written
+	 * to a separate buffer.
+	 * @param byteCount the batch size in bytes, or -1 to disable batching
+	 * @since 5.2.1
+	 */
+	public void setStreamingBatchSize(int byteCount) {
+		this.streamingBatchSize = byteCount;
+	}
+
+	/**
+	 * Return the {@link #setStreamingBatchSize configured} batch size.
+	 * @since 5.2.1
+	 */
+	public int getStreamingBatchSize() {
+		return this.streamingBatchSize;
+	}
+
+	/**
+	 * Configure the maximum amount of time that messages are held back in a
+	 * partially filled batch before the batch is emitted.
+	 * <p>By default this is set to 100 milliseconds.
+	 * @param timeout the batch timeout
+	 * @since 5.2.1
+	 * @see #setStreamingBatchSize(int)
+	 */
+	public void setStreamingBatchTimeout(Duration timeout) {
+		Assert.isTrue(timeout != null && !timeout.isNegative() && !timeout.isZero(),
+				"'timeout' must be a positive duration");
+		this.streamingBatchTimeout = timeout;
+	}
+
+	/**
+	 * Return the {@link #setStreamingBatchTimeout configured} batch timeout.
+	 * @since 5.2.1
+	 */
+	public Duration getStreamingBatchTimeout() {
+		return this.streamingBatchTimeout;
+	}
+
+
 	@Override
 	public boolean canEncode(ResolvableType elementType, @Nullable MimeType mimeType) {
 		return Message.class.isAssignableFrom(elementType.toClass()) && supportsMimeType(mimeType);
@@ -73,8 +131,15 @@ public class ProtobufEncoder extends ProtobufCodecSupport implements HttpMessage
 	public Flux<DataBuffer> encode(Publisher<? extends Message> inputStream, DataBufferFactory bufferFactory,
 			ResolvableType elementType, @Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
 
-		return Flux.from(inputStream).map(message ->
-				encodeValue(message, bufferFactory, !(inputStream instanceof Mono)));
+		if (inputStream instanceof Mono) {
+			return Mono.from(inputStream).map(message -> encodeValue(message, bufferFactory, false)).flux();
+		}
+		if (this.streamingBatchSize > 0) {
+			int batchSize = this.streamingBatchSize;
+			return StreamingBatchUtils.encode(inputStream, this.streamingBatchTimeout,
+					() -> new MessageBatch(bufferFactory, batchSize));
+		}
+		return Flux.from(inputStream).map(message -> encodeValue(message, bufferFactory, true));
 	}
 
 	@Override
@@ -85,16 +150,11 @@ public class ProtobufEncoder extends ProtobufCodecSupport implements HttpMessage
 	}
 
 	private DataBuffer encodeValue(Message message, DataBufferFactory bufferFactory, boolean delimited) {
-
-		DataBuffer buffer = bufferFactory.allocateBuffer();
+		int size = message.getSerializedSize();
+		DataBuffer buffer = bufferFactory.allocateBuffer(getEncodedLength(size, delimited));
 		boolean release = true;
 		try {
-			if (delimited) {
-				message.writeDelimitedTo(buffer.asOutputStream());
-			}
-			else {
-				message.writeTo(buffer.asOutputStream());
-			}
+			writeMessage(message, size, delimited, buffer);
 			release = false;
 			return buffer;
 		}
@@ -108,6 +168,30 @@ public class ProtobufEncoder extends ProtobufCodecSupport implements HttpMessage
 		}
 	}
 
+	private static int getEncodedLength(int size, boolean delimited) {
+		return (delimited ? CodedOutputStream.computeUInt32SizeNoTag(size) + size : size);
+	}
+
+	/**
+	 * Serialize the given message straight into the writable bytes of the given
+	 * buffer, rather than through its {@code OutputStream}, which would make
+	 * Protobuf allocate an intermediate buffer for each message.
+	 */
+	private static void writeMessage(Message message, int size, boolean delimited, DataBuffer buffer)
+			throws IOException {
+
+		int length = getEncodedLength(size, delimited);
+		buffer.ensureCapacity(length);
+		int writePosition = buffer.writePosition();
+		CodedOutputStream output = CodedOutputStream.newInstance(buffer.asByteBuffer(writePosition, length));
+		if (delimited) {
+			output.writeUInt32NoTag(size);
+		}
+		message.writeTo(output);
+		output.flush();
+		buffer.writePosition(writePosition + length);
+	}
+
 	@Override
 	public List<MediaType> getStreamingMediaTypes() {
 		return streamingMediaTypes;
@@ -118,4 +202,56 @@ public class ProtobufEncoder extends ProtobufCodecSupport implements HttpMessage
 		return getMimeTypes();
 	}
 
+
+	/**
+	 * Accumulates delimited messages in a single buffer of the batch size,
+	 * which is handed out as soon as the next message would not fit.
+	 */
+	private static class MessageBatch implements StreamingBatchUtils.Batch<Message> {
+
+		private final DataBufferFactory bufferFactory;
+
+		private final int batchSize;
+
+		@Nullable
+		private DataBuffer buffer;
+
+		MessageBatch(DataBufferFactory bufferFactory, int batchSize) {
+			this.bufferFactory = bufferFactory;
+			this.batchSize = batchSize;
+		}
+
+		@Override
+		@Nullable
+		public DataBuffer add(Message message) throws IOException {
+			int size = message.getSerializedSize();
+			int length = getEncodedLength(size, true);
+			DataBuffer full = null;
+			if (this.buffer != null && this.buffer.writableByteCount() < length) {
+				full = take();
+			}
+			if (this.buffer == null) {
+				this.buffer = this.bufferFactory.allocateBuffer(Math.max(this.batchSize, length));
+			}
+			writeMessage(message, size, true, this.buffer);
+			if (full == null && this.buffer.readableByteCount() >= this.batchSize) {
+				full = take();
+			}
+			return full;
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return (this.buffer == null);
+		}
+
+		@Override
+		@Nullable
+		public DataBuffer take() {
+			DataBuffer buffer = this.buffer;
+			this.buffer = null;
+			return buffer;
+		}
+	}
+
 }
@@ -23,6 +23,7 @@ import org.springframework.http.codec.HttpMessageWriter;
 import org.springframework.http.codec.ServerCodecConfigurer;
 import org.springframework.http.codec.ServerSentEventHttpMessageWriter;
 import org.springframework.http.codec.multipart.MultipartHttpMessageReader;
+import org.springframework.http.codec.multipart.Part;
 import org.springframework.http.codec.multipart.SynchronossPartHttpMessageReader;
 import org.springframework.lang.Nullable;
 import org.springframework.util.ClassUtils;
@@ -39,6 +40,9 @@ class ServerDefaultCodecsImpl extends BaseDefaultCodecs implements ServerCodecCo
 					DefaultServerCodecConfigurer.class.getClassLoader());
 
 
+	@Nullable
+	private HttpMessageReader<Part> multipartReader;
+
 	@Nullable
 	private Encoder<?> sseEncoder;
 
@@ -48,20 +52,30 @@ class ServerDefaultCodecsImpl extends BaseDefaultCodecs implements ServerCodecCo
 		this.sseEncoder = encoder;
 	}
 
+	@Override
+	public void multipartReader(HttpMessageReader<Part> partReader) {
+		this.multipartReader = partReader;
+	}
+
 
 	@Override
 	protected void extendTypedReaders(List<HttpMessageReader<?>> typedReaders) {
-		if (synchronossMultipartPresent) {
-			boolean enable = isEnableLoggingRequestDetails();
-
-			SynchronossPartHttpMessageReader partReader = new SynchronossPartHttpMessageReader();
-			partReader.setEnableLoggingRequestDetails(enable);
-			typedReaders.add(partReader);
+		boolean enable = isEnableLoggingRequestDetails();
 
-			MultipartHttpMessageReader reader = new MultipartHttpMessageReader(partReader);
-			reader.setEnableLoggingRequestDetails(enable);
-			typedReaders.add(reader);
+		HttpMessageReader<Part> partReader = this.multipartReader;
+		if (partReader == null) {
+			if (!synchronossMultipartPresent) {
+				return;
+			}
+			SynchronossPartHttpMessageReader synchronossReader = new SynchronossPartHttpMessageReader();
+			synchronossReader.setEnableLoggingRequestDetails(enable);
+			partReader = synchronossReader;
 		}
+		typedReaders.add(partReader);
+
+		MultipartHttpMessageReader reader = new MultipartHttpMessageReader(partReader);
+		reader.setEnableLoggingRequestDetails(enable);
+		typedReaders.add(reader);
 	}
 
 	@Override
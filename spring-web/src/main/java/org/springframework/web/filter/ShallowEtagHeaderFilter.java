@@ -44,6 +44,11 @@ import org.springframework.web.util.WebUtils;
  * (e.g. a {@link org.springframework.web.servlet.View}) is still rendered.
  * As such, this filter only saves bandwidth, not server performance.
  *
+ * <p>The response content is held in memory until the ETag is generated.
+ * Set a {@link #setContentCacheLimit content cache limit} to bound the memory
+ * used for large responses, which are then written through to the client
+ * without an ETag.
+ *
  * <p><b>NOTE:</b> As of Spring Framework 5.0, this filter uses request/response
  * decorators built on the Servlet 3.1 API.
  *
@@ -62,6 +67,8 @@ public class ShallowEtagHeaderFilter extends OncePerRequestFilter {
 
 	private boolean writeWeakETag = false;
 
+	private int contentCacheLimit = -1;
+
 
 	/**
 	 * Set whether the ETag value written to the response should be weak, as per RFC 7232.
@@ -82,6 +89,28 @@ public class ShallowEtagHeaderFilter extends OncePerRequestFilter {
 		return this.writeWeakETag;
 	}
 
+	/**
+	 * Set the maximum number of bytes of response content to hold in memory
+	 * for ETag generation. Once a response exceeds that limit, its content is
+	 * written through to the client as it is written, without an ETag.
+	 * <p>By default this is set to -1, in which case the content of responses
+	 * is held in memory regardless of their size.
+	 * <p>Should be configured using an {@code <init-param>} for parameter name
+	 * "contentCacheLimit" in the filter definition in {@code web.xml}.
+	 * @since 5.2.1
+	 */
+	public void setContentCacheLimit(int contentCacheLimit) {
+		this.contentCacheLimit = contentCacheLimit;
+	}
+
+	/**
+	 * Return the configured {@link #setContentCacheLimit content cache limit}.
+	 * @since 5.2.1
+	 */
+	public int getContentCacheLimit() {
+		return this.contentCacheLimit;
+	}
+
 
 	/**
 	 * The default value is {@code false} so that the filter may delay the generation
@@ -98,7 +127,9 @@ public class ShallowEtagHeaderFilter extends OncePerRequestFilter {
 
 		HttpServletResponse responseToUse = response;
 		if (!isAsyncDispatch(request) && !(response instanceof ContentCachingResponseWrapper)) {
-			responseToUse = new HttpStreamingAwareContentCachingResponseWrapper(response, request);
+			responseToUse = (this.contentCacheLimit >= 0 ?
+					new HttpStreamingAwareContentCachingResponseWrapper(response, request, this.contentCacheLimit) :
+					new HttpStreamingAwareContentCachingResponseWrapper(response, request));
 		}
 
 		filterChain.doFilter(request, responseToUse);
@@ -115,7 +146,7 @@ public class ShallowEtagHeaderFilter extends OncePerRequestFilter {
 		HttpServletResponse rawResponse = (HttpServletResponse) responseWrapper.getResponse();
 		int statusCode = responseWrapper.getStatus();
 
-		if (rawResponse.isCommitted()) {
+		if (rawResponse.isCommitted() || responseWrapper.isContentOverflow()) {
 			responseWrapper.copyBodyToResponse();
 		}
 		else if (isEligibleForEtag(request, responseWrapper, statusCode, responseWrapper.getContentInputStream())) {
@@ -216,6 +247,13 @@ public class ShallowEtagHeaderFilter extends OncePerRequestFilter {
 			this.request = request;
 		}
 
+		public HttpStreamingAwareContentCachingResponseWrapper(HttpServletResponse response, HttpServletRequest request,
+				int contentCacheLimit) {
+
+			super(response, contentCacheLimit);
+			this.request = request;
+		}
+
 		@Override
 		public ServletOutputStream getOutputStream() throws IOException {
 			return (useRawResponse() ? getResponse().getOutputStream() : super.getOutputStream());
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.filter.reactive;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+
+/**
+ * Strategy for compressing response bodies with a given HTTP content coding,
+ * for use with {@link CompressionWebFilter}.
+ *
+ * <p>{@link DeflaterCompressionCodec} provides the {@code gzip} and
+ * {@code deflate} codings based on {@link java.util.zip.Deflater}; other
+ * codings such as {@code br} (Brotli) can be plugged in by implementing this
+ * interface on top of a third-party library.
+ *
+ * @author Spring Framework Team
+ * @since 5.2.1
+ */
+public interface CompressionCodec {
+
+	/**
+	 * Return the content coding produced by this codec, e.g. {@code "gzip"},
+	 * as used in the {@code Accept-Encoding} and {@code Content-Encoding}
+	 * headers.
+	 */
+	String getContentCoding();
+
+	/**
+	 * Create a new {@code Compressor} for a single response body.
+	 */
+	Compressor createCompressor();
+
+
+	/**
+	 * Stateful compressor for a single response body. Methods are invoked
+	 * sequentially, but not necessarily from the same thread, and
+	 * {@link #close()} may be invoked at any time, e.g. on cancellation.
+	 */
+	interface Compressor {
+
+		/**
+		 * Compress the given input. The input buffer is not released.
+		 * @param input the uncompressed data
+		 * @param flush whether all data compressed so far must be made
+		 * available to the client, e.g. at the end of a Server-Sent Event
+		 * @param bufferFactory the factory to allocate the output with
+		 * @return the compressed data, possibly empty
+		 */
+		DataBuffer compress(DataBuffer input, boolean flush, DataBufferFactory bufferFactory);
+
+		/**
+		 * Complete the compressed stream after the last input.
+		 * @param bufferFactory the factory to allocate the output with
+		 * @return the remaining compressed data
+		 */
+		DataBuffer finish(DataBufferFactory bufferFactory);
+
+		/**
+		 * Release the resources held by this compressor. Further invocations
+		 * of {@link #compress} or {@link #finish} are not allowed.
+		 */
+		void close();
+	}
+
+}
@@ -0,0 +1,340 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.filter.reactive;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.PooledDataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.reactive.CompressionCodec.Compressor;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+/**
+ * Reactive {@link WebFilter} that compresses response bodies with the content
+ * coding preferred by the client, as per the q-values of its
+ * {@code Accept-Encoding} header, among the configured
+ * {@link #setCodecs codecs}.
+ *
+ * <p>Response bodies are compressed as they are written, so that streaming
+ * responses are compressed too. For {@code writeAndFlushWith} responses, e.g.
+ * Server-Sent Events, the compressed stream is flushed at the end of each
+ * group of data buffers, so that clients still receive events as they occur.
+ *
+ * <p>A response is left uncompressed if it already has a
+ * {@code Content-Encoding}, if it is a partial response with a
+ * {@code Content-Range}, if its content type is not one of the
+ * {@link #setMediaTypes compressible media types}, e.g. for images or
+ * archives that are compressed already, or if its {@code Content-Length} is
+ * below the {@link #setMinResponseSize minimum response size}. A strong
+ * {@code ETag} of a compressed response is turned into a weak one, since the
+ * compressed representation is not byte-for-byte identical.
+ *
+ * <p>This filter provides consistent compression across all supported servers;
+ * consider server-native compression instead, where available, if that meets
+ * the needs of the application.
+ *
+ * @author Spring Framework Team
+ * @since 5.2.1
+ */
+public class CompressionWebFilter implements WebFilter {
+
+	private static final byte[] EMPTY_BYTES = new byte[0];
+
+	private static final List<MediaType> DEFAULT_MEDIA_TYPES = Arrays.asList(
+			MediaType.parseMediaType("text/*"),
+			MediaType.APPLICATION_JSON,
+			MediaType.parseMediaType("application/*+json"),
+			MediaType.APPLICATION_NDJSON,
+			MediaType.APPLICATION_STREAM_JSON,
+			MediaType.APPLICATION_XML,
+			MediaType.parseMediaType("application/*+xml"),
+			MediaType.parseMediaType("application/javascript"),
+			MediaType.parseMediaType("image/svg+xml"));
+
+
+	private List<CompressionCodec> codecs =
+			Arrays.asList(DeflaterCompressionCodec.gzip(), DeflaterCompressionCodec.deflate());
+
+	private List<MediaType> mediaTypes = DEFAULT_MEDIA_TYPES;
+
+	private long minResponseSize = 1024;
+
+
+	/**
+	 * Set the codecs to compress with, in order of preference for content
+	 * codings with the same q-value in the {@code Accept-Encoding} header.
+	 * <p>By default, {@link DeflaterCompressionCodec#gzip() gzip} and
+	 * {@link DeflaterCompressionCodec#deflate() deflate} are used.
+	 * @param codecs the codecs to use
+	 */
+	public void setCodecs(List<CompressionCodec> codecs) {
+		Assert.notEmpty(codecs, "'codecs' must not be empty");
+		this.codecs = new ArrayList<>(codecs);
+	}
+
+	/**
+	 * Return the configured {@link #setCodecs codecs}.
+	 */
+	public List<CompressionCodec> getCodecs() {
+		return this.codecs;
+	}
+
+	/**
+	 * Set the media types to compress, which may include wildcards such as
+	 * {@code text/*} or {@code application/*+json}. Responses without a
+	 * {@code Content-Type} are not compressed.
+	 * <p>By default, text, JSON, XML, and JavaScript media types are
+	 * compressed.
+	 * @param mediaTypes the compressible media types
+	 */
+	public void setMediaTypes(List<MediaType> mediaTypes) {
+		Assert.notNull(mediaTypes, "'mediaTypes' must not be null");
+		this.mediaTypes = new ArrayList<>(mediaTypes);
+	}
+
+	/**
+	 * Return the configured {@link #setMediaTypes compressible media types}.
+	 */
+	public List<MediaType> getMediaTypes() {
+		return this.mediaTypes;
+	}
+
+	/**
+	 * Set the minimum {@code Content-Length} of responses to compress; for
+	 * small responses, the compression overhead outweighs the savings.
+	 * Responses of unknown length, e.g. streaming responses, are compressed.
+	 * <p>By default this is set to 1024 bytes.
+	 * @param minResponseSize the minimum response size in bytes
+	 */
+	public void setMinResponseSize(long minResponseSize) {
+		this.minResponseSize = minResponseSize;
+	}
+
+	/**
+	 * Return the configured {@link #setMinResponseSize minimum response size}.
+	 */
+	public long getMinResponseSize() {
+		return this.minResponseSize;
+	}
+
+
+	@Override
+	public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+		ServerHttpRequest request = exchange.getRequest();
+		CompressionCodec codec = (request.getMethod() != HttpMethod.HEAD ? selectCodec(request) : null);
+		if (codec == null) {
+			return chain.filter(exchange);
+		}
+		ServerHttpResponse response = new CompressingResponse(exchange.getResponse(), codec);
+		return chain.filter(exchange.mutate().response(response).build());
+	}
+
+	/**
+	 * Select the codec with the highest q-value in the {@code Accept-Encoding}
+	 * header of the given request, if any.
+	 */
+	@Nullable
+	CompressionCodec selectCodec(ServerHttpRequest request) {
+		List<String> headerValues = request.getHeaders().get(HttpHeaders.ACCEPT_ENCODING);
+		if (headerValues == null) {
+			return null;
+		}
+		Map<String, Double> qualities = new HashMap<>(4);
+		for (String headerValue : headerValues) {
+			for (String token : StringUtils.tokenizeToStringArray(headerValue, ",")) {
+				String[] parts = StringUtils.tokenizeToStringArray(token, ";");
+				if (parts.length > 0) {
+					qualities.put(parts[0].toLowerCase(Locale.ENGLISH), parseQuality(parts));
+				}
+			}
+		}
+		Double wildcard = qualities.get("*");
+		CompressionCodec selected = null;
+		double selectedQuality = 0;
+		for (CompressionCodec codec : this.codecs) {
+			Double quality = qualities.get(codec.getContentCoding());
+			if (quality == null) {
+				quality = (wildcard != null ? wildcard : 0);
+			}
+			if (quality > selectedQuality) {
+				selected = codec;
+				selectedQuality = quality;
+			}
+		}
+		return selected;
+	}
+
+	private static double parseQuality(String[] parts) {
+		for (int i = 1; i < parts.length; i++) {
+			String part = parts[i];
+			if (part.startsWith("q=") || part.startsWith("Q=")) {
+				try {
+					return Double.parseDouble(part.substring(2));
+				}
+				catch (NumberFormatException ex) {
+					return 0;
+				}
+			}
+		}
+		return 1;
+	}
+
+
+	/**
+	 * Response decorator that compresses the body if applicable.
+	 */
+	private class CompressingResponse extends ServerHttpResponseDecorator {
+
+		private final CompressionCodec codec;
+
+		public CompressingResponse(ServerHttpResponse delegate, CompressionCodec codec) {
+			super(delegate);
+			this.codec = codec;
+		}
+
+		@Override
+		public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+			if (!startCompression()) {
+				return super.writeWith(body);
+			}
+			return Mono.defer(() -> {
+				Compressor compressor = this.codec.createCompressor();
+				DataBufferFactory bufferFactory = bufferFactory();
+				Flux<DataBuffer> compressed = Flux.from(body)
+						.map(buffer -> compress(compressor, buffer, false, bufferFactory))
+						.concatWith(Mono.fromCallable(() -> compressor.finish(bufferFactory)))
+						.filter(this::hasContent)
+						.doOnDiscard(PooledDataBuffer.class, DataBufferUtils::release)
+						.doFinally(signalType -> compressor.close());
+				return super.writeWith(compressed);
+			});
+		}
+
+		@Override
+		public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+			if (!startCompression()) {
+				return super.writeAndFlushWith(body);
+			}
+			return Mono.defer(() -> {
+				Compressor compressor = this.codec.createCompressor();
+				DataBufferFactory bufferFactory = bufferFactory();
+				// Groups are consumed after they are emitted: finish and close with the last group
+				Flux<DataBuffer> lastGroup = Flux.defer(() -> Flux.just(compressor.finish(bufferFactory)))
+						.doOnDiscard(PooledDataBuffer.class, DataBufferUtils::release)
+						.doFinally(signalType -> compressor.close());
+				Flux<Flux<DataBuffer>> compressed = Flux.from(body)
+						.map(group -> compressGroup(compressor, group, bufferFactory))
+						.concatWith(Mono.just(lastGroup))
+						.doOnCancel(compressor::close)
+						.doOnError(ex -> compressor.close());
+				return super.writeAndFlushWith(compressed);
+			});
+		}
+
+		private Flux<DataBuffer> compressGroup(Compressor compressor, Publisher<? extends DataBuffer> group,
+				DataBufferFactory bufferFactory) {
+
+			// Compress each buffer, and sync flush the compressed stream at the end of the group
+			return Flux.<DataBuffer>from(group)
+					.map(buffer -> compress(compressor, buffer, false, bufferFactory))
+					.concatWith(Mono.fromCallable(() ->
+							compress(compressor, bufferFactory.wrap(EMPTY_BYTES), true, bufferFactory)))
+					.filter(this::hasContent)
+					.doOnDiscard(PooledDataBuffer.class, DataBufferUtils::release);
+		}
+
+		private DataBuffer compress(Compressor compressor, DataBuffer buffer, boolean flush,
+				DataBufferFactory bufferFactory) {
+
+			try {
+				return compressor.compress(buffer, flush, bufferFactory);
+			}
+			finally {
+				DataBufferUtils.release(buffer);
+			}
+		}
+
+		private boolean hasContent(DataBuffer buffer) {
+			if (buffer.readableByteCount() > 0) {
+				return true;
+			}
+			DataBufferUtils.release(buffer);
+			return false;
+		}
+
+		/**
+		 * Check whether the response is to be compressed and, if so, update
+		 * the response headers accordingly.
+		 */
+		private boolean startCompression() {
+			HttpHeaders headers = getHeaders();
+			HttpStatus status = getStatusCode();
+			if ((status != null && (status == HttpStatus.NO_CONTENT || status == HttpStatus.NOT_MODIFIED ||
+					status == HttpStatus.PARTIAL_CONTENT)) || headers.containsKey(HttpHeaders.CONTENT_RANGE) ||
+					headers.containsKey(HttpHeaders.CONTENT_ENCODING) || !isCompressible(headers.getContentType())) {
+				return false;
+			}
+			long contentLength = headers.getContentLength();
+			if (contentLength != -1 && contentLength < minResponseSize) {
+				return false;
+			}
+			headers.remove(HttpHeaders.CONTENT_LENGTH);
+			headers.set(HttpHeaders.CONTENT_ENCODING, this.codec.getContentCoding());
+			headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+			String eTag = headers.getETag();
+			if (eTag != null && !eTag.startsWith("W/")) {
+				headers.setETag("W/" + eTag);
+			}
+			return true;
+		}
+
+		private boolean isCompressible(@Nullable MediaType contentType) {
+			if (contentType != null) {
+				for (MediaType mediaType : mediaTypes) {
+					if (mediaType.includes(contentType)) {
+						return true;
+					}
+				}
+			}
+			return false;
+		}
+	}
+
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.filter.reactive;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * {@link CompressionCodec} for the {@code gzip} and {@code deflate} content
+ * codings, based on {@link Deflater}.
+ *
+ * <p>A {@code Deflater} holds a sizable amount of native memory, and creating
+ * one per response is expensive. Instances are therefore taken from a
+ * bounded pool, and {@linkplain Deflater#reset() reset} and returned to it
+ * once a response body is complete.
+ *
+ * @author Spring Framework Team
+ * @since 5.2.1
+ */
+public final class DeflaterCompressionCodec implements CompressionCodec {
+
+	private static final int BUFFER_SIZE = 8192;
+
+	private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0};
+
+
+	private final boolean gzip;
+
+	private final int level;
+
+	private final Queue<Deflater> pool;
+
+
+	private DeflaterCompressionCodec(boolean gzip, int level, int maxPoolSize) {
+		Assert.isTrue((level >= 0 && level <= 9) || level == Deflater.DEFAULT_COMPRESSION,
+				"Invalid compression level: " + level);
+		Assert.isTrue(maxPoolSize > 0, "Max pool size must be greater than 0");
+		this.gzip = gzip;
+		this.level = level;
+		this.pool = new ArrayBlockingQueue<>(maxPoolSize);
+	}
+
+
+	/**
+	 * Return a codec for the {@code gzip} content coding with the default
+	 * compression level, and a pool of up to 64 deflaters.
+	 */
+	public static DeflaterCompressionCodec gzip() {
+		return gzip(Deflater.DEFAULT_COMPRESSION, 64);
+	}
+
+	/**
+	 * Return a codec for the {@code gzip} content coding.
+	 * @param level the compression level (0-9), or
+	 * {@link Deflater#DEFAULT_COMPRESSION}
+	 * @param maxPoolSize the maximum number of idle deflaters to keep
+	 */
+	public static DeflaterCompressionCodec gzip(int level, int maxPoolSize) {
+		return new DeflaterCompressionCodec(true, level, maxPoolSize);
+	}
+
+	/**
+	 * Return a codec for the {@code deflate} content coding, i.e. the zlib
+	 * format, with the default compression level, and a pool of up to 64
+	 * deflaters.
+	 */
+	public static DeflaterCompressionCodec deflate() {
+		return deflate(Deflater.DEFAULT_COMPRESSION, 64);
+	}
+
+	/**
+	 * Return a codec for the {@code deflate} content coding, i.e. the zlib
+	 * format.
+	 * @param level the compression level (0-9), or
+	 * {@link Deflater#DEFAULT_COMPRESSION}
+	 * @param maxPoolSize the maximum number of idle deflaters to keep
+	 */
+	public static DeflaterCompressionCodec deflate(int level, int maxPoolSize) {
+		return new DeflaterCompressionCodec(false, level, maxPoolSize);
+	}
+
+
+	@Override
+	public String getContentCoding() {
+		return (this.gzip ? "gzip" : "deflate");
+	}
+
+	@Override
+	public Compressor createCompressor() {
+		Deflater deflater = this.pool.poll();
+		if (deflater == null) {
+			deflater = new Deflater(this.level, this.gzip);
+		}
+		return new DeflaterCompressor(deflater);
+	}
+
+	/**
+	 * Return the number of idle deflaters in the pool.
+	 */
+	int getPoolSize() {
+		return this.pool.size();
+	}
+
+	private void release(Deflater deflater) {
+		deflater.reset();
+		if (!this.pool.offer(deflater)) {
+			deflater.end();
+		}
+	}
+
+
+	/**
+	 * Compressor writing a raw deflate stream wrapped in the gzip format,
+	 * or a zlib stream as produced by the {@code Deflater} itself.
+	 */
+	private class DeflaterCompressor implements Compressor {
+
+		private final byte[] buffer = new byte[BUFFER_SIZE];
+
+		@Nullable
+		private Deflater deflater;
+
+		@Nullable
+		private final CRC32 crc;
+
+		private boolean headerWritten;
+
+		public DeflaterCompressor(Deflater deflater) {
+			this.deflater = deflater;
+			this.crc = (gzip ? new CRC32() : null);
+		}
+
+		@Override
+		public synchronized DataBuffer compress(DataBuffer input, boolean flush, DataBufferFactory bufferFactory) {
+			Deflater deflater = getDeflater();
+			ByteBuffer byteBuffer = input.asByteBuffer();
+			int length = byteBuffer.remaining();
+			byte[] array;
+			int offset;
+			if (byteBuffer.hasArray()) {
+				array = byteBuffer.array();
+				offset = byteBuffer.arrayOffset() + byteBuffer.position();
+			}
+			else {
+				array = new byte[length];
+				byteBuffer.get(array);
+				offset = 0;
+			}
+			if (this.crc != null) {
+				this.crc.update(array, offset, length);
+			}
+
+			DataBuffer output = bufferFactory.allocateBuffer(Math.max(length / 2, 64));
+			writeHeader(output);
+			deflater.setInput(array, offset, length);
+			while (!deflater.needsInput()) {
+				deflate(deflater, output, Deflater.NO_FLUSH);
+			}
+			if (flush) {
+				int count;
+				do {
+					count = deflate(deflater, output, Deflater.SYNC_FLUSH);
+				}
+				while (count == this.buffer.length);
+			}
+			return output;
+		}
+
+		@Override
+		public synchronized DataBuffer finish(DataBufferFactory bufferFactory) {
+			Deflater deflater = getDeflater();
+			DataBuffer output = bufferFactory.allocateBuffer(64);
+			writeHeader(output);
+			deflater.finish();
+			while (!deflater.finished()) {
+				deflate(deflater, output, Deflater.NO_FLUSH);
+			}
+			if (this.crc != null) {
+				writeInt(output, (int) this.crc.getValue());
+				writeInt(output, (int) deflater.getBytesRead());
+			}
+			return output;
+		}
+
+		@Override
+		public synchronized void close() {
+			if (this.deflater != null) {
+				release(this.deflater);
+				this.deflater = null;
+			}
+		}
+
+		private Deflater getDeflater() {
+			Assert.state(this.deflater != null, "Compressor closed");
+			return this.deflater;
+		}
+
+		private void writeHeader(DataBuffer output) {
+			if (this.crc != null && !this.headerWritten) {
+				output.write(GZIP_HEADER);
+				this.headerWritten = true;
+			}
+		}
+
+		private int deflate(Deflater deflater, DataBuffer output, int flushMode) {
+			int count = deflater.deflate(this.buffer, 0, this.buffer.length, flushMode);
+			if (count > 0) {
+				output.write(this.buffer, 0, count);
+			}
+			return count;
+		}
+
+		private void writeInt(DataBuffer output, int value) {
+			output.write((byte) value);
+			output.write((byte) (value >> 8));
+			output.write((byte) (value >> 16));
+			output.write((byte) (value >> 24));
+		}
+	}
+
+}
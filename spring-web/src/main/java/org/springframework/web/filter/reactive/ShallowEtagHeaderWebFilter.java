@@ -0,0 +1,265 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.filter.reactive;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.List;
+
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.PooledDataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+/**
+ * Reactive {@link WebFilter} that generates an {@code ETag} value based on the
+ * content of the response, the reactive equivalent of
+ * {@link org.springframework.web.filter.ShallowEtagHeaderFilter}. This ETag is
+ * compared to the {@code If-None-Match} header of the request. If they match,
+ * the response content is not sent, but rather a {@code 304 "Not Modified"}
+ * status instead.
+ *
+ * <p>The digest is computed as the response content is written, while the
+ * data buffers are held back until the response is complete, so that the
+ * {@code ETag} header can be set before the response is committed. Responses
+ * exceeding the {@link #setContentCacheLimit content cache limit} are
+ * written through to the client without an ETag. Streaming responses, written
+ * with {@code writeAndFlushWith}, are not considered.
+ *
+ * <p>Since the ETag is based on the response content, the response is still
+ * rendered. As such, this filter only saves bandwidth, not server performance.
+ *
+ * @author Spring Framework Team
+ * @since 5.2.1
+ */
+public class ShallowEtagHeaderWebFilter implements WebFilter {
+
+	private static final String DIRECTIVE_NO_STORE = "no-store";
+
+	private static final char[] HEX_CHARS =
+			{'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'};
+
+
+	private boolean writeWeakETag = false;
+
+	private int contentCacheLimit = 1024 * 1024;
+
+
+	/**
+	 * Set whether the ETag value written to the response should be weak, as per RFC 7232.
+	 * @see <a href="https://tools.ietf.org/html/rfc7232#section-2.3">RFC 7232 section 2.3</a>
+	 */
+	public void setWriteWeakETag(boolean writeWeakETag) {
+		this.writeWeakETag = writeWeakETag;
+	}
+
+	/**
+	 * Return whether the ETag value written to the response should be weak, as per RFC 7232.
+	 */
+	public boolean isWriteWeakETag() {
+		return this.writeWeakETag;
+	}
+
+	/**
+	 * Set the maximum number of bytes of response content to hold back for
+	 * ETag generation. Once a response exceeds that limit, its content is
+	 * written through to the client, without an ETag.
+	 * <p>By default this is set to 1MB; -1 means no limit.
+	 * @param contentCacheLimit the maximum number of bytes to hold per response
+	 */
+	public void setContentCacheLimit(int contentCacheLimit) {
+		this.contentCacheLimit = contentCacheLimit;
+	}
+
+	/**
+	 * Return the configured {@link #setContentCacheLimit content cache limit}.
+	 */
+	public int getContentCacheLimit() {
+		return this.contentCacheLimit;
+	}
+
+
+	@Override
+	public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+		if (exchange.getRequest().getMethod() != HttpMethod.GET) {
+			return chain.filter(exchange);
+		}
+		ServerHttpResponse response = new EtagResponse(exchange.getRequest(), exchange.getResponse());
+		return chain.filter(exchange.mutate().response(response).build());
+	}
+
+	/**
+	 * Indicates whether the given request and response are eligible for ETag generation.
+	 * <p>The default implementation returns {@code true} if all conditions match:
+	 * <ul>
+	 * <li>response status codes in the {@code 2xx} series</li>
+	 * <li>request method is a GET</li>
+	 * <li>response Cache-Control header does not contain a "no-store" directive</li>
+	 * <li>response does not have an ETag header already</li>
+	 * </ul>
+	 * @param request the current request
+	 * @param response the current response
+	 * @return {@code true} if eligible for ETag generation, {@code false} otherwise
+	 */
+	protected boolean isEligibleForEtag(ServerHttpRequest request, ServerHttpResponse response) {
+		HttpStatus status = response.getStatusCode();
+		if ((status == null || status.is2xxSuccessful()) && request.getMethod() == HttpMethod.GET) {
+			HttpHeaders headers = response.getHeaders();
+			String cacheControl = headers.getCacheControl();
+			return ((cacheControl == null || !cacheControl.contains(DIRECTIVE_NO_STORE)) &&
+					!headers.containsKey(HttpHeaders.ETAG));
+		}
+		return false;
+	}
+
+	private String generateETagHeaderValue(byte[] digest) {
+		// length of W/ + " + 0 + 32bits md5 hash + "
+		StringBuilder builder = new StringBuilder(37);
+		if (this.writeWeakETag) {
+			builder.append("W/");
+		}
+		builder.append("\"0");
+		for (byte b : digest) {
+			builder.append(HEX_CHARS[(b >> 4) & 0xf]).append(HEX_CHARS[b & 0xf]);
+		}
+		builder.append('"');
+		return builder.toString();
+	}
+
+	private static boolean isNotModified(ServerHttpRequest request, String responseETag) {
+		List<String> requestETags;
+		try {
+			requestETags = request.getHeaders().getIfNoneMatch();
+		}
+		catch (IllegalArgumentException ex) {
+			return false;
+		}
+		String eTag = (responseETag.startsWith("W/") ? responseETag.substring(2) : responseETag);
+		for (String requestETag : requestETags) {
+			if ("*".equals(requestETag) ||
+					eTag.equals(requestETag.startsWith("W/") ? requestETag.substring(2) : requestETag)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+
+	/**
+	 * Response decorator that digests and holds back the response content,
+	 * up to the content cache limit.
+	 */
+	private class EtagResponse extends ServerHttpResponseDecorator {
+
+		private final ServerHttpRequest request;
+
+		public EtagResponse(ServerHttpRequest request, ServerHttpResponse delegate) {
+			super(delegate);
+			this.request = request;
+		}
+
+		@Override
+		public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+			if (!isEligibleForEtag(this.request, this)) {
+				return super.writeWith(body);
+			}
+			return Mono.defer(() -> {
+				EtagContent content = new EtagContent();
+				Flux<DataBuffer> buffers = Flux.<DataBuffer>from(body)
+						.bufferUntil(content::add)
+						.concatMapIterable(content::complete)
+						.doOnDiscard(PooledDataBuffer.class, DataBufferUtils::release);
+				return super.writeWith(buffers);
+			});
+		}
+
+
+		/**
+		 * The digest and size of the response content written so far.
+		 */
+		private class EtagContent {
+
+			private final MessageDigest digest;
+
+			private long size;
+
+			private boolean overflow;
+
+			public EtagContent() {
+				try {
+					this.digest = MessageDigest.getInstance("MD5");
+				}
+				catch (NoSuchAlgorithmException ex) {
+					throw new IllegalStateException("Could not find MessageDigest with algorithm \"MD5\"", ex);
+				}
+			}
+
+			/**
+			 * Digest the given buffer, returning {@code true} if the buffers
+			 * held back so far are to be written, i.e. once the limit is exceeded.
+			 */
+			public boolean add(DataBuffer buffer) {
+				if (!this.overflow) {
+					this.size += buffer.readableByteCount();
+					if (contentCacheLimit >= 0 && this.size > contentCacheLimit) {
+						this.overflow = true;
+					}
+					else {
+						this.digest.update(buffer.asByteBuffer());
+					}
+				}
+				return this.overflow;
+			}
+
+			/**
+			 * Update the response with the ETag if the content is complete,
+			 * returning the buffers to write.
+			 */
+			public List<DataBuffer> complete(List<DataBuffer> buffers) {
+				if (this.overflow) {
+					return buffers;
+				}
+				String eTag = generateETagHeaderValue(this.digest.digest());
+				HttpHeaders headers = getHeaders();
+				headers.setETag(eTag);
+				if (isNotModified(request, eTag)) {
+					setStatusCode(HttpStatus.NOT_MODIFIED);
+					buffers.forEach(DataBufferUtils::release);
+					return Collections.emptyList();
+				}
+				if (headers.getContentLength() == -1) {
+					headers.setContentLength(this.size);
+				}
+				return buffers;
+			}
+		}
+	}
+
+}
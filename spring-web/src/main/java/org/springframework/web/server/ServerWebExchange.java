@@ -141,6 +141,24 @@ public interface ServerWebExchange {
 	 */
 	Mono<MultiValueMap<String, Part>> getMultipartData();
 
+	/**
+	 * Delete any temporary storage held by the parts returned from
+	 * {@link #getMultipartData()}, e.g. temporary files. Errors are ignored.
+	 * <p>This is invoked at the end of each exchange. Parts that are read
+	 * as a {@code Flux<Part>} instead have to be {@linkplain Part#delete()
+	 * deleted} by the application.
+	 * <p>The default implementation deletes all parts of the multipart data.
+	 * @since 5.2.1
+	 */
+	default Mono<Void> cleanupMultipart() {
+		return getMultipartData()
+				.onErrorResume(ex -> Mono.empty())
+				.flatMapIterable(Map::values)
+				.flatMapIterable(Function.identity())
+				.flatMap(part -> part.delete().onErrorResume(ex -> Mono.empty()))
+				.then();
+	}
+
 	/**
 	 * Return the {@link LocaleContext} using the configured
 	 * {@link org.springframework.web.server.i18n.LocaleContextResolver}.
@@ -107,6 +107,11 @@ public class ServerWebExchangeDecorator implements ServerWebExchange {
 		return getDelegate().getMultipartData();
 	}
 
+	@Override
+	public Mono<Void> cleanupMultipart() {
+		return getDelegate().cleanupMultipart();
+	}
+
 	@Override
 	public boolean isNotModified() {
 		return getDelegate().isNotModified();
@@ -96,6 +96,8 @@ public class DefaultServerWebExchange implements ServerWebExchange {
 
 	private volatile boolean notModified;
 
+	private volatile boolean multipartRead;
+
 	private Function<String, String> urlTransformer = url -> url;
 
 	@Nullable
@@ -156,7 +158,7 @@ public class DefaultServerWebExchange implements ServerWebExchange {
 	}
 
 	@SuppressWarnings("unchecked")
-	private static Mono<MultiValueMap<String, Part>> initMultipartData(ServerHttpRequest request,
+	private Mono<MultiValueMap<String, Part>> initMultipartData(ServerHttpRequest request,
 			ServerCodecConfigurer configurer, String logPrefix) {
 
 		try {
@@ -167,6 +169,7 @@ public class DefaultServerWebExchange implements ServerWebExchange {
 						.findFirst()
 						.orElseThrow(() -> new IllegalStateException("No multipart HttpMessageReader.")))
 						.readMono(MULTIPART_DATA_TYPE, request, Hints.from(Hints.LOG_PREFIX_HINT, logPrefix))
+						.doOnNext(parts -> this.multipartRead = true)
 						.switchIfEmpty(EMPTY_MULTIPART_DATA)
 						.cache();
 			}
@@ -221,6 +224,15 @@ public class DefaultServerWebExchange implements ServerWebExchange {
 		return this.multipartDataMono;
 	}
 
+	/**
+	 * This implementation only deletes parts if the multipart data has
+	 * actually been read through {@link #getMultipartData()}.
+	 */
+	@Override
+	public Mono<Void> cleanupMultipart() {
+		return (this.multipartRead ? ServerWebExchange.super.cleanupMultipart() : Mono.empty());
+	}
+
 	@Override
 	public LocaleContext getLocaleContext() {
 		return this.localeContextResolver.resolveLocaleContext(this);
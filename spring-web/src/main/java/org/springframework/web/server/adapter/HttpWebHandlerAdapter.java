@@ -235,7 +235,9 @@ public class HttpWebHandlerAdapter extends WebHandlerDecorator implements HttpHa
 		return getDelegate().handle(exchange)
 				.doOnSuccess(aVoid -> logResponse(exchange))
 				.onErrorResume(ex -> handleUnresolvedError(exchange, ex))
-				.then(Mono.defer(response::setComplete));
+				.then(Mono.defer(exchange::cleanupMultipart))
+				.then(Mono.defer(response::setComplete))
+				.doOnCancel(() -> exchange.cleanupMultipart().subscribe());
 	}
 
 	protected ServerWebExchange createExchange(ServerHttpRequest request, ServerHttpResponse response) {
@@ -18,6 +18,7 @@ package org.springframework.web.util;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.io.UnsupportedEncodingException;
@@ -38,6 +39,10 @@ import org.springframework.util.FastByteArrayOutputStream;
  * <p>Used e.g. by {@link org.springframework.web.filter.ShallowEtagHeaderFilter}.
  * Note: As of Spring Framework 5.0, this wrapper is built on the Servlet 3.1 API.
  *
+ * <p>As of 5.2.1, the cached content may be limited in size, with any content
+ * beyond that limit written through to the underlying response: see
+ * {@link #ContentCachingResponseWrapper(HttpServletResponse, int)}.
+ *
  * @author Juergen Hoeller
  * @since 4.1.3
  * @see ContentCachingRequestWrapper
@@ -46,6 +51,11 @@ public class ContentCachingResponseWrapper extends HttpServletResponseWrapper {
 
 	private final FastByteArrayOutputStream content = new FastByteArrayOutputStream(1024);
 
+	@Nullable
+	private final Integer contentCacheLimit;
+
+	private boolean overflow;
+
 	@Nullable
 	private ServletOutputStream outputStream;
 
@@ -62,6 +72,23 @@ public class ContentCachingResponseWrapper extends HttpServletResponseWrapper {
 	 */
 	public ContentCachingResponseWrapper(HttpServletResponse response) {
 		super(response);
+		this.contentCacheLimit = null;
+	}
+
+	/**
+	 * Create a new ContentCachingResponseWrapper for the given servlet response.
+	 * <p>Once the content written exceeds the given limit, the cached content
+	 * is copied to the response, and further content is written through to
+	 * the response as it is written, rather than cached.
+	 * @param response the original servlet response
+	 * @param contentCacheLimit the maximum number of bytes to cache per response
+	 * @since 5.2.1
+	 * @see #handleContentOverflow(int)
+	 * @see #isContentOverflow()
+	 */
+	public ContentCachingResponseWrapper(HttpServletResponse response, int contentCacheLimit) {
+		super(response);
+		this.contentCacheLimit = contentCacheLimit;
 	}
 
 
@@ -117,13 +144,18 @@ public class ContentCachingResponseWrapper extends HttpServletResponseWrapper {
 	@Override
 	public void flushBuffer() throws IOException {
 		// do not flush the underlying response as the content as not been copied to it yet
+		if (this.overflow) {
+			super.flushBuffer();
+		}
 	}
 
 	@Override
 	public void setContentLength(int len) {
-		if (len > this.content.size()) {
-			this.content.resize(len);
+		if (this.overflow) {
+			super.setContentLength(len);
+			return;
 		}
+		resizeContent(len);
 		this.contentLength = len;
 	}
 
@@ -135,15 +167,21 @@ public class ContentCachingResponseWrapper extends HttpServletResponseWrapper {
 					Integer.MAX_VALUE + "): " + len);
 		}
 		int lenInt = (int) len;
-		if (lenInt > this.content.size()) {
-			this.content.resize(lenInt);
+		if (this.overflow) {
+			super.setContentLength(lenInt);
+			return;
 		}
+		resizeContent(lenInt);
 		this.contentLength = lenInt;
 	}
 
 	@Override
 	public void setBufferSize(int size) {
-		if (size > this.content.size()) {
+		resizeContent(size);
+	}
+
+	private void resizeContent(int size) {
+		if (size > this.content.size() && (this.contentCacheLimit == null || size <= this.contentCacheLimit)) {
 			this.content.resize(size);
 		}
 	}
@@ -168,6 +206,16 @@ public class ContentCachingResponseWrapper extends HttpServletResponseWrapper {
 		return getStatus();
 	}
 
+	/**
+	 * Whether the content cache limit, if any, has been exceeded, in which case
+	 * the content written so far has been copied to the response already.
+	 * @since 5.2.1
+	 * @see #ContentCachingResponseWrapper(HttpServletResponse, int)
+	 */
+	public boolean isContentOverflow() {
+		return this.overflow;
+	}
+
 	/**
 	 * Return the cached response content as a byte array.
 	 */
@@ -220,6 +268,47 @@ public class ContentCachingResponseWrapper extends HttpServletResponseWrapper {
 		}
 	}
 
+	/**
+	 * Template method for handling a content overflow: specifically, a response
+	 * body being written that exceeds the specified content cache limit.
+	 * <p>The default implementation is empty. Subclasses may override this to
+	 * update the response before the cached content is copied to it.
+	 * @param contentCacheLimit the maximum number of bytes to cache per response
+	 * which has just been exceeded
+	 * @since 5.2.1
+	 * @see #ContentCachingResponseWrapper(HttpServletResponse, int)
+	 */
+	protected void handleContentOverflow(int contentCacheLimit) {
+	}
+
+	private void writeContent(int b) throws IOException {
+		if (this.overflow || checkOverflow(1)) {
+			getResponse().getOutputStream().write(b);
+		}
+		else {
+			this.content.write(b);
+		}
+	}
+
+	private void writeContent(byte[] b, int off, int len) throws IOException {
+		if (this.overflow || checkOverflow(len)) {
+			getResponse().getOutputStream().write(b, off, len);
+		}
+		else {
+			this.content.write(b, off, len);
+		}
+	}
+
+	private boolean checkOverflow(int len) throws IOException {
+		if (this.contentCacheLimit != null && this.content.size() + len > this.contentCacheLimit) {
+			this.overflow = true;
+			handleContentOverflow(this.contentCacheLimit);
+			copyBodyToResponse(false);
+			return true;
+		}
+		return false;
+	}
+
 
 	private class ResponseServletOutputStream extends ServletOutputStream {
 
@@ -231,12 +320,19 @@ public class ContentCachingResponseWrapper extends HttpServletResponseWrapper {
 
 		@Override
 		public void write(int b) throws IOException {
-			content.write(b);
+			writeContent(b);
 		}
 
 		@Override
 		public void write(byte[] b, int off, int len) throws IOException {
-			content.write(b, off, len);
+			writeContent(b, off, len);
+		}
+
+		@Override
+		public void flush() throws IOException {
+			if (overflow) {
+				this.os.flush();
+			}
 		}
 
 		@Override
@@ -254,7 +350,7 @@ public class ContentCachingResponseWrapper extends HttpServletResponseWrapper {
 	private class ResponsePrintWriter extends PrintWriter {
 
 		public ResponsePrintWriter(String characterEncoding) throws UnsupportedEncodingException {
-			super(new OutputStreamWriter(content, characterEncoding));
+			super(new OutputStreamWriter(new ContentOutputStream(), characterEncoding));
 		}
 
 		@Override
@@ -276,4 +372,18 @@ public class ContentCachingResponseWrapper extends HttpServletResponseWrapper {
 		}
 	}
 
+
+	private class ContentOutputStream extends OutputStream {
+
+		@Override
+		public void write(int b) throws IOException {
+			writeContent(b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			writeContent(b, off, len);
+		}
+	}
+
 }
@@ -0,0 +1,264 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.http.server.PathContainer;
+import org.springframework.lang.Nullable;
+import org.springframework.util.StringUtils;
+
+/**
+ * Index of values registered under URL path patterns, organized as a trie
+ * of the literal leading segments of each pattern, so that the candidates
+ * for a request path can be found in time proportional to the depth of the
+ * path rather than the number of registered patterns.
+ *
+ * <p>The index only narrows down the candidates: for any path, the returned
+ * values are a superset of the values whose patterns actually match, and
+ * the caller is expected to match each candidate as before. To that end:
+ * <ul>
+ * <li>Only segments before the first segment with pattern syntax
+ * ({@code *}, {@code ?}, or <code>&#123;</code>) are indexed.
+ * <li>The last segment of a pattern is never indexed, since it may still
+ * be matched with a suffix (e.g. {@code "/books"} against {@code "/books.json"}).
+ * <li>Segments are compared ignoring case and surrounding whitespace, and
+ * empty segments in the path are skipped.
+ * </ul>
+ *
+ * <p>This class is not thread-safe: modifications must be guarded against
+ * concurrent lookups by the caller, typically with a read-write lock.
+ *
+ * @author Spring Framework Team
+ * @since 5.2.1
+ * @param <T> the type of values registered in the index
+ */
+public class PathPrefixIndex<T> {
+
+	private final Node<T> root = new Node<>("");
+
+
+	/**
+	 * Register the given value under the given pattern.
+	 * @param pattern the path pattern string, e.g. {@code "/books/{id}"}
+	 * @param value the value to register
+	 */
+	public void add(String pattern, T value) {
+		Node<T> node = this.root;
+		for (String segment : getLiteralPrefix(pattern)) {
+			node = node.getOrAddChild(segment);
+		}
+		node.values.add(value);
+	}
+
+	/**
+	 * Remove the given value registered under the given pattern.
+	 * @param pattern the path pattern string the value was registered with
+	 * @param value the value to remove
+	 */
+	public void remove(String pattern, T value) {
+		remove(this.root, getLiteralPrefix(pattern), 0, value);
+	}
+
+	private boolean remove(Node<T> node, List<String> prefix, int index, T value) {
+		if (index == prefix.size()) {
+			node.values.remove(value);
+		}
+		else {
+			Node<T> child = node.getChild(prefix.get(index));
+			if (child != null && remove(child, prefix, index + 1, value)) {
+				node.removeChild(child);
+			}
+		}
+		return node.isEmpty();
+	}
+
+	/**
+	 * Add the values that may match the given path to the given collection.
+	 * @param path the path to look up, split at {@code '/'}
+	 * @param result the collection to add candidate values to
+	 */
+	public void collect(String path, Collection<? super T> result) {
+		Node<T> node = this.root;
+		result.addAll(node.values);
+		int length = path.length();
+		int start = 0;
+		while (start <= length && node.children.length > 0) {
+			int end = path.indexOf('/', start);
+			if (end == -1) {
+				end = length;
+			}
+			int segmentStart = start;
+			int segmentEnd = end;
+			while (segmentStart < segmentEnd && path.charAt(segmentStart) <= ' ') {
+				segmentStart++;
+			}
+			while (segmentEnd > segmentStart && path.charAt(segmentEnd - 1) <= ' ') {
+				segmentEnd--;
+			}
+			if (segmentStart < segmentEnd) {
+				node = node.getChild(path, segmentStart, segmentEnd);
+				if (node == null) {
+					return;
+				}
+				result.addAll(node.values);
+			}
+			start = end + 1;
+		}
+	}
+
+	/**
+	 * Add the values that may match the given parsed path to the given collection.
+	 * @param path the path to look up, matching its segments as decoded and
+	 * without path parameters, as per {@link PathContainer.PathSegment#valueToMatch()}
+	 * @param result the collection to add candidate values to
+	 */
+	public void collect(PathContainer path, Collection<? super T> result) {
+		Node<T> node = this.root;
+		result.addAll(node.values);
+		for (PathContainer.Element element : path.elements()) {
+			if (node.children.length == 0) {
+				return;
+			}
+			if (element instanceof PathContainer.PathSegment) {
+				String value = ((PathContainer.PathSegment) element).valueToMatch().trim();
+				if (!value.isEmpty()) {
+					node = node.getChild(value, 0, value.length());
+					if (node == null) {
+						return;
+					}
+					result.addAll(node.values);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Return whether no values are registered in the index.
+	 */
+	public boolean isEmpty() {
+		return this.root.isEmpty();
+	}
+
+
+	private static List<String> getLiteralPrefix(String pattern) {
+		String[] segments = StringUtils.tokenizeToStringArray(pattern, "/");
+		List<String> prefix = new ArrayList<>(segments.length);
+		// Never index the last segment, see class-level javadoc
+		for (int i = 0; i < segments.length - 1; i++) {
+			String segment = segments[i];
+			if (segment.indexOf('*') != -1 || segment.indexOf('?') != -1 || segment.indexOf('{') != -1) {
+				break;
+			}
+			prefix.add(segment);
+		}
+		return prefix;
+	}
+
+	private static int compare(String key, String path, int start, int end) {
+		int length = Math.min(key.length(), end - start);
+		for (int i = 0; i < length; i++) {
+			char c1 = key.charAt(i);
+			char c2 = Character.toLowerCase(path.charAt(start + i));
+			if (c1 != c2) {
+				return c1 - c2;
+			}
+		}
+		return key.length() - (end - start);
+	}
+
+	private static String toKey(String segment) {
+		char[] chars = segment.toCharArray();
+		for (int i = 0; i < chars.length; i++) {
+			chars[i] = Character.toLowerCase(chars[i]);
+		}
+		return new String(chars);
+	}
+
+
+	@SuppressWarnings("unchecked")
+	private static final class Node<T> {
+
+		private static final Node<?>[] NO_CHILDREN = new Node<?>[0];
+
+		private final String key;
+
+		private final List<T> values = new ArrayList<>(1);
+
+		/** Children sorted by key, for binary search. */
+		private Node<T>[] children = (Node<T>[]) NO_CHILDREN;
+
+		Node(String key) {
+			this.key = key;
+		}
+
+		@Nullable
+		Node<T> getChild(String path, int start, int end) {
+			int low = 0;
+			int high = this.children.length - 1;
+			while (low <= high) {
+				int mid = (low + high) >>> 1;
+				int result = compare(this.children[mid].key, path, start, end);
+				if (result < 0) {
+					low = mid + 1;
+				}
+				else if (result > 0) {
+					high = mid - 1;
+				}
+				else {
+					return this.children[mid];
+				}
+			}
+			return null;
+		}
+
+		@Nullable
+		Node<T> getChild(String segment) {
+			return getChild(segment, 0, segment.length());
+		}
+
+		Node<T> getOrAddChild(String segment) {
+			Node<T> child = getChild(segment);
+			if (child == null) {
+				child = new Node<>(toKey(segment));
+				int index = 0;
+				while (index < this.children.length && this.children[index].key.compareTo(child.key) < 0) {
+					index++;
+				}
+				Node<T>[] newChildren = Arrays.copyOf(this.children, this.children.length + 1);
+				System.arraycopy(this.children, index, newChildren, index + 1, this.children.length - index);
+				newChildren[index] = child;
+				this.children = newChildren;
+			}
+			return child;
+		}
+
+		void removeChild(Node<T> child) {
+			List<Node<T>> newChildren = new ArrayList<>(Arrays.asList(this.children));
+			newChildren.remove(child);
+			this.children = newChildren.toArray((Node<T>[]) NO_CHILDREN);
+		}
+
+		boolean isEmpty() {
+			return (this.values.isEmpty() && this.children.length == 0);
+		}
+	}
+
+}
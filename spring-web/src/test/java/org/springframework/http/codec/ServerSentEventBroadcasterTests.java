@@ -0,0 +1,161 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEventBroadcaster.SlowConsumerPolicy;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.mock.http.server.reactive.test.MockServerHttpResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link ServerSentEventBroadcaster}.
+ *
+ * @author Spring Framework Team
+ */
+public class ServerSentEventBroadcasterTests {
+
+	private final ServerSentEventBroadcaster broadcaster = new ServerSentEventBroadcaster(new Jackson2JsonEncoder());
+
+	private final DefaultDataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+
+
+	@Test
+	public void publishToAllSubscribers() {
+		Flux<String> first = this.broadcaster.subscribe(this.bufferFactory).map(this::toString);
+		Flux<String> second = this.broadcaster.subscribe(this.bufferFactory).map(this::toString);
+		ServerSentEvent<String> event = ServerSentEvent.builder("foo").id("1").build();
+
+		StepVerifier.create(first.mergeWith(second))
+				.then(() -> {
+					assertThat(this.broadcaster.getSubscriberCount()).isEqualTo(2);
+					assertThat(this.broadcaster.publish(event)).isEqualTo(2);
+					this.broadcaster.complete();
+				})
+				.expectNext("id:1\ndata:foo\n\n", "id:1\ndata:foo\n\n")
+				.expectComplete()
+				.verify(Duration.ofSeconds(5));
+
+		assertThat(this.broadcaster.getSubscriberCount()).isEqualTo(0);
+		assertThat(this.broadcaster.getPublishedCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void publishPojo() {
+		StepVerifier.create(this.broadcaster.subscribe(this.bufferFactory).map(this::toString))
+				.then(() -> this.broadcaster.publish(ServerSentEvent.builder(new Pojo("foofoo", "barbar")).build()))
+				.expectNext("data:{\"foo\":\"foofoo\",\"bar\":\"barbar\"}\n\n")
+				.thenCancel()
+				.verify(Duration.ofSeconds(5));
+
+		assertThat(this.broadcaster.getSubscriberCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void dropForSlowSubscriber() {
+		this.broadcaster.setMaxPendingEvents(1);
+
+		StepVerifier.create(this.broadcaster.subscribe(this.bufferFactory).map(this::toString), 0)
+				.then(() -> {
+					this.broadcaster.publish(ServerSentEvent.builder("foo").build());
+					this.broadcaster.publish(ServerSentEvent.builder("bar").build());
+					this.broadcaster.publish(ServerSentEvent.builder("baz").build());
+				})
+				.thenRequest(1)
+				.expectNext("data:foo\n\n")
+				.then(this.broadcaster::complete)
+				.expectComplete()
+				.verify(Duration.ofSeconds(5));
+
+		assertThat(this.broadcaster.getDroppedCount()).isEqualTo(2);
+	}
+
+	@Test
+	public void latestForSlowSubscriber() {
+		Flux<String> events = this.broadcaster.subscribe(this.bufferFactory, SlowConsumerPolicy.LATEST)
+				.map(this::toString);
+
+		StepVerifier.create(events, 0)
+				.then(() -> {
+					this.broadcaster.publish(ServerSentEvent.builder("foo").build());
+					this.broadcaster.publish(ServerSentEvent.builder("bar").build());
+					this.broadcaster.publish(ServerSentEvent.builder("baz").build());
+				})
+				.thenRequest(1)
+				.expectNext("data:baz\n\n")
+				.then(this.broadcaster::complete)
+				.expectComplete()
+				.verify(Duration.ofSeconds(5));
+
+		assertThat(this.broadcaster.getDroppedCount()).isEqualTo(2);
+	}
+
+	@Test
+	public void disconnectSlowSubscriber() {
+		this.broadcaster.setSlowConsumerPolicy(SlowConsumerPolicy.DISCONNECT);
+		this.broadcaster.setMaxPendingEvents(1);
+
+		StepVerifier.create(this.broadcaster.subscribe(this.bufferFactory).map(this::toString), 0)
+				.then(() -> {
+					this.broadcaster.publish(ServerSentEvent.builder("foo").build());
+					this.broadcaster.publish(ServerSentEvent.builder("bar").build());
+				})
+				.thenRequest(1)
+				.thenConsumeWhile(event -> true)
+				.expectComplete()
+				.verify(Duration.ofSeconds(5));
+
+		assertThat(this.broadcaster.getDisconnectedCount()).isEqualTo(1);
+		assertThat(this.broadcaster.getSubscriberCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void subscribeResponse() {
+		MockServerHttpResponse response = new MockServerHttpResponse();
+
+		StepVerifier.create(this.broadcaster.subscribe(response))
+				.then(() -> {
+					this.broadcaster.publish(ServerSentEvent.builder("foo").build());
+					this.broadcaster.complete();
+				})
+				.expectComplete()
+				.verify(Duration.ofSeconds(5));
+
+		assertThat(response.getHeaders().getContentType())
+				.isEqualTo(new MediaType("text", "event-stream", StandardCharsets.UTF_8));
+		StepVerifier.create(response.getBodyAsString())
+				.expectNext("data:foo\n\n")
+				.expectComplete()
+				.verify(Duration.ofSeconds(5));
+	}
+
+
+	private String toString(DataBuffer buffer) {
+		return buffer.toString(StandardCharsets.UTF_8);
+	}
+
+}
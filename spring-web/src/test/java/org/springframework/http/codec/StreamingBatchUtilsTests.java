@@ -0,0 +1,135 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import org.springframework.core.io.buffer.AbstractLeakCheckingTests;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.lang.Nullable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link StreamingBatchUtils}.
+ *
+ * @author Spring Framework Team
+ */
+class StreamingBatchUtilsTests extends AbstractLeakCheckingTests {
+
+	@Test
+	void encodeBySize() {
+		Flux<DataBuffer> result = StreamingBatchUtils.encode(Flux.just("a", "b", "c"),
+				Duration.ofMinutes(1), () -> new StringBatch(2));
+
+		StepVerifier.create(result)
+				.consumeNextWith(expectString("ab"))
+				.consumeNextWith(expectString("c"))
+				.verifyComplete();
+	}
+
+	@Test
+	void encodeAfterTimeout() {
+		Flux<String> input = Flux.concat(Flux.just("a"), Flux.never());
+		Flux<DataBuffer> result = StreamingBatchUtils.encode(input,
+				Duration.ofMillis(50), () -> new StringBatch(2));
+
+		StepVerifier.create(result)
+				.consumeNextWith(expectString("a"))
+				.thenCancel()
+				.verify(Duration.ofSeconds(5));
+	}
+
+	@Test
+	void releasePendingBatchOnCancel() {
+		Flux<String> input = Flux.concat(Flux.just("a"), Flux.never());
+		Flux<DataBuffer> result = StreamingBatchUtils.encode(input,
+				Duration.ofMinutes(1), () -> new StringBatch(2));
+
+		StepVerifier.create(result)
+				.expectSubscription()
+				.thenCancel()
+				.verify(Duration.ofSeconds(5));
+	}
+
+	@Test
+	void releasePendingBatchOnError() {
+		Flux<String> input = Flux.concat(Flux.just("a"), Flux.error(new IllegalStateException("Expected")));
+		Flux<DataBuffer> result = StreamingBatchUtils.encode(input,
+				Duration.ofMinutes(1), () -> new StringBatch(2));
+
+		StepVerifier.create(result)
+				.expectError(IllegalStateException.class)
+				.verify(Duration.ofSeconds(5));
+	}
+
+
+	private Consumer<DataBuffer> expectString(String expected) {
+		return buffer -> {
+			String actual = buffer.toString(StandardCharsets.UTF_8);
+			DataBufferUtils.release(buffer);
+			assertThat(actual).isEqualTo(expected);
+		};
+	}
+
+
+	private class StringBatch implements StreamingBatchUtils.Batch<String> {
+
+		private final int maxCount;
+
+		@Nullable
+		private DataBuffer buffer;
+
+		private int count;
+
+		StringBatch(int maxCount) {
+			this.maxCount = maxCount;
+		}
+
+		@Override
+		@Nullable
+		public DataBuffer add(String element) {
+			if (this.buffer == null) {
+				this.buffer = bufferFactory.allocateBuffer();
+			}
+			this.buffer.write(element, StandardCharsets.UTF_8);
+			return (++this.count >= this.maxCount ? take() : null);
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return (this.buffer == null);
+		}
+
+		@Override
+		@Nullable
+		public DataBuffer take() {
+			DataBuffer buffer = this.buffer;
+			this.buffer = null;
+			this.count = 0;
+			return buffer;
+		}
+	}
+
+}
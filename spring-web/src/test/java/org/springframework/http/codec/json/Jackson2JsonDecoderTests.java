@@ -18,6 +18,7 @@ package org.springframework.http.codec.json;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -82,6 +83,7 @@ public class Jackson2JsonDecoderTests extends AbstractDecoderTests<Jackson2JsonD
 
 		assertThat(decoder.canDecode(forClass(String.class), null)).isFalse();
 		assertThat(decoder.canDecode(forClass(Pojo.class), APPLICATION_XML)).isFalse();
+		assertThat(decoder.canDecode(forClass(Pojo.class), MediaType.APPLICATION_NDJSON)).isFalse();
 	}
 
 	@Test  // SPR-15866
@@ -130,6 +132,48 @@ public class Jackson2JsonDecoderTests extends AbstractDecoderTests<Jackson2JsonD
 	}
 
 
+	@Test
+	public void decodeToMonoExceedingLimit() {
+		Flux<DataBuffer> input = Flux.concat(
+				stringBuffer("[{\"bar\":\"b1\",\"foo\":\"f1\"},"),
+				stringBuffer("{\"bar\":\"b2\",\"foo\":\"f2\"}]"));
+
+		this.decoder.setMaxInMemorySize(40);
+		ResolvableType elementType = ResolvableType.forClassWithGenerics(List.class, Pojo.class);
+
+		testDecodeToMono(input, elementType, step -> step
+				.expectError(DecodingException.class)
+				.verify(), null, null);
+	}
+
+	@Test
+	public void decodeArrayElementsWithinLimit() {
+		Flux<DataBuffer> input = Flux.concat(
+				stringBuffer("[{\"bar\":\"b1\",\"foo\":\"f1\"},"),
+				stringBuffer("{\"bar\":\"b2\",\"foo\":\"f2\"}]"));
+
+		this.decoder.setMaxInMemorySize(40);
+
+		testDecode(input, Pojo.class, step -> step
+				.expectNext(pojo1)
+				.expectNext(pojo2)
+				.verifyComplete());
+	}
+
+	@Test
+	public void decodeLargeValueWithDefaultLimit() {
+		char[] chars = new char[300 * 1024];
+		Arrays.fill(chars, 'f');
+		String value = new String(chars);
+		Flux<DataBuffer> input = Flux.concat(
+				stringBuffer("{\"bar\":\"b1\",\"foo\":\"" + value.substring(0, 1024)),
+				stringBuffer(value.substring(1024) + "\"}"));
+
+		testDecode(input, Pojo.class, step -> step
+				.expectNext(new Pojo(value, "b1"))
+				.verifyComplete());
+	}
+
 	@Test
 	public void decodeEmptyArrayToFlux() {
 		Flux<DataBuffer> input = Flux.from(stringBuffer("[]"));
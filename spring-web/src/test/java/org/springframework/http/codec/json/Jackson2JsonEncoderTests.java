@@ -67,6 +67,7 @@ public class Jackson2JsonEncoderTests extends AbstractEncoderTests<Jackson2JsonE
 		ResolvableType pojoType = ResolvableType.forClass(Pojo.class);
 		assertThat(this.encoder.canEncode(pojoType, APPLICATION_JSON)).isTrue();
 		assertThat(this.encoder.canEncode(pojoType, APPLICATION_STREAM_JSON)).isTrue();
+		assertThat(this.encoder.canEncode(pojoType, MediaType.APPLICATION_NDJSON)).isTrue();
 		assertThat(this.encoder.canEncode(pojoType, null)).isTrue();
 
 		// SPR-15464
@@ -219,6 +220,68 @@ public class Jackson2JsonEncoderTests extends AbstractEncoderTests<Jackson2JsonE
 	}
 
 
+	@Test
+	public void encodeStreamInBatches() {
+		this.encoder.setStreamingBatchSize(60);
+		Flux<Pojo> input = Flux.just(
+				new Pojo("foo", "bar"),
+				new Pojo("foofoo", "barbar"),
+				new Pojo("foofoofoo", "barbarbar")
+		);
+
+		testEncode(input, ResolvableType.forClass(Pojo.class), step -> step
+				.consumeNextWith(expectString("{\"foo\":\"foo\",\"bar\":\"bar\"}\n" +
+						"{\"foo\":\"foofoo\",\"bar\":\"barbar\"}\n"))
+				.consumeNextWith(expectString("{\"foo\":\"foofoofoo\",\"bar\":\"barbarbar\"}\n"))
+				.verifyComplete(),
+				MediaType.APPLICATION_NDJSON, null);
+	}
+
+	@Test
+	public void encodeStreamInBatchesAfterTimeout() {
+		this.encoder.setStreamingBatchSize(1024);
+		this.encoder.setStreamingBatchTimeout(Duration.ofMillis(50));
+		Flux<Pojo> input = Flux.concat(Mono.just(new Pojo("foo", "bar")), Flux.never());
+
+		Flux<DataBuffer> result = this.encoder.encode(input, this.bufferFactory,
+				ResolvableType.forClass(Pojo.class), APPLICATION_STREAM_JSON, Collections.emptyMap());
+
+		StepVerifier.create(result)
+				.consumeNextWith(expectString("{\"foo\":\"foo\",\"bar\":\"bar\"}\n"))
+				.thenCancel()
+				.verify(Duration.ofSeconds(5));
+	}
+
+	@Test
+	public void encodeNonStreamWithBatchSize() {
+		this.encoder.setStreamingBatchSize(1024);
+		Flux<Pojo> input = Flux.just(
+				new Pojo("foo", "bar"),
+				new Pojo("foofoo", "barbar"),
+				new Pojo("foofoofoo", "barbarbar")
+		);
+
+		testEncode(input, Pojo.class, step -> step
+				.consumeNextWith(expectString("[" +
+						"{\"foo\":\"foo\",\"bar\":\"bar\"}," +
+						"{\"foo\":\"foofoo\",\"bar\":\"barbar\"}," +
+						"{\"foo\":\"foofoofoo\",\"bar\":\"barbarbar\"}]"))
+				.verifyComplete());
+	}
+
+	@Test
+	public void encodeNonStreamWithBatchSizeAndError() {
+		this.encoder.setStreamingBatchSize(1024);
+		Flux<Pojo> input = Flux.concat(
+				Flux.just(new Pojo("foo", "bar")),
+				Flux.error(new IllegalStateException("Expected")));
+
+		testEncode(input, Pojo.class, step -> step
+				.expectError(IllegalStateException.class)
+				.verify());
+	}
+
+
 	@JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "type")
 	private static class ParentClass {
 	}
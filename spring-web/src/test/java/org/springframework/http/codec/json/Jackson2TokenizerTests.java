@@ -36,6 +36,7 @@ import reactor.test.StepVerifier;
 import org.springframework.core.codec.DecodingException;
 import org.springframework.core.io.buffer.AbstractLeakCheckingTests;
 import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 
 import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
@@ -185,7 +186,7 @@ public class Jackson2TokenizerTests extends AbstractLeakCheckingTests {
 	public void errorInStream() {
 		DataBuffer buffer = stringBuffer("{\"id\":1,\"name\":");
 		Flux<DataBuffer> source = Flux.just(buffer).concatWith(Flux.error(new RuntimeException()));
-		Flux<TokenBuffer> result = Jackson2Tokenizer.tokenize(source, this.jsonFactory, this.objectMapper, true);
+		Flux<TokenBuffer> result = Jackson2Tokenizer.tokenize(source, this.jsonFactory, this.objectMapper, true, -1);
 
 		StepVerifier.create(result)
 				.expectError(RuntimeException.class)
@@ -195,18 +196,64 @@ public class Jackson2TokenizerTests extends AbstractLeakCheckingTests {
 	@Test  // SPR-16521
 	public void jsonEOFExceptionIsWrappedAsDecodingError() {
 		Flux<DataBuffer> source = Flux.just(stringBuffer("{\"status\": \"noClosingQuote}"));
-		Flux<TokenBuffer> tokens = Jackson2Tokenizer.tokenize(source, this.jsonFactory, this.objectMapper, false);
+		Flux<TokenBuffer> tokens = Jackson2Tokenizer.tokenize(source, this.jsonFactory, this.objectMapper, false, -1);
 
 		StepVerifier.create(tokens)
 				.expectError(DecodingException.class)
 				.verify();
 	}
 
+	@Test
+	public void tokenizeArrayElementsWithinLimit() {
+		List<String> source = asList("[{\"id\":1}", ",{\"id\":2}", ",{\"id\":3}", ",{\"id\":4}]");
+		Flux<TokenBuffer> tokens = Jackson2Tokenizer.tokenize(
+				Flux.fromIterable(source).map(this::stringBuffer), this.jsonFactory, this.objectMapper, true, 12);
+
+		StepVerifier.create(tokens)
+				.expectNextCount(4)
+				.verifyComplete();
+	}
+
+	@Test
+	public void tokenizeExceedingLimit() {
+		List<String> source = asList("{\"id\":1,", "\"name\":", "\"Robert\"}");
+		Flux<TokenBuffer> tokens = Jackson2Tokenizer.tokenize(
+				Flux.fromIterable(source).map(this::stringBuffer), this.jsonFactory, this.objectMapper, false, 12);
+
+		StepVerifier.create(tokens)
+				.expectError(DecodingException.class)
+				.verify();
+	}
+
+	@Test
+	public void tokenizeExceedingLimitAfterCompleteValue() {
+		List<String> source = asList("{\"id\":1}{\"name\":\"Robert", "\"}");
+		Flux<TokenBuffer> tokens = Jackson2Tokenizer.tokenize(
+				Flux.fromIterable(source).map(this::stringBuffer), this.jsonFactory, this.objectMapper, false, 12);
+
+		StepVerifier.create(tokens)
+				.expectNextCount(1)
+				.expectError(DecodingException.class)
+				.verify();
+	}
+
+	@Test
+	public void tokenizeDirectBuffers() {
+		DefaultDataBufferFactory directBufferFactory = new DefaultDataBufferFactory(true);
+		Flux<DataBuffer> source = Flux.just("[{\"id\":1},", "{\"id\":2}]")
+				.map(value -> directBufferFactory.allocateBuffer().write(value, StandardCharsets.UTF_8));
+		Flux<TokenBuffer> tokens = Jackson2Tokenizer.tokenize(source, this.jsonFactory, this.objectMapper, true, -1);
+
+		StepVerifier.create(tokens)
+				.expectNextCount(2)
+				.verifyComplete();
+	}
+
 
 	private void testTokenize(List<String> source, List<String> expected, boolean tokenizeArrayElements) {
 		Flux<TokenBuffer> tokens = Jackson2Tokenizer.tokenize(
 				Flux.fromIterable(source).map(this::stringBuffer),
-				this.jsonFactory, this.objectMapper, tokenizeArrayElements);
+				this.jsonFactory, this.objectMapper, tokenizeArrayElements, -1);
 
 		Flux<String> result = tokens
 				.map(tokenBuffer -> {
@@ -0,0 +1,252 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.multipart;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import org.springframework.beans.DirectFieldAccessor;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.MultipartBodyBuilder;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.mock.http.client.reactive.test.MockClientHttpRequest;
+import org.springframework.mock.http.server.reactive.test.MockServerHttpRequest;
+import org.springframework.util.MultiValueMap;
+
+import static java.util.Collections.emptyMap;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.core.ResolvableType.forClassWithGenerics;
+import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
+import static org.springframework.http.MediaType.MULTIPART_FORM_DATA;
+
+/**
+ * Unit tests for {@link DefaultPartHttpMessageReader}.
+ *
+ * @author Spring Framework Team
+ */
+public class DefaultPartHttpMessageReaderTests {
+
+	private static final ResolvableType PART_TYPE = ResolvableType.forClass(Part.class);
+
+	private static final ResolvableType MULTIPART_TYPE =
+			forClassWithGenerics(MultiValueMap.class, String.class, Part.class);
+
+	private static final String LOREM_IPSUM = "Lorem Ipsum.";
+
+	private final DefaultPartHttpMessageReader partReader = new DefaultPartHttpMessageReader();
+
+	private final MultipartHttpMessageReader reader = new MultipartHttpMessageReader(this.partReader);
+
+
+	@Test
+	public void canRead() {
+		assertThat(this.partReader.canRead(PART_TYPE, MediaType.MULTIPART_FORM_DATA)).isTrue();
+		assertThat(this.partReader.canRead(PART_TYPE, null)).isTrue();
+		assertThat(this.partReader.canRead(PART_TYPE, MediaType.APPLICATION_FORM_URLENCODED)).isFalse();
+		assertThat(this.partReader.canRead(ResolvableType.forClass(String.class), MULTIPART_FORM_DATA)).isFalse();
+	}
+
+	@Test
+	public void resolveParts() {
+		MultiValueMap<String, Part> parts = this.reader.readMono(MULTIPART_TYPE, generateMultipartRequest(), emptyMap())
+				.block(Duration.ofSeconds(5));
+
+		assertThat(parts).isNotNull();
+		assertThat(parts.size()).isEqualTo(2);
+		assertFilePart(parts.getFirst("fooPart"));
+
+		Part part = parts.getFirst("barPart");
+		assertThat(part).isInstanceOf(FormFieldPart.class);
+		assertThat(part.name()).isEqualTo("barPart");
+		assertThat(((FormFieldPart) part).value()).isEqualTo("bar");
+	}
+
+	@Test
+	public void resolvePartsFromSingleByteBuffers() {
+		ServerHttpRequest request = generateMultipartRequest();
+		DefaultDataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+		Flux<DataBuffer> body = request.getBody().concatMapIterable(buffer -> {
+			List<DataBuffer> result = new ArrayList<>();
+			while (buffer.readableByteCount() > 0) {
+				result.add(bufferFactory.wrap(new byte[] {buffer.read()}));
+			}
+			DataBufferUtils.release(buffer);
+			return result;
+		});
+		request = MockServerHttpRequest.post("/")
+				.contentType(request.getHeaders().getContentType())
+				.body(body);
+
+		MultiValueMap<String, Part> parts = this.reader.readMono(MULTIPART_TYPE, request, emptyMap())
+				.block(Duration.ofSeconds(5));
+
+		assertThat(parts).isNotNull();
+		assertFilePart(parts.getFirst("fooPart"));
+		assertThat(((FormFieldPart) parts.getFirst("barPart")).value()).isEqualTo("bar");
+	}
+
+	@Test
+	public void resolvePartsToFile(@TempDir Path tempDir) throws IOException {
+		this.partReader.setMaxInMemorySize(4);
+		this.partReader.setFileStorageDirectory(tempDir);
+
+		MultiValueMap<String, Part> parts = this.reader.readMono(MULTIPART_TYPE, generateMultipartRequest(), emptyMap())
+				.block(Duration.ofSeconds(5));
+
+		assertThat(parts).isNotNull();
+		assertFilePart(parts.getFirst("fooPart"));
+		assertThat(Files.list(tempDir).count()).isEqualTo(1);
+
+		parts.getFirst("fooPart").delete().block(Duration.ofSeconds(5));
+		assertThat(Files.list(tempDir).count()).isEqualTo(0);
+	}
+
+	@Test
+	public void resolvePartsToDefaultDirectory() throws IOException {
+		this.partReader.setMaxInMemorySize(4);
+
+		MultiValueMap<String, Part> parts = this.reader.readMono(MULTIPART_TYPE, generateMultipartRequest(), emptyMap())
+				.block(Duration.ofSeconds(5));
+
+		assertThat(parts).isNotNull();
+		Path directory = (Path) new DirectFieldAccessor(this.partReader).getPropertyValue("fileStorageDirectory");
+		assertThat(directory).isNotNull();
+		try {
+			assertThat(directory.getFileName().toString()).startsWith("spring-multipart");
+			assertThat(directory).isNotEqualTo(Paths.get(System.getProperty("java.io.tmpdir"), "spring-multipart"));
+			if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+				assertThat(PosixFilePermissions.toString(Files.getPosixFilePermissions(directory)))
+						.isEqualTo("rwx------");
+			}
+			assertThat(Files.list(directory).count()).isEqualTo(1);
+		}
+		finally {
+			parts.getFirst("fooPart").delete().block(Duration.ofSeconds(5));
+			Files.delete(directory);
+		}
+	}
+
+	@Test
+	public void transferTo(@TempDir Path tempDir) throws IOException {
+		MultiValueMap<String, Part> parts = this.reader.readMono(MULTIPART_TYPE, generateMultipartRequest(), emptyMap())
+				.block(Duration.ofSeconds(5));
+
+		assertThat(parts).isNotNull();
+		FilePart part = (FilePart) parts.getFirst("fooPart");
+		assertThat(part).isNotNull();
+
+		Path dest = tempDir.resolve(part.filename());
+		part.transferTo(dest).block(Duration.ofSeconds(5));
+		assertThat(Files.readAllBytes(dest)).isEqualTo(LOREM_IPSUM.getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void streaming() {
+		this.partReader.setStreaming(true);
+
+		Flux<String> contents = this.partReader.read(PART_TYPE, generateMultipartRequest(), emptyMap())
+				.concatMap(part -> DataBufferUtils.join(part.content()).map(buffer -> {
+					String value = buffer.toString(StandardCharsets.UTF_8);
+					DataBufferUtils.release(buffer);
+					return part.name() + "=" + value;
+				}));
+
+		StepVerifier.create(contents)
+				.expectNext("fooPart=" + LOREM_IPSUM)
+				.expectNext("barPart=bar")
+				.verifyComplete();
+	}
+
+	@Test
+	public void tooManyParts() {
+		this.partReader.setMaxParts(1);
+
+		StepVerifier.create(this.reader.readMono(MULTIPART_TYPE, generateMultipartRequest(), emptyMap()))
+				.expectError(DecodingException.class)
+				.verify(Duration.ofSeconds(5));
+	}
+
+	@Test
+	public void noBoundary() {
+		ServerHttpRequest request = MockServerHttpRequest.post("/")
+				.header(CONTENT_TYPE, MULTIPART_FORM_DATA.toString())
+				.body(Flux.just(new DefaultDataBufferFactory().wrap("invalid content".getBytes())));
+
+		StepVerifier.create(this.reader.readMono(MULTIPART_TYPE, request, emptyMap()))
+				.expectError(DecodingException.class)
+				.verify(Duration.ofSeconds(5));
+	}
+
+	@Test
+	public void bodyError() {
+		ServerHttpRequest request = MockServerHttpRequest.post("/")
+				.header(CONTENT_TYPE, MULTIPART_FORM_DATA.toString() + ";boundary=abc")
+				.body(Flux.just(new DefaultDataBufferFactory().wrap("invalid content".getBytes())));
+
+		StepVerifier.create(this.reader.readMono(MULTIPART_TYPE, request, emptyMap()))
+				.expectError(DecodingException.class)
+				.verify(Duration.ofSeconds(5));
+	}
+
+
+	private static void assertFilePart(Part part) {
+		assertThat(part).isInstanceOf(FilePart.class);
+		assertThat(part.name()).isEqualTo("fooPart");
+		assertThat(((FilePart) part).filename()).isEqualTo("foo.txt");
+		DataBuffer buffer = DataBufferUtils.join(part.content()).block(Duration.ofSeconds(5));
+		assertThat(buffer).isNotNull();
+		assertThat(buffer.toString(StandardCharsets.UTF_8)).isEqualTo(LOREM_IPSUM);
+		DataBufferUtils.release(buffer);
+	}
+
+	private static ServerHttpRequest generateMultipartRequest() {
+		MultipartBodyBuilder partsBuilder = new MultipartBodyBuilder();
+		partsBuilder.part("fooPart", new ClassPathResource("org/springframework/http/codec/multipart/foo.txt"));
+		partsBuilder.part("barPart", "bar");
+
+		MockClientHttpRequest outputMessage = new MockClientHttpRequest(HttpMethod.POST, "/");
+		new MultipartHttpMessageWriter()
+				.write(Mono.just(partsBuilder.build()), null, MediaType.MULTIPART_FORM_DATA, outputMessage, null)
+				.block(Duration.ofSeconds(5));
+
+		return MockServerHttpRequest.post("/")
+				.contentType(outputMessage.getHeaders().getContentType())
+				.body(outputMessage.getBody());
+	}
+
+}
@@ -17,7 +17,10 @@
 package org.springframework.http.codec.protobuf;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.List;
 
 import com.google.protobuf.Message;
 import org.junit.jupiter.api.Test;
@@ -215,6 +218,49 @@ public class ProtobufDecoderTests extends AbstractDecoderTests<ProtobufDecoder>
 				.verifyComplete();
 	}
 
+	@Test
+	public void decodeMergedAndSplitChunks() throws IOException {
+		DataBuffer buffer = this.bufferFactory.allocateBuffer();
+		this.testMsg1.writeDelimitedTo(buffer.asOutputStream());
+		this.testMsg2.writeDelimitedTo(buffer.asOutputStream());
+		int inPlaceLength = buffer.readableByteCount();
+		this.testMsg1.writeDelimitedTo(buffer.asOutputStream());
+
+		// The first two messages are parsed in place, the last one is aggregated
+		int len = inPlaceLength + 3;
+		Flux<DataBuffer> input = Flux.just(
+				DataBufferUtils.retain(buffer.slice(0, len)),
+				DataBufferUtils.retain(buffer.slice(len, buffer.readableByteCount() - len)));
+		release(buffer);
+
+		testDecode(input, Msg.class, step -> step
+				.expectNext(this.testMsg1)
+				.expectNext(this.testMsg2)
+				.expectNext(this.testMsg1)
+				.verifyComplete());
+	}
+
+	@Test
+	public void decodeInPlaceDoesNotAliasInput() throws IOException {
+		DataBuffer buffer = this.bufferFactory.allocateBuffer();
+		this.testMsg1.writeDelimitedTo(buffer.asOutputStream());
+		this.testMsg2.writeDelimitedTo(buffer.asOutputStream());
+		int length = buffer.readableByteCount();
+		DataBufferUtils.retain(buffer);
+
+		List<Message> messages = this.decoder.decode(Mono.just(buffer), forClass(Msg.class), null, emptyMap())
+				.collectList()
+				.block(Duration.ofSeconds(5));
+
+		assertThat(buffer.readableByteCount()).isEqualTo(0);
+		ByteBuffer byteBuffer = buffer.asByteBuffer(0, length);
+		while (byteBuffer.hasRemaining()) {
+			byteBuffer.put((byte) 0);
+		}
+		release(buffer);
+		assertThat(messages).containsExactly(this.testMsg1, this.testMsg2);
+	}
+
 	@Test
 	public void exceedMaxSize() {
 		this.decoder.setMaxMessageSize(1);
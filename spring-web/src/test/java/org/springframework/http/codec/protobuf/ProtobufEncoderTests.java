@@ -17,6 +17,7 @@
 package org.springframework.http.codec.protobuf;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.UncheckedIOException;
 import java.util.function.Consumer;
 
@@ -97,6 +98,37 @@ public class ProtobufEncoderTests extends AbstractEncoderTests<ProtobufEncoder>
 				.verifyComplete());
 	}
 
+	@Test
+	public void encodeStreamInBatches() {
+		this.encoder.setStreamingBatchSize(1024);
+		Flux<Message> input = Flux.just(this.msg1, this.msg2);
+
+		testEncode(input, Msg.class, step -> step
+				.consumeNextWith(dataBuffer -> {
+					try (InputStream inputStream = dataBuffer.asInputStream(true)) {
+						assertThat(Msg.parseDelimitedFrom(inputStream)).isEqualTo(this.msg1);
+						assertThat(Msg.parseDelimitedFrom(inputStream)).isEqualTo(this.msg2);
+						assertThat(inputStream.read()).isEqualTo(-1);
+					}
+					catch (IOException ex) {
+						throw new UncheckedIOException(ex);
+					}
+				})
+				.verifyComplete());
+	}
+
+	@Test
+	public void encodeStreamInFullBatches() {
+		int length = this.msg1.getSerializedSize() + 1;
+		this.encoder.setStreamingBatchSize(length);
+		Flux<Message> input = Flux.just(this.msg1, this.msg2);
+
+		testEncode(input, Msg.class, step -> step
+				.consumeNextWith(expect(this.msg1))
+				.consumeNextWith(expect(this.msg2))
+				.verifyComplete());
+	}
+
 	protected final Consumer<DataBuffer> expect(Msg msg) {
 		return dataBuffer -> {
 			try {
@@ -52,6 +52,7 @@ import org.springframework.http.codec.json.Jackson2JsonDecoder;
 import org.springframework.http.codec.json.Jackson2JsonEncoder;
 import org.springframework.http.codec.json.Jackson2SmileDecoder;
 import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.codec.multipart.DefaultPartHttpMessageReader;
 import org.springframework.http.codec.multipart.MultipartHttpMessageReader;
 import org.springframework.http.codec.multipart.SynchronossPartHttpMessageReader;
 import org.springframework.http.codec.protobuf.ProtobufDecoder;
@@ -94,6 +95,18 @@ public class ServerCodecConfigurerTests {
 		assertStringDecoder(getNextDecoder(readers), false);
 	}
 
+	@Test
+	public void multipartReaderOverride() {
+		DefaultPartHttpMessageReader partReader = new DefaultPartHttpMessageReader();
+		this.configurer.defaultCodecs().multipartReader(partReader);
+
+		List<HttpMessageReader<?>> readers = this.configurer.getReaders();
+		assertThat(readers.size()).isEqualTo(13);
+		assertThat(readers).contains(partReader);
+		assertThat(readers).noneMatch(reader -> reader instanceof SynchronossPartHttpMessageReader);
+		assertThat(readers.get(readers.indexOf(partReader) + 1)).isInstanceOf(MultipartHttpMessageReader.class);
+	}
+
 	@Test
 	public void defaultWriters() {
 		List<HttpMessageWriter<?>> writers = this.configurer.getWriters();
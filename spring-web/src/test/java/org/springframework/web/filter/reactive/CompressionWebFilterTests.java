@@ -0,0 +1,198 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.filter.reactive;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.test.MockServerHttpRequest;
+import org.springframework.mock.http.server.reactive.test.MockServerHttpResponse;
+import org.springframework.mock.web.test.server.MockServerWebExchange;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.server.WebFilterChain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link CompressionWebFilter}.
+ *
+ * @author Spring Framework Team
+ */
+public class CompressionWebFilterTests {
+
+	private static final String CONTENT = String.join("", Collections.nCopies(100, "Lorem ipsum dolor sit amet. "));
+
+	private final CompressionWebFilter filter = new CompressionWebFilter();
+
+
+	@Test
+	public void selectCodec() {
+		assertThat(select(null)).isNull();
+		assertThat(select("identity")).isNull();
+		assertThat(select("gzip")).isEqualTo("gzip");
+		assertThat(select("deflate, gzip")).isEqualTo("gzip");
+		assertThat(select("gzip;q=0.5, deflate")).isEqualTo("deflate");
+		assertThat(select("gzip;q=0, deflate;q=0")).isNull();
+		assertThat(select("*")).isEqualTo("gzip");
+		assertThat(select("gzip;q=0, *;q=0.5")).isEqualTo("deflate");
+		assertThat(select("br, gzip;q=0.8")).isEqualTo("gzip");
+	}
+
+	@Test
+	public void compressStream() throws IOException {
+		MockServerWebExchange exchange = exchange("gzip, deflate");
+		filter(exchange, response -> {
+			response.getHeaders().setContentType(MediaType.TEXT_PLAIN);
+			return response.writeWith(Flux.just(CONTENT, CONTENT).map(value -> toBuffer(response, value)));
+		});
+
+		HttpHeaders headers = exchange.getResponse().getHeaders();
+		assertThat(headers.getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+		assertThat(headers.getVary()).containsExactly(HttpHeaders.ACCEPT_ENCODING);
+		assertThat(headers.getContentLength()).isEqualTo(-1);
+		assertThat(decompress(exchange)).isEqualTo(CONTENT + CONTENT);
+	}
+
+	@Test
+	public void compressWithWeakETag() throws IOException {
+		MockServerWebExchange exchange = exchange("gzip");
+		filter(exchange, response -> {
+			response.getHeaders().setContentType(MediaType.TEXT_PLAIN);
+			response.getHeaders().setETag("\"123\"");
+			return response.writeWith(Mono.just(toBuffer(response, CONTENT)));
+		});
+
+		assertThat(exchange.getResponse().getHeaders().getETag()).isEqualTo("W/\"123\"");
+		assertThat(decompress(exchange)).isEqualTo(CONTENT);
+	}
+
+	@Test
+	public void compressAndFlush() throws IOException {
+		MockServerWebExchange exchange = exchange("gzip");
+		filter(exchange, response -> {
+			response.getHeaders().setContentType(MediaType.TEXT_EVENT_STREAM);
+			return response.writeAndFlushWith(Flux.just(CONTENT, CONTENT)
+					.map(value -> Mono.just(toBuffer(response, value))));
+		});
+
+		assertThat(exchange.getResponse().getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+		assertThat(decompress(exchange)).isEqualTo(CONTENT + CONTENT);
+	}
+
+	@Test
+	public void skipSmallResponse() {
+		MockServerWebExchange exchange = exchange("gzip");
+		filter(exchange, response -> {
+			response.getHeaders().setContentType(MediaType.TEXT_PLAIN);
+			response.getHeaders().setContentLength(3);
+			return response.writeWith(Mono.just(toBuffer(response, "foo")));
+		});
+
+		assertThat(exchange.getResponse().getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+		assertThat(exchange.getResponse().getBodyAsString().block(Duration.ofSeconds(5))).isEqualTo("foo");
+	}
+
+	@Test
+	public void skipIncompressibleMediaType() {
+		MockServerWebExchange exchange = exchange("gzip");
+		filter(exchange, response -> {
+			response.getHeaders().setContentType(MediaType.IMAGE_PNG);
+			return response.writeWith(Mono.just(toBuffer(response, CONTENT)));
+		});
+
+		assertThat(exchange.getResponse().getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+	}
+
+	@Test
+	public void skipPartialResponse() {
+		MockServerWebExchange exchange = exchange("gzip");
+		filter(exchange, response -> {
+			response.setStatusCode(HttpStatus.PARTIAL_CONTENT);
+			response.getHeaders().setContentType(MediaType.TEXT_PLAIN);
+			response.getHeaders().set(HttpHeaders.CONTENT_RANGE, "bytes 0-2799/5600");
+			response.getHeaders().setETag("\"123\"");
+			return response.writeWith(Mono.just(toBuffer(response, CONTENT)));
+		});
+
+		HttpHeaders headers = exchange.getResponse().getHeaders();
+		assertThat(headers.containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+		assertThat(headers.getETag()).isEqualTo("\"123\"");
+		assertThat(exchange.getResponse().getBodyAsString().block(Duration.ofSeconds(5))).isEqualTo(CONTENT);
+	}
+
+	@Test
+	public void skipEncodedResponse() {
+		MockServerWebExchange exchange = exchange("gzip");
+		filter(exchange, response -> {
+			response.getHeaders().setContentType(MediaType.TEXT_PLAIN);
+			response.getHeaders().set(HttpHeaders.CONTENT_ENCODING, "br");
+			return response.writeWith(Mono.just(toBuffer(response, CONTENT)));
+		});
+
+		assertThat(exchange.getResponse().getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("br");
+		assertThat(exchange.getResponse().getBodyAsString().block(Duration.ofSeconds(5))).isEqualTo(CONTENT);
+	}
+
+
+	private String select(String acceptEncoding) {
+		MockServerHttpRequest.BaseBuilder<?> builder = MockServerHttpRequest.get("/");
+		if (acceptEncoding != null) {
+			builder.header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+		}
+		CompressionCodec codec = this.filter.selectCodec(builder.build());
+		return (codec != null ? codec.getContentCoding() : null);
+	}
+
+	private static MockServerWebExchange exchange(String acceptEncoding) {
+		return MockServerWebExchange.from(
+				MockServerHttpRequest.get("/").header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding));
+	}
+
+	private void filter(MockServerWebExchange exchange, Function<ServerHttpResponse, Mono<Void>> handler) {
+		WebFilterChain chain = filteredExchange -> handler.apply(filteredExchange.getResponse());
+		this.filter.filter(exchange, chain).block(Duration.ofSeconds(5));
+	}
+
+	private static DataBuffer toBuffer(ServerHttpResponse response, String value) {
+		return response.bufferFactory().wrap(value.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static String decompress(MockServerWebExchange exchange) throws IOException {
+		MockServerHttpResponse response = exchange.getResponse();
+		DataBuffer buffer = DataBufferUtils.join(response.getBody()).block(Duration.ofSeconds(5));
+		assertThat(buffer).isNotNull();
+		try (InputStream inputStream = new GZIPInputStream(buffer.asInputStream(true))) {
+			return StreamUtils.copyToString(inputStream, StandardCharsets.UTF_8);
+		}
+	}
+
+}
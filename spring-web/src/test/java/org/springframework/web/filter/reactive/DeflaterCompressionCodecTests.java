@@ -0,0 +1,126 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.filter.reactive;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.reactive.CompressionCodec.Compressor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Unit tests for {@link DeflaterCompressionCodec}.
+ *
+ * @author Spring Framework Team
+ */
+public class DeflaterCompressionCodecTests {
+
+	private final DefaultDataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+
+
+	@Test
+	public void gzip() throws IOException {
+		DeflaterCompressionCodec codec = DeflaterCompressionCodec.gzip();
+		assertThat(codec.getContentCoding()).isEqualTo("gzip");
+
+		byte[] compressed = compress(codec, "foo", "bar", "baz");
+		String result = decompress(new GZIPInputStream(new ByteArrayInputStream(compressed)));
+		assertThat(result).isEqualTo("foobarbaz");
+	}
+
+	@Test
+	public void deflate() throws IOException {
+		DeflaterCompressionCodec codec = DeflaterCompressionCodec.deflate();
+		assertThat(codec.getContentCoding()).isEqualTo("deflate");
+
+		byte[] compressed = compress(codec, "foo", "bar", "baz");
+		String result = decompress(new InflaterInputStream(new ByteArrayInputStream(compressed)));
+		assertThat(result).isEqualTo("foobarbaz");
+	}
+
+	@Test
+	public void flushMakesInputAvailable() throws IOException {
+		Compressor compressor = DeflaterCompressionCodec.deflate().createCompressor();
+		DataBuffer input = this.bufferFactory.wrap("foo".getBytes(StandardCharsets.UTF_8));
+		DataBuffer output = compressor.compress(input, true, this.bufferFactory);
+		compressor.close();
+
+		InputStream inputStream = new InflaterInputStream(output.asInputStream());
+		byte[] bytes = new byte[3];
+		assertThat(inputStream.read(bytes)).isEqualTo(3);
+		assertThat(new String(bytes, StandardCharsets.UTF_8)).isEqualTo("foo");
+	}
+
+	@Test
+	public void reuseDeflaters() throws IOException {
+		DeflaterCompressionCodec codec = DeflaterCompressionCodec.gzip(1, 1);
+		compress(codec, "foo");
+		assertThat(codec.getPoolSize()).isEqualTo(1);
+
+		byte[] compressed = compress(codec, "bar");
+		assertThat(codec.getPoolSize()).isEqualTo(1);
+		assertThat(decompress(new GZIPInputStream(new ByteArrayInputStream(compressed)))).isEqualTo("bar");
+	}
+
+	@Test
+	public void compressAfterClose() {
+		Compressor compressor = DeflaterCompressionCodec.gzip().createCompressor();
+		compressor.close();
+		compressor.close();
+		assertThatIllegalStateException().isThrownBy(() -> compressor.finish(this.bufferFactory));
+	}
+
+
+	private byte[] compress(CompressionCodec codec, String... chunks) {
+		Compressor compressor = codec.createCompressor();
+		ByteArrayOutputStream result = new ByteArrayOutputStream();
+		try {
+			for (String chunk : chunks) {
+				DataBuffer input = this.bufferFactory.wrap(chunk.getBytes(StandardCharsets.UTF_8));
+				write(compressor.compress(input, false, this.bufferFactory), result);
+			}
+			write(compressor.finish(this.bufferFactory), result);
+		}
+		finally {
+			compressor.close();
+		}
+		return result.toByteArray();
+	}
+
+	private static void write(DataBuffer buffer, ByteArrayOutputStream outputStream) {
+		byte[] bytes = new byte[buffer.readableByteCount()];
+		buffer.read(bytes);
+		outputStream.write(bytes, 0, bytes.length);
+	}
+
+	private static String decompress(InputStream inputStream) throws IOException {
+		return StreamUtils.copyToString(inputStream, StandardCharsets.UTF_8);
+	}
+
+}
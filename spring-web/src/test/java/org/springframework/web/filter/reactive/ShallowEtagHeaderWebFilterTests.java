@@ -0,0 +1,127 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.filter.reactive;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.test.MockServerHttpRequest;
+import org.springframework.mock.web.test.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link ShallowEtagHeaderWebFilter}.
+ *
+ * @author Spring Framework Team
+ */
+public class ShallowEtagHeaderWebFilterTests {
+
+	private static final String ETAG = "\"0b10a8db164e0754105b7a99be72e3fe5\"";
+
+	private final ShallowEtagHeaderWebFilter filter = new ShallowEtagHeaderWebFilter();
+
+
+	@Test
+	public void filterNoMatch() {
+		MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/hotels"));
+		filter(exchange, this::writeHelloWorld);
+
+		HttpHeaders headers = exchange.getResponse().getHeaders();
+		assertThat(exchange.getResponse().getStatusCode()).isNotEqualTo(HttpStatus.NOT_MODIFIED);
+		assertThat(headers.getETag()).isEqualTo(ETAG);
+		assertThat(headers.getContentLength()).isEqualTo(11);
+		assertThat(exchange.getResponse().getBodyAsString().block(Duration.ofSeconds(5))).isEqualTo("Hello World");
+	}
+
+	@Test
+	public void filterNoMatchWeakETag() {
+		this.filter.setWriteWeakETag(true);
+		MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/hotels"));
+		filter(exchange, this::writeHelloWorld);
+
+		assertThat(exchange.getResponse().getHeaders().getETag()).isEqualTo("W/" + ETAG);
+	}
+
+	@Test
+	public void filterMatch() {
+		MockServerWebExchange exchange = MockServerWebExchange.from(
+				MockServerHttpRequest.get("/hotels").header(HttpHeaders.IF_NONE_MATCH, "W/" + ETAG));
+		filter(exchange, this::writeHelloWorld);
+
+		assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+		assertThat(exchange.getResponse().getHeaders().getETag()).isEqualTo(ETAG);
+		assertThat(exchange.getResponse().getBodyAsString().block(Duration.ofSeconds(5))).isEmpty();
+	}
+
+	@Test
+	public void filterExceedingContentCacheLimit() {
+		this.filter.setContentCacheLimit(8);
+		MockServerWebExchange exchange = MockServerWebExchange.from(
+				MockServerHttpRequest.get("/hotels").header(HttpHeaders.IF_NONE_MATCH, ETAG));
+		filter(exchange, this::writeHelloWorld);
+
+		assertThat(exchange.getResponse().getStatusCode()).isNotEqualTo(HttpStatus.NOT_MODIFIED);
+		assertThat(exchange.getResponse().getHeaders().getETag()).isNull();
+		assertThat(exchange.getResponse().getBodyAsString().block(Duration.ofSeconds(5))).isEqualTo("Hello World");
+	}
+
+	@Test
+	public void filterNoStore() {
+		MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/hotels"));
+		filter(exchange, response -> {
+			response.getHeaders().setCacheControl(CacheControl.noStore());
+			return writeHelloWorld(response);
+		});
+
+		assertThat(exchange.getResponse().getHeaders().getETag()).isNull();
+	}
+
+	@Test
+	public void filterPost() {
+		MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/hotels"));
+		filter(exchange, this::writeHelloWorld);
+
+		assertThat(exchange.getResponse().getHeaders().getETag()).isNull();
+	}
+
+
+	private void filter(MockServerWebExchange exchange, Function<ServerHttpResponse, Mono<Void>> handler) {
+		WebFilterChain chain = filteredExchange -> handler.apply(filteredExchange.getResponse());
+		this.filter.filter(exchange, chain).block(Duration.ofSeconds(5));
+	}
+
+	private Mono<Void> writeHelloWorld(ServerHttpResponse response) {
+		return response.writeWith(Flux.just("Hello", " World").map(value -> toBuffer(response, value)));
+	}
+
+	private static DataBuffer toBuffer(ServerHttpResponse response, String value) {
+		return response.bufferFactory().wrap(value.getBytes(StandardCharsets.UTF_8));
+	}
+
+}
@@ -16,9 +16,17 @@
 
 package org.springframework.web.server.adapter;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import org.springframework.http.MediaType;
 import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.codec.multipart.DefaultPartHttpMessageReader;
 import org.springframework.mock.http.server.reactive.test.MockServerHttpRequest;
 import org.springframework.mock.http.server.reactive.test.MockServerHttpResponse;
 import org.springframework.web.server.ServerWebExchange;
@@ -56,6 +64,33 @@ public class DefaultServerWebExchangeTests {
 		assertThat(exchange.transformUrl("/foo")).isEqualTo("/foo;p=abc?q=123");
 	}
 
+	@Test
+	public void cleanupMultipart(@TempDir Path tempDir) throws IOException {
+		DefaultPartHttpMessageReader partReader = new DefaultPartHttpMessageReader();
+		partReader.setMaxInMemorySize(4);
+		partReader.setFileStorageDirectory(tempDir);
+		ServerCodecConfigurer configurer = ServerCodecConfigurer.create();
+		configurer.defaultCodecs().multipartReader(partReader);
+		MockServerHttpRequest request = MockServerHttpRequest.post("/")
+				.contentType(MediaType.parseMediaType("multipart/form-data; boundary=boundary"))
+				.body("--boundary\r\n" +
+						"Content-Disposition: form-data; name=\"file\"; filename=\"foo.txt\"\r\n" +
+						"Content-Type: text/plain\r\n\r\n" +
+						"Lorem Ipsum.\r\n" +
+						"--boundary--\r\n");
+		DefaultServerWebExchange exchange = new DefaultServerWebExchange(request, new MockServerHttpResponse(),
+				new DefaultWebSessionManager(), configurer, new AcceptHeaderLocaleContextResolver());
+
+		exchange.cleanupMultipart().block(Duration.ofSeconds(5));
+		assertThat(Files.list(tempDir).count()).isEqualTo(0);
+
+		assertThat(exchange.getMultipartData().block(Duration.ofSeconds(5))).containsOnlyKeys("file");
+		assertThat(Files.list(tempDir).count()).isEqualTo(1);
+
+		exchange.cleanupMultipart().block(Duration.ofSeconds(5));
+		assertThat(Files.list(tempDir).count()).isEqualTo(0);
+	}
+
 
 	private DefaultServerWebExchange createExchange() {
 		MockServerHttpRequest request = MockServerHttpRequest.get("https://example.com").build();
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.util;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.http.server.PathContainer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link PathPrefixIndex}.
+ *
+ * @author Spring Framework Team
+ */
+public class PathPrefixIndexTests {
+
+	private final PathPrefixIndex<String> index = new PathPrefixIndex<>();
+
+
+	@Test
+	public void collectByLiteralPrefix() {
+		add("/api/books/{id}", "/api/books", "/api/authors/{id}", "/admin/users", "/**", "/{version}/books");
+		assertThat(collect("/api/books/42")).containsExactlyInAnyOrder(
+				"/**", "/{version}/books", "/api/books", "/api/books/{id}");
+		assertThat(collect("/api/authors/42")).containsExactlyInAnyOrder(
+				"/**", "/{version}/books", "/api/books", "/api/authors/{id}");
+		assertThat(collect("/other")).containsExactlyInAnyOrder("/**", "/{version}/books");
+	}
+
+	@Test
+	public void collectIgnoresCaseWhitespaceAndEmptySegments() {
+		add("/Api/Books/{id}");
+		assertThat(collect("/api/BOOKS/42")).containsExactly("/Api/Books/{id}");
+		assertThat(collect("//api/ books /42")).containsExactly("/Api/Books/{id}");
+	}
+
+	@Test
+	public void collectWithPathContainer() {
+		add("/api/books/{id}", "/api/authors/{id}");
+		Set<String> result = new LinkedHashSet<>();
+		this.index.collect(PathContainer.parsePath("/api;v=1/b%6Foks/42"), result);
+		assertThat(result).containsExactly("/api/books/{id}");
+	}
+
+	@Test
+	public void lastSegmentNotIndexed() {
+		add("/books", "/api/books");
+		assertThat(collect("/books.json")).containsExactly("/books");
+		assertThat(collect("/api/books.json")).containsExactly("/books", "/api/books");
+	}
+
+	@Test
+	public void remove() {
+		add("/api/books/{id}", "/api/authors/{id}", "/");
+		this.index.remove("/api/books/{id}", "/api/books/{id}");
+		assertThat(collect("/api/books/42")).containsExactly("/");
+		this.index.remove("/api/authors/{id}", "/api/authors/{id}");
+		this.index.remove("/", "/");
+		assertThat(this.index.isEmpty()).isTrue();
+	}
+
+
+	private void add(String... patterns) {
+		for (String pattern : patterns) {
+			this.index.add(pattern, pattern);
+		}
+	}
+
+	private Set<String> collect(String path) {
+		Set<String> result = new LinkedHashSet<>();
+		this.index.collect(path, result);
+		return result;
+	}
+
+}
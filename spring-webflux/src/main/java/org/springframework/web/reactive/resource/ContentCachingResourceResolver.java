@@ -0,0 +1,470 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.reactive.resource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ServerWebExchange;
+
+/**
+ * A {@link ResourceResolver} that keeps the content of resolved resources in
+ * memory, along with a gzip-compressed variant, and serves subsequent requests
+ * for the same path from memory, without accessing the file system.
+ *
+ * <p>Content is kept in direct (off-heap) buffers, in a cache bounded by the
+ * {@link #setMaxCacheSize total size} of cached content, and evicted in least
+ * recently used order. Only resources up to the
+ * {@link #setMaxEntrySize maximum entry size} are cached, so that the cache
+ * is used for the many small assets of a typical front-end application.
+ *
+ * <p>A gzip-compressed variant is created when a resource is first resolved,
+ * and kept only if it is significantly smaller than the original content, so
+ * that already compressed content, e.g. images, is served as it is. The
+ * compressed variant is served to clients that accept the {@code gzip}
+ * content coding. Each variant has a strong ETag, computed from its content.
+ * Compression and ETag computation run on the
+ * {@link #setBlockingOperationScheduler blocking operation scheduler}.
+ *
+ * <p>This resolver should be ordered first in the chain. Cached content is
+ * not refreshed if the underlying resources change, so this resolver is
+ * intended for production use, in place of a {@link CachingResourceResolver}
+ * and an {@link EncodedResourceResolver}.
+ *
+ * @author Spring Framework Team
+ * @since 5.2.1
+ */
+public class ContentCachingResourceResolver extends AbstractResourceResolver {
+
+	private static final DefaultDataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+
+	private final Map<String, CachedContent> cache = new LinkedHashMap<>(64, 0.75f, true);
+
+	private long cacheSize;
+
+	private long maxCacheSize = 16 * 1024 * 1024;
+
+	private long maxEntrySize = 256 * 1024;
+
+	private boolean compress = true;
+
+	private Scheduler blockingOperationScheduler = Schedulers.boundedElastic();
+
+
+	/**
+	 * Set the maximum total size of cached content, including compressed
+	 * variants, after which the least recently used resources are evicted.
+	 * <p>By default this is set to 16MB.
+	 * @param maxCacheSize the maximum cache size in bytes
+	 */
+	public void setMaxCacheSize(long maxCacheSize) {
+		Assert.isTrue(maxCacheSize > 0, "Max cache size must be greater than 0");
+		this.maxCacheSize = maxCacheSize;
+	}
+
+	/**
+	 * Return the configured {@link #setMaxCacheSize max cache size}.
+	 */
+	public long getMaxCacheSize() {
+		return this.maxCacheSize;
+	}
+
+	/**
+	 * Set the maximum size of resources to cache. Larger resources are
+	 * resolved through the rest of the chain on every request.
+	 * <p>By default this is set to 256K.
+	 * @param maxEntrySize the maximum resource size in bytes
+	 */
+	public void setMaxEntrySize(long maxEntrySize) {
+		this.maxEntrySize = maxEntrySize;
+	}
+
+	/**
+	 * Return the configured {@link #setMaxEntrySize max entry size}.
+	 */
+	public long getMaxEntrySize() {
+		return this.maxEntrySize;
+	}
+
+	/**
+	 * Whether to create and serve gzip-compressed variants of cached resources.
+	 * <p>By default this is set to {@code true}.
+	 */
+	public void setCompress(boolean compress) {
+		this.compress = compress;
+	}
+
+	/**
+	 * Whether gzip-compressed variants are {@link #setCompress created}.
+	 */
+	public boolean isCompress() {
+		return this.compress;
+	}
+
+	/**
+	 * Set the Reactor {@link Scheduler} to be used for compressing the content
+	 * of resources and computing their ETags, when they are first cached.
+	 * <p>By default, {@link Schedulers#boundedElastic()} is used.
+	 * @param blockingOperationScheduler the scheduler to use
+	 */
+	public void setBlockingOperationScheduler(Scheduler blockingOperationScheduler) {
+		Assert.notNull(blockingOperationScheduler, "BlockingOperationScheduler must not be null");
+		this.blockingOperationScheduler = blockingOperationScheduler;
+	}
+
+	/**
+	 * Return the configured {@link #setBlockingOperationScheduler blocking operation scheduler}.
+	 */
+	public Scheduler getBlockingOperationScheduler() {
+		return this.blockingOperationScheduler;
+	}
+
+	/**
+	 * Return the current total size of cached content in bytes.
+	 */
+	public long getCacheSize() {
+		synchronized (this.cache) {
+			return this.cacheSize;
+		}
+	}
+
+	/**
+	 * Remove all cached content.
+	 */
+	public void clearCache() {
+		synchronized (this.cache) {
+			this.cache.clear();
+			this.cacheSize = 0;
+		}
+	}
+
+
+	@Override
+	protected Mono<Resource> resolveResourceInternal(@Nullable ServerWebExchange exchange,
+			String requestPath, List<? extends Resource> locations, ResourceResolverChain chain) {
+
+		boolean acceptsGzip = (exchange != null && acceptsGzip(exchange));
+		CachedContent content;
+		synchronized (this.cache) {
+			content = this.cache.get(requestPath);
+		}
+		if (content != null) {
+			return Mono.just(content.getResource(acceptsGzip));
+		}
+		return chain.resolveResource(exchange, requestPath, locations).flatMap(resource -> {
+			if (!isCacheable(resource)) {
+				return Mono.just(resource);
+			}
+			return DataBufferUtils.join(DataBufferUtils.read(resource, bufferFactory, StreamUtils.BUFFER_SIZE))
+					.defaultIfEmpty(bufferFactory.wrap(new byte[0]))
+					.publishOn(this.blockingOperationScheduler)
+					.map(buffer -> {
+						byte[] bytes = new byte[buffer.readableByteCount()];
+						buffer.read(bytes);
+						DataBufferUtils.release(buffer);
+						return new CachedContent(resource, bytes, this.compress);
+					})
+					.doOnNext(cachedContent -> put(requestPath, cachedContent))
+					.<Resource>map(cachedContent -> cachedContent.getResource(acceptsGzip))
+					.onErrorResume(ex -> {
+						if (logger.isDebugEnabled()) {
+							logger.debug("Failed to cache content of " + resource, ex);
+						}
+						return Mono.just(resource);
+					});
+		});
+	}
+
+	private boolean isCacheable(Resource resource) {
+		if (resource instanceof HttpResource &&
+				((HttpResource) resource).getResponseHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)) {
+			return false;
+		}
+		try {
+			return (resource.isReadable() && resource.contentLength() <= this.maxEntrySize);
+		}
+		catch (IOException ex) {
+			return false;
+		}
+	}
+
+	private void put(String requestPath, CachedContent content) {
+		synchronized (this.cache) {
+			CachedContent previous = this.cache.put(requestPath, content);
+			if (previous != null) {
+				this.cacheSize -= previous.getSize();
+			}
+			this.cacheSize += content.getSize();
+			Iterator<CachedContent> iterator = this.cache.values().iterator();
+			while (this.cacheSize > this.maxCacheSize && iterator.hasNext()) {
+				this.cacheSize -= iterator.next().getSize();
+				iterator.remove();
+			}
+		}
+	}
+
+	/**
+	 * Whether the {@code Accept-Encoding} header of the request accepts
+	 * {@code gzip}, either explicitly or through {@code *}, with a q-value
+	 * greater than 0.
+	 */
+	private static boolean acceptsGzip(ServerWebExchange exchange) {
+		List<String> headerValues = exchange.getRequest().getHeaders().get(HttpHeaders.ACCEPT_ENCODING);
+		if (headerValues == null) {
+			return false;
+		}
+		Double gzipQuality = null;
+		Double wildcardQuality = null;
+		for (String headerValue : headerValues) {
+			for (String token : StringUtils.tokenizeToStringArray(headerValue, ",")) {
+				String[] parts = StringUtils.tokenizeToStringArray(token, ";");
+				if (parts.length == 0) {
+					continue;
+				}
+				String coding = parts[0].toLowerCase(Locale.ENGLISH);
+				if (coding.equals("gzip")) {
+					gzipQuality = parseQuality(parts);
+				}
+				else if (coding.equals("*")) {
+					wildcardQuality = parseQuality(parts);
+				}
+			}
+		}
+		Double quality = (gzipQuality != null ? gzipQuality : wildcardQuality);
+		return (quality != null && quality > 0);
+	}
+
+	private static double parseQuality(String[] parts) {
+		for (int i = 1; i < parts.length; i++) {
+			String part = parts[i];
+			if (part.startsWith("q=") || part.startsWith("Q=")) {
+				try {
+					return Double.parseDouble(part.substring(2));
+				}
+				catch (NumberFormatException ex) {
+					return 0;
+				}
+			}
+		}
+		return 1;
+	}
+
+	@Override
+	protected Mono<String> resolveUrlPathInternal(String resourceUrlPath,
+			List<? extends Resource> locations, ResourceResolverChain chain) {
+
+		return chain.resolveUrlPath(resourceUrlPath, locations);
+	}
+
+
+	/**
+	 * The cached content of a resource, and its compressed variant, if any.
+	 */
+	private static final class CachedContent {
+
+		private final Resource original;
+
+		private final long lastModified;
+
+		private final CachedResource resource;
+
+		@Nullable
+		private final CachedResource compressedResource;
+
+		CachedContent(Resource original, byte[] content, boolean compress) {
+			byte[] compressed = (compress ? compress(content) : null);
+			this.original = original;
+			this.lastModified = getLastModified(original);
+			this.resource = new CachedResource(this, content, null, compressed != null);
+			this.compressedResource = (compressed != null ? new CachedResource(this, compressed, "gzip", true) : null);
+		}
+
+		@Nullable
+		private static byte[] compress(byte[] content) {
+			ByteArrayOutputStream outputStream = new ByteArrayOutputStream(content.length / 2);
+			try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream)) {
+				gzipOutputStream.write(content);
+			}
+			catch (IOException ex) {
+				throw new UncheckedIOException(ex);
+			}
+			// Not worth it unless at least 10% smaller
+			return (outputStream.size() < content.length * 0.9 ? outputStream.toByteArray() : null);
+		}
+
+		private static long getLastModified(Resource resource) {
+			try {
+				return resource.lastModified();
+			}
+			catch (IOException ex) {
+				return -1;
+			}
+		}
+
+		long getSize() {
+			return this.resource.content.capacity() +
+					(this.compressedResource != null ? this.compressedResource.content.capacity() : 0);
+		}
+
+		Resource getResource(boolean acceptsGzip) {
+			return (acceptsGzip && this.compressedResource != null ? this.compressedResource : this.resource);
+		}
+	}
+
+
+	/**
+	 * An {@link HttpResource} backed by cached content.
+	 */
+	private static final class CachedResource extends AbstractResource implements HttpResource {
+
+		private final CachedContent cachedContent;
+
+		private final ByteBuffer content;
+
+		private final HttpHeaders headers = new HttpHeaders();
+
+		CachedResource(CachedContent cachedContent, byte[] content, @Nullable String coding, boolean vary) {
+			this.cachedContent = cachedContent;
+			this.content = ByteBuffer.allocateDirect(content.length);
+			this.content.put(content).flip();
+			Resource original = cachedContent.original;
+			if (original instanceof HttpResource) {
+				this.headers.putAll(((HttpResource) original).getResponseHeaders());
+			}
+			if (this.headers.getETag() == null || coding != null) {
+				this.headers.setETag("\"" + DigestUtils.md5DigestAsHex(content) + "\"");
+			}
+			if (coding != null) {
+				this.headers.set(HttpHeaders.CONTENT_ENCODING, coding);
+			}
+			if (vary) {
+				this.headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+			}
+		}
+
+		@Override
+		public InputStream getInputStream() {
+			return new ByteBufferInputStream(this.content.duplicate());
+		}
+
+		@Override
+		public boolean exists() {
+			return true;
+		}
+
+		@Override
+		public long contentLength() {
+			return this.content.capacity();
+		}
+
+		@Override
+		public long lastModified() {
+			return this.cachedContent.lastModified;
+		}
+
+		@Override
+		public Resource createRelative(String relativePath) throws IOException {
+			return this.cachedContent.original.createRelative(relativePath);
+		}
+
+		@Override
+		@Nullable
+		public String getFilename() {
+			return this.cachedContent.original.getFilename();
+		}
+
+		@Override
+		public String getDescription() {
+			return "Cached " + this.cachedContent.original.getDescription() +
+					(this.headers.containsKey(HttpHeaders.CONTENT_ENCODING) ? " (gzip)" : "");
+		}
+
+		@Override
+		public HttpHeaders getResponseHeaders() {
+			HttpHeaders headers = new HttpHeaders();
+			headers.putAll(this.headers);
+			return headers;
+		}
+	}
+
+
+	/**
+	 * InputStream over the remaining content of a {@link ByteBuffer}.
+	 */
+	private static final class ByteBufferInputStream extends InputStream {
+
+		private final ByteBuffer buffer;
+
+		ByteBufferInputStream(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public int read() {
+			return (this.buffer.hasRemaining() ? this.buffer.get() & 0xFF : -1);
+		}
+
+		@Override
+		public int read(byte[] bytes, int off, int len) {
+			if (len == 0) {
+				return 0;
+			}
+			if (!this.buffer.hasRemaining()) {
+				return -1;
+			}
+			len = Math.min(len, this.buffer.remaining());
+			this.buffer.get(bytes, off, len);
+			return len;
+		}
+
+		@Override
+		public long skip(long n) {
+			int count = (int) Math.max(0, Math.min(n, this.buffer.remaining()));
+			this.buffer.position(this.buffer.position() + count);
+			return count;
+		}
+
+		@Override
+		public int available() {
+			return this.buffer.remaining();
+		}
+	}
+
+}
@@ -339,7 +339,7 @@ public class ResourceWebHandler implements WebHandler, InitializingBean {
 						}
 
 						// Header phase
-						if (exchange.checkNotModified(Instant.ofEpochMilli(resource.lastModified()))) {
+						if (exchange.checkNotModified(getETag(resource), Instant.ofEpochMilli(resource.lastModified()))) {
 							logger.trace(exchange.getLogPrefix() + "Resource not modified");
 							return Mono.empty();
 						}
@@ -518,6 +518,15 @@ public class ResourceWebHandler implements WebHandler, InitializingBean {
 		return false;
 	}
 
+	/**
+	 * Return the ETag of the given resource, if it is an {@link HttpResource}
+	 * with an {@code ETag} response header, for use in conditional requests.
+	 */
+	@Nullable
+	private static String getETag(Resource resource) {
+		return (resource instanceof HttpResource ? ((HttpResource) resource).getResponseHeaders().getETag() : null);
+	}
+
 	/**
 	 * Set headers on the response. Called for both GET and HEAD requests.
 	 * @param exchange current exchange
@@ -24,6 +24,7 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -37,6 +38,7 @@ import reactor.core.publisher.Mono;
 import org.springframework.aop.support.AopUtils;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.core.MethodIntrospector;
+import org.springframework.http.server.PathContainer;
 import org.springframework.http.server.RequestPath;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
@@ -47,6 +49,8 @@ import org.springframework.web.method.HandlerMethod;
 import org.springframework.web.reactive.HandlerMapping;
 import org.springframework.web.reactive.handler.AbstractHandlerMapping;
 import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.PathPrefixIndex;
+import org.springframework.web.util.pattern.PathPattern;
 
 /**
  * Abstract base class for {@link HandlerMapping} implementations that define
@@ -311,7 +315,10 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 	@Nullable
 	protected HandlerMethod lookupHandlerMethod(ServerWebExchange exchange) throws Exception {
 		List<Match> matches = new ArrayList<>();
-		addMatchingMappings(this.mappingRegistry.getMappings().keySet(), matches, exchange);
+		Set<T> candidates = new LinkedHashSet<>();
+		PathContainer path = exchange.getRequest().getPath().pathWithinApplication();
+		this.mappingRegistry.getPathPrefixIndex().collect(path, candidates);
+		addMatchingMappings(candidates, matches, exchange);
 
 		if (!matches.isEmpty()) {
 			Comparator<Match> comparator = new MatchComparator(getMappingComparator(exchange));
@@ -431,6 +438,20 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 	 */
 	protected abstract Comparator<T> getMappingComparator(ServerWebExchange exchange);
 
+	/**
+	 * Return the path patterns of the given mapping, used to narrow down the
+	 * mappings to check for a request to those that may match its path.
+	 * <p>The default implementation returns an empty set, in which case the
+	 * mapping is checked for every request. Subclasses should only return
+	 * patterns that any match for the mapping is restricted to.
+	 * @param mapping the mapping to get the path patterns for
+	 * @since 5.2.1
+	 * @see PathPrefixIndex
+	 */
+	protected Set<PathPattern> getMappingPathPatterns(T mapping) {
+		return Collections.emptySet();
+	}
+
 
 	/**
 	 * A registry that maintains all mappings to handler methods, exposing methods
@@ -444,6 +465,8 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 
 		private final Map<T, HandlerMethod> mappingLookup = new LinkedHashMap<>();
 
+		private final PathPrefixIndex<T> pathPrefixIndex = new PathPrefixIndex<>();
+
 		private final Map<HandlerMethod, CorsConfiguration> corsLookup = new ConcurrentHashMap<>();
 
 		private final ReentrantReadWriteLock readWriteLock = new ReentrantReadWriteLock();
@@ -456,6 +479,15 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 			return this.mappingLookup;
 		}
 
+		/**
+		 * Return the index of mappings by the literal prefix of their patterns.
+		 * Not thread-safe.
+		 * @see #acquireReadLock()
+		 */
+		public PathPrefixIndex<T> getPathPrefixIndex() {
+			return this.pathPrefixIndex;
+		}
+
 		/**
 		 * Return CORS configuration. Thread-safe for concurrent use.
 		 */
@@ -485,6 +517,7 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 				HandlerMethod handlerMethod = createHandlerMethod(handler, method);
 				validateMethodMapping(handlerMethod, mapping);
 				this.mappingLookup.put(mapping, handlerMethod);
+				addToPathPrefixIndex(mapping);
 
 				CorsConfiguration corsConfig = initCorsConfiguration(handler, method, mapping);
 				if (corsConfig != null) {
@@ -509,6 +542,26 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 			}
 		}
 
+		private void addToPathPrefixIndex(T mapping) {
+			Set<PathPattern> patterns = getMappingPathPatterns(mapping);
+			if (patterns.isEmpty()) {
+				this.pathPrefixIndex.add("", mapping);
+			}
+			for (PathPattern pattern : patterns) {
+				this.pathPrefixIndex.add(pattern.getPatternString(), mapping);
+			}
+		}
+
+		private void removeFromPathPrefixIndex(T mapping) {
+			Set<PathPattern> patterns = getMappingPathPatterns(mapping);
+			if (patterns.isEmpty()) {
+				this.pathPrefixIndex.remove("", mapping);
+			}
+			for (PathPattern pattern : patterns) {
+				this.pathPrefixIndex.remove(pattern.getPatternString(), mapping);
+			}
+		}
+
 		public void unregister(T mapping) {
 			this.readWriteLock.writeLock().lock();
 			try {
@@ -518,6 +571,7 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 				}
 
 				this.mappingLookup.remove(definition.getMapping());
+				removeFromPathPrefixIndex(definition.getMapping());
 				this.corsLookup.remove(definition.getHandlerMethod());
 			}
 			finally {
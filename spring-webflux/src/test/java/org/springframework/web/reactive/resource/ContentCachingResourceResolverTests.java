@@ -0,0 +1,189 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.reactive.resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.test.server.MockServerWebExchange;
+import org.springframework.util.StreamUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.mock.http.server.reactive.test.MockServerHttpRequest.get;
+
+/**
+ * Unit tests for {@link ContentCachingResourceResolver}.
+ *
+ * @author Spring Framework Team
+ */
+public class ContentCachingResourceResolverTests {
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+	private static final String CONTENT = String.join("\n", Collections.nCopies(100, "console.log('foo');"));
+
+	private final ContentCachingResourceResolver resolver = new ContentCachingResourceResolver();
+
+	private ResourceResolverChain chain;
+
+	private List<Resource> locations;
+
+	@TempDir
+	Path directory;
+
+
+	@BeforeEach
+	public void setup() throws IOException {
+		Files.write(this.directory.resolve("foo.js"), CONTENT.getBytes(StandardCharsets.UTF_8));
+		Files.write(this.directory.resolve("bar.js"), CONTENT.getBytes(StandardCharsets.UTF_8));
+		this.chain = new DefaultResourceResolverChain(Arrays.asList(this.resolver, new PathResourceResolver()));
+		this.locations = Collections.singletonList(new FileSystemResource(this.directory.toString() + "/"));
+	}
+
+
+	@Test
+	public void resolveFromCache() throws IOException {
+		Resource resource = resolve("foo.js");
+		assertThat(resource).isInstanceOf(HttpResource.class);
+		assertThat(resource.contentLength()).isEqualTo(CONTENT.length());
+		assertThat(resource.getFilename()).isEqualTo("foo.js");
+
+		HttpHeaders headers = ((HttpResource) resource).getResponseHeaders();
+		assertThat(headers.getETag()).startsWith("\"").endsWith("\"");
+		assertThat(headers.getVary()).containsExactly(HttpHeaders.ACCEPT_ENCODING);
+		assertThat(headers.containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+
+		Files.delete(this.directory.resolve("foo.js"));
+		resource = resolve("foo.js");
+		assertThat(resource).isNotNull();
+		assertThat(read(resource.getInputStream())).isEqualTo(CONTENT);
+		assertThat(((HttpResource) resource).getResponseHeaders().getETag()).isEqualTo(headers.getETag());
+	}
+
+	@Test
+	public void resolveCompressed() throws IOException {
+		MockServerWebExchange exchange = MockServerWebExchange.from(
+				get("").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"));
+		Resource resource = this.chain.resolveResource(exchange, "foo.js", this.locations).block(TIMEOUT);
+		assertThat(resource).isInstanceOf(HttpResource.class);
+		assertThat(resource.contentLength()).isLessThan(CONTENT.length());
+		assertThat(read(new GZIPInputStream(resource.getInputStream()))).isEqualTo(CONTENT);
+
+		HttpHeaders headers = ((HttpResource) resource).getResponseHeaders();
+		assertThat(headers.getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+		assertThat(headers.getVary()).containsExactly(HttpHeaders.ACCEPT_ENCODING);
+
+		Resource identity = resolve("foo.js");
+		assertThat(identity).isNotNull();
+		assertThat(((HttpResource) identity).getResponseHeaders().getETag()).isNotEqualTo(headers.getETag());
+	}
+
+	@Test
+	public void resolveWithoutCompression() {
+		this.resolver.setCompress(false);
+		MockServerWebExchange exchange = MockServerWebExchange.from(get("").header(HttpHeaders.ACCEPT_ENCODING, "gzip"));
+		Resource resource = this.chain.resolveResource(exchange, "foo.js", this.locations).block(TIMEOUT);
+		assertThat(resource).isInstanceOf(HttpResource.class);
+
+		HttpHeaders headers = ((HttpResource) resource).getResponseHeaders();
+		assertThat(headers.containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+		assertThat(headers.containsKey(HttpHeaders.VARY)).isFalse();
+		assertThat(this.resolver.getCacheSize()).isEqualTo(CONTENT.length());
+	}
+
+	@Test
+	public void resolveIdentityIfGzipNotAcceptable() {
+		MockServerWebExchange exchange = MockServerWebExchange.from(
+				get("").header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, deflate"));
+		Resource resource = this.chain.resolveResource(exchange, "foo.js", this.locations).block(TIMEOUT);
+		assertThat(resource).isInstanceOf(HttpResource.class);
+		assertThat(resource.contentLength()).isEqualTo(CONTENT.length());
+
+		exchange = MockServerWebExchange.from(get("").header(HttpHeaders.ACCEPT_ENCODING, "*;q=0"));
+		resource = this.chain.resolveResource(exchange, "foo.js", this.locations).block(TIMEOUT);
+		assertThat(resource.contentLength()).isEqualTo(CONTENT.length());
+
+		exchange = MockServerWebExchange.from(get("").header(HttpHeaders.ACCEPT_ENCODING, "br, *;q=0.5"));
+		resource = this.chain.resolveResource(exchange, "foo.js", this.locations).block(TIMEOUT);
+		assertThat(resource.contentLength()).isLessThan(CONTENT.length());
+	}
+
+	@Test
+	public void resolveEmptyResource() throws IOException {
+		Files.write(this.directory.resolve("empty.js"), new byte[0]);
+		Resource resource = resolve("empty.js");
+		assertThat(resource).isInstanceOf(HttpResource.class);
+		assertThat(resource.contentLength()).isEqualTo(0);
+		assertThat(read(resource.getInputStream())).isEmpty();
+		assertThat(((HttpResource) resource).getResponseHeaders().getETag()).isNotNull();
+	}
+
+	@Test
+	public void skipLargeResource() {
+		this.resolver.setMaxEntrySize(CONTENT.length() - 1);
+		Resource resource = resolve("foo.js");
+		assertThat(resource).isInstanceOf(FileSystemResource.class);
+		assertThat(this.resolver.getCacheSize()).isEqualTo(0);
+	}
+
+	@Test
+	public void resolveNoMatch() {
+		assertThat(resolve("baz.js")).isNull();
+	}
+
+	@Test
+	public void evictLeastRecentlyUsed() throws IOException {
+		this.resolver.setCompress(false);
+		this.resolver.setMaxCacheSize(CONTENT.length() + 1);
+		resolve("foo.js");
+		resolve("bar.js");
+		assertThat(this.resolver.getCacheSize()).isEqualTo(CONTENT.length());
+
+		Files.delete(this.directory.resolve("foo.js"));
+		Files.delete(this.directory.resolve("bar.js"));
+		assertThat(resolve("foo.js")).isNull();
+		assertThat(resolve("bar.js")).isNotNull();
+	}
+
+
+	private Resource resolve(String requestPath) {
+		MockServerWebExchange exchange = MockServerWebExchange.from(get(""));
+		return this.chain.resolveResource(exchange, requestPath, this.locations).block(TIMEOUT);
+	}
+
+	private static String read(InputStream inputStream) throws IOException {
+		try (InputStream input = inputStream) {
+			return StreamUtils.copyToString(input, StandardCharsets.UTF_8);
+		}
+	}
+
+}
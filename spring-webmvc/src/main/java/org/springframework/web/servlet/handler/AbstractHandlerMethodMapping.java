@@ -24,6 +24,7 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -44,6 +45,7 @@ import org.springframework.beans.factory.InitializingBean;
 import org.springframework.core.KotlinDetector;
 import org.springframework.core.MethodIntrospector;
 import org.springframework.lang.Nullable;
+import org.springframework.util.AntPathMatcher;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.LinkedMultiValueMap;
@@ -52,6 +54,7 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsUtils;
 import org.springframework.web.method.HandlerMethod;
 import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.PathPrefixIndex;
 
 /**
  * Abstract base class for {@link HandlerMapping} implementations that define
@@ -389,8 +392,8 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 			addMatchingMappings(directPathMatches, matches, request);
 		}
 		if (matches.isEmpty()) {
-			// No choice but to go through all mappings...
-			addMatchingMappings(this.mappingRegistry.getMappings().keySet(), matches, request);
+			// No choice but to go through all mappings that may match...
+			addMatchingMappings(getCandidateMappings(lookupPath), matches, request);
 		}
 
 		if (!matches.isEmpty()) {
@@ -422,6 +425,22 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 		}
 	}
 
+	/**
+	 * Return the mappings to match against the given lookup path: with the
+	 * default {@link AntPathMatcher}, only the mappings whose patterns start
+	 * with literal segments of the lookup path (or with pattern syntax);
+	 * with any other {@link org.springframework.util.PathMatcher}, all mappings.
+	 * @see PathPrefixIndex
+	 */
+	private Collection<T> getCandidateMappings(String lookupPath) {
+		if (getPathMatcher().getClass() != AntPathMatcher.class) {
+			return this.mappingRegistry.getMappings().keySet();
+		}
+		Set<T> candidates = new LinkedHashSet<>();
+		this.mappingRegistry.getPathPrefixIndex().collect(lookupPath, candidates);
+		return candidates;
+	}
+
 	private void addMatchingMappings(Collection<T> mappings, List<Match> matches, HttpServletRequest request) {
 		for (T mapping : mappings) {
 			T match = getMatchingMapping(mapping, request);
@@ -536,6 +555,8 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 
 		private final MultiValueMap<String, T> urlLookup = new LinkedMultiValueMap<>();
 
+		private final PathPrefixIndex<T> pathPrefixIndex = new PathPrefixIndex<>();
+
 		private final Map<String, List<HandlerMethod>> nameLookup = new ConcurrentHashMap<>();
 
 		private final Map<HandlerMethod, CorsConfiguration> corsLookup = new ConcurrentHashMap<>();
@@ -559,6 +580,15 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 			return this.urlLookup.get(urlPath);
 		}
 
+		/**
+		 * Return the index of mappings by the literal prefix of their patterns.
+		 * Not thread-safe.
+		 * @see #acquireReadLock()
+		 */
+		public PathPrefixIndex<T> getPathPrefixIndex() {
+			return this.pathPrefixIndex;
+		}
+
 		/**
 		 * Return handler methods by mapping name. Thread-safe for concurrent use.
 		 */
@@ -604,6 +634,7 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 				for (String url : directUrls) {
 					this.urlLookup.add(url, mapping);
 				}
+				addToPathPrefixIndex(mapping);
 
 				String name = null;
 				if (getNamingStrategy() != null) {
@@ -634,6 +665,26 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 			}
 		}
 
+		private void addToPathPrefixIndex(T mapping) {
+			Set<String> patterns = getMappingPathPatterns(mapping);
+			if (patterns.isEmpty()) {
+				this.pathPrefixIndex.add("", mapping);
+			}
+			for (String pattern : patterns) {
+				this.pathPrefixIndex.add(pattern, mapping);
+			}
+		}
+
+		private void removeFromPathPrefixIndex(T mapping) {
+			Set<String> patterns = getMappingPathPatterns(mapping);
+			if (patterns.isEmpty()) {
+				this.pathPrefixIndex.remove("", mapping);
+			}
+			for (String pattern : patterns) {
+				this.pathPrefixIndex.remove(pattern, mapping);
+			}
+		}
+
 		private List<String> getDirectUrls(T mapping) {
 			List<String> urls = new ArrayList<>(1);
 			for (String path : getMappingPathPatterns(mapping)) {
@@ -682,6 +733,7 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 					}
 				}
 
+				removeFromPathPrefixIndex(definition.getMapping());
 				removeMappingName(definition);
 
 				this.corsLookup.remove(definition.getHandlerMethod());
@@ -131,6 +131,17 @@ public class SseEmitter extends ResponseBodyEmitter {
 		}
 	}
 
+	/**
+	 * Send a complete SSE event that is already encoded, as a single write.
+	 * @param event the encoded event, including the terminating blank line
+	 * @throws IOException raised when an I/O error occurs
+	 * @since 5.2.1
+	 * @see SseEmitterBroadcaster
+	 */
+	void sendEncoded(byte[] event) throws IOException {
+		super.send(event, TEXT_PLAIN);
+	}
+
 	@Override
 	public String toString() {
 		return "SseEmitter@" + ObjectUtils.getIdentityHexString(this);
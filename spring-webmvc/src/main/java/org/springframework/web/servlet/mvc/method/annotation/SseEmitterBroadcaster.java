@@ -0,0 +1,448 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.servlet.mvc.method.annotation;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+/**
+ * Broadcasts Server-Sent Events to any number of {@link SseEmitter} subscribers.
+ *
+ * <p>Each published event is converted once, with the configured
+ * {@link HttpMessageConverter HttpMessageConverters}, into a byte array that
+ * is shared by all subscribers and written with a single write and flush.
+ * Writes to the Servlet response are blocking, so every subscriber has its
+ * own bounded queue of pending events, drained on the given
+ * {@link TaskExecutor}, and a {@link SlowConsumerPolicy} that decides what
+ * happens when a subscriber does not keep up with the rate of published
+ * events. As a result, {@link #publish} never blocks on a slow client.
+ * Events published before the emitter is initialized with the response are
+ * held in the same bounded queue.
+ *
+ * <p>For example, in an annotated controller:
+ * <pre class="code">
+ * &#064;GetMapping("/events")
+ * public SseEmitter events() {
+ *     return this.broadcaster.subscribe();
+ * }
+ * </pre>
+ *
+ * @author Spring Framework Team
+ * @since 5.2.1
+ * @see SseEmitter
+ */
+public class SseEmitterBroadcaster {
+
+	private static final Log logger = LogFactory.getLog(SseEmitterBroadcaster.class);
+
+
+	private final List<HttpMessageConverter<?>> messageConverters;
+
+	private final TaskExecutor taskExecutor;
+
+	private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+	private SlowConsumerPolicy slowConsumerPolicy = SlowConsumerPolicy.DROP;
+
+	private int maxPendingEvents = 256;
+
+	private final AtomicLong publishedCount = new AtomicLong();
+
+	private final AtomicLong droppedCount = new AtomicLong();
+
+	private final AtomicLong disconnectedCount = new AtomicLong();
+
+
+	/**
+	 * Create a new broadcaster.
+	 * @param messageConverters converters to write event data with, typically
+	 * the same as those of the {@code RequestMappingHandlerAdapter}
+	 * @param taskExecutor the executor for the blocking writes to subscribers
+	 */
+	public SseEmitterBroadcaster(List<HttpMessageConverter<?>> messageConverters, TaskExecutor taskExecutor) {
+		Assert.notEmpty(messageConverters, "HttpMessageConverter List must not be empty");
+		Assert.notNull(taskExecutor, "TaskExecutor is required");
+		this.messageConverters = messageConverters;
+		this.taskExecutor = taskExecutor;
+	}
+
+
+	/**
+	 * Set the default policy applied to subscribers that do not keep up with
+	 * published events.
+	 * <p>By default this is set to {@link SlowConsumerPolicy#DROP}.
+	 * @param slowConsumerPolicy the policy to use
+	 */
+	public void setSlowConsumerPolicy(SlowConsumerPolicy slowConsumerPolicy) {
+		Assert.notNull(slowConsumerPolicy, "SlowConsumerPolicy must not be null");
+		this.slowConsumerPolicy = slowConsumerPolicy;
+	}
+
+	/**
+	 * Return the configured {@link #setSlowConsumerPolicy slow consumer policy}.
+	 */
+	public SlowConsumerPolicy getSlowConsumerPolicy() {
+		return this.slowConsumerPolicy;
+	}
+
+	/**
+	 * Set the maximum number of events that may be pending, i.e. published
+	 * but not yet written, for a single subscriber before the
+	 * {@link #setSlowConsumerPolicy slow consumer policy} applies.
+	 * <p>By default this is set to 256.
+	 * <p>Note that this property is ignored for
+	 * {@link SlowConsumerPolicy#LATEST}, which keeps a single pending event.
+	 * @param maxPendingEvents the maximum number of pending events
+	 */
+	public void setMaxPendingEvents(int maxPendingEvents) {
+		Assert.isTrue(maxPendingEvents > 0, "MaxPendingEvents must be greater than 0");
+		this.maxPendingEvents = maxPendingEvents;
+	}
+
+	/**
+	 * Return the configured {@link #setMaxPendingEvents max pending events}.
+	 */
+	public int getMaxPendingEvents() {
+		return this.maxPendingEvents;
+	}
+
+
+	/**
+	 * Create a new {@link SseEmitter} subscribed to published events, with the
+	 * configured {@link #setSlowConsumerPolicy slow consumer policy}, and the
+	 * default async request timeout.
+	 */
+	public SseEmitter subscribe() {
+		return subscribe(null, this.slowConsumerPolicy);
+	}
+
+	/**
+	 * Create a new {@link SseEmitter} subscribed to published events.
+	 * <p>The emitter is unsubscribed on completion, also if an application
+	 * registers its own {@link SseEmitter#onCompletion completion callback}.
+	 * @param timeout the timeout value in milliseconds, or {@code null} for
+	 * the default async request timeout
+	 * @param slowConsumerPolicy the policy for this subscriber
+	 */
+	public SseEmitter subscribe(@Nullable Long timeout, SlowConsumerPolicy slowConsumerPolicy) {
+		Assert.notNull(slowConsumerPolicy, "SlowConsumerPolicy must not be null");
+		Subscriber subscriber = new Subscriber(timeout, slowConsumerPolicy);
+		this.subscribers.add(subscriber);
+		return subscriber.emitter;
+	}
+
+	/**
+	 * Publish the given object formatted as a single SSE "data" line.
+	 * @param data the event data
+	 * @return the number of subscribers the event was sent to
+	 * @throws IOException if the event data cannot be converted
+	 */
+	public int publish(Object data) throws IOException {
+		return publish(SseEmitter.event().data(data));
+	}
+
+	/**
+	 * Convert the given event once and send it to all current subscribers.
+	 * @param event a builder for the event to publish
+	 * @return the number of subscribers the event was sent to
+	 * @throws IOException if the event data cannot be converted
+	 */
+	public int publish(SseEventBuilder event) throws IOException {
+		byte[] content = encode(event);
+		int count = 0;
+		for (Subscriber subscriber : this.subscribers) {
+			subscriber.offer(content);
+			count++;
+		}
+		this.publishedCount.incrementAndGet();
+		return count;
+	}
+
+	private byte[] encode(SseEventBuilder event) throws IOException {
+		EncodingOutputMessage outputMessage = new EncodingOutputMessage();
+		for (DataWithMediaType entry : event.build()) {
+			write(entry.getData(), entry.getMediaType(), outputMessage);
+		}
+		return outputMessage.toByteArray();
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> void write(T data, @Nullable MediaType mediaType, HttpOutputMessage outputMessage)
+			throws IOException {
+
+		for (HttpMessageConverter<?> converter : this.messageConverters) {
+			if (converter.canWrite(data.getClass(), mediaType)) {
+				((HttpMessageConverter<T>) converter).write(data, mediaType, outputMessage);
+				return;
+			}
+		}
+		throw new IllegalArgumentException("No suitable converter for " + data.getClass());
+	}
+
+	/**
+	 * Complete all current subscribers.
+	 */
+	public void complete() {
+		for (Subscriber subscriber : this.subscribers) {
+			subscriber.emitter.complete();
+		}
+	}
+
+
+	/**
+	 * Return the number of current subscribers.
+	 */
+	public int getSubscriberCount() {
+		return this.subscribers.size();
+	}
+
+	/**
+	 * Return the total number of published events.
+	 */
+	public long getPublishedCount() {
+		return this.publishedCount.get();
+	}
+
+	/**
+	 * Return the total number of events dropped for slow subscribers, across
+	 * all subscribers.
+	 */
+	public long getDroppedCount() {
+		return this.droppedCount.get();
+	}
+
+	/**
+	 * Return the total number of subscribers disconnected by
+	 * {@link SlowConsumerPolicy#DISCONNECT}.
+	 */
+	public long getDisconnectedCount() {
+		return this.disconnectedCount.get();
+	}
+
+	@Override
+	public String toString() {
+		return "SseEmitterBroadcaster[subscribers=" + getSubscriberCount() +
+				", published=" + getPublishedCount() + ", dropped=" + getDroppedCount() +
+				", disconnected=" + getDisconnectedCount() + "]";
+	}
+
+
+	/**
+	 * Policy for subscribers that do not keep up with published events.
+	 */
+	public enum SlowConsumerPolicy {
+
+		/**
+		 * Drop newly published events while the subscriber has the maximum
+		 * number of pending events.
+		 */
+		DROP,
+
+		/**
+		 * Keep only the latest pending event, replacing older ones.
+		 */
+		LATEST,
+
+		/**
+		 * Complete the emitter of the subscriber once it exceeds the maximum
+		 * number of pending events; clients typically reconnect.
+		 */
+		DISCONNECT
+	}
+
+
+	/**
+	 * A subscribed emitter with its queue of pending events, drained by at
+	 * most one task at a time once the emitter is initialized.
+	 */
+	private class Subscriber implements Runnable {
+
+		private final BroadcastEmitter emitter;
+
+		private final SlowConsumerPolicy policy;
+
+		private final Queue<byte[]> queue = new ConcurrentLinkedQueue<>();
+
+		private final AtomicInteger pending = new AtomicInteger();
+
+		private final AtomicInteger wip = new AtomicInteger();
+
+		private volatile boolean started;
+
+		Subscriber(@Nullable Long timeout, SlowConsumerPolicy policy) {
+			this.emitter = new BroadcastEmitter(timeout, this);
+			this.policy = policy;
+		}
+
+		void offer(byte[] event) {
+			int limit = (this.policy == SlowConsumerPolicy.LATEST ? 1 : maxPendingEvents);
+			if (this.pending.get() >= limit) {
+				switch (this.policy) {
+					case DROP:
+						droppedCount.incrementAndGet();
+						return;
+					case LATEST:
+						if (this.queue.poll() != null) {
+							this.pending.decrementAndGet();
+							droppedCount.incrementAndGet();
+						}
+						break;
+					case DISCONNECT:
+						disconnect();
+						return;
+				}
+			}
+			this.queue.add(event);
+			this.pending.incrementAndGet();
+			drain();
+		}
+
+		void start() {
+			this.started = true;
+			drain();
+		}
+
+		private void drain() {
+			if (this.started && this.wip.getAndIncrement() == 0) {
+				taskExecutor.execute(this);
+			}
+		}
+
+		@Override
+		public void run() {
+			int missed = 1;
+			do {
+				byte[] event;
+				while ((event = this.queue.poll()) != null) {
+					this.pending.decrementAndGet();
+					try {
+						this.emitter.sendEncoded(event);
+					}
+					catch (Throwable ex) {
+						// The container notifies the emitter of the failure: just stop sending
+						if (logger.isDebugEnabled()) {
+							logger.debug("Failed to send event to " + this.emitter + ": " + ex);
+						}
+						unsubscribe();
+						return;
+					}
+				}
+				missed = this.wip.addAndGet(-missed);
+			}
+			while (missed != 0);
+		}
+
+		private void disconnect() {
+			if (subscribers.remove(this)) {
+				disconnectedCount.incrementAndGet();
+				if (logger.isDebugEnabled()) {
+					logger.debug("Disconnecting " + this.emitter + " after " +
+							maxPendingEvents + " pending events");
+				}
+				this.queue.clear();
+				this.emitter.complete();
+			}
+		}
+
+		void unsubscribe() {
+			subscribers.remove(this);
+			this.queue.clear();
+		}
+	}
+
+
+	/**
+	 * SseEmitter that starts draining its subscriber once it is initialized,
+	 * and that unsubscribes on completion in addition to any application
+	 * {@link #onCompletion completion callback}.
+	 */
+	private static class BroadcastEmitter extends SseEmitter {
+
+		private final Subscriber subscriber;
+
+		BroadcastEmitter(@Nullable Long timeout, Subscriber subscriber) {
+			super(timeout);
+			this.subscriber = subscriber;
+			super.onCompletion(subscriber::unsubscribe);
+		}
+
+		@Override
+		synchronized void initialize(Handler handler) throws IOException {
+			super.initialize(handler);
+			this.subscriber.start();
+		}
+
+		@Override
+		public synchronized void onCompletion(Runnable callback) {
+			super.onCompletion(() -> {
+				try {
+					callback.run();
+				}
+				finally {
+					this.subscriber.unsubscribe();
+				}
+			});
+		}
+	}
+
+
+	/**
+	 * HttpOutputMessage that collects the converted content of an event.
+	 */
+	private static class EncodingOutputMessage implements HttpOutputMessage {
+
+		private final HttpHeaders headers = new HttpHeaders();
+
+		private final ByteArrayOutputStream body = new ByteArrayOutputStream(256);
+
+		@Override
+		public HttpHeaders getHeaders() {
+			return this.headers;
+		}
+
+		@Override
+		public OutputStream getBody() {
+			return this.body;
+		}
+
+		byte[] toByteArray() {
+			return this.body.toByteArray();
+		}
+	}
+
+}
@@ -0,0 +1,450 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.servlet.resource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.GZIPOutputStream;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * A {@link ResourceResolver} that keeps the content of resolved resources in
+ * memory, along with a gzip-compressed variant, and serves subsequent requests
+ * for the same path from memory, without accessing the file system.
+ *
+ * <p>Content is kept in direct (off-heap) buffers, in a cache bounded by the
+ * {@link #setMaxCacheSize total size} of cached content, and evicted in least
+ * recently used order. Only resources up to the
+ * {@link #setMaxEntrySize maximum entry size} are cached, so that the cache
+ * is used for the many small assets of a typical front-end application.
+ *
+ * <p>A gzip-compressed variant is created when a resource is first resolved,
+ * only once for concurrent requests for the same path, and kept only if it is
+ * significantly smaller than the original content, so that already compressed
+ * content, e.g. images, is served as it is. The compressed variant is served
+ * to clients that accept the {@code gzip} content coding with a non-zero
+ * quality value. Each variant has a strong ETag, computed from its content.
+ *
+ * <p>This resolver should be ordered first in the chain. Cached content is
+ * not refreshed if the underlying resources change, so this resolver is
+ * intended for production use, in place of a {@link CachingResourceResolver}
+ * and an {@link EncodedResourceResolver}.
+ *
+ * @author Spring Framework Team
+ * @since 5.2.1
+ */
+public class ContentCachingResourceResolver extends AbstractResourceResolver {
+
+	private final Map<String, CachedContent> cache = new LinkedHashMap<>(64, 0.75f, true);
+
+	private final ConcurrentMap<String, Object> cacheMissLocks = new ConcurrentHashMap<>();
+
+	private long cacheSize;
+
+	private long maxCacheSize = 16 * 1024 * 1024;
+
+	private long maxEntrySize = 256 * 1024;
+
+	private boolean compress = true;
+
+
+	/**
+	 * Set the maximum total size of cached content, including compressed
+	 * variants, after which the least recently used resources are evicted.
+	 * <p>By default this is set to 16MB.
+	 * @param maxCacheSize the maximum cache size in bytes
+	 */
+	public void setMaxCacheSize(long maxCacheSize) {
+		Assert.isTrue(maxCacheSize > 0, "Max cache size must be greater than 0");
+		this.maxCacheSize = maxCacheSize;
+	}
+
+	/**
+	 * Return the configured {@link #setMaxCacheSize max cache size}.
+	 */
+	public long getMaxCacheSize() {
+		return this.maxCacheSize;
+	}
+
+	/**
+	 * Set the maximum size of resources to cache. Larger resources are
+	 * resolved through the rest of the chain on every request.
+	 * <p>By default this is set to 256K.
+	 * @param maxEntrySize the maximum resource size in bytes
+	 */
+	public void setMaxEntrySize(long maxEntrySize) {
+		this.maxEntrySize = maxEntrySize;
+	}
+
+	/**
+	 * Return the configured {@link #setMaxEntrySize max entry size}.
+	 */
+	public long getMaxEntrySize() {
+		return this.maxEntrySize;
+	}
+
+	/**
+	 * Whether to create and serve gzip-compressed variants of cached resources.
+	 * <p>By default this is set to {@code true}.
+	 */
+	public void setCompress(boolean compress) {
+		this.compress = compress;
+	}
+
+	/**
+	 * Whether gzip-compressed variants are {@link #setCompress created}.
+	 */
+	public boolean isCompress() {
+		return this.compress;
+	}
+
+	/**
+	 * Return the current total size of cached content in bytes.
+	 */
+	public long getCacheSize() {
+		synchronized (this.cache) {
+			return this.cacheSize;
+		}
+	}
+
+	/**
+	 * Remove all cached content.
+	 */
+	public void clearCache() {
+		synchronized (this.cache) {
+			this.cache.clear();
+			this.cacheSize = 0;
+		}
+	}
+
+
+	@Override
+	protected Resource resolveResourceInternal(@Nullable HttpServletRequest request, String requestPath,
+			List<? extends Resource> locations, ResourceResolverChain chain) {
+
+		CachedContent content = get(requestPath);
+		if (content == null) {
+			// Let concurrent requests for the same path wait for the content
+			// to be cached once, rather than each reading and compressing it
+			Object lock = this.cacheMissLocks.computeIfAbsent(requestPath, key -> new Object());
+			try {
+				synchronized (lock) {
+					content = get(requestPath);
+					if (content == null) {
+						Resource resource = chain.resolveResource(request, requestPath, locations);
+						if (resource == null || !isCacheable(resource)) {
+							return resource;
+						}
+						try {
+							content = new CachedContent(resource, this.compress);
+						}
+						catch (IOException ex) {
+							if (logger.isDebugEnabled()) {
+								logger.debug("Failed to cache content of " + resource, ex);
+							}
+							return resource;
+						}
+						put(requestPath, content);
+					}
+				}
+			}
+			finally {
+				this.cacheMissLocks.remove(requestPath, lock);
+			}
+		}
+		return content.getResource(request != null && acceptsGzip(request));
+	}
+
+	@Nullable
+	private CachedContent get(String requestPath) {
+		synchronized (this.cache) {
+			return this.cache.get(requestPath);
+		}
+	}
+
+	private boolean isCacheable(Resource resource) {
+		if (resource instanceof HttpResource &&
+				((HttpResource) resource).getResponseHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)) {
+			return false;
+		}
+		try {
+			return (resource.isReadable() && resource.contentLength() <= this.maxEntrySize);
+		}
+		catch (IOException ex) {
+			return false;
+		}
+	}
+
+	private void put(String requestPath, CachedContent content) {
+		synchronized (this.cache) {
+			CachedContent previous = this.cache.put(requestPath, content);
+			if (previous != null) {
+				this.cacheSize -= previous.getSize();
+			}
+			this.cacheSize += content.getSize();
+			Iterator<CachedContent> iterator = this.cache.values().iterator();
+			while (this.cacheSize > this.maxCacheSize && iterator.hasNext()) {
+				this.cacheSize -= iterator.next().getSize();
+				iterator.remove();
+			}
+		}
+	}
+
+	private static boolean acceptsGzip(HttpServletRequest request) {
+		Enumeration<String> headerValues = request.getHeaders(HttpHeaders.ACCEPT_ENCODING);
+		if (headerValues == null) {
+			return false;
+		}
+		Double gzipQuality = null;
+		Double wildcardQuality = null;
+		while (headerValues.hasMoreElements()) {
+			for (String token : StringUtils.tokenizeToStringArray(headerValues.nextElement(), ",")) {
+				String[] parts = StringUtils.tokenizeToStringArray(token, ";");
+				if (parts.length == 0) {
+					continue;
+				}
+				String coding = parts[0].toLowerCase(Locale.ENGLISH);
+				if (coding.equals("gzip")) {
+					gzipQuality = parseQuality(parts);
+				}
+				else if (coding.equals("*")) {
+					wildcardQuality = parseQuality(parts);
+				}
+			}
+		}
+		Double quality = (gzipQuality != null ? gzipQuality : wildcardQuality);
+		return (quality != null && quality > 0);
+	}
+
+	private static double parseQuality(String[] parts) {
+		for (int i = 1; i < parts.length; i++) {
+			String part = parts[i];
+			if (part.startsWith("q=") || part.startsWith("Q=")) {
+				try {
+					return Double.parseDouble(part.substring(2));
+				}
+				catch (NumberFormatException ex) {
+					return 0;
+				}
+			}
+		}
+		return 1;
+	}
+
+	@Override
+	protected String resolveUrlPathInternal(String resourceUrlPath,
+			List<? extends Resource> locations, ResourceResolverChain chain) {
+
+		return chain.resolveUrlPath(resourceUrlPath, locations);
+	}
+
+
+	/**
+	 * The cached content of a resource, and its compressed variant, if any.
+	 */
+	private static final class CachedContent {
+
+		private final Resource original;
+
+		private final long lastModified;
+
+		private final CachedResource resource;
+
+		@Nullable
+		private final CachedResource compressedResource;
+
+		CachedContent(Resource original, boolean compress) throws IOException {
+			byte[] content;
+			try (InputStream inputStream = original.getInputStream()) {
+				content = StreamUtils.copyToByteArray(inputStream);
+			}
+			byte[] compressed = (compress ? compress(content) : null);
+			this.original = original;
+			this.lastModified = getLastModified(original);
+			this.resource = new CachedResource(this, content, null, compressed != null);
+			this.compressedResource = (compressed != null ? new CachedResource(this, compressed, "gzip", true) : null);
+		}
+
+		@Nullable
+		private static byte[] compress(byte[] content) throws IOException {
+			ByteArrayOutputStream outputStream = new ByteArrayOutputStream(content.length / 2);
+			try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream)) {
+				gzipOutputStream.write(content);
+			}
+			// Not worth it unless at least 10% smaller
+			return (outputStream.size() < content.length * 0.9 ? outputStream.toByteArray() : null);
+		}
+
+		private static long getLastModified(Resource resource) {
+			try {
+				return resource.lastModified();
+			}
+			catch (IOException ex) {
+				return -1;
+			}
+		}
+
+		long getSize() {
+			return this.resource.content.capacity() +
+					(this.compressedResource != null ? this.compressedResource.content.capacity() : 0);
+		}
+
+		Resource getResource(boolean acceptsGzip) {
+			return (acceptsGzip && this.compressedResource != null ? this.compressedResource : this.resource);
+		}
+	}
+
+
+	/**
+	 * An {@link HttpResource} backed by cached content.
+	 */
+	private static final class CachedResource extends AbstractResource implements HttpResource {
+
+		private final CachedContent cachedContent;
+
+		private final ByteBuffer content;
+
+		private final HttpHeaders headers = new HttpHeaders();
+
+		CachedResource(CachedContent cachedContent, byte[] content, @Nullable String coding, boolean vary) {
+			this.cachedContent = cachedContent;
+			this.content = ByteBuffer.allocateDirect(content.length);
+			this.content.put(content).flip();
+			Resource original = cachedContent.original;
+			if (original instanceof HttpResource) {
+				this.headers.putAll(((HttpResource) original).getResponseHeaders());
+			}
+			if (this.headers.getETag() == null || coding != null) {
+				this.headers.setETag("\"" + DigestUtils.md5DigestAsHex(content) + "\"");
+			}
+			if (coding != null) {
+				this.headers.set(HttpHeaders.CONTENT_ENCODING, coding);
+			}
+			if (vary) {
+				this.headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+			}
+		}
+
+		@Override
+		public InputStream getInputStream() {
+			return new ByteBufferInputStream(this.content.duplicate());
+		}
+
+		@Override
+		public boolean exists() {
+			return true;
+		}
+
+		@Override
+		public long contentLength() {
+			return this.content.capacity();
+		}
+
+		@Override
+		public long lastModified() {
+			return this.cachedContent.lastModified;
+		}
+
+		@Override
+		public Resource createRelative(String relativePath) throws IOException {
+			return this.cachedContent.original.createRelative(relativePath);
+		}
+
+		@Override
+		@Nullable
+		public String getFilename() {
+			return this.cachedContent.original.getFilename();
+		}
+
+		@Override
+		public String getDescription() {
+			return "Cached " + this.cachedContent.original.getDescription() +
+					(this.headers.containsKey(HttpHeaders.CONTENT_ENCODING) ? " (gzip)" : "");
+		}
+
+		@Override
+		public HttpHeaders getResponseHeaders() {
+			HttpHeaders headers = new HttpHeaders();
+			headers.putAll(this.headers);
+			return headers;
+		}
+	}
+
+
+	/**
+	 * InputStream over the remaining content of a {@link ByteBuffer}.
+	 */
+	private static final class ByteBufferInputStream extends InputStream {
+
+		private final ByteBuffer buffer;
+
+		ByteBufferInputStream(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public int read() {
+			return (this.buffer.hasRemaining() ? this.buffer.get() & 0xFF : -1);
+		}
+
+		@Override
+		public int read(byte[] bytes, int off, int len) {
+			if (len == 0) {
+				return 0;
+			}
+			if (!this.buffer.hasRemaining()) {
+				return -1;
+			}
+			len = Math.min(len, this.buffer.remaining());
+			this.buffer.get(bytes, off, len);
+			return len;
+		}
+
+		@Override
+		public long skip(long n) {
+			int count = (int) Math.max(0, Math.min(n, this.buffer.remaining()));
+			this.buffer.position(this.buffer.position() + count);
+			return count;
+		}
+
+		@Override
+		public int available() {
+			return this.buffer.remaining();
+		}
+	}
+
+}
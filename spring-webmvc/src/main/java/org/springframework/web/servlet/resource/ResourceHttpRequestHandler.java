@@ -16,6 +16,7 @@
 
 package org.springframework.web.servlet.resource;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
@@ -28,6 +29,7 @@ import java.util.Map;
 import java.util.stream.Collectors;
 
 import javax.servlet.ServletException;
+import javax.servlet.ServletResponseWrapper;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
@@ -39,6 +41,7 @@ import org.springframework.context.ApplicationContext;
 import org.springframework.context.EmbeddedValueResolverAware;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
+import org.springframework.core.io.support.ResourceRegion;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpRange;
@@ -103,6 +106,15 @@ public class ResourceHttpRequestHandler extends WebContentGenerator
 
 	private static final String URL_RESOURCE_CHARSET_PREFIX = "[charset=";
 
+	// Request attributes through which Tomcat exposes and accepts sendfile transfers
+	private static final String SENDFILE_SUPPORT_ATTRIBUTE = "org.apache.tomcat.sendfile.support";
+
+	private static final String SENDFILE_FILENAME_ATTRIBUTE = "org.apache.tomcat.sendfile.filename";
+
+	private static final String SENDFILE_START_ATTRIBUTE = "org.apache.tomcat.sendfile.start";
+
+	private static final String SENDFILE_END_ATTRIBUTE = "org.apache.tomcat.sendfile.end";
+
 
 	private final List<String> locationValues = new ArrayList<>(4);
 
@@ -141,6 +153,8 @@ public class ResourceHttpRequestHandler extends WebContentGenerator
 	@Nullable
 	private StringValueResolver embeddedValueResolver;
 
+	private long sendfileThreshold = 48 * 1024;
+
 
 	public ResourceHttpRequestHandler() {
 		super(HttpMethod.GET.name(), HttpMethod.HEAD.name());
@@ -312,6 +326,28 @@ public class ResourceHttpRequestHandler extends WebContentGenerator
 		return this.urlPathHelper;
 	}
 
+	/**
+	 * Set the minimum size of file-based resources to hand over to the
+	 * container for a zero-copy "sendfile" transfer, where supported (Tomcat
+	 * with the NIO, NIO2 or APR connector), instead of copying the content
+	 * through the response output stream. Smaller resources are copied, since
+	 * for those the cost of setting up the transfer outweighs the benefit.
+	 * <p>By default this is set to 48K, in line with Tomcat's own default.
+	 * Use -1 to disable sendfile transfers.
+	 * @since 5.2.1
+	 */
+	public void setSendfileThreshold(long sendfileThreshold) {
+		this.sendfileThreshold = sendfileThreshold;
+	}
+
+	/**
+	 * Return the configured sendfile threshold.
+	 * @since 5.2.1
+	 */
+	public long getSendfileThreshold() {
+		return this.sendfileThreshold;
+	}
+
 	@Override
 	public void setEmbeddedValueResolver(StringValueResolver resolver) {
 		this.embeddedValueResolver = resolver;
@@ -465,7 +501,7 @@ public class ResourceHttpRequestHandler extends WebContentGenerator
 		checkRequest(request);
 
 		// Header phase
-		if (new ServletWebRequest(request, response).checkNotModified(resource.lastModified())) {
+		if (new ServletWebRequest(request, response).checkNotModified(getETag(resource), resource.lastModified())) {
 			logger.trace("Resource not modified");
 			return;
 		}
@@ -486,7 +522,9 @@ public class ResourceHttpRequestHandler extends WebContentGenerator
 		if (request.getHeader(HttpHeaders.RANGE) == null) {
 			Assert.state(this.resourceHttpMessageConverter != null, "Not initialized");
 			setHeaders(response, resource, mediaType);
-			this.resourceHttpMessageConverter.write(resource, mediaType, outputMessage);
+			if (!sendfile(request, response, resource, 0, resource.contentLength())) {
+				this.resourceHttpMessageConverter.write(resource, mediaType, outputMessage);
+			}
 		}
 		else {
 			Assert.state(this.resourceRegionHttpMessageConverter != null, "Not initialized");
@@ -495,8 +533,10 @@ public class ResourceHttpRequestHandler extends WebContentGenerator
 			try {
 				List<HttpRange> httpRanges = inputMessage.getHeaders().getRange();
 				response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
-				this.resourceRegionHttpMessageConverter.write(
-						HttpRange.toResourceRegions(httpRanges, resource), mediaType, outputMessage);
+				List<ResourceRegion> regions = HttpRange.toResourceRegions(httpRanges, resource);
+				if (regions.size() != 1 || !sendfileRegion(request, response, regions.get(0), mediaType)) {
+					this.resourceRegionHttpMessageConverter.write(regions, mediaType, outputMessage);
+				}
 			}
 			catch (IllegalArgumentException ex) {
 				response.setHeader("Content-Range", "bytes */" + resource.contentLength());
@@ -505,6 +545,59 @@ public class ResourceHttpRequestHandler extends WebContentGenerator
 		}
 	}
 
+	private boolean sendfileRegion(HttpServletRequest request, HttpServletResponse response,
+			ResourceRegion region, @Nullable MediaType mediaType) throws IOException {
+
+		long resourceLength = region.getResource().contentLength();
+		long start = region.getPosition();
+		long end = Math.min(start + region.getCount(), resourceLength);
+		if (!isSendfileCandidate(request, response, region.getResource(), end - start)) {
+			return false;
+		}
+		response.setHeader("Content-Range", "bytes " + start + '-' + (end - 1) + '/' + resourceLength);
+		response.setContentLengthLong(end - start);
+		if (mediaType != null) {
+			response.setContentType(mediaType.toString());
+		}
+		return sendfile(request, response, region.getResource(), start, end);
+	}
+
+	/**
+	 * Hand the given byte range of a file-based resource over to the container
+	 * for a zero-copy transfer, if the container supports it.
+	 * @return {@code true} if the container will write the response body,
+	 * {@code false} if the content needs to be written by the caller
+	 */
+	private boolean sendfile(HttpServletRequest request, HttpServletResponse response,
+			Resource resource, long start, long end) throws IOException {
+
+		if (!isSendfileCandidate(request, response, resource, end - start)) {
+			return false;
+		}
+		if (response.getContentType() == null) {
+			response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+		}
+		File file = resource.getFile();
+		if (logger.isTraceEnabled()) {
+			logger.trace("Sendfile bytes " + start + "-" + end + " of [" + file + "]");
+		}
+		request.setAttribute(SENDFILE_FILENAME_ATTRIBUTE, file.getAbsolutePath());
+		request.setAttribute(SENDFILE_START_ATTRIBUTE, start);
+		request.setAttribute(SENDFILE_END_ATTRIBUTE, end);
+		return true;
+	}
+
+	private boolean isSendfileCandidate(HttpServletRequest request, HttpServletResponse response,
+			Resource resource, long length) {
+
+		// A wrapped response may intend to process the body (e.g. for ETag
+		// calculation or compression), which the container would bypass
+		return (this.sendfileThreshold != -1 && length >= this.sendfileThreshold &&
+				!(response instanceof ServletResponseWrapper) && !response.isCommitted() &&
+				Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTRIBUTE)) &&
+				resource.isFile());
+	}
+
 	@Nullable
 	protected Resource getResource(HttpServletRequest request) throws IOException {
 		String path = (String) request.getAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE);
@@ -672,6 +765,15 @@ public class ResourceHttpRequestHandler extends WebContentGenerator
 				this.contentNegotiationStrategy.getMediaTypeForResource(resource) : null);
 	}
 
+	/**
+	 * Return the ETag of the given resource, if it is an {@link HttpResource}
+	 * with an {@code ETag} response header, for use in conditional requests.
+	 */
+	@Nullable
+	private static String getETag(Resource resource) {
+		return (resource instanceof HttpResource ? ((HttpResource) resource).getResponseHeaders().getETag() : null);
+	}
+
 	/**
 	 * Set headers on the given servlet response.
 	 * Called for GET requests as well as HEAD requests.
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.servlet.mvc.method.annotation;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitterBroadcaster.SlowConsumerPolicy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.web.servlet.mvc.method.annotation.SseEmitter.event;
+
+/**
+ * Unit tests for {@link SseEmitterBroadcaster}.
+ *
+ * @author Spring Framework Team
+ */
+public class SseEmitterBroadcasterTests {
+
+	private final List<HttpMessageConverter<?>> converters =
+			Arrays.asList(new StringHttpMessageConverter(), new MappingJackson2HttpMessageConverter());
+
+	private final List<Runnable> tasks = new ArrayList<>();
+
+	private final SseEmitterBroadcaster broadcaster = new SseEmitterBroadcaster(this.converters, this.tasks::add);
+
+
+	@Test
+	public void publishToAllSubscribers() throws IOException {
+		TestHandler first = subscribe(this.broadcaster.subscribe());
+		TestHandler second = subscribe(this.broadcaster.subscribe());
+
+		assertThat(this.broadcaster.publish(event().id("1").data("foo"))).isEqualTo(2);
+		runTasks();
+
+		assertThat(first.events).containsExactly("id:1\ndata:foo\n\n");
+		assertThat(second.events).containsExactly("id:1\ndata:foo\n\n");
+		assertThat(first.mediaTypes).containsExactly(SseEmitter.TEXT_PLAIN);
+		assertThat(this.broadcaster.getPublishedCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void publishJson() throws IOException {
+		TestHandler handler = subscribe(this.broadcaster.subscribe());
+
+		this.broadcaster.publish(event().data(new JacksonPojo("foo"), MediaType.APPLICATION_JSON));
+		runTasks();
+
+		assertThat(handler.events).containsExactly("data:{\"value\":\"foo\"}\n\n");
+	}
+
+	@Test
+	public void completeUnsubscribes() throws IOException {
+		TestHandler handler = subscribe(this.broadcaster.subscribe());
+		assertThat(this.broadcaster.getSubscriberCount()).isEqualTo(1);
+
+		this.broadcaster.complete();
+
+		assertThat(handler.completed).isTrue();
+		assertThat(this.broadcaster.getSubscriberCount()).isEqualTo(0);
+		assertThat(this.broadcaster.publish("foo")).isEqualTo(0);
+	}
+
+	@Test
+	public void completeWithCompletionCallbackUnsubscribes() throws IOException {
+		SseEmitter emitter = this.broadcaster.subscribe();
+		List<String> callbacks = new ArrayList<>();
+		emitter.onCompletion(() -> callbacks.add("completed"));
+		subscribe(emitter);
+
+		this.broadcaster.complete();
+
+		assertThat(callbacks).containsExactly("completed");
+		assertThat(this.broadcaster.getSubscriberCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void publishBeforeInitialize() throws IOException {
+		this.broadcaster.setMaxPendingEvents(2);
+		SseEmitter emitter = this.broadcaster.subscribe();
+
+		this.broadcaster.publish("foo");
+		this.broadcaster.publish("bar");
+		this.broadcaster.publish("baz");
+		assertThat(this.tasks).isEmpty();
+
+		TestHandler handler = subscribe(emitter);
+		runTasks();
+
+		assertThat(handler.events).containsExactly("data:foo\n\n", "data:bar\n\n");
+		assertThat(this.broadcaster.getDroppedCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void dropForSlowSubscriber() throws IOException {
+		this.broadcaster.setMaxPendingEvents(1);
+		TestHandler handler = subscribe(this.broadcaster.subscribe());
+
+		this.broadcaster.publish("foo");
+		this.broadcaster.publish("bar");
+		this.broadcaster.publish("baz");
+		runTasks();
+
+		assertThat(handler.events).containsExactly("data:foo\n\n");
+		assertThat(this.broadcaster.getDroppedCount()).isEqualTo(2);
+	}
+
+	@Test
+	public void latestForSlowSubscriber() throws IOException {
+		TestHandler handler = subscribe(this.broadcaster.subscribe(null, SlowConsumerPolicy.LATEST));
+
+		this.broadcaster.publish("foo");
+		this.broadcaster.publish("bar");
+		this.broadcaster.publish("baz");
+		runTasks();
+
+		assertThat(handler.events).containsExactly("data:baz\n\n");
+		assertThat(this.broadcaster.getDroppedCount()).isEqualTo(2);
+	}
+
+	@Test
+	public void disconnectSlowSubscriber() throws IOException {
+		this.broadcaster.setSlowConsumerPolicy(SlowConsumerPolicy.DISCONNECT);
+		this.broadcaster.setMaxPendingEvents(1);
+		TestHandler handler = subscribe(this.broadcaster.subscribe());
+
+		this.broadcaster.publish("foo");
+		this.broadcaster.publish("bar");
+		runTasks();
+
+		assertThat(handler.events).isEmpty();
+		assertThat(handler.completed).isTrue();
+		assertThat(this.broadcaster.getDisconnectedCount()).isEqualTo(1);
+		assertThat(this.broadcaster.getSubscriberCount()).isEqualTo(0);
+	}
+
+
+	private TestHandler subscribe(SseEmitter emitter) throws IOException {
+		TestHandler handler = new TestHandler();
+		emitter.initialize(handler);
+		return handler;
+	}
+
+	private void runTasks() {
+		List<Runnable> tasks = new ArrayList<>(this.tasks);
+		this.tasks.clear();
+		tasks.forEach(Runnable::run);
+	}
+
+
+	private static class JacksonPojo {
+
+		private final String value;
+
+		JacksonPojo(String value) {
+			this.value = value;
+		}
+
+		public String getValue() {
+			return this.value;
+		}
+	}
+
+
+	private static class TestHandler implements ResponseBodyEmitter.Handler {
+
+		private final List<String> events = new ArrayList<>();
+
+		private final List<MediaType> mediaTypes = new ArrayList<>();
+
+		private Runnable completionCallback;
+
+		private boolean completed;
+
+		@Override
+		public void send(Object data, MediaType mediaType) {
+			this.events.add(new String((byte[]) data, StandardCharsets.UTF_8));
+			this.mediaTypes.add(mediaType);
+		}
+
+		@Override
+		public void complete() {
+			this.completed = true;
+			this.completionCallback.run();
+		}
+
+		@Override
+		public void completeWithError(Throwable failure) {
+		}
+
+		@Override
+		public void onTimeout(Runnable callback) {
+		}
+
+		@Override
+		public void onError(Consumer<Throwable> callback) {
+		}
+
+		@Override
+		public void onCompletion(Runnable callback) {
+			this.completionCallback = callback;
+		}
+	}
+
+}
@@ -655,6 +655,50 @@ public class ResourceHttpRequestHandlerTests {
 		assertThat(ranges[11]).isEqualTo("t.");
 	}
 
+	@Test
+	public void sendfile() throws Exception {
+		this.handler.setSendfileThreshold(0);
+		this.request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+		this.request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, "foo.txt");
+		this.handler.handleRequest(this.request, this.response);
+
+		assertThat(this.response.getStatus()).isEqualTo(200);
+		assertThat(this.response.getContentType()).isEqualTo("text/plain");
+		assertThat(this.response.getContentLength()).isEqualTo(10);
+		assertThat(this.response.getContentAsByteArray()).isEmpty();
+		assertThat(this.request.getAttribute("org.apache.tomcat.sendfile.filename"))
+				.isEqualTo(new ClassPathResource("test/foo.txt", getClass()).getFile().getAbsolutePath());
+		assertThat(this.request.getAttribute("org.apache.tomcat.sendfile.start")).isEqualTo(0L);
+		assertThat(this.request.getAttribute("org.apache.tomcat.sendfile.end")).isEqualTo(10L);
+	}
+
+	@Test
+	public void sendfileByteRange() throws Exception {
+		this.handler.setSendfileThreshold(0);
+		this.request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+		this.request.addHeader("Range", "bytes=4-");
+		this.request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, "foo.txt");
+		this.handler.handleRequest(this.request, this.response);
+
+		assertThat(this.response.getStatus()).isEqualTo(206);
+		assertThat(this.response.getContentType()).isEqualTo("text/plain");
+		assertThat(this.response.getContentLength()).isEqualTo(6);
+		assertThat(this.response.getHeader("Content-Range")).isEqualTo("bytes 4-9/10");
+		assertThat(this.response.getContentAsByteArray()).isEmpty();
+		assertThat(this.request.getAttribute("org.apache.tomcat.sendfile.start")).isEqualTo(4L);
+		assertThat(this.request.getAttribute("org.apache.tomcat.sendfile.end")).isEqualTo(10L);
+	}
+
+	@Test
+	public void sendfileNotUsedBelowThreshold() throws Exception {
+		this.request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+		this.request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, "foo.txt");
+		this.handler.handleRequest(this.request, this.response);
+
+		assertThat(this.response.getContentAsString()).isEqualTo("Some text.");
+		assertThat(this.request.getAttribute("org.apache.tomcat.sendfile.filename")).isNull();
+	}
+
 	@Test  // SPR-14005
 	public void doOverwriteExistingCacheControlHeaders() throws Exception {
 		this.request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, "foo.css");
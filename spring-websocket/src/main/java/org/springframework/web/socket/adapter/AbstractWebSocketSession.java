@@ -17,6 +17,7 @@
 package org.springframework.web.socket.adapter;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -119,6 +120,21 @@ public abstract class AbstractWebSocketSession<T> implements NativeWebSocketSess
 		}
 	}
 
+	/**
+	 * Send the given messages, in order, with as few writes to the underlying
+	 * transport as the WebSocket runtime allows, e.g. through its support for
+	 * batching outgoing messages.
+	 * <p>This implementation sends one message at a time.
+	 * @param messages the messages to send
+	 * @throws IOException if sending a message fails
+	 * @since 5.2.1
+	 */
+	public void sendMessages(List<? extends WebSocketMessage<?>> messages) throws IOException {
+		for (WebSocketMessage<?> message : messages) {
+			sendMessage(message);
+		}
+	}
+
 	protected abstract void sendTextMessage(TextMessage message) throws IOException;
 
 	protected abstract void sendBinaryMessage(BinaryMessage message) throws IOException;
@@ -25,6 +25,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
+import org.eclipse.jetty.websocket.api.BatchMode;
 import org.eclipse.jetty.websocket.api.RemoteEndpoint;
 import org.eclipse.jetty.websocket.api.Session;
 import org.eclipse.jetty.websocket.api.WebSocketException;
@@ -40,6 +41,7 @@ import org.springframework.web.socket.PingMessage;
 import org.springframework.web.socket.PongMessage;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketMessage;
 import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.adapter.AbstractWebSocketSession;
 
@@ -201,6 +203,27 @@ public class JettyWebSocketSession extends AbstractWebSocketSession<Session> {
 	}
 
 
+	/**
+	 * Send the given messages in {@link BatchMode#ON batch mode}, flushing
+	 * the remote endpoint once all messages are sent, so that Jetty may
+	 * combine them into fewer writes to the underlying connection.
+	 * @since 5.2.1
+	 */
+	@Override
+	public void sendMessages(List<? extends WebSocketMessage<?>> messages) throws IOException {
+		checkNativeSessionInitialized();
+		RemoteEndpoint remote = getRemoteEndpoint();
+		BatchMode batchMode = remote.getBatchMode();
+		remote.setBatchMode(BatchMode.ON);
+		try {
+			super.sendMessages(messages);
+		}
+		finally {
+			remote.setBatchMode(batchMode);
+		}
+		remote.flush();
+	}
+
 	@Override
 	protected void sendTextMessage(TextMessage message) throws IOException {
 		getRemoteEndpoint().sendString(message.getPayload());
@@ -28,6 +28,7 @@ import java.util.Map;
 import javax.websocket.CloseReason;
 import javax.websocket.CloseReason.CloseCodes;
 import javax.websocket.Extension;
+import javax.websocket.RemoteEndpoint;
 import javax.websocket.Session;
 
 import org.springframework.http.HttpHeaders;
@@ -40,6 +41,7 @@ import org.springframework.web.socket.PingMessage;
 import org.springframework.web.socket.PongMessage;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketMessage;
 import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.adapter.AbstractWebSocketSession;
 
@@ -210,6 +212,31 @@ public class StandardWebSocketSession extends AbstractWebSocketSession<Session>
 		}
 	}
 
+	/**
+	 * Send the given messages with batching enabled on the remote endpoint,
+	 * if not already enabled, so that the WebSocket runtime may combine them
+	 * into fewer writes to the underlying connection.
+	 * @since 5.2.1
+	 * @see RemoteEndpoint#setBatchingAllowed(boolean)
+	 */
+	@Override
+	public void sendMessages(List<? extends WebSocketMessage<?>> messages) throws IOException {
+		checkNativeSessionInitialized();
+		RemoteEndpoint.Basic remote = getNativeSession().getBasicRemote();
+		if (remote.getBatchingAllowed()) {
+			super.sendMessages(messages);
+			return;
+		}
+		remote.setBatchingAllowed(true);
+		try {
+			super.sendMessages(messages);
+		}
+		finally {
+			// Sends any messages still batched
+			remote.setBatchingAllowed(false);
+		}
+	}
+
 	@Override
 	protected void sendTextMessage(TextMessage message) throws IOException {
 		getNativeSession().getBasicRemote().sendText(message.getPayload(), message.isLast());
@@ -18,8 +18,10 @@ package org.springframework.web.socket.config;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Arrays;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.logging.Log;
@@ -27,6 +29,7 @@ import org.apache.commons.logging.LogFactory;
 
 import org.springframework.core.task.TaskExecutor;
 import org.springframework.lang.Nullable;
+import org.springframework.messaging.simp.SessionAffinityTaskExecutor;
 import org.springframework.messaging.simp.stomp.StompBrokerRelayMessageHandler;
 import org.springframework.scheduling.TaskScheduler;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
@@ -205,8 +208,20 @@ public class WebSocketMessageBrokerStats {
 	private String getExecutorStatsInfo(Executor executor) {
 		executor = executor instanceof ThreadPoolTaskExecutor ?
 				((ThreadPoolTaskExecutor) executor).getThreadPoolExecutor() : executor;
-		String str = executor.toString();
-		return str.substring(str.indexOf("pool"), str.length() - 1);
+		if (executor instanceof ThreadPoolExecutor) {
+			String str = executor.toString();
+			int index = str.indexOf("pool");
+			return (index != -1 ? str.substring(index, str.length() - 1) : "unknown");
+		}
+		if (executor instanceof SessionAffinityTaskExecutor) {
+			SessionAffinityTaskExecutor affinityExecutor = (SessionAffinityTaskExecutor) executor;
+			return "pool size = " + affinityExecutor.getPoolSize() +
+					", active threads = " + affinityExecutor.getActiveCount() +
+					", queued tasks = " + affinityExecutor.getQueueSize() +
+					", completed tasks = " + affinityExecutor.getCompletedTaskCount() +
+					", stripe queues = " + Arrays.toString(affinityExecutor.getQueueSizes());
+		}
+		return "unknown";
 	}
 
 	@Override
@@ -17,18 +17,31 @@
 package org.springframework.web.socket.handler;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
 import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.WebSocketMessage;
 import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.adapter.AbstractWebSocketSession;
 
 /**
  * Wrap a {@link org.springframework.web.socket.WebSocketSession WebSocketSession}
@@ -39,6 +52,12 @@ import org.springframework.web.socket.WebSocketSession;
  * At that time, the specified buffer-size limit and send-time limit will be checked
  * and the session will be closed if the limits are exceeded.
  *
+ * <p>Optionally, messages buffered while a send was in progress can be
+ * {@link #setBatchSend sent as a batch} in fewer writes to the underlying
+ * transport, and, instead of closing the session, buffered messages can be
+ * dropped or {@link OverflowStrategy#CONFLATE conflated} when the buffer-size
+ * limit is exceeded.
+ *
  * @author Rossen Stoyanchev
  * @author Juergen Hoeller
  * @since 4.0.3
@@ -54,12 +73,23 @@ public class ConcurrentWebSocketSessionDecorator extends WebSocketSessionDecorat
 
 	private final OverflowStrategy overflowStrategy;
 
-	private final Queue<WebSocketMessage<?>> buffer = new LinkedBlockingQueue<>();
+	private final Queue<BufferedMessage> buffer = new LinkedBlockingQueue<>();
 
 	private final AtomicInteger bufferSize = new AtomicInteger();
 
+	private final AtomicInteger bufferedMessageCount = new AtomicInteger();
+
+	@Nullable
+	private final Function<WebSocketMessage<?>, Object> conflationKeyResolver;
+
+	private boolean batchSend;
+
 	private volatile long sendStartTime;
 
+	private volatile long lastSendLatency;
+
+	private volatile long maxSendLatency;
+
 	private volatile boolean limitExceeded;
 
 	private volatile boolean closeInProgress;
@@ -91,12 +121,72 @@ public class ConcurrentWebSocketSessionDecorator extends WebSocketSessionDecorat
 	public ConcurrentWebSocketSessionDecorator(
 			WebSocketSession delegate, int sendTimeLimit, int bufferSizeLimit, OverflowStrategy overflowStrategy) {
 
+		this(delegate, sendTimeLimit, bufferSizeLimit, overflowStrategy, null);
+	}
+
+	/**
+	 * Constructor for the {@link OverflowStrategy#CONFLATE CONFLATE} overflow
+	 * strategy, with a function that determines the conflation key of a message.
+	 * A buffered message is discarded on overflow if a more recent message with
+	 * the same key is buffered. Messages for which the function returns
+	 * {@code null} are never conflated.
+	 * @param delegate the {@code WebSocketSession} to delegate to
+	 * @param sendTimeLimit the send-time limit (milliseconds)
+	 * @param bufferSizeLimit the buffer-size limit (number of bytes)
+	 * @param conflationKeyResolver the function to use
+	 * @since 5.2.1
+	 */
+	public ConcurrentWebSocketSessionDecorator(WebSocketSession delegate, int sendTimeLimit,
+			int bufferSizeLimit, Function<WebSocketMessage<?>, Object> conflationKeyResolver) {
+
+		this(delegate, sendTimeLimit, bufferSizeLimit, OverflowStrategy.CONFLATE, conflationKeyResolver);
+	}
+
+	private ConcurrentWebSocketSessionDecorator(WebSocketSession delegate, int sendTimeLimit, int bufferSizeLimit,
+			OverflowStrategy overflowStrategy, @Nullable Function<WebSocketMessage<?>, Object> conflationKeyResolver) {
+
 		super(delegate);
+		if (overflowStrategy == OverflowStrategy.CONFLATE) {
+			Assert.notNull(conflationKeyResolver, "A conflationKeyResolver is required for OverflowStrategy.CONFLATE");
+		}
 		this.sendTimeLimit = sendTimeLimit;
 		this.bufferSizeLimit = bufferSizeLimit;
 		this.overflowStrategy = overflowStrategy;
+		this.conflationKeyResolver = conflationKeyResolver;
+	}
+
+
+	/**
+	 * Whether to send the messages that were buffered while another send was
+	 * in progress together, with as few writes to the underlying transport as
+	 * the WebSocket runtime allows, e.g. through JSR-356 batching or Jetty's
+	 * batch mode. This applies if the delegate session is an
+	 * {@link AbstractWebSocketSession}; other sessions send one message at
+	 * a time.
+	 * <p>By default this is set to {@code false}.
+	 * @since 5.2.1
+	 * @see AbstractWebSocketSession#sendMessages
+	 */
+	public void setBatchSend(boolean batchSend) {
+		this.batchSend = batchSend;
+	}
+
+	/**
+	 * Whether buffered messages are {@link #setBatchSend sent as a batch}.
+	 * @since 5.2.1
+	 */
+	public boolean isBatchSend() {
+		return this.batchSend;
 	}
 
+	/**
+	 * Return the configured conflation key resolver, if any.
+	 * @since 5.2.1
+	 */
+	@Nullable
+	public Function<WebSocketMessage<?>, Object> getConflationKeyResolver() {
+		return this.conflationKeyResolver;
+	}
 
 	/**
 	 * Return the configured send-time limit (milliseconds).
@@ -121,6 +211,14 @@ public class ConcurrentWebSocketSessionDecorator extends WebSocketSessionDecorat
 		return this.bufferSize.get();
 	}
 
+	/**
+	 * Return the number of buffered messages.
+	 * @since 5.2.1
+	 */
+	public int getBufferedMessageCount() {
+		return this.bufferedMessageCount.get();
+	}
+
 	/**
 	 * Return the time (milliseconds) since the current send started,
 	 * or 0 if no send is currently in progress.
@@ -130,6 +228,25 @@ public class ConcurrentWebSocketSessionDecorator extends WebSocketSessionDecorat
 		return (start > 0 ? (System.currentTimeMillis() - start) : 0);
 	}
 
+	/**
+	 * Return the time (milliseconds) from the call to {@link #sendMessage}
+	 * until the completed send of the most recently sent message.
+	 * @since 5.2.1
+	 */
+	public long getLastSendLatency() {
+		return this.lastSendLatency;
+	}
+
+	/**
+	 * Return the maximum time (milliseconds) from the call to
+	 * {@link #sendMessage} until the completed send, of all messages
+	 * sent so far.
+	 * @since 5.2.1
+	 */
+	public long getMaxSendLatency() {
+		return this.maxSendLatency;
+	}
+
 
 	@Override
 	public void sendMessage(WebSocketMessage<?> message) throws IOException {
@@ -137,15 +254,20 @@ public class ConcurrentWebSocketSessionDecorator extends WebSocketSessionDecorat
 			return;
 		}
 
-		this.buffer.add(message);
+		Object key = null;
+		if (this.overflowStrategy == OverflowStrategy.CONFLATE && this.conflationKeyResolver != null) {
+			key = this.conflationKeyResolver.apply(message);
+		}
+		this.buffer.add(new BufferedMessage(message, key));
 		this.bufferSize.addAndGet(message.getPayloadLength());
+		this.bufferedMessageCount.incrementAndGet();
 
 		do {
 			if (!tryFlushMessageBuffer()) {
 				if (logger.isTraceEnabled()) {
 					logger.trace(String.format("Another send already in progress: " +
-							"session id '%s':, \"in-progress\" send time %d (ms), buffer size %d bytes",
-							getId(), getTimeSinceSendStarted(), getBufferSize()));
+							"session id '%s':, \"in-progress\" send time %d (ms), buffer size %d bytes, %d messages",
+							getId(), getTimeSinceSendStarted(), getBufferSize(), getBufferedMessageCount()));
 				}
 				checkSessionLimits();
 				break;
@@ -162,14 +284,19 @@ public class ConcurrentWebSocketSessionDecorator extends WebSocketSessionDecorat
 		if (this.flushLock.tryLock()) {
 			try {
 				while (true) {
-					WebSocketMessage<?> message = this.buffer.poll();
+					BufferedMessage message = pollMessage();
 					if (message == null || shouldNotSend()) {
 						break;
 					}
-					this.bufferSize.addAndGet(-message.getPayloadLength());
-					this.sendStartTime = System.currentTimeMillis();
-					getDelegate().sendMessage(message);
-					this.sendStartTime = 0;
+					if (this.batchSend && getDelegate() instanceof AbstractWebSocketSession && !this.buffer.isEmpty()) {
+						sendBatch(message);
+					}
+					else {
+						this.sendStartTime = System.currentTimeMillis();
+						getDelegate().sendMessage(message.getMessage());
+						this.sendStartTime = 0;
+						updateSendLatency(message);
+					}
 				}
 			}
 			finally {
@@ -181,6 +308,53 @@ public class ConcurrentWebSocketSessionDecorator extends WebSocketSessionDecorat
 		return false;
 	}
 
+	private void sendBatch(BufferedMessage first) throws IOException {
+		List<BufferedMessage> batch = new ArrayList<>();
+		List<WebSocketMessage<?>> messages = new ArrayList<>();
+		for (BufferedMessage message = first; message != null; message = pollMessage()) {
+			batch.add(message);
+			messages.add(message.getMessage());
+		}
+		this.sendStartTime = System.currentTimeMillis();
+		((AbstractWebSocketSession<?>) getDelegate()).sendMessages(messages);
+		this.sendStartTime = 0;
+		batch.forEach(this::updateSendLatency);
+	}
+
+	/**
+	 * Remove the next message from the buffer, skipping messages that
+	 * have been removed on overflow.
+	 */
+	@Nullable
+	private BufferedMessage pollMessage() {
+		while (true) {
+			BufferedMessage message = this.buffer.poll();
+			if (message == null) {
+				return null;
+			}
+			if (release(message)) {
+				return message;
+			}
+		}
+	}
+
+	private boolean release(BufferedMessage message) {
+		if (message.claim()) {
+			this.bufferSize.addAndGet(-message.getMessage().getPayloadLength());
+			this.bufferedMessageCount.decrementAndGet();
+			return true;
+		}
+		return false;
+	}
+
+	private void updateSendLatency(BufferedMessage message) {
+		long latency = System.currentTimeMillis() - message.getBufferTime();
+		this.lastSendLatency = latency;
+		if (latency > this.maxSendLatency) {
+			this.maxSendLatency = latency;
+		}
+	}
+
 	private void checkSessionLimits() {
 		if (!shouldNotSend() && this.closeLock.tryLock()) {
 			try {
@@ -192,24 +366,30 @@ public class ConcurrentWebSocketSessionDecorator extends WebSocketSessionDecorat
 				else if (getBufferSize() > getBufferSizeLimit()) {
 					switch (this.overflowStrategy) {
 						case TERMINATE:
-							String format = "Buffer size %d bytes for session '%s' exceeds the allowed limit %d";
-							String reason = String.format(format, getBufferSize(), getId(), getBufferSizeLimit());
-							limitExceeded(reason);
+							bufferSizeLimitExceeded();
 							break;
 						case DROP:
 							int i = 0;
 							while (getBufferSize() > getBufferSizeLimit()) {
-								WebSocketMessage<?> message = this.buffer.poll();
+								BufferedMessage message = pollMessage();
 								if (message == null) {
 									break;
 								}
-								this.bufferSize.addAndGet(-message.getPayloadLength());
 								i++;
 							}
 							if (logger.isDebugEnabled()) {
 								logger.debug("Dropped " + i + " messages, buffer size: " + getBufferSize());
 							}
 							break;
+						case CONFLATE:
+							int count = conflate();
+							if (logger.isDebugEnabled()) {
+								logger.debug("Conflated " + count + " messages, buffer size: " + getBufferSize());
+							}
+							if (getBufferSize() > getBufferSizeLimit()) {
+								bufferSizeLimitExceeded();
+							}
+							break;
 						default:
 							// Should never happen..
 							throw new IllegalStateException("Unexpected OverflowStrategy: " + this.overflowStrategy);
@@ -222,6 +402,39 @@ public class ConcurrentWebSocketSessionDecorator extends WebSocketSessionDecorat
 		}
 	}
 
+	/**
+	 * Remove buffered messages superseded by a more recent buffered message
+	 * with the same conflation key.
+	 * @return the number of messages removed
+	 */
+	private int conflate() {
+		Map<Object, BufferedMessage> latest = new HashMap<>();
+		Set<BufferedMessage> superseded = Collections.newSetFromMap(new IdentityHashMap<>());
+		for (BufferedMessage message : this.buffer) {
+			if (message.getKey() != null) {
+				BufferedMessage previous = latest.put(message.getKey(), message);
+				if (previous != null) {
+					superseded.add(previous);
+				}
+			}
+		}
+		int count = 0;
+		for (Iterator<BufferedMessage> it = this.buffer.iterator(); it.hasNext() && !superseded.isEmpty();) {
+			BufferedMessage message = it.next();
+			if (superseded.remove(message) && release(message)) {
+				it.remove();
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private void bufferSizeLimitExceeded() {
+		String format = "Buffer size %d bytes for session '%s' exceeds the allowed limit %d";
+		String reason = String.format(format, getBufferSize(), getId(), getBufferSizeLimit());
+		limitExceeded(reason);
+	}
+
 	private void limitExceeded(String reason) {
 		this.limitExceeded = true;
 		throw new SessionLimitExceededException(reason, CloseStatus.SESSION_NOT_RELIABLE);
@@ -278,7 +491,57 @@ public class ConcurrentWebSocketSessionDecorator extends WebSocketSessionDecorat
 		/**
 		 * Drop the oldest messages from the buffer.
 		 */
-		DROP
+		DROP,
+
+		/**
+		 * Drop buffered messages for which a more recent message with the same
+		 * key is buffered, e.g. updates to the same value of which only the
+		 * latest matters, and terminate the session if the buffer-size limit is
+		 * still exceeded. Requires a conflation key resolver, passed to the
+		 * corresponding {@link ConcurrentWebSocketSessionDecorator constructor}.
+		 * @since 5.2.1
+		 */
+		CONFLATE
+	}
+
+
+	/**
+	 * A buffered message along with its conflation key, if any, and the time
+	 * it was buffered. A message is claimed once, either to be sent or to be
+	 * removed from the buffer on overflow.
+	 */
+	private static class BufferedMessage {
+
+		private final WebSocketMessage<?> message;
+
+		@Nullable
+		private final Object key;
+
+		private final long bufferTime = System.currentTimeMillis();
+
+		private final AtomicBoolean claimed = new AtomicBoolean();
+
+		BufferedMessage(WebSocketMessage<?> message, @Nullable Object key) {
+			this.message = message;
+			this.key = key;
+		}
+
+		public WebSocketMessage<?> getMessage() {
+			return this.message;
+		}
+
+		@Nullable
+		public Object getKey() {
+			return this.key;
+		}
+
+		public long getBufferTime() {
+			return this.bufferTime;
+		}
+
+		public boolean claim() {
+			return this.claimed.compareAndSet(false, true);
+		}
 	}
 
 }
@@ -39,6 +39,7 @@ import org.springframework.messaging.simp.SimpAttributes;
 import org.springframework.messaging.simp.SimpAttributesContextHolder;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.broker.BroadcastContext;
 import org.springframework.messaging.simp.stomp.BufferingStompDecoder;
 import org.springframework.messaging.simp.stomp.StompCommand;
 import org.springframework.messaging.simp.stomp.StompDecoder;
@@ -463,7 +464,7 @@ public class StompSubProtocolHandler implements SubProtocolHandler, ApplicationE
 	private void sendToClient(WebSocketSession session, StompHeaderAccessor stompAccessor, byte[] payload) {
 		StompCommand command = stompAccessor.getCommand();
 		try {
-			byte[] bytes = this.stompEncoder.encode(stompAccessor.getMessageHeaders(), payload);
+			byte[] bytes = encode(stompAccessor, payload);
 			boolean useBinary = (payload.length > 0 && !(session instanceof SockJsSession) &&
 					MimeTypeUtils.APPLICATION_OCTET_STREAM.isCompatibleWith(stompAccessor.getContentType()));
 			if (useBinary) {
@@ -496,6 +497,24 @@ public class StompSubProtocolHandler implements SubProtocolHandler, ApplicationE
 		}
 	}
 
+	/**
+	 * Encode a STOMP frame, reusing the encoding of the part which is common
+	 * to all subscribers, for a message broadcast by the broker.
+	 */
+	private byte[] encode(StompHeaderAccessor stompAccessor, byte[] payload) {
+		Map<String, Object> headers = stompAccessor.getMessageHeaders();
+		Object context = headers.get(SimpMessageHeaderAccessor.BROADCAST_CONTEXT_HEADER);
+		if (context instanceof BroadcastContext && StompCommand.MESSAGE.equals(stompAccessor.getCommand())) {
+			StompEncoder.BroadcastFrame frame = ((BroadcastContext) context).computeAttributeIfAbsent(
+					this.stompEncoder, key -> this.stompEncoder.encodeBroadcastFrame(headers, payload));
+			byte[] bytes = frame.encode(headers, payload);
+			if (bytes != null) {
+				return bytes;
+			}
+		}
+		return this.stompEncoder.encode(headers, payload);
+	}
+
 	private StompHeaderAccessor getStompHeaderAccessor(Message<?> message) {
 		MessageHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, MessageHeaderAccessor.class);
 		if (accessor instanceof StompHeaderAccessor) {
@@ -16,19 +16,25 @@
 
 package org.springframework.web.socket.adapter.jetty;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.eclipse.jetty.websocket.api.BatchMode;
+import org.eclipse.jetty.websocket.api.RemoteEndpoint;
 import org.eclipse.jetty.websocket.api.Session;
 import org.eclipse.jetty.websocket.api.UpgradeRequest;
 import org.eclipse.jetty.websocket.api.UpgradeResponse;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.Mockito;
 
+import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.handler.TestPrincipal;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 
@@ -121,4 +127,29 @@ public class JettyWebSocketSessionTests {
 		verifyNoMoreInteractions(nativeSession);
 	}
 
+	@Test
+	@SuppressWarnings("resource")
+	public void sendMessagesInBatchMode() throws Exception {
+		UpgradeRequest request = Mockito.mock(UpgradeRequest.class);
+		UpgradeResponse response = Mockito.mock(UpgradeResponse.class);
+		RemoteEndpoint remote = Mockito.mock(RemoteEndpoint.class);
+		given(remote.getBatchMode()).willReturn(BatchMode.AUTO);
+
+		Session nativeSession = Mockito.mock(Session.class);
+		given(nativeSession.getUpgradeRequest()).willReturn(request);
+		given(nativeSession.getUpgradeResponse()).willReturn(response);
+		given(nativeSession.getRemote()).willReturn(remote);
+
+		JettyWebSocketSession session = new JettyWebSocketSession(attributes);
+		session.initializeNativeSession(nativeSession);
+		session.sendMessages(Arrays.asList(new TextMessage("foo"), new TextMessage("bar")));
+
+		InOrder inOrder = inOrder(remote);
+		inOrder.verify(remote).setBatchMode(BatchMode.ON);
+		inOrder.verify(remote).sendString("foo");
+		inOrder.verify(remote).sendString("bar");
+		inOrder.verify(remote).setBatchMode(BatchMode.AUTO);
+		inOrder.verify(remote).flush();
+	}
+
 }
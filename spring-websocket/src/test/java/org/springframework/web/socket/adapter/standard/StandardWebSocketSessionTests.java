@@ -16,19 +16,24 @@
 
 package org.springframework.web.socket.adapter.standard;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
+import javax.websocket.RemoteEndpoint;
 import javax.websocket.Session;
 
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.Mockito;
 
 import org.springframework.http.HttpHeaders;
+import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.handler.TestPrincipal;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 
@@ -99,4 +104,22 @@ public class StandardWebSocketSessionTests {
 		verifyNoMoreInteractions(nativeSession);
 	}
 
+	@Test
+	@SuppressWarnings("resource")
+	public void sendMessagesWithBatching() throws Exception {
+		RemoteEndpoint.Basic remote = Mockito.mock(RemoteEndpoint.Basic.class);
+		Session nativeSession = Mockito.mock(Session.class);
+		given(nativeSession.getBasicRemote()).willReturn(remote);
+
+		StandardWebSocketSession session = new StandardWebSocketSession(this.headers, this.attributes, null, null);
+		session.initializeNativeSession(nativeSession);
+		session.sendMessages(Arrays.asList(new TextMessage("foo"), new TextMessage("bar")));
+
+		InOrder inOrder = inOrder(remote);
+		inOrder.verify(remote).setBatchingAllowed(true);
+		inOrder.verify(remote).sendText("foo", true);
+		inOrder.verify(remote).sendText("bar", true);
+		inOrder.verify(remote).setBatchingAllowed(false);
+	}
+
 }
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.socket.config;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.messaging.simp.SessionAffinityTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link WebSocketMessageBrokerStats}.
+ *
+ * @author Spring Framework Team
+ */
+class WebSocketMessageBrokerStatsTests {
+
+	private final WebSocketMessageBrokerStats stats = new WebSocketMessageBrokerStats();
+
+
+	@Test
+	void executorStatsInfoWithThreadPoolTaskExecutor() {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.initialize();
+		try {
+			this.stats.setInboundChannelExecutor(executor);
+			assertThat(this.stats.getClientInboundExecutorStatsInfo()).startsWith("pool size = 0");
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	void executorStatsInfoWithSessionAffinityTaskExecutor() {
+		SessionAffinityTaskExecutor executor = new SessionAffinityTaskExecutor();
+		executor.setStripeCount(2);
+		executor.initialize();
+		try {
+			this.stats.setOutboundChannelExecutor(executor);
+			assertThat(this.stats.getClientOutboundExecutorStatsInfo()).isEqualTo("pool size = 0, " +
+					"active threads = 0, queued tasks = 0, completed tasks = 0, stripe queues = [0, 0]");
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	void executorStatsInfoWithUnknownExecutor() {
+		this.stats.setInboundChannelExecutor(new SimpleAsyncTaskExecutor());
+		assertThat(this.stats.getClientInboundExecutorStatsInfo()).isEqualTo("unknown");
+		assertThat(this.stats.getClientOutboundExecutorStatsInfo()).isEqualTo("null");
+	}
+
+}
@@ -17,21 +17,35 @@
 package org.springframework.web.socket.handler;
 
 import java.io.IOException;
+import java.util.HashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
+import javax.websocket.RemoteEndpoint;
+import javax.websocket.Session;
+
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketMessage;
 import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.adapter.standard.StandardWebSocketSession;
 import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator.OverflowStrategy;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
 
 /**
  * Unit tests for {@link ConcurrentWebSocketSessionDecorator}.
@@ -154,6 +168,88 @@ public class ConcurrentWebSocketSessionDecoratorTests {
 		assertThat(session.isOpen()).isTrue();
 	}
 
+	@Test
+	public void overflowStrategyConflate() throws IOException, InterruptedException {
+
+		BlockingSession session = new BlockingSession();
+		session.setId("123");
+		session.setOpen(true);
+
+		ConcurrentWebSocketSessionDecorator decorator = new ConcurrentWebSocketSessionDecorator(
+				session, 10*1000, 1024, message -> ((String) message.getPayload()).substring(0, 1));
+
+		sendBlockingMessage(decorator);
+
+		decorator.sendMessage(new TextMessage(String.format("a%399s", "1")));
+		decorator.sendMessage(new TextMessage(String.format("b%399s", "1")));
+		decorator.sendMessage(new TextMessage(String.format("a%399s", "2")));
+
+		assertThat(decorator.getBufferSize()).isEqualTo(800);
+		assertThat(decorator.getBufferedMessageCount()).isEqualTo(2);
+		assertThat(session.isOpen()).isTrue();
+
+		TextMessage message = new TextMessage(String.format("c%399s", "1"));
+		assertThatExceptionOfType(SessionLimitExceededException.class).isThrownBy(() ->
+				decorator.sendMessage(message))
+			.withMessageMatching("Buffer size [\\d]+ bytes for session '123' exceeds the allowed limit 1024")
+			.satisfies(ex -> assertThat(ex.getStatus()).isEqualTo(CloseStatus.SESSION_NOT_RELIABLE));
+	}
+
+	@Test
+	public void overflowStrategyConflateWithoutKeyResolver() {
+		BlockingSession session = new BlockingSession();
+		assertThatIllegalArgumentException().isThrownBy(() ->
+				new ConcurrentWebSocketSessionDecorator(session, 10*1000, 1024, OverflowStrategy.CONFLATE))
+			.withMessageContaining("conflationKeyResolver");
+	}
+
+	@Test
+	public void batchSend() throws Exception {
+
+		CountDownLatch sendStarted = new CountDownLatch(1);
+		CountDownLatch releaseSend = new CountDownLatch(1);
+		RemoteEndpoint.Basic remote = Mockito.mock(RemoteEndpoint.Basic.class);
+		willAnswer(invocation -> {
+			sendStarted.countDown();
+			return releaseSend.await(5, TimeUnit.SECONDS);
+		}).given(remote).sendText("slow message", true);
+
+		Session nativeSession = Mockito.mock(Session.class);
+		given(nativeSession.getBasicRemote()).willReturn(remote);
+		given(nativeSession.isOpen()).willReturn(true);
+		StandardWebSocketSession session = new StandardWebSocketSession(new HttpHeaders(), new HashMap<>(), null, null);
+		session.initializeNativeSession(nativeSession);
+
+		ConcurrentWebSocketSessionDecorator decorator =
+				new ConcurrentWebSocketSessionDecorator(session, 10 * 1000, 1024);
+		decorator.setBatchSend(true);
+
+		Executors.newSingleThreadExecutor().submit(() -> {
+			decorator.sendMessage(new TextMessage("slow message"));
+			return null;
+		});
+		assertThat(sendStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+		decorator.sendMessage(new TextMessage("foo"));
+		decorator.sendMessage(new TextMessage("bar"));
+		assertThat(decorator.getBufferedMessageCount()).isEqualTo(2);
+
+		Thread.sleep(50);
+		releaseSend.countDown();
+		verify(remote, timeout(5000)).setBatchingAllowed(false);
+
+		InOrder inOrder = inOrder(remote);
+		inOrder.verify(remote).sendText("slow message", true);
+		inOrder.verify(remote).setBatchingAllowed(true);
+		inOrder.verify(remote).sendText("foo", true);
+		inOrder.verify(remote).sendText("bar", true);
+		inOrder.verify(remote).setBatchingAllowed(false);
+
+		assertThat(decorator.getBufferedMessageCount()).isEqualTo(0);
+		assertThat(decorator.getBufferSize()).isEqualTo(0);
+		assertThat(decorator.getMaxSendLatency()).isGreaterThanOrEqualTo(50);
+	}
+
 	@Test
 	public void closeStatusNormal() throws Exception {
 
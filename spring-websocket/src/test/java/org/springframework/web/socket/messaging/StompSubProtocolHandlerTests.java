@@ -42,6 +42,7 @@ import org.springframework.messaging.simp.SimpAttributesContextHolder;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessageType;
 import org.springframework.messaging.simp.TestPrincipal;
+import org.springframework.messaging.simp.broker.BroadcastContext;
 import org.springframework.messaging.simp.stomp.StompCommand;
 import org.springframework.messaging.simp.stomp.StompEncoder;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
@@ -213,6 +214,27 @@ public class StompSubProtocolHandlerTests {
 		assertThat(actual.getPayload()).isEqualTo("\n");
 	}
 
+	@Test
+	public void handleMessageToClientWithBroadcastContext() {
+		StompEncoder encoder = new StompEncoder();
+		this.protocolHandler.setEncoder(encoder);
+		BroadcastContext context = new BroadcastContext();
+		byte[] payload = "payload".getBytes();
+		TestWebSocketSession session2 = new TestWebSocketSession("s2");
+
+		this.protocolHandler.handleMessageToClient(this.session, createBroadcastMessage("s1", "sub1", context, payload));
+		this.protocolHandler.handleMessageToClient(session2, createBroadcastMessage("s2", "sub2", context, payload));
+
+		Object frame = context.computeAttributeIfAbsent(encoder, key -> null);
+		assertThat(frame).isInstanceOf(StompEncoder.BroadcastFrame.class);
+		assertThat((String) this.session.getSentMessages().get(0).getPayload())
+				.startsWith("MESSAGE\ndestination:/topic/foo\ncontent-length:7\nsubscription:sub1\nmessage-id:s1-")
+				.endsWith("\n\npayload\u0000");
+		assertThat((String) session2.getSentMessages().get(0).getPayload())
+				.startsWith("MESSAGE\ndestination:/topic/foo\ncontent-length:7\nsubscription:sub2\nmessage-id:s2-")
+				.endsWith("\n\npayload\u0000");
+	}
+
 	@Test
 	public void handleMessageToClientWithHeartbeatSuppressingSockJsHeartbeat() throws IOException {
 
@@ -519,6 +541,18 @@ public class StompSubProtocolHandlerTests {
 	}
 
 
+	private static Message<byte[]> createBroadcastMessage(String sessionId, String subscriptionId,
+			BroadcastContext context, byte[] payload) {
+
+		SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+		accessor.setSessionId(sessionId);
+		accessor.setSubscriptionId(subscriptionId);
+		accessor.setDestination("/topic/foo");
+		accessor.setHeader(SimpMessageHeaderAccessor.BROADCAST_CONTEXT_HEADER, context);
+		return MessageBuilder.createMessage(payload, accessor.getMessageHeaders());
+	}
+
+
 	private static class UniqueUser extends TestPrincipal implements DestinationUserNameProvider {
 
 		private UniqueUser(String name) {